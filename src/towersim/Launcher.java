@@ -3,11 +3,19 @@ package towersim;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.stage.Stage;
+import towersim.control.TerminalFileWatcher;
+import towersim.display.LoadingView;
 import towersim.display.View;
 import towersim.display.ViewModel;
+import towersim.history.HistoryRecorder;
+import towersim.history.HistoryStore;
+import towersim.status.SnapshotPublisher;
+import towersim.status.StatusServer;
 import towersim.util.MalformedSaveException;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
 import java.util.List;
 
 /**
@@ -16,6 +24,36 @@ import java.util.List;
  */
 public class Launcher extends Application {
 
+    /**
+     * System property giving the port of the optional HTTP status server. The server is only
+     * started if this property is set.
+     */
+    public static final String STATUS_PORT_PROPERTY = "towersim.status.port";
+
+    /**
+     * System property giving the file the optional tick history is recorded to. History is only
+     * recorded if this property is set.
+     */
+    public static final String HISTORY_FILE_PROPERTY = "towersim.history.file";
+
+    /**
+     * System property which, if {@code true}, makes changes to the terminals file take effect
+     * while the simulation runs, without reloading it.
+     */
+    public static final String WATCH_TERMINALS_PROPERTY = "towersim.terminals.watch";
+
+    /** HTTP status server, or null if not enabled */
+    private StatusServer statusServer;
+
+    /** Store of the tick history, or null if not enabled */
+    private HistoryStore historyStore;
+
+    /** Recorder of the tick history, or null if not enabled */
+    private HistoryRecorder historyRecorder;
+
+    /** Watcher of the terminals file, or null if not enabled */
+    private TerminalFileWatcher terminalsWatcher;
+
     /**
      * <b>Note</b>: you do not need to write this constructor, it is generated automatically and
      * cannot be removed from the Javadoc.
@@ -37,6 +75,18 @@ public class Launcher extends Application {
      * <li>{@code terminalsWithGates_file} is the path to the file containing the terminals and
      * their gates</li>
      * </ul>
+     * <p>
+     * If the {@value #STATUS_PORT_PROPERTY} system property is set, a read-only HTTP status
+     * server is also started on that port. See {@link StatusServer}.
+     * <p>
+     * If the {@value #HISTORY_FILE_PROPERTY} system property is set, the state of every aircraft
+     * at the end of every tick is recorded to that file, continuing any history already in it.
+     * Loading fails if the file already holds history from after the tick the simulation was
+     * loaded at. See {@link HistoryStore}.
+     * <p>
+     * If the {@value #WATCH_TERMINALS_PROPERTY} system property is {@code true}, changes to
+     * {@code terminalsWithGates_file} are applied to the running simulation, and any change that
+     * cannot be applied is shown in an error dialog. See {@link TerminalFileWatcher}.
      *
      * @param args command line arguments
      * @given
@@ -60,23 +110,137 @@ public class Launcher extends Application {
 
     /**
      * {@inheritDoc}
+     * <p>
+     * The window is shown straight away with the progress of loading the save files, which are
+     * loaded on a background thread. The simulation is shown and unpaused once they have all
+     * been loaded.
      * @given
      */
     @Override
     public void start(Stage stage) {
         List<String> params = getParameters().getRaw();
 
-        View view;
+        LoadingView loadingView = new LoadingView(stage);
+        loadingView.show();
+
+        Thread loader = new Thread(() -> {
+            ViewModel viewModel;
+            try {
+                viewModel = new ViewModel(params, loadingView);
+            } catch (MalformedSaveException | IOException e) {
+                Platform.runLater(() -> exitWithLoadError(e));
+                return;
+            }
+            Platform.runLater(() -> showSimulation(stage, viewModel));
+        }, "snapshot-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Stops the HTTP status server and the watcher of the terminals file, and finishes writing
+     * the tick history, if any of them were started.
+     */
+    @Override
+    public void stop() {
+        if (statusServer != null) {
+            statusServer.stop(0);
+        }
+        if (terminalsWatcher != null) {
+            try {
+                terminalsWatcher.close();
+            } catch (IOException e) {
+                System.err.println("Error watching terminals file: " + e.getMessage());
+            }
+        }
+        if (historyStore != null) {
+            try {
+                historyRecorder.close();
+            } catch (IOException e) {
+                System.err.println("Error recording tick history: " + e.getMessage());
+            } finally {
+                try {
+                    historyStore.close();
+                } catch (IOException e) {
+                    System.err.println("Error closing tick history: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /* Replaces the loading view with the simulation and starts running it */
+    private void showSimulation(Stage stage, ViewModel viewModel) {
+        View view = new View(stage, viewModel);
         try {
-            view = new View(stage, new ViewModel(params));
-        } catch (MalformedSaveException | IOException e) {
-            System.err.println("Error loading from file. Stack trace below:");
-            e.printStackTrace();
-            Platform.exit();
-            System.exit(1);
+            startStatusServer(viewModel);
+            startHistoryRecorder(viewModel);
+            startTerminalsWatcher(viewModel);
+        } catch (IOException e) {
+            exitWithLoadError(e);
             return;
         }
-
+        stage.sizeToScene();
         view.run();
+        viewModel.togglePaused();
+    }
+
+    /* Reports an error loading the simulation and exits */
+    private static void exitWithLoadError(Exception e) {
+        System.err.println("Error loading from file. Stack trace below:");
+        e.printStackTrace();
+        Platform.exit();
+        System.exit(1);
+    }
+
+    /* Starts the status server if its port has been configured */
+    private void startStatusServer(ViewModel viewModel) throws IOException {
+        String port = System.getProperty(STATUS_PORT_PROPERTY);
+        if (port == null) {
+            return;
+        }
+        try {
+            SnapshotPublisher publisher = SnapshotPublisher.start(viewModel.getControlTower());
+            statusServer = new StatusServer(new InetSocketAddress(Integer.parseInt(port)),
+                    publisher);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid status server port: " + port, e);
+        }
+        statusServer.start();
+        System.out.println("Status server listening on " + statusServer.getAddress());
+    }
+
+    /* Starts recording the tick history if its file has been configured */
+    private void startHistoryRecorder(ViewModel viewModel) throws IOException {
+        String file = System.getProperty(HISTORY_FILE_PROPERTY);
+        if (file == null) {
+            return;
+        }
+        HistoryStore store = new HistoryStore(Path.of(file));
+        try {
+            historyRecorder = HistoryRecorder.start(viewModel.getControlTower(), store);
+        } catch (IllegalArgumentException e) {
+            store.close();
+            throw new IOException("Cannot record tick history to " + file + ": "
+                    + e.getMessage(), e);
+        }
+        historyStore = store;
+        System.out.println("Recording tick history to " + file);
+    }
+
+    /* Starts applying changes to the terminals file if watching it has been enabled */
+    private void startTerminalsWatcher(ViewModel viewModel) throws IOException {
+        if (!Boolean.getBoolean(WATCH_TERMINALS_PROPERTY)) {
+            return;
+        }
+        String file = getParameters().getRaw().get(3);
+        terminalsWatcher = new TerminalFileWatcher(Path.of(file), viewModel.getControlTower(),
+                result -> {
+                    viewModel.getNumTerminals()
+                            .set(viewModel.getControlTower().getTerminals().size());
+                    System.out.println("Applied " + file + ": " + result);
+                },
+                error -> Platform.runLater(() -> viewModel.createErrorDialog(
+                        "Error applying terminals file", error.getMessage())));
+        System.out.println("Watching " + file + " for changes to terminals");
     }
 }
@@ -3,11 +3,10 @@ package towersim.aircraft;
 import towersim.tasks.TaskList;
 import towersim.tasks.TaskType;
 import towersim.util.EmergencyState;
+import towersim.util.MutationListener;
 import towersim.util.OccupancyLevel;
 import towersim.util.Tickable;
 
-import java.util.Objects;
-
 /**
  * Represents an aircraft whose movement is managed by the system.
  * @ass1
@@ -26,6 +25,9 @@ public abstract class Aircraft implements OccupancyLevel, Tickable, EmergencySta
     /** Characteristics of this aircraft including weight, fuel capacity, etc. */
     private AircraftCharacteristics characteristics;
 
+    /** Callsign and characteristics packed into a single number; see AircraftIdentity */
+    private final long identity;
+
     /** List of tasks representing the aircraft's desired operations */
     private TaskList tasks;
 
@@ -35,6 +37,9 @@ public abstract class Aircraft implements OccupancyLevel, Tickable, EmergencySta
     /** Whether the aircraft is currently in a state of emergency */
     private boolean emergency;
 
+    /** Listener notified whenever this aircraft or its task list changes; or null if none */
+    private MutationListener mutationListener;
+
     /**
      * Creates a new aircraft with the given callsign, task list, fuel capacity and amount.
      * <p>
@@ -61,11 +66,52 @@ public abstract class Aircraft implements OccupancyLevel, Tickable, EmergencySta
         }
         this.callsign = callsign;
         this.characteristics = characteristics;
+        this.identity = AircraftIdentity.of(callsign, characteristics);
         this.tasks = tasks;
         this.fuelAmount = fuelAmount;
         this.emergency = false;
     }
 
+    /**
+     * Creates a new aircraft in the same state as the given aircraft.
+     * <p>
+     * The new aircraft shares the immutable callsign and characteristics of the given aircraft
+     * and has its own copy of the task list.
+     *
+     * @param other aircraft to copy
+     */
+    protected Aircraft(Aircraft other) {
+        this.callsign = other.callsign;
+        this.characteristics = other.characteristics;
+        this.identity = other.identity;
+        this.tasks = other.tasks.copy();
+        this.fuelAmount = other.fuelAmount;
+        this.emergency = other.emergency;
+    }
+
+    /**
+     * Sets the listener to notify whenever this aircraft or its task list changes, replacing any
+     * previous listener.
+     * <p>
+     * Copies of this aircraft do not inherit the listener.
+     *
+     * @param listener listener to notify; or null to stop notifying
+     */
+    public void setMutationListener(MutationListener listener) {
+        this.mutationListener = listener;
+        this.tasks.setMutationListener(listener == null ? null : changed -> notifyMutation());
+    }
+
+    /**
+     * Notifies the listener, if any, that this aircraft has changed. Subclasses must call this
+     * whenever they change any state included in {@link #encode()}.
+     */
+    protected void notifyMutation() {
+        if (this.mutationListener != null) {
+            this.mutationListener.mutated(this);
+        }
+    }
+
     /**
      * Returns the callsign of the aircraft.
      *
@@ -76,6 +122,21 @@ public abstract class Aircraft implements OccupancyLevel, Tickable, EmergencySta
         return callsign;
     }
 
+    /**
+     * Returns the callsign and characteristics of this aircraft packed into a single number.
+     * <p>
+     * Equal aircraft have the same identity, and aircraft with different identities are never
+     * equal. Aircraft with the same identity are equal unless they have unusually long callsigns
+     * or callsigns with characters other than letters, digits and hyphens, which are only
+     * represented by their hash code. The identity is only meaningful while the program runs,
+     * and must not be saved.
+     *
+     * @return identity of this aircraft
+     */
+    public long getIdentity() {
+        return identity;
+    }
+
     /**
      * Returns the current amount of fuel onboard, in litres.
      *
@@ -166,6 +227,7 @@ public abstract class Aircraft implements OccupancyLevel, Tickable, EmergencySta
     @Override
     public void tick() {
         TaskType currentTaskType = this.tasks.getCurrentTask().getType();
+        double oldFuelAmount = this.fuelAmount;
 
         // fuel amount drops by 10% of capacity each AWAY tick
         if (currentTaskType == TaskType.AWAY) {
@@ -181,6 +243,9 @@ public abstract class Aircraft implements OccupancyLevel, Tickable, EmergencySta
             this.fuelAmount = Math.min(this.characteristics.fuelCapacity,
                     this.fuelAmount + this.characteristics.fuelCapacity / getLoadingTime());
         }
+        if (this.fuelAmount != oldFuelAmount) {
+            notifyMutation();
+        }
     }
 
     /**
@@ -216,7 +281,10 @@ public abstract class Aircraft implements OccupancyLevel, Tickable, EmergencySta
      */
     @Override
     public void declareEmergency() {
-        this.emergency = true;
+        if (!this.emergency) {
+            this.emergency = true;
+            notifyMutation();
+        }
     }
 
     /**
@@ -225,7 +293,10 @@ public abstract class Aircraft implements OccupancyLevel, Tickable, EmergencySta
      */
     @Override
     public void clearEmergency() {
-        this.emergency = false;
+        if (this.emergency) {
+            this.emergency = false;
+            notifyMutation();
+        }
     }
 
     /**
@@ -242,20 +313,34 @@ public abstract class Aircraft implements OccupancyLevel, Tickable, EmergencySta
      */
     public abstract void unload();
 
+    /**
+     * Returns a new aircraft in the same state as this aircraft, including its current task,
+     * fuel, cargo and emergency state.
+     * <p>
+     * Changes made to the copy do not affect this aircraft, and vice versa.
+     *
+     * @return copy of this aircraft
+     */
+    public abstract Aircraft copy();
+
     /**
      * Checks if two aircraft are equal. Two aircraft are equal if they have the same
      * callsign and characteristics.
+     * <p>
+     * This compares the {@link #getIdentity() identities} of the aircraft, and only compares
+     * their callsigns when the identities are the same but do not hold the whole callsign.
      * @param obj to be compared with
      * @return true if and only if aircraft is equal to the given aircraft; otherwise false
      */
+    @Override
     public boolean equals(Object obj) {
-        if (obj instanceof Aircraft) {
-            if ((((Aircraft) obj).getCallsign().equals(this.getCallsign()))
-                    && (((Aircraft) obj).getCharacteristics().equals(this.getCharacteristics()))) {
-                return true;
-            }
+        if (!(obj instanceof Aircraft)) {
+            return false;
         }
-        return false;
+        Aircraft other = (Aircraft) obj;
+        return other.identity == this.identity
+                && (AircraftIdentity.isPacked(this.identity)
+                        || other.callsign.equals(this.callsign));
     }
 
     /**
@@ -263,8 +348,10 @@ public abstract class Aircraft implements OccupancyLevel, Tickable, EmergencySta
      * the same hash code.
      * @return hash code of this aircraft
      */
+    @Override
     public int hashCode() {
-        return Objects.hash(this.getCallsign(), this.getCharacteristics());
+        // spreads the packed callsign across all bits, since hash tables index by the low bits
+        return Long.hashCode(this.identity * 0x9E3779B97F4A7C15L);
     }
 
     /**
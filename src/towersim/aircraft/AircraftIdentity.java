@@ -0,0 +1,91 @@
+package towersim.aircraft;
+
+/**
+ * Packs the callsign and characteristics of an aircraft into a single long, so that aircraft
+ * can be hashed and compared with a couple of primitive operations.
+ * <p>
+ * The lowest 8 bits hold the ordinal of the characteristics. A callsign of up to
+ * {@value #PACKED_LENGTH} letters, digits and hyphens, as nearly all are, is packed into the
+ * bits above, {@value #BITS_PER_CHAR} bits per character, so two aircraft with packed callsigns
+ * have the same identity if and only if they have the same callsign and characteristics. Any
+ * other callsign is represented by its hash code, held in the bits above together with the top
+ * bit to tell the two forms apart. Such identities may be shared by different callsigns, so
+ * aircraft with them must also be compared by callsign; see {@link #isPacked(long)}.
+ * <p>
+ * Nothing is kept about the callsigns seen, so identities cost no memory beyond the aircraft
+ * that hold them.
+ */
+final class AircraftIdentity {
+
+    /** Longest callsign that can be packed */
+    static final int PACKED_LENGTH = 9;
+
+    /** Number of bits each packed callsign character takes up */
+    static final int BITS_PER_CHAR = 6;
+
+    /** Number of bits holding the ordinal of the characteristics */
+    private static final int ORDINAL_BITS = 8;
+
+    /** Set in identities holding the hash code of a callsign rather than a packed callsign */
+    private static final long HASHED = Long.MIN_VALUE;
+
+    /* Not instantiable */
+    private AircraftIdentity() {}
+
+    /**
+     * Returns the identity of aircraft with the given callsign and characteristics.
+     *
+     * @param callsign callsign of the aircraft
+     * @param characteristics characteristics of the aircraft
+     * @return packed identity
+     */
+    static long of(String callsign, AircraftCharacteristics characteristics) {
+        long packed = pack(callsign);
+        if (packed >= 0) {
+            return packed << ORDINAL_BITS | characteristics.ordinal();
+        }
+        long hash = Integer.toUnsignedLong(callsign.hashCode());
+        return HASHED | hash << ORDINAL_BITS | characteristics.ordinal();
+    }
+
+    /**
+     * Returns whether the given identity holds a packed callsign, and so is only shared by
+     * aircraft with the same callsign and characteristics.
+     *
+     * @param identity identity returned by {@link #of(String, AircraftCharacteristics)}
+     * @return true if the callsign is packed; false if the identity only holds its hash code
+     */
+    static boolean isPacked(long identity) {
+        return (identity & HASHED) == 0;
+    }
+
+    /* Returns the callsign packed into the lowest bits, or -1 if it cannot be packed */
+    private static long pack(String callsign) {
+        if (callsign.length() > PACKED_LENGTH) {
+            return -1;
+        }
+        long packed = 0;
+        for (int i = 0; i < callsign.length(); i++) {
+            int code = codeOf(callsign.charAt(i));
+            if (code == 0) {
+                return -1;
+            }
+            packed = packed << BITS_PER_CHAR | code;
+        }
+        return packed;
+    }
+
+    /* Returns the code of a callsign character, from 1 to 63, or 0 if it cannot be packed */
+    private static int codeOf(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A' + 1;
+        } else if (c >= '0' && c <= '9') {
+            return c - '0' + 27;
+        } else if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 37;
+        } else if (c == '-') {
+            return 63;
+        }
+        return 0;
+    }
+}
@@ -3,8 +3,6 @@ package towersim.aircraft;
 import towersim.tasks.TaskList;
 import towersim.tasks.TaskType;
 
-import java.util.Objects;
-
 /**
  * Represents an aircraft capable of carrying freight cargo.
  * @ass1
@@ -46,6 +44,12 @@ public class FreightAircraft extends Aircraft {
         this.freightAmount = freightAmount;
     }
 
+    /* Creates a new freight aircraft in the same state as the given aircraft */
+    private FreightAircraft(FreightAircraft other) {
+        super(other);
+        this.freightAmount = other.freightAmount;
+    }
+
     /**
      * Returns the total weight of the aircraft in its current state.
      * <p>
@@ -64,6 +68,15 @@ public class FreightAircraft extends Aircraft {
         return super.getTotalWeight() + this.freightAmount;
     }
 
+    /**
+     * Returns the amount of freight currently onboard the aircraft.
+     *
+     * @return freight onboard, in kilograms
+     */
+    public int getFreightAmount() {
+        return this.freightAmount;
+    }
+
     /**
      * Returns the number of ticks required to load the aircraft at the gate.
      * <p>
@@ -160,29 +173,34 @@ public class FreightAircraft extends Aircraft {
         super.tick();
 
         if (this.getTaskList().getCurrentTask().getType() == TaskType.LOAD) {
+            int oldFreightAmount = this.freightAmount;
             int freightToLoadThisTick = (int) Math.round(this.getFreightToLoad()
                     / (double) this.getLoadingTime());
             this.freightAmount = Math.min(this.freightAmount + freightToLoadThisTick,
                     this.getCharacteristics().freightCapacity);
+            if (this.freightAmount != oldFreightAmount) {
+                notifyMutation();
+            }
         }
     }
 
     /**
-     * Return the hash code of the aircraft. If two aircraft are equal, they must have
-     * the same hash code.
-     * @return hash code of this aircraft
+     * Unloads the aircraft of all cargo (passenger/freight) it is currently carrying
      */
     @Override
-    public int hashCode() {
-        return Objects.hash(this.getCallsign(), this.getCharacteristics());
+    public void unload() {
+        if (this.freightAmount != 0) {
+            this.freightAmount = 0;
+            notifyMutation();
+        }
     }
 
     /**
-     * Unloads the aircraft of all cargo (passenger/freight) it is currently carrying
+     * {@inheritDoc}
      */
     @Override
-    public void unload() {
-        this.freightAmount = 0;
+    public FreightAircraft copy() {
+        return new FreightAircraft(this);
     }
 
     /**
@@ -3,8 +3,6 @@ package towersim.aircraft;
 import towersim.tasks.TaskList;
 import towersim.tasks.TaskType;
 
-import java.util.Objects;
-
 /**
  * Represents an aircraft capable of carrying passenger cargo.
  * @ass1
@@ -52,6 +50,12 @@ public class PassengerAircraft extends Aircraft {
         this.numPassengers = numPassengers;
     }
 
+    /* Creates a new passenger aircraft in the same state as the given aircraft */
+    private PassengerAircraft(PassengerAircraft other) {
+        super(other);
+        this.numPassengers = other.numPassengers;
+    }
+
     /**
      * Returns the total weight of the aircraft in its current state.
      * <p>
@@ -71,6 +75,15 @@ public class PassengerAircraft extends Aircraft {
         return super.getTotalWeight() + this.numPassengers * AVG_PASSENGER_WEIGHT;
     }
 
+    /**
+     * Returns the number of passengers currently onboard the aircraft.
+     *
+     * @return number of passengers onboard
+     */
+    public int getNumPassengers() {
+        return this.numPassengers;
+    }
+
     /**
      * Returns the number of ticks required to load the aircraft at the gate.
      * <p>
@@ -159,10 +172,14 @@ public class PassengerAircraft extends Aircraft {
         super.tick();
 
         if (this.getTaskList().getCurrentTask().getType() == TaskType.LOAD) {
+            int oldNumPassengers = this.numPassengers;
             int paxToLoadThisTick = (int) Math.round(this.getPassengersToLoad()
                     / (double) this.getLoadingTime());
             this.numPassengers = Math.min(this.numPassengers + paxToLoadThisTick,
                     this.getCharacteristics().passengerCapacity);
+            if (this.numPassengers != oldNumPassengers) {
+                notifyMutation();
+            }
         }
     }
 
@@ -171,17 +188,18 @@ public class PassengerAircraft extends Aircraft {
      */
     @Override
     public void unload() {
-        this.numPassengers = 0;
+        if (this.numPassengers != 0) {
+            this.numPassengers = 0;
+            notifyMutation();
+        }
     }
 
     /**
-     * Return the hash code of the aircraft. If two aircraft are equal, they must have
-     * the same hash code.
-     * @return hash code of this aircraft
+     * {@inheritDoc}
      */
     @Override
-    public int hashCode() {
-        return Objects.hash(this.getCallsign(), this.getCharacteristics());
+    public PassengerAircraft copy() {
+        return new PassengerAircraft(this);
     }
 
     /**
@@ -0,0 +1,188 @@
+package towersim.cluster;
+
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.FreightAircraft;
+import towersim.aircraft.PassengerAircraft;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import towersim.util.MalformedSaveException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utility class that converts aircraft to and from a compact binary representation, used when
+ * handing aircraft between towers in a cluster.
+ * <p>
+ * Unlike {@link Aircraft#encode()}, the binary form keeps the exact fuel amount and the position
+ * of the current task, so an aircraft decoded on another tower is identical to the original.
+ * <p>
+ * Format (big-endian):
+ * <pre>
+ * byte    characteristics ordinal
+ * byte    flags (bit 0: emergency)
+ * short   callsign length (unsigned), followed by that many UTF-8 bytes
+ * double  fuel amount, in litres
+ * int     passengers or freight onboard
+ * short   number of tasks
+ * short   index of current task
+ * (byte task type ordinal, short load percent) for each task
+ * </pre>
+ */
+public class AircraftCodec {
+
+    /** Flag bit set when the aircraft is in a state of emergency */
+    private static final int EMERGENCY_FLAG = 1;
+
+    /** Number of bytes used by each encoded task */
+    private static final int TASK_SIZE = 3;
+
+    /** Largest number of UTF-8 bytes a callsign may take up, as its length is an unsigned short */
+    private static final int MAX_CALLSIGN_BYTES = 0xFFFF;
+
+    /** Number of bytes used by the fixed-size fields of an encoded aircraft */
+    private static final int FIXED_SIZE = 1 + 1 + 2 + 8 + 4 + 2 + 2;
+
+    private AircraftCodec() {}
+
+    /**
+     * Returns the number of bytes needed to encode the given aircraft.
+     *
+     * @param aircraft aircraft to measure
+     * @return size of encoded aircraft, in bytes
+     */
+    public static int encodedSize(Aircraft aircraft) {
+        return FIXED_SIZE
+                + aircraft.getCallsign().getBytes(StandardCharsets.UTF_8).length
+                + TASK_SIZE * aircraft.getTaskList().getTasks().size();
+    }
+
+    /**
+     * Writes the binary representation of the given aircraft into the buffer, starting at the
+     * buffer's current position.
+     *
+     * @param aircraft aircraft to encode
+     * @param buffer buffer with at least {@link #encodedSize(Aircraft)} bytes remaining
+     * @throws IllegalArgumentException if the aircraft's callsign is longer than 65535 bytes
+     * when encoded as UTF-8
+     */
+    public static void encode(Aircraft aircraft, ByteBuffer buffer) {
+        byte[] callsign = aircraft.getCallsign().getBytes(StandardCharsets.UTF_8);
+        if (callsign.length > MAX_CALLSIGN_BYTES) {
+            throw new IllegalArgumentException("Callsign of " + callsign.length
+                    + " bytes is too long to encode");
+        }
+        buffer.put((byte) aircraft.getCharacteristics().ordinal());
+        buffer.put((byte) (aircraft.hasEmergency() ? EMERGENCY_FLAG : 0));
+        buffer.putShort((short) callsign.length);
+        buffer.put(callsign);
+        buffer.putDouble(aircraft.getFuelAmount());
+        buffer.putInt(cargoOnboard(aircraft));
+
+        TaskList taskList = aircraft.getTaskList();
+        List<Task> tasks = taskList.getTasks();
+        buffer.putShort((short) tasks.size());
+        buffer.putShort((short) taskList.getCurrentTaskIndex());
+        for (Task task : tasks) {
+            buffer.put((byte) task.getType().ordinal());
+            buffer.putShort((short) task.getLoadPercent());
+        }
+    }
+
+    /**
+     * Returns a new buffer containing only the binary representation of the given aircraft.
+     * The returned buffer is ready to be read from.
+     *
+     * @param aircraft aircraft to encode
+     * @return buffer holding encoded aircraft
+     * @throws IllegalArgumentException if the aircraft's callsign is longer than 65535 bytes
+     * when encoded as UTF-8
+     */
+    public static ByteBuffer encode(Aircraft aircraft) {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize(aircraft));
+        encode(aircraft, buffer);
+        return buffer.flip();
+    }
+
+    /**
+     * Reads an aircraft from the binary representation starting at the buffer's current
+     * position, advancing the position past the aircraft.
+     *
+     * @param buffer buffer to read from
+     * @return decoded aircraft
+     * @throws MalformedSaveException if the bytes do not describe a valid aircraft
+     */
+    public static Aircraft decode(ByteBuffer buffer) throws MalformedSaveException {
+        try {
+            AircraftCharacteristics characteristics = enumAt(AircraftCharacteristics.values(),
+                    buffer.get());
+            int flags = buffer.get();
+            int callsignLength = Short.toUnsignedInt(buffer.getShort());
+            if (callsignLength > buffer.remaining()) {
+                throw new MalformedSaveException("Encoded aircraft is truncated");
+            }
+            byte[] callsign = new byte[callsignLength];
+            buffer.get(callsign);
+            double fuelAmount = buffer.getDouble();
+            int cargo = buffer.getInt();
+
+            int numTasks = buffer.getShort();
+            int currentTaskIndex = buffer.getShort();
+            if (numTasks < 1 || currentTaskIndex < 0 || currentTaskIndex >= numTasks) {
+                throw new MalformedSaveException("Invalid task list in encoded aircraft");
+            }
+            List<Task> tasks = new ArrayList<>(numTasks);
+            for (int i = 0; i < numTasks; i++) {
+                TaskType type = enumAt(TaskType.values(), buffer.get());
+                int loadPercent = buffer.getShort();
+                tasks.add(type == TaskType.LOAD ? new Task(type, loadPercent) : new Task(type));
+            }
+            TaskList taskList = new TaskList(tasks);
+            for (int i = 0; i < currentTaskIndex; i++) {
+                taskList.moveToNextTask();
+            }
+
+            Aircraft aircraft;
+            String decodedCallsign = new String(callsign, StandardCharsets.UTF_8);
+            if (characteristics.passengerCapacity > 0) {
+                aircraft = new PassengerAircraft(decodedCallsign, characteristics, taskList,
+                        fuelAmount, cargo);
+            } else {
+                aircraft = new FreightAircraft(decodedCallsign, characteristics, taskList,
+                        fuelAmount, cargo);
+            }
+            if ((flags & EMERGENCY_FLAG) != 0) {
+                aircraft.declareEmergency();
+            }
+            return aircraft;
+        } catch (BufferUnderflowException e) {
+            throw new MalformedSaveException("Encoded aircraft is truncated", e);
+        } catch (IllegalArgumentException e) {
+            throw new MalformedSaveException("Encoded aircraft is invalid", e);
+        }
+    }
+
+    /* Returns the number of passengers or kilograms of freight onboard the given aircraft */
+    private static int cargoOnboard(Aircraft aircraft) {
+        if (aircraft instanceof PassengerAircraft) {
+            return ((PassengerAircraft) aircraft).getNumPassengers();
+        } else if (aircraft instanceof FreightAircraft) {
+            return ((FreightAircraft) aircraft).getFreightAmount();
+        }
+        return 0;
+    }
+
+    /* Returns the enum constant with the given ordinal, rejecting out of range ordinals */
+    private static <E extends Enum<E>> E enumAt(E[] values, int ordinal)
+            throws MalformedSaveException {
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new MalformedSaveException("Unknown ordinal " + ordinal);
+        }
+        return values[ordinal];
+    }
+}
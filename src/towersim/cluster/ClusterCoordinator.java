@@ -0,0 +1,303 @@
+package towersim.cluster;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Coordinates the nodes of a tower cluster over non-blocking sockets.
+ * <p>
+ * The coordinator waits for a fixed number of {@link ClusterNode}s to connect, then drives the
+ * cluster one tick at a time. Each tick, it releases the barrier by sending {@code TICK} to every
+ * node, forwards any aircraft handed between nodes, and waits until every node has reported
+ * {@code TICK_DONE}. A {@link TickReport} naming the slowest shard is then passed to the report
+ * listener before the next tick is released. An aircraft handed to a shard that no node runs
+ * cannot be delivered, and is counted in the report as a dropped handoff.
+ */
+public class ClusterCoordinator {
+
+    /** Size of the read buffer allocated for each node */
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    /** Number of nodes that must join before the first tick */
+    private final int expectedNodes;
+
+    /** Listener that receives a report after every tick */
+    private final Consumer<TickReport> reportListener;
+
+    /** Server channel accepting node connections */
+    private final ServerSocketChannel serverChannel;
+
+    /** Selector used for all socket operations */
+    private final Selector selector;
+
+    /** Connections to nodes that have sent HELLO, in join order */
+    private final List<NodeConnection> nodes = new ArrayList<>();
+
+    /** Node owning each shard, keyed by shard id */
+    private final Map<Integer, NodeConnection> shardOwners = new HashMap<>();
+
+    /** State of a single connection to a node */
+    private static class NodeConnection {
+
+        /** Channel connected to the node */
+        private final SocketChannel channel;
+
+        /** Bytes read from the node that do not yet form a complete frame */
+        private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+        /** Frames waiting to be written to the node */
+        private final Deque<ByteBuffer> pendingWrites = new ArrayDeque<>();
+
+        /** Whether the node has sent HELLO */
+        private boolean joined = false;
+
+        /** Whether the node has reported the current tick as done */
+        private boolean tickDone = false;
+
+        /** Creates state for the given channel */
+        private NodeConnection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * Creates a new coordinator listening on the given address.
+     *
+     * @param address address to listen on; port 0 picks a free port
+     * @param expectedNodes number of nodes that must join before ticking starts
+     * @param reportListener listener that receives a report after every tick
+     * @throws IOException if the address cannot be bound
+     */
+    public ClusterCoordinator(InetSocketAddress address, int expectedNodes,
+                              Consumer<TickReport> reportListener) throws IOException {
+        this.expectedNodes = expectedNodes;
+        this.reportListener = reportListener;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(address);
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Returns the address the coordinator is listening on.
+     *
+     * @return local address
+     * @throws IOException if the address cannot be read
+     */
+    public InetSocketAddress getLocalAddress() throws IOException {
+        return (InetSocketAddress) serverChannel.getLocalAddress();
+    }
+
+    /**
+     * Waits for all nodes to join, runs the cluster for the given number of ticks and then shuts
+     * every node down.
+     *
+     * @param firstTick number of the first tick to run
+     * @param numTicks number of ticks to run
+     * @throws IOException if communication with a node fails
+     */
+    public void run(long firstTick, long numTicks) throws IOException {
+        try {
+            while (nodes.size() < expectedNodes) {
+                poll();
+            }
+            int[] shardIds = shardOwners.keySet().stream().mapToInt(Integer::intValue)
+                    .sorted().toArray();
+            broadcast(() -> ClusterMessage.shardList(ClusterMessage.SHARDS, shardIds));
+
+            for (long tick = firstTick; tick < firstTick + numTicks; tick++) {
+                runTick(tick);
+            }
+            broadcast(ClusterMessage::shutdown);
+            try {
+                while (nodes.stream().anyMatch(node -> !node.pendingWrites.isEmpty())) {
+                    poll();
+                }
+            } catch (IOException ignored) {
+                /*
+                Nodes close their connection as soon as they read SHUTDOWN, so a node
+                disconnecting at this point is expected
+                 */
+            }
+        } finally {
+            close();
+        }
+    }
+
+    /* Releases the barrier for one tick and blocks until every node has finished it */
+    private void runTick(long tick) throws IOException {
+        for (NodeConnection node : nodes) {
+            node.tickDone = false;
+        }
+        Map<Integer, Long> shardNanos = new HashMap<>();
+        int handoffs = 0;
+        int droppedHandoffs = 0;
+        long start = System.nanoTime();
+        broadcast(() -> ClusterMessage.tick(tick));
+
+        while (nodes.stream().anyMatch(node -> !node.tickDone)) {
+            for (Map.Entry<NodeConnection, ByteBuffer> frame : poll()) {
+                NodeConnection node = frame.getKey();
+                ByteBuffer payload = frame.getValue();
+                byte type = payload.get(ClusterMessage.HEADER_SIZE - 1);
+                if (type == ClusterMessage.HANDOFF) {
+                    int target = payload.getInt(ClusterMessage.HEADER_SIZE);
+                    NodeConnection owner = shardOwners.get(target);
+                    if (owner == null) {
+                        droppedHandoffs++;
+                        continue;
+                    }
+                    enqueue(owner, payload);
+                    handoffs++;
+                } else if (type == ClusterMessage.TICK_DONE) {
+                    payload.position(ClusterMessage.HEADER_SIZE);
+                    payload.getLong();
+                    int numShards = payload.getShort();
+                    for (int i = 0; i < numShards; i++) {
+                        shardNanos.put(payload.getInt(), payload.getLong());
+                    }
+                    node.tickDone = true;
+                } else {
+                    throw new IOException("Unexpected message type " + type + " during tick");
+                }
+            }
+        }
+        reportListener.accept(new TickReport(tick, shardNanos, handoffs,
+                droppedHandoffs, System.nanoTime() - start));
+    }
+
+    /*
+     * Waits for socket activity and handles it. Accepts new connections, registers nodes that say
+     * HELLO, flushes pending writes and returns every complete frame received from a joined node.
+     * Returned frames are positioned at 0 and include their header.
+     */
+    private List<Map.Entry<NodeConnection, ByteBuffer>> poll() throws IOException {
+        List<Map.Entry<NodeConnection, ByteBuffer>> frames = new ArrayList<>();
+        selector.select();
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                SocketChannel channel = serverChannel.accept();
+                if (channel != null) {
+                    channel.configureBlocking(false);
+                    channel.register(selector, SelectionKey.OP_READ, new NodeConnection(channel));
+                }
+                continue;
+            }
+            NodeConnection node = (NodeConnection) key.attachment();
+            if (key.isWritable()) {
+                flush(node, key);
+            }
+            if (key.isReadable()) {
+                for (ByteBuffer frame : readFrames(node)) {
+                    if (node.joined) {
+                        frames.add(Map.entry(node, frame));
+                    } else {
+                        join(node, frame);
+                    }
+                }
+            }
+        }
+        return frames;
+    }
+
+    /* Registers a node from its HELLO frame */
+    private void join(NodeConnection node, ByteBuffer frame) throws IOException {
+        if (frame.get(ClusterMessage.HEADER_SIZE - 1) != ClusterMessage.HELLO) {
+            throw new IOException("Node must send HELLO before any other message");
+        }
+        frame.position(ClusterMessage.HEADER_SIZE);
+        for (int shardId : ClusterMessage.readShardList(frame)) {
+            if (shardOwners.putIfAbsent(shardId, node) != null) {
+                throw new IOException("Shard " + shardId + " is run by more than one node");
+            }
+        }
+        node.joined = true;
+        nodes.add(node);
+    }
+
+    /* Reads available bytes from the node and splits off every complete frame */
+    private List<ByteBuffer> readFrames(NodeConnection node) throws IOException {
+        if (node.channel.read(node.readBuffer) < 0) {
+            throw new IOException("Node disconnected");
+        }
+        List<ByteBuffer> frames = new ArrayList<>();
+        ByteBuffer buffer = node.readBuffer;
+        buffer.flip();
+        while (buffer.remaining() >= ClusterMessage.HEADER_SIZE) {
+            int length = buffer.getInt(buffer.position());
+            if (length < 1 || length > ClusterMessage.MAX_FRAME_SIZE) {
+                throw new IOException("Invalid frame length " + length);
+            }
+            int frameSize = 4 + length;
+            if (buffer.remaining() < frameSize) {
+                break;
+            }
+            ByteBuffer frame = ByteBuffer.allocate(frameSize);
+            int limit = buffer.limit();
+            buffer.limit(buffer.position() + frameSize);
+            frame.put(buffer);
+            buffer.limit(limit);
+            frames.add(frame.flip());
+        }
+        buffer.compact();
+        // grow the buffer if a single frame does not fit
+        if (!buffer.hasRemaining()) {
+            ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+            buffer.flip();
+            larger.put(buffer);
+            node.readBuffer = larger;
+        }
+        return frames;
+    }
+
+    /* Queues a frame for every joined node; each node gets its own buffer */
+    private void broadcast(Supplier<ByteBuffer> frames) throws IOException {
+        for (NodeConnection node : nodes) {
+            enqueue(node, frames.get());
+        }
+    }
+
+    /* Queues a frame for the node and tries to write it immediately */
+    private void enqueue(NodeConnection node, ByteBuffer frame) throws IOException {
+        node.pendingWrites.add(frame);
+        flush(node, node.channel.keyFor(selector));
+    }
+
+    /* Writes as many pending frames as the socket accepts, waiting on OP_WRITE for the rest */
+    private void flush(NodeConnection node, SelectionKey key) throws IOException {
+        while (!node.pendingWrites.isEmpty()) {
+            ByteBuffer frame = node.pendingWrites.peek();
+            node.channel.write(frame);
+            if (frame.hasRemaining()) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return;
+            }
+            node.pendingWrites.poll();
+        }
+        key.interestOps(SelectionKey.OP_READ);
+    }
+
+    /* Closes every channel and the selector */
+    private void close() throws IOException {
+        for (NodeConnection node : nodes) {
+            node.channel.close();
+        }
+        serverChannel.close();
+        selector.close();
+    }
+}
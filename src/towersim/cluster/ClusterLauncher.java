@@ -0,0 +1,91 @@
+package towersim.cluster;
+
+import towersim.control.ControlTower;
+import towersim.control.ControlTowerInitialiser;
+import towersim.util.MalformedSaveException;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Command line entry point for running a tower cluster without the GUI.
+ * <p>
+ * Usage:
+ * <ul>
+ * <li>{@code coordinator port numNodes numTicks} starts a coordinator that waits for
+ * {@code numNodes} nodes and then runs {@code numTicks} ticks, printing a report naming the
+ * slowest shard after each tick</li>
+ * <li>{@code node host port shardId tick_file aircraft_file queues_file
+ * terminalsWithGates_file [shardId tick_file ...]} starts a node running one shard for each
+ * group of a shard id and four save files, connected to the coordinator at
+ * {@code host:port}</li>
+ * </ul>
+ */
+public class ClusterLauncher {
+
+    /** Number of arguments describing a single shard of a node */
+    private static final int SHARD_ARGS = 5;
+
+    private ClusterLauncher() {}
+
+    /**
+     * Starts a coordinator or a node, depending on the first argument.
+     *
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        try {
+            if (args.length == 4 && args[0].equals("coordinator")) {
+                runCoordinator(Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                        Long.parseLong(args[3]));
+                return;
+            }
+            if (args.length >= 3 + SHARD_ARGS && args[0].equals("node")
+                    && (args.length - 3) % SHARD_ARGS == 0) {
+                runNode(args);
+                return;
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Not a valid number: " + e.getMessage());
+            System.exit(1);
+        } catch (IOException | MalformedSaveException e) {
+            System.err.println("Cluster stopped. Stack trace below:");
+            e.printStackTrace();
+            System.exit(1);
+        }
+        System.err.println("Usage: coordinator port numNodes numTicks");
+        System.err.println("   or: node host port shardId tick_file aircraft_file queues_file"
+                + " terminalsWithGates_file [shardId tick_file ...]");
+        System.exit(1);
+    }
+
+    /* Runs a coordinator on the given port until all ticks are done */
+    private static void runCoordinator(int port, int numNodes, long numTicks)
+            throws IOException {
+        ClusterCoordinator coordinator = new ClusterCoordinator(new InetSocketAddress(port),
+                numNodes, System.out::println);
+        System.out.println("Coordinator listening on " + coordinator.getLocalAddress());
+        coordinator.run(1, numTicks);
+    }
+
+    /* Loads every shard named on the command line and runs a node until shut down */
+    private static void runNode(String[] args) throws IOException, MalformedSaveException {
+        InetSocketAddress coordinator = new InetSocketAddress(args[1], Integer.parseInt(args[2]));
+        Map<Integer, ControlTower> shards = new LinkedHashMap<>();
+        for (int i = 3; i < args.length; i += SHARD_ARGS) {
+            int shardId = Integer.parseInt(args[i]);
+            ControlTower tower = ControlTowerInitialiser.createControlTower(
+                    new FileReader(args[i + 1]),
+                    new FileReader(args[i + 2]),
+                    new FileReader(args[i + 3]),
+                    new FileReader(args[i + 4]));
+            if (shards.put(shardId, tower) != null) {
+                throw new IllegalArgumentException("Shard " + shardId + " given more than once");
+            }
+        }
+        new ClusterNode(coordinator, shards, HandoffPolicy.nextShard()).connectAndServe();
+    }
+}
@@ -0,0 +1,116 @@
+package towersim.cluster;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Message types and framing used between a cluster coordinator and its nodes.
+ * <p>
+ * Every message sent over a cluster socket is a frame of the form
+ * <pre>int length, byte type, payload</pre>
+ * where {@code length} counts the type byte and the payload.
+ * <table border="1"><caption>Message payloads</caption>
+ * <tr><th>Type</th><th>Direction</th><th>Payload</th></tr>
+ * <tr><td>{@code HELLO}</td><td>node to coordinator</td>
+ * <td>{@code short numShards, int shardId...}</td></tr>
+ * <tr><td>{@code SHARDS}</td><td>coordinator to node</td>
+ * <td>{@code short numShards, int shardId...} for every shard in the cluster</td></tr>
+ * <tr><td>{@code TICK}</td><td>coordinator to node</td><td>{@code long tick}</td></tr>
+ * <tr><td>{@code HANDOFF}</td><td>both</td>
+ * <td>{@code int targetShard}, then an aircraft encoded by {@link AircraftCodec}</td></tr>
+ * <tr><td>{@code TICK_DONE}</td><td>node to coordinator</td>
+ * <td>{@code long tick, short numShards, (int shardId, long nanos)...}</td></tr>
+ * <tr><td>{@code SHUTDOWN}</td><td>coordinator to node</td><td>empty</td></tr>
+ * </table>
+ */
+public final class ClusterMessage {
+
+    /** A node announcing the shards it runs */
+    public static final byte HELLO = 1;
+
+    /** The coordinator announcing every shard in the cluster */
+    public static final byte SHARDS = 2;
+
+    /** The coordinator releasing the tick barrier for the next tick */
+    public static final byte TICK = 3;
+
+    /** An aircraft being moved to another shard */
+    public static final byte HANDOFF = 4;
+
+    /** A node reporting that all its shards have finished a tick */
+    public static final byte TICK_DONE = 5;
+
+    /** The coordinator telling a node to stop */
+    public static final byte SHUTDOWN = 6;
+
+    /** Number of bytes in a frame header (length and type) */
+    public static final int HEADER_SIZE = 5;
+
+    /** Largest frame accepted from a peer, to guard against corrupt length fields */
+    public static final int MAX_FRAME_SIZE = 1 << 20;
+
+    private ClusterMessage() {}
+
+    /**
+     * Allocates a frame with room for a payload of the given size, with the header already
+     * written. The caller writes the payload and then flips the buffer.
+     *
+     * @param type message type
+     * @param payloadSize size of payload, in bytes
+     * @return frame buffer positioned at the start of the payload
+     */
+    public static ByteBuffer allocate(byte type, int payloadSize) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + payloadSize);
+        frame.putInt(1 + payloadSize);
+        frame.put(type);
+        return frame;
+    }
+
+    /**
+     * Creates a frame listing the given shard ids.
+     *
+     * @param type {@link #HELLO} or {@link #SHARDS}
+     * @param shardIds shard ids to list
+     * @return frame ready to be written
+     */
+    public static ByteBuffer shardList(byte type, int[] shardIds) {
+        ByteBuffer frame = allocate(type, 2 + 4 * shardIds.length);
+        frame.putShort((short) shardIds.length);
+        for (int shardId : shardIds) {
+            frame.putInt(shardId);
+        }
+        return frame.flip();
+    }
+
+    /**
+     * Reads a list of shard ids from the payload of a {@link #HELLO} or {@link #SHARDS} frame.
+     *
+     * @param payload payload positioned after the type byte
+     * @return shard ids
+     */
+    public static int[] readShardList(ByteBuffer payload) {
+        int[] shardIds = new int[payload.getShort()];
+        for (int i = 0; i < shardIds.length; i++) {
+            shardIds[i] = payload.getInt();
+        }
+        return shardIds;
+    }
+
+    /**
+     * Creates a {@link #TICK} frame.
+     *
+     * @param tick tick being started
+     * @return frame ready to be written
+     */
+    public static ByteBuffer tick(long tick) {
+        return allocate(TICK, 8).putLong(tick).flip();
+    }
+
+    /**
+     * Creates a {@link #SHUTDOWN} frame.
+     *
+     * @return frame ready to be written
+     */
+    public static ByteBuffer shutdown() {
+        return allocate(SHUTDOWN, 0).flip();
+    }
+}
@@ -0,0 +1,247 @@
+package towersim.cluster;
+
+import towersim.aircraft.Aircraft;
+import towersim.control.ControlTower;
+import towersim.tasks.TaskType;
+import towersim.util.MalformedSaveException;
+import towersim.util.NoSuitableGateException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.*;
+
+/**
+ * A process-local member of a tower cluster, running one or more control tower shards.
+ * <p>
+ * The node connects to a {@link ClusterCoordinator} and then only ticks its shards when the
+ * coordinator releases the tick barrier. Aircraft that take off from one of the node's shards may
+ * be handed to another shard, as decided by a {@link HandoffPolicy}. Aircraft handed to a shard
+ * are admitted at the start of the shard's next tick.
+ */
+public class ClusterNode implements Runnable {
+
+    /** Shards run by this node, keyed by shard id */
+    private final SortedMap<Integer, ControlTower> shards;
+
+    /** Aircraft waiting to be admitted to each shard at the start of the next tick */
+    private final Map<Integer, List<Aircraft>> inbox = new HashMap<>();
+
+    /** Policy deciding where departing aircraft go */
+    private final HandoffPolicy policy;
+
+    /** Address of the coordinator */
+    private final InetSocketAddress coordinatorAddress;
+
+    /** Aircraft handed between this node's own shards during the current tick */
+    private final List<Map.Entry<Integer, Aircraft>> localHandoffs = new ArrayList<>();
+
+    /** Ids of every shard in the cluster, as announced by the coordinator */
+    private int[] clusterShardIds = new int[0];
+
+    /** Channel connected to the coordinator */
+    private SocketChannel channel;
+
+    /**
+     * Creates a new cluster node.
+     *
+     * @param coordinatorAddress address the coordinator is listening on
+     * @param shards shards to run, keyed by shard id
+     * @param policy policy deciding where departing aircraft go
+     */
+    public ClusterNode(InetSocketAddress coordinatorAddress, Map<Integer, ControlTower> shards,
+                       HandoffPolicy policy) {
+        this.coordinatorAddress = coordinatorAddress;
+        this.shards = new TreeMap<>(shards);
+        this.policy = policy;
+        for (Integer shardId : this.shards.keySet()) {
+            this.inbox.put(shardId, new ArrayList<>());
+        }
+    }
+
+    /**
+     * Returns the shards run by this node, keyed by shard id.
+     *
+     * @return shards of this node
+     */
+    public SortedMap<Integer, ControlTower> getShards() {
+        return Collections.unmodifiableSortedMap(shards);
+    }
+
+    /**
+     * Connects to the coordinator and processes messages until the coordinator shuts the
+     * cluster down or the connection is lost.
+     */
+    @Override
+    public void run() {
+        try {
+            connectAndServe();
+        } catch (IOException e) {
+            System.err.println("Cluster node lost connection to coordinator: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Connects to the coordinator and processes messages until told to shut down.
+     *
+     * @throws IOException if communication with the coordinator fails
+     */
+    public void connectAndServe() throws IOException {
+        try (SocketChannel socketChannel = SocketChannel.open(coordinatorAddress)) {
+            this.channel = socketChannel;
+            int[] shardIds = shards.keySet().stream().mapToInt(Integer::intValue).toArray();
+            write(ClusterMessage.shardList(ClusterMessage.HELLO, shardIds));
+
+            ByteBuffer header = ByteBuffer.allocate(ClusterMessage.HEADER_SIZE);
+            while (true) {
+                header.clear();
+                readFully(header);
+                header.flip();
+                int length = header.getInt();
+                byte type = header.get();
+                if (length < 1 || length > ClusterMessage.MAX_FRAME_SIZE) {
+                    throw new IOException("Invalid frame length " + length);
+                }
+                ByteBuffer payload = ByteBuffer.allocate(length - 1);
+                readFully(payload);
+                payload.flip();
+
+                switch (type) {
+                    case ClusterMessage.SHARDS:
+                        this.clusterShardIds = ClusterMessage.readShardList(payload);
+                        Arrays.sort(this.clusterShardIds);
+                        break;
+                    case ClusterMessage.HANDOFF:
+                        receiveHandoff(payload);
+                        break;
+                    case ClusterMessage.TICK:
+                        runTick(payload.getLong());
+                        break;
+                    case ClusterMessage.SHUTDOWN:
+                        return;
+                    default:
+                        throw new IOException("Unexpected message type " + type);
+                }
+            }
+        }
+    }
+
+    /* Queues a handed-off aircraft for admission to its target shard */
+    private void receiveHandoff(ByteBuffer payload) {
+        int targetShard = payload.getInt();
+        try {
+            Aircraft aircraft = AircraftCodec.decode(payload);
+            List<Aircraft> pending = inbox.get(targetShard);
+            if (pending == null) {
+                System.err.println("Dropping handoff of " + aircraft.getCallsign()
+                        + " for unknown shard " + targetShard);
+                return;
+            }
+            pending.add(aircraft);
+        } catch (MalformedSaveException e) {
+            System.err.println("Dropping malformed handoff: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Ticks every shard once, hands off departing aircraft and reports the time each shard took.
+     * Handoffs are written before the TICK_DONE message, so the coordinator has forwarded all of
+     * them before it releases the next tick.
+     */
+    private void runTick(long tick) throws IOException {
+        Map<Integer, Long> shardNanos = new TreeMap<>();
+        for (Map.Entry<Integer, ControlTower> entry : shards.entrySet()) {
+            int shardId = entry.getKey();
+            ControlTower tower = entry.getValue();
+
+            long start = System.nanoTime();
+            admitHandoffs(shardId, tower);
+            List<Aircraft> departing = tower.getAircraftWithTask(TaskType.TAKEOFF);
+            tower.tick();
+            shardNanos.put(shardId, System.nanoTime() - start);
+
+            for (Aircraft aircraft : departing) {
+                if (aircraft.getTaskList().getCurrentTask().getType() == TaskType.AWAY) {
+                    handOff(shardId, tower, aircraft);
+                }
+            }
+        }
+        // local handoffs wait for the next tick, the same as handoffs from other nodes
+        for (Map.Entry<Integer, Aircraft> handoff : localHandoffs) {
+            inbox.get(handoff.getKey()).add(handoff.getValue());
+        }
+        localHandoffs.clear();
+
+        ByteBuffer done = ClusterMessage.allocate(ClusterMessage.TICK_DONE,
+                8 + 2 + 12 * shardNanos.size());
+        done.putLong(tick);
+        done.putShort((short) shardNanos.size());
+        for (Map.Entry<Integer, Long> entry : shardNanos.entrySet()) {
+            done.putInt(entry.getKey());
+            done.putLong(entry.getValue());
+        }
+        write(done.flip());
+    }
+
+    /* Adds every aircraft handed to the given shard since its last tick */
+    private void admitHandoffs(int shardId, ControlTower tower) {
+        List<Aircraft> pending = inbox.get(shardId);
+        for (Aircraft aircraft : pending) {
+            try {
+                tower.addAircraft(aircraft);
+            } catch (NoSuitableGateException e) {
+                /*
+                Handed-off aircraft are AWAY, so they never need a gate when admitted
+                 */
+            }
+        }
+        pending.clear();
+    }
+
+    /* Moves a departed aircraft to the shard chosen by the handoff policy */
+    private void handOff(int shardId, ControlTower tower, Aircraft aircraft) throws IOException {
+        int target = policy.selectShard(shardId, aircraft, clusterShardIds);
+        if (target == shardId || Arrays.binarySearch(clusterShardIds, target) < 0) {
+            return;
+        }
+        if (inbox.containsKey(target)) {
+            if (tower.removeAircraft(aircraft)) {
+                localHandoffs.add(Map.entry(target, aircraft));
+            }
+            return;
+        }
+        // encode before removing, so an aircraft that cannot be sent stays with this shard
+        ByteBuffer frame = ClusterMessage.allocate(ClusterMessage.HANDOFF,
+                4 + AircraftCodec.encodedSize(aircraft));
+        frame.putInt(target);
+        try {
+            AircraftCodec.encode(aircraft, frame);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Keeping " + aircraft.getCallsign() + " on shard " + shardId
+                    + ": " + e.getMessage());
+            return;
+        }
+        if (!tower.removeAircraft(aircraft)) {
+            return;
+        }
+        write(frame.flip());
+    }
+
+    /* Writes the whole buffer to the coordinator */
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /* Fills the buffer from the coordinator, failing if the connection closes first */
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Coordinator closed the connection");
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package towersim.cluster;
+
+import towersim.aircraft.Aircraft;
+
+/**
+ * Decides which shard of a cluster should manage an aircraft after it departs.
+ * <p>
+ * The policy is consulted once for each aircraft that takes off from a shard during a tick.
+ * Returning the departing shard's own id keeps the aircraft where it is.
+ */
+@FunctionalInterface
+public interface HandoffPolicy {
+
+    /**
+     * Returns the id of the shard that should take over the given aircraft.
+     *
+     * @param shardId id of the shard the aircraft departed from
+     * @param aircraft aircraft that departed
+     * @param shardIds ids of every shard in the cluster, in ascending order
+     * @return id of the shard that should manage the aircraft from now on
+     */
+    int selectShard(int shardId, Aircraft aircraft, int[] shardIds);
+
+    /**
+     * Returns a policy that hands every departing aircraft to the shard with the next highest id,
+     * wrapping around to the lowest id.
+     *
+     * @return next-shard policy
+     */
+    static HandoffPolicy nextShard() {
+        return (shardId, aircraft, shardIds) -> {
+            for (int candidate : shardIds) {
+                if (candidate > shardId) {
+                    return candidate;
+                }
+            }
+            return shardIds.length == 0 ? shardId : shardIds[0];
+        };
+    }
+}
@@ -0,0 +1,133 @@
+package towersim.cluster;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Timing summary for one tick of a tower cluster, produced by the coordinator once every shard
+ * has finished the tick.
+ */
+public class TickReport {
+
+    /** Tick this report describes */
+    private final long tick;
+
+    /** Time each shard spent ticking, in nanoseconds, keyed by shard id */
+    private final Map<Integer, Long> shardNanos;
+
+    /** Number of aircraft handed between nodes during the tick */
+    private final int handoffs;
+
+    /** Number of aircraft handed off to a shard no node runs, and so lost to the cluster */
+    private final int droppedHandoffs;
+
+    /** Wall-clock time from releasing the barrier to the last node finishing, in nanoseconds */
+    private final long barrierNanos;
+
+    /**
+     * Creates a new tick report.
+     *
+     * @param tick tick this report describes
+     * @param shardNanos time each shard spent ticking, keyed by shard id
+     * @param handoffs number of aircraft handed between nodes during the tick
+     * @param droppedHandoffs number of aircraft handed off to a shard no node runs
+     * @param barrierNanos wall-clock time spent waiting on the tick barrier
+     */
+    public TickReport(long tick, Map<Integer, Long> shardNanos, int handoffs,
+                      int droppedHandoffs, long barrierNanos) {
+        this.tick = tick;
+        this.shardNanos = Collections.unmodifiableMap(new TreeMap<>(shardNanos));
+        this.handoffs = handoffs;
+        this.droppedHandoffs = droppedHandoffs;
+        this.barrierNanos = barrierNanos;
+    }
+
+    /**
+     * Returns the tick this report describes.
+     *
+     * @return tick number
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Returns the time each shard spent ticking, in nanoseconds, keyed by shard id.
+     *
+     * @return unmodifiable map of shard timings
+     */
+    public Map<Integer, Long> getShardNanos() {
+        return shardNanos;
+    }
+
+    /**
+     * Returns the number of aircraft handed between nodes during the tick.
+     *
+     * @return number of handoffs
+     */
+    public int getHandoffs() {
+        return handoffs;
+    }
+
+    /**
+     * Returns the number of aircraft handed off during the tick to a shard that no node runs.
+     * These aircraft have left their shard and were not admitted to any other, so they are no
+     * longer in the cluster.
+     *
+     * @return number of dropped handoffs
+     */
+    public int getDroppedHandoffs() {
+        return droppedHandoffs;
+    }
+
+    /**
+     * Returns the wall-clock time from releasing the tick barrier until the last node reported
+     * that it had finished.
+     *
+     * @return barrier time, in nanoseconds
+     */
+    public long getBarrierNanos() {
+        return barrierNanos;
+    }
+
+    /**
+     * Returns the id of the shard that took longest to tick, or -1 if no shard reported.
+     *
+     * @return id of slowest shard
+     */
+    public int getSlowestShard() {
+        int slowest = -1;
+        long slowestNanos = -1;
+        for (Map.Entry<Integer, Long> entry : shardNanos.entrySet()) {
+            if (entry.getValue() > slowestNanos) {
+                slowest = entry.getKey();
+                slowestNanos = entry.getValue();
+            }
+        }
+        return slowest;
+    }
+
+    /**
+     * Returns the human-readable string representation of this report.
+     * Format: Tick tick: slowest shard id (micros us), handoffs handoffs, barrier micros us,
+     * followed by ", dropped handoffs dropped" if any handoffs were dropped
+     *
+     * @return human-readable string representation of report
+     */
+    @Override
+    public String toString() {
+        int slowest = getSlowestShard();
+        String report = String.format(
+                "Tick %d: slowest shard %d (%d us), %d handoffs, barrier %d us",
+                this.tick,
+                slowest,
+                slowest == -1 ? 0 : this.shardNanos.get(slowest) / 1000,
+                this.handoffs,
+                this.barrierNanos / 1000);
+        if (this.droppedHandoffs > 0) {
+            report += String.format(", %d dropped", this.droppedHandoffs);
+        }
+        return report;
+    }
+}
@@ -0,0 +1,113 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Outcome of admitting a batch of aircraft with {@link ControlTower#addAllAircraft}.
+ * <p>
+ * Every aircraft in the batch is either admitted or rejected with a reason; a rejected aircraft
+ * is not managed by the tower and has not been parked or queued.
+ */
+public class AdmissionResult {
+
+    /** Reason an aircraft was not admitted */
+    public enum Rejection {
+        /** The aircraft is already managed by the tower, or appears earlier in the batch */
+        DUPLICATE,
+        /** The aircraft needed a gate, but no suitable gate was free */
+        NO_SUITABLE_GATE
+    }
+
+    /** Aircraft admitted, in the order they appeared in the batch */
+    private final List<Aircraft> admitted = new ArrayList<>();
+
+    /** Aircraft rejected for each reason, in the order they appeared in the batch */
+    private final Map<Rejection, List<Aircraft>> rejected = new EnumMap<>(Rejection.class);
+
+    /**
+     * Creates a new, empty result.
+     */
+    AdmissionResult() {
+        for (Rejection reason : Rejection.values()) {
+            rejected.put(reason, new ArrayList<>());
+        }
+    }
+
+    /* Records an aircraft as admitted */
+    void admit(Aircraft aircraft) {
+        admitted.add(aircraft);
+    }
+
+    /* Records an aircraft as rejected for the given reason */
+    void reject(Aircraft aircraft, Rejection reason) {
+        rejected.get(reason).add(aircraft);
+    }
+
+    /**
+     * Returns whether every aircraft in the batch was admitted.
+     *
+     * @return true if no aircraft was rejected; false otherwise
+     */
+    public boolean isComplete() {
+        return getNumRejected() == 0;
+    }
+
+    /**
+     * Returns the aircraft that were admitted, in the order they appeared in the batch.
+     *
+     * @return unmodifiable list of admitted aircraft
+     */
+    public List<Aircraft> getAdmitted() {
+        return Collections.unmodifiableList(admitted);
+    }
+
+    /**
+     * Returns the aircraft that were rejected for the given reason, in the order they appeared
+     * in the batch.
+     *
+     * @param reason reason for rejection
+     * @return unmodifiable list of rejected aircraft
+     */
+    public List<Aircraft> getRejected(Rejection reason) {
+        return Collections.unmodifiableList(rejected.get(reason));
+    }
+
+    /**
+     * Returns the number of aircraft rejected for any reason.
+     *
+     * @return number of rejected aircraft
+     */
+    public int getNumRejected() {
+        int total = 0;
+        for (List<Aircraft> aircraft : rejected.values()) {
+            total += aircraft.size();
+        }
+        return total;
+    }
+
+    /**
+     * Returns the human-readable string representation of this result.
+     * Format: AdmissionResult: numAdmitted admitted, numRejected rejected (REASON count, ...)
+     *
+     * @return human-readable string representation of result
+     */
+    @Override
+    public String toString() {
+        StringJoiner reasons = new StringJoiner(", ", " (", ")");
+        reasons.setEmptyValue("");
+        for (Map.Entry<Rejection, List<Aircraft>> entry : rejected.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                reasons.add(entry.getKey() + " " + entry.getValue().size());
+            }
+        }
+        return String.format("AdmissionResult: %d admitted, %d rejected%s",
+                admitted.size(), getNumRejected(), reasons);
+    }
+}
@@ -0,0 +1,194 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.tasks.TaskType;
+import towersim.util.MutationListener;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Secondary indexes of the aircraft managed by a control tower, by current task type, emergency
+ * state and characteristics.
+ * <p>
+ * Each indexed aircraft is given a sequence number when it is added, and each index holds its
+ * aircraft by sequence number, so every subset can be listed in the order its aircraft were added
+ * in time proportional to its size. The index listens to each aircraft it holds and moves the
+ * aircraft between subsets as its current task or emergency state changes, then passes the change
+ * on to the tower's own listener, if any.
+ */
+class AircraftIndex {
+
+    /** Aircraft whose current task has each type, by sequence number */
+    private final Map<TaskType, NavigableMap<Long, Aircraft>> byTaskType =
+            new EnumMap<>(TaskType.class);
+
+    /** Aircraft in a state of emergency, by sequence number */
+    private final NavigableMap<Long, Aircraft> emergencies = new TreeMap<>();
+
+    /** Aircraft with each characteristics, by sequence number */
+    private final Map<AircraftCharacteristics, NavigableMap<Long, Aircraft>> byCharacteristics =
+            new EnumMap<>(AircraftCharacteristics.class);
+
+    /** Entry of every indexed aircraft; aircraft are identified by reference */
+    private final Map<Aircraft, Entry> entries = new IdentityHashMap<>();
+
+    /** Sequence number given to the next aircraft added */
+    private long nextSequence;
+
+    /** Listener told of every change to an indexed aircraft; or null if none */
+    private MutationListener listener;
+
+    /** Indexed state of a single aircraft, which also listens for changes to it */
+    private final class Entry implements MutationListener {
+
+        /** Aircraft that is indexed */
+        private final Aircraft aircraft;
+
+        /** Position of the aircraft in every index it is in */
+        private final long sequence;
+
+        /** Task type the aircraft is indexed under */
+        private TaskType taskType;
+
+        /** Whether the aircraft is indexed as being in a state of emergency */
+        private boolean emergency;
+
+        /** Number of times the aircraft has been added but not removed */
+        private int references = 1;
+
+        /* Creates an entry for the given aircraft, not yet in any index */
+        private Entry(Aircraft aircraft, long sequence) {
+            this.aircraft = aircraft;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void mutated(Object entity) {
+            update(this);
+            if (listener != null) {
+                listener.mutated(entity);
+            }
+        }
+    }
+
+    /**
+     * Sets the listener told of every change to an indexed aircraft, replacing any previous
+     * listener.
+     *
+     * @param listener listener to notify; or null to stop notifying
+     */
+    void setMutationListener(MutationListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Adds the given aircraft to the index, after any aircraft already indexed, and starts
+     * listening to it in place of any listener it already had. Adding an aircraft that is
+     * already indexed only counts it again.
+     *
+     * @param aircraft aircraft to add
+     */
+    void add(Aircraft aircraft) {
+        Entry entry = entries.get(aircraft);
+        if (entry != null) {
+            entry.references++;
+            return;
+        }
+        entry = new Entry(aircraft, nextSequence++);
+        entries.put(aircraft, entry);
+        entry.taskType = aircraft.getTaskList().getCurrentTask().getType();
+        entry.emergency = aircraft.hasEmergency();
+        subset(byTaskType, entry.taskType).put(entry.sequence, aircraft);
+        if (entry.emergency) {
+            emergencies.put(entry.sequence, aircraft);
+        }
+        subset(byCharacteristics, aircraft.getCharacteristics()).put(entry.sequence, aircraft);
+        aircraft.setMutationListener(entry);
+    }
+
+    /**
+     * Removes the given aircraft from the index once it has been removed as many times as it was
+     * added, and stops listening to it. If the aircraft is not indexed, no action is taken.
+     *
+     * @param aircraft aircraft to remove
+     */
+    void remove(Aircraft aircraft) {
+        Entry entry = entries.get(aircraft);
+        if (entry == null || --entry.references > 0) {
+            return;
+        }
+        entries.remove(aircraft);
+        byTaskType.get(entry.taskType).remove(entry.sequence);
+        emergencies.remove(entry.sequence);
+        byCharacteristics.get(aircraft.getCharacteristics()).remove(entry.sequence);
+        aircraft.setMutationListener(null);
+    }
+
+    /**
+     * Returns the indexed aircraft whose current task has the given type, in the order they
+     * were added.
+     *
+     * @param taskType type of task
+     * @return aircraft currently on a task of that type
+     */
+    List<Aircraft> withTaskType(TaskType taskType) {
+        return list(byTaskType.get(taskType));
+    }
+
+    /**
+     * Returns the indexed aircraft that are in a state of emergency, in the order they were
+     * added.
+     *
+     * @return aircraft in a state of emergency
+     */
+    List<Aircraft> withEmergency() {
+        return list(emergencies);
+    }
+
+    /**
+     * Returns the indexed aircraft with the given characteristics, in the order they were added.
+     *
+     * @param characteristics characteristics of aircraft
+     * @return aircraft with those characteristics
+     */
+    List<Aircraft> withCharacteristics(AircraftCharacteristics characteristics) {
+        return list(byCharacteristics.get(characteristics));
+    }
+
+    /* Moves the entry's aircraft to the subsets matching its current task and emergency state */
+    private void update(Entry entry) {
+        TaskType taskType = entry.aircraft.getTaskList().getCurrentTask().getType();
+        if (taskType != entry.taskType) {
+            byTaskType.get(entry.taskType).remove(entry.sequence);
+            subset(byTaskType, taskType).put(entry.sequence, entry.aircraft);
+            entry.taskType = taskType;
+        }
+        boolean emergency = entry.aircraft.hasEmergency();
+        if (emergency != entry.emergency) {
+            if (emergency) {
+                emergencies.put(entry.sequence, entry.aircraft);
+            } else {
+                emergencies.remove(entry.sequence);
+            }
+            entry.emergency = emergency;
+        }
+    }
+
+    /* Returns the subset of the given index under the given key, creating it if needed */
+    private static <K> NavigableMap<Long, Aircraft> subset(
+            Map<K, NavigableMap<Long, Aircraft>> index, K key) {
+        return index.computeIfAbsent(key, unused -> new TreeMap<>());
+    }
+
+    /* Returns the aircraft in the given subset, which may be null if it was never created */
+    private static List<Aircraft> list(NavigableMap<Long, Aircraft> subset) {
+        return subset == null ? new ArrayList<>() : new ArrayList<>(subset.values());
+    }
+}
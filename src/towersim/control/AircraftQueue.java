@@ -2,6 +2,7 @@ package towersim.control;
 
 import towersim.aircraft.Aircraft;
 import towersim.util.Encodable;
+import towersim.util.MutationListener;
 
 import java.util.List;
 import java.util.StringJoiner;
@@ -11,6 +12,29 @@ import java.util.StringJoiner;
  */
 public abstract class AircraftQueue implements Encodable {
 
+    /** Listener notified whenever aircraft are added to or removed from this queue */
+    private MutationListener mutationListener;
+
+    /**
+     * Sets the listener to notify whenever aircraft are added to or removed from this queue,
+     * replacing any previous listener.
+     *
+     * @param listener listener to notify; or null to stop notifying
+     */
+    public void setMutationListener(MutationListener listener) {
+        this.mutationListener = listener;
+    }
+
+    /**
+     * Notifies the listener, if any, that this queue has changed. Subclasses must call this
+     * whenever they add or remove an aircraft.
+     */
+    protected void notifyMutation() {
+        if (this.mutationListener != null) {
+            this.mutationListener.mutated(this);
+        }
+    }
+
     /**
      * Adds given aircraft to queue
      * @param aircraft to add
@@ -0,0 +1,116 @@
+package towersim.control;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Single-writer mailbox through which all changes to a control tower are made.
+ * <p>
+ * Any number of threads may {@link #submit(TowerCommand) submit} commands at any time. Commands
+ * are only executed when the thread that owns the tower calls {@link #drain(ControlTower)}, which
+ * the tower does at the start of every tick. Commands are executed in the order they were
+ * submitted, one at a time, so the tower is only ever changed by a single thread and needs no
+ * locking.
+ */
+public class CommandMailbox {
+
+    /** A submitted command together with the future receiving its result */
+    private static class Envelope<T> {
+
+        /** Command to execute */
+        private final TowerCommand<T> command;
+
+        /** Future completed with the outcome of the command */
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        /** Creates an envelope for the given command */
+        private Envelope(TowerCommand<T> command) {
+            this.command = command;
+        }
+
+        /* Executes the command and completes the future with its outcome */
+        private void deliver(ControlTower tower) {
+            try {
+                result.complete(command.execute(tower));
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    /** Commands waiting to be executed, in submission order */
+    private final Queue<Envelope<?>> pending = new ConcurrentLinkedQueue<>();
+
+    /** Whether commands are being executed; only read and written by the tower's thread */
+    private boolean draining = false;
+
+    /**
+     * Submits a command to be executed on the tower's thread. May be called from any thread.
+     * <p>
+     * The returned future is completed on the tower's thread once the command has been executed,
+     * either with the command's result or with the exception it threw. Callers that need to act
+     * on another thread, such as the JavaFX application thread, should use one of the future's
+     * {@code ...Async} methods with a suitable executor.
+     *
+     * @param command command to execute
+     * @param <T> type of the result of the command
+     * @return future completed with the outcome of the command
+     */
+    public <T> CompletableFuture<T> submit(TowerCommand<T> command) {
+        Envelope<T> envelope = new Envelope<>(command);
+        pending.add(envelope);
+        return envelope.result;
+    }
+
+    /**
+     * Executes all commands submitted so far, in the order they were submitted.
+     * <p>
+     * Must only be called by the thread that ticks the given tower. Commands submitted while
+     * draining are left for the next call, so a steady stream of submissions cannot hold up the
+     * simulation indefinitely.
+     * <p>
+     * Draining is not re-entrant: a command that drains the mailbox again, for example by
+     * ticking the tower or calling {@link ControlTower#processCommands()}, fails with an
+     * {@link IllegalStateException}, which completes its future exceptionally.
+     *
+     * @param tower tower to execute the commands on
+     * @return number of commands executed
+     * @throws IllegalStateException if called by a command being executed by this mailbox
+     */
+    public int drain(ControlTower tower) {
+        if (draining) {
+            throw new IllegalStateException("Mailbox is already being drained");
+        }
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        /*
+        The marker is queued behind every command submitted before draining started; polling
+        stops when it is reached, leaving later submissions for the next drain
+         */
+        Envelope<Void> marker = new Envelope<>(null);
+        pending.add(marker);
+        int executed = 0;
+        draining = true;
+        try {
+            for (Envelope<?> envelope = pending.poll(); envelope != marker;
+                    envelope = pending.poll()) {
+                envelope.deliver(tower);
+                executed++;
+            }
+        } finally {
+            draining = false;
+        }
+        return executed;
+    }
+
+    /**
+     * Returns whether there are no commands waiting to be executed.
+     *
+     * @return true if no commands are waiting; false otherwise
+     */
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+}
@@ -1,18 +1,29 @@
 package towersim.control;
 
 import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
 import towersim.aircraft.AircraftType;
 import towersim.ground.AirplaneTerminal;
 import towersim.ground.Gate;
 import towersim.ground.HelicopterTerminal;
 import towersim.ground.Terminal;
+import towersim.recording.LandingEvent;
+import towersim.recording.LoadCompleteEvent;
+import towersim.recording.TakeoffEvent;
+import towersim.recording.TickEvent;
+import towersim.recording.TickPhaseEvent;
+import towersim.stats.WaitTimes;
 import towersim.tasks.Task;
 import towersim.tasks.TaskType;
+import towersim.util.MpscRingBuffer;
+import towersim.util.MutationListener;
 import towersim.util.NoSpaceException;
 import towersim.util.NoSuitableGateException;
 import towersim.util.Tickable;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.UnaryOperator;
 
 /**
  * Represents a the control tower of an airport.
@@ -24,6 +35,9 @@ import java.util.*;
  */
 public class ControlTower implements Tickable {
 
+    /** Number of arriving aircraft that can wait to be admitted at the next tick */
+    public static final int ARRIVALS_CAPACITY = 1 << 14;
+
     /** Number of ticks that have elapsed since tower was first created */
     private long ticksElapsed;
 
@@ -33,8 +47,17 @@ public class ControlTower implements Tickable {
     /** Queue of aircraft waiting to takeoff */
     private TakeoffQueue takeoffQueue;
 
-    /** Mapping of aircraft that are loading cargo to number of ticks remaining for loading*/
-    private Map<Aircraft, Integer> loadingAircraft;
+    /**
+     * Aircraft that are loading cargo, filed by the tick on which they finish loading. The wheel
+     * advances each time aircraft are loaded, so during tick() it is at getTicksElapsed()
+     */
+    private final LoadingWheel loadingAircraft;
+
+    /**
+     * Order in which loading aircraft were given to the tower, used for the loading map until
+     * the first time aircraft are loaded; null if they were given in no particular order
+     */
+    private Comparator<? super Aircraft> initialLoadingOrder;
 
     /** List of terminals under tower jurisdiction */
     private final List<Terminal> terminals;
@@ -45,6 +68,24 @@ public class ControlTower implements Tickable {
     /** Counter for how many times method tick() called */
     private int ticksCalled;
 
+    /** Listeners notified at the end of every tick */
+    private final List<TickListener> tickListeners = new CopyOnWriteArrayList<>();
+
+    /** Commands submitted from other threads, executed at the start of every tick */
+    private final CommandMailbox mailbox = new CommandMailbox();
+
+    /** Aircraft offered by feed threads, admitted at the start of every tick */
+    private final MpscRingBuffer<Aircraft> arrivals = new MpscRingBuffer<>(ARRIVALS_CAPACITY);
+
+    /** Listener notified of changes to this tower and everything it manages; or null if none */
+    private MutationListener mutationListener;
+
+    /** Aircraft under tower jurisdiction, by current task type, emergency and characteristics */
+    private final AircraftIndex aircraftIndex = new AircraftIndex();
+
+    /** How long aircraft have waited in each queue and stayed at gates */
+    private WaitTimes waitTimes = new WaitTimes();
+
     /**
      * Creates a new ControlTower.
      * @ass1
@@ -60,13 +101,40 @@ public class ControlTower implements Tickable {
                         LandingQueue landingQueue,
                         TakeoffQueue takeoffQueue,
                         Map<Aircraft, Integer> loadingAircraft) {
+        this(ticksElapsed, aircraft, landingQueue, takeoffQueue,
+                new LoadingWheel(ticksElapsed),
+                loadingAircraft instanceof SortedMap
+                        ? ((SortedMap<Aircraft, Integer>) loadingAircraft).comparator()
+                        : null);
+        if (loadingAircraft != null) {
+            for (Map.Entry<Aircraft, Integer> entry : loadingAircraft.entrySet()) {
+                this.loadingAircraft.add(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /* Creates a tower with the given loading aircraft and no terminals */
+    private ControlTower(long ticksElapsed, List<Aircraft> aircraft, LandingQueue landingQueue,
+                         TakeoffQueue takeoffQueue, LoadingWheel loadingAircraft,
+                         Comparator<? super Aircraft> initialLoadingOrder) {
         this.ticksElapsed = ticksElapsed;
         this.landingQueue = landingQueue;
         this.takeoffQueue = takeoffQueue;
         this.loadingAircraft = loadingAircraft;
+        this.initialLoadingOrder = initialLoadingOrder;
         this.aircraft = aircraft;
         this.terminals = new ArrayList<>();
         this.ticksCalled = 0;
+        for (Aircraft managed : aircraft) {
+            this.aircraftIndex.add(managed);
+        }
+        // aircraft already queued are timed from when the tower was created
+        for (Aircraft queued : landingQueue.getAircraftInOrder()) {
+            this.waitTimes.start(WaitTimes.Phase.LANDING, queued, ticksElapsed);
+        }
+        for (Aircraft queued : takeoffQueue.getAircraftInOrder()) {
+            this.waitTimes.start(WaitTimes.Phase.TAKEOFF, queued, ticksElapsed);
+        }
     }
 
     /**
@@ -77,6 +145,44 @@ public class ControlTower implements Tickable {
      */
     public void addTerminal(Terminal terminal) {
         this.terminals.add(terminal);
+        for (Gate gate : terminal.getGates()) {
+            if (gate.isOccupied()) {
+                this.waitTimes.start(WaitTimes.Phase.GATE_DWELL, gate.getAircraftAtGate(),
+                        getTicksElapsed());
+            }
+        }
+        if (this.mutationListener != null) {
+            terminal.setMutationListener(this.mutationListener);
+            this.mutationListener.added(terminal);
+        }
+    }
+
+    /**
+     * Removes the given terminal from the jurisdiction of this control tower.
+     * <p>
+     * A terminal with an aircraft parked at any of its gates cannot be removed, since the
+     * aircraft would be left without a gate. If the terminal is not managed by this tower, no
+     * action is taken.
+     *
+     * @param terminal terminal to remove
+     * @return true if the terminal was removed; false otherwise
+     */
+    public boolean removeTerminal(Terminal terminal) {
+        int index = this.terminals.indexOf(terminal);
+        if (index < 0) {
+            return false;
+        }
+        for (Gate gate : this.terminals.get(index).getGates()) {
+            if (gate.isOccupied()) {
+                return false;
+            }
+        }
+        Terminal removed = this.terminals.remove(index);
+        if (this.mutationListener != null) {
+            removed.setMutationListener(null);
+            this.mutationListener.removed(removed);
+        }
+        return true;
     }
 
     /**
@@ -111,6 +217,7 @@ public class ControlTower implements Tickable {
     public void addAircraft(Aircraft aircraft) throws NoSuitableGateException {
         // adds to tower jurisdiction
         this.aircraft.add(aircraft);
+        this.aircraftAdded(aircraft);
         TaskType currentTaskType = aircraft.getTaskList().getCurrentTask().getType();
         try {
             if (currentTaskType == TaskType.WAIT || currentTaskType == TaskType.LOAD) {
@@ -118,6 +225,7 @@ public class ControlTower implements Tickable {
                 Gate gate = findUnoccupiedGate(aircraft);
                 try {
                     gate.parkAircraft(aircraft);
+                    this.waitTimes.start(WaitTimes.Phase.GATE_DWELL, aircraft, getTicksElapsed());
                 } catch (NoSpaceException ignored) {
                     /*
                     This should not be thrown because the findUnoccupiedGate()
@@ -135,6 +243,218 @@ public class ControlTower implements Tickable {
 
     }
 
+    /**
+     * Adds all of the given aircraft to the jurisdiction of this control tower.
+     * <p>
+     * The result is the same as calling {@link #addAircraft(Aircraft)} for each aircraft in
+     * order, with two differences that make partial failure explicit:
+     * <ul>
+     * <li>an aircraft already managed by the tower, or equal to an earlier aircraft in the batch,
+     * is rejected as a {@code DUPLICATE}</li>
+     * <li>a {@code WAIT} or {@code LOAD} aircraft for which no suitable gate is free is rejected
+     * with {@code NO_SUITABLE_GATE}, rather than being added without a gate</li>
+     * </ul>
+     * Rejected aircraft are not added to the tower at all. Admitted aircraft are added in the
+     * order given, parked at the same gates that {@code addAircraft()} would have chosen, and
+     * placed in the appropriate queues.
+     * <p>
+     * Gates are assigned in a single sweep over the compatible terminals for each aircraft type,
+     * and queue membership is checked once for the whole batch, so admitting n aircraft costs
+     * O(n + g) for g gates rather than O(n &times; (g + q)) for queues of length q.
+     *
+     * @param newAircraft aircraft to add
+     * @return which aircraft were admitted and which were rejected, and why
+     */
+    public AdmissionResult addAllAircraft(Collection<? extends Aircraft> newAircraft) {
+        AdmissionResult result = new AdmissionResult();
+        Set<Aircraft> known = new HashSet<>(this.aircraft);
+        List<Aircraft> candidates = new ArrayList<>(newAircraft.size());
+        Map<AircraftType, List<Aircraft>> needGate = new EnumMap<>(AircraftType.class);
+        for (Aircraft candidate : newAircraft) {
+            if (!known.add(candidate)) {
+                result.reject(candidate, AdmissionResult.Rejection.DUPLICATE);
+                continue;
+            }
+            candidates.add(candidate);
+            TaskType taskType = candidate.getTaskList().getCurrentTask().getType();
+            if (taskType == TaskType.WAIT || taskType == TaskType.LOAD) {
+                needGate.computeIfAbsent(candidate.getCharacteristics().type,
+                        type -> new ArrayList<>()).add(candidate);
+            }
+        }
+
+        /*
+        Aircraft of different types never compete for the same terminal, so assigning each
+        type's gates in batch order gives the same gates as admitting aircraft one at a time
+         */
+        Map<Aircraft, Gate> assignedGates = new IdentityHashMap<>();
+        for (Map.Entry<AircraftType, List<Aircraft>> group : needGate.entrySet()) {
+            Iterator<Aircraft> waiting = group.getValue().iterator();
+            for (Terminal terminal : this.terminals) {
+                if (!waiting.hasNext()) {
+                    break;
+                }
+                if (!isCompatible(terminal, group.getKey()) || terminal.hasEmergency()) {
+                    continue;
+                }
+                for (Gate gate : terminal.getGates()) {
+                    if (!waiting.hasNext()) {
+                        break;
+                    }
+                    if (!gate.isOccupied()) {
+                        assignedGates.put(waiting.next(), gate);
+                    }
+                }
+            }
+            while (waiting.hasNext()) {
+                result.reject(waiting.next(), AdmissionResult.Rejection.NO_SUITABLE_GATE);
+            }
+        }
+
+        Set<Aircraft> landing = new HashSet<>(this.landingQueue.getAircraftInOrder());
+        Set<Aircraft> takingOff = new HashSet<>(this.takeoffQueue.getAircraftInOrder());
+        for (Aircraft candidate : candidates) {
+            TaskType taskType = candidate.getTaskList().getCurrentTask().getType();
+            Gate gate = assignedGates.get(candidate);
+            if (taskType == TaskType.WAIT || taskType == TaskType.LOAD) {
+                if (gate == null) {
+                    continue;
+                }
+                try {
+                    gate.parkAircraft(candidate);
+                    this.waitTimes.start(WaitTimes.Phase.GATE_DWELL, candidate,
+                            getTicksElapsed());
+                } catch (NoSpaceException ignored) {
+                    // not possible, since only unoccupied gates were assigned
+                }
+            }
+            this.aircraft.add(candidate);
+            this.aircraftAdded(candidate);
+            if (taskType == TaskType.LAND && landing.add(candidate)) {
+                this.landingQueue.addAircraft(candidate);
+                this.waitTimes.start(WaitTimes.Phase.LANDING, candidate, getTicksElapsed());
+            } else if (taskType == TaskType.TAKEOFF && takingOff.add(candidate)) {
+                this.takeoffQueue.addAircraft(candidate);
+                this.waitTimes.start(WaitTimes.Phase.TAKEOFF, candidate, getTicksElapsed());
+            } else if (taskType == TaskType.LOAD) {
+                this.loadingAircraft.add(candidate, candidate.getLoadingTime());
+            }
+            result.admit(candidate);
+        }
+        return result;
+    }
+
+    /**
+     * Removes the given aircraft from the jurisdiction of this control tower.
+     * <p>
+     * Only aircraft whose current task type is {@code AWAY} may be removed, as these aircraft
+     * are not parked at a gate and are not waiting in any queue. If the aircraft is not
+     * currently {@code AWAY} or is not managed by this tower, no action is taken.
+     *
+     * @param aircraft aircraft to remove
+     * @return true if the aircraft was removed; false otherwise
+     */
+    public boolean removeAircraft(Aircraft aircraft) {
+        if (aircraft.getTaskList().getCurrentTask().getType() != TaskType.AWAY) {
+            return false;
+        }
+        int index = this.aircraft.indexOf(aircraft);
+        if (index < 0) {
+            return false;
+        }
+        Aircraft removed = this.aircraft.remove(index);
+        this.aircraftIndex.remove(removed);
+        if (this.mutationListener != null) {
+            this.mutationListener.removed(removed);
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the managed aircraft equal to the given aircraft with it, keeping its place in
+     * the order of {@link #getAircraft()}.
+     * <p>
+     * As with {@link #removeAircraft(Aircraft)}, only an aircraft whose current task type is
+     * {@code AWAY} may be replaced, and only by an aircraft that is also {@code AWAY}, since
+     * neither is parked at a gate or waiting in any queue. Otherwise no action is taken.
+     *
+     * @param replacement aircraft to replace the equal managed aircraft with
+     * @return true if the aircraft was replaced; false otherwise
+     */
+    public boolean replaceAircraft(Aircraft replacement) {
+        if (replacement.getTaskList().getCurrentTask().getType() != TaskType.AWAY) {
+            return false;
+        }
+        int index = this.aircraft.indexOf(replacement);
+        if (index < 0) {
+            return false;
+        }
+        Aircraft replaced = this.aircraft.get(index);
+        if (replaced.getTaskList().getCurrentTask().getType() != TaskType.AWAY) {
+            return false;
+        }
+        this.aircraft.set(index, replacement);
+        this.aircraftIndex.remove(replaced);
+        if (this.mutationListener != null) {
+            this.mutationListener.removed(replaced);
+        }
+        this.aircraftAdded(replacement);
+        return true;
+    }
+
+    /* Indexes a newly managed aircraft and tells the listener, if any, that it was added */
+    private void aircraftAdded(Aircraft aircraft) {
+        this.aircraftIndex.add(aircraft);
+        if (this.mutationListener != null) {
+            this.mutationListener.added(aircraft);
+        }
+    }
+
+    /**
+     * Offers a new or updated aircraft to be admitted to this tower at the start of the next
+     * tick. May be called from any thread, and never blocks.
+     * <p>
+     * When admitted, an aircraft equal to one already managed by the tower replaces it if the
+     * managed aircraft is {@code AWAY}, and is ignored otherwise, since aircraft parked at a gate
+     * or waiting in a queue cannot be replaced. Any other aircraft is added as if by
+     * {@link #addAircraft(Aircraft)}.
+     *
+     * @param aircraft aircraft to admit
+     * @return true if the aircraft will be admitted; false if too many aircraft are already
+     * waiting and the caller should retry later
+     */
+    public boolean offerArrival(Aircraft aircraft) {
+        return this.arrivals.offer(aircraft);
+    }
+
+    /* Admits every aircraft offered since the last tick, in the order they were offered */
+    private void admitArrivals() {
+        if (this.arrivals.isEmpty()) {
+            return;
+        }
+        List<Aircraft> arrived = new ArrayList<>();
+        this.arrivals.drain(arrived::add);
+        Map<Aircraft, Aircraft> managed = new HashMap<>(this.aircraft.size() * 2);
+        for (Aircraft existing : this.aircraft) {
+            managed.put(existing, existing);
+        }
+        for (Aircraft arrival : arrived) {
+            Aircraft existing = managed.get(arrival);
+            if (existing == arrival || (existing != null && !this.removeAircraft(existing))) {
+                continue;
+            }
+            try {
+                this.addAircraft(arrival);
+            } catch (NoSuitableGateException ignored) {
+                /*
+                As with addAircraft(), the aircraft is still managed by the tower; it just
+                could not be parked
+                 */
+            }
+            managed.put(arrival, arrival);
+        }
+    }
+
     /**
      * Returns a list of all aircraft currently managed by this control tower.
      * <p>
@@ -150,6 +470,51 @@ public class ControlTower implements Tickable {
         return new ArrayList<>(this.aircraft);
     }
 
+    /**
+     * Returns all aircraft managed by this control tower whose current task has the given type.
+     * <p>
+     * Aircraft appear in the same order as in {@link #getAircraft()}. The tower keeps its
+     * aircraft indexed by current task type as their tasks change, so this takes time
+     * proportional to the number of aircraft returned rather than the number managed.
+     * <p>
+     * Adding or removing elements from the returned list does not affect the tower.
+     *
+     * @param taskType type of current task
+     * @return aircraft currently on a task of that type
+     */
+    public List<Aircraft> getAircraftWithTask(TaskType taskType) {
+        return this.aircraftIndex.withTaskType(taskType);
+    }
+
+    /**
+     * Returns all aircraft managed by this control tower that are in a state of emergency.
+     * <p>
+     * Aircraft appear in the same order as in {@link #getAircraft()}, and are found in time
+     * proportional to the number of aircraft returned.
+     * <p>
+     * Adding or removing elements from the returned list does not affect the tower.
+     *
+     * @return aircraft in a state of emergency
+     */
+    public List<Aircraft> getAircraftWithEmergency() {
+        return this.aircraftIndex.withEmergency();
+    }
+
+    /**
+     * Returns all aircraft managed by this control tower with the given characteristics.
+     * <p>
+     * Aircraft appear in the same order as in {@link #getAircraft()}, and are found in time
+     * proportional to the number of aircraft returned.
+     * <p>
+     * Adding or removing elements from the returned list does not affect the tower.
+     *
+     * @param characteristics characteristics of aircraft
+     * @return aircraft with those characteristics
+     */
+    public List<Aircraft> getAircraftWithCharacteristics(AircraftCharacteristics characteristics) {
+        return this.aircraftIndex.withCharacteristics(characteristics);
+    }
+
     /**
      * Attempts to find an unoccupied gate in a compatible terminal for the given aircraft.
      * <p>
@@ -180,10 +545,7 @@ public class ControlTower implements Tickable {
              * Only check for available gates at terminals that are of the same aircraft type as
              * the aircraft
              */
-            if (((terminal instanceof AirplaneTerminal && aircraftType == AircraftType.AIRPLANE)
-                    || (terminal instanceof HelicopterTerminal
-                            && aircraftType == AircraftType.HELICOPTER))
-                    && !terminal.hasEmergency()) {
+            if (isCompatible(terminal, aircraftType) && !terminal.hasEmergency()) {
                 try {
                     // This terminal found a gate, return it
 
@@ -196,6 +558,13 @@ public class ControlTower implements Tickable {
         throw new NoSuitableGateException("No gate available for aircraft");
     }
 
+    /* Returns whether the given terminal accommodates aircraft of the given type */
+    private static boolean isCompatible(Terminal terminal, AircraftType aircraftType) {
+        return (terminal instanceof AirplaneTerminal && aircraftType == AircraftType.AIRPLANE)
+                || (terminal instanceof HelicopterTerminal
+                        && aircraftType == AircraftType.HELICOPTER);
+    }
+
     /**
      * Finds the gate where the given aircraft is parked, and returns null if the aircraft is
      * not parked at any gate in any terminal.
@@ -215,22 +584,58 @@ public class ControlTower implements Tickable {
         return null;
     }
 
+    /**
+     * Returns the gate of every aircraft parked at a gate in any terminal, in a single pass over
+     * the gates rather than one per aircraft as with {@link #findGateOfAircraft(Aircraft)}.
+     * <p>
+     * Aircraft are mapped by reference. Changing the returned map does not affect the tower.
+     *
+     * @return gate of each parked aircraft
+     */
+    public Map<Aircraft, Gate> getParkedAircraftGates() {
+        Map<Aircraft, Gate> parked = new IdentityHashMap<>();
+        for (Terminal terminal : this.terminals) {
+            for (Gate gate : terminal.getGates()) {
+                if (gate.getAircraftAtGate() != null) {
+                    parked.put(gate.getAircraftAtGate(), gate);
+                }
+            }
+        }
+        return parked;
+    }
+
     /**
      * Advances the simulation by one tick.
      * <p>
      * On each tick, the control tower should call {@link Aircraft#tick()} on all aircraft managed
      * by the control tower.
      * <p>
+     * Before anything else, every command waiting in the tower's {@link #getMailbox() mailbox}
+     * is executed, and then every aircraft offered by {@link #offerArrival(Aircraft)} is
+     * admitted.
+     * <p>
+     * Each tick and each of its phases is timed by a flight recorder event, as is each decision
+     * to land, takeoff and completed load; see {@link TickEvent}.
+     * <p>
      * Note that the actions performed by {@code tick()} are very simple at the moment and will be
      * expanded on in assignment 2.
      * @ass1
      */
     @Override
     public void tick() {
+        TickEvent tickEvent = new TickEvent();
+        tickEvent.begin();
+        // apply changes submitted since the last tick before doing any of this tick's work
+        TickPhaseEvent phase = TickPhaseEvent.start(TickPhaseEvent.MAILBOX);
+        this.mailbox.drain(this);
+        phase = phase.next(TickPhaseEvent.ARRIVALS);
+        this.admitArrivals();
+
         //increment the counter
         this.ticksCalled++;
 
         // Call tick() on all other sub-entities
+        phase = phase.next(TickPhaseEvent.AIRCRAFT);
         for (Aircraft aircraft : this.aircraft) {
             aircraft.tick();
             //move all aircraft with AWAY or WAIT to next task
@@ -240,9 +645,11 @@ public class ControlTower implements Tickable {
             }
         }
         //process loading aircraft
+        phase = phase.next(TickPhaseEvent.LOADING);
         loadAircraft();
 
         // try land or allow takeoff every second tick
+        phase = phase.next(TickPhaseEvent.RUNWAY);
         if ((this.ticksCalled % 2) == 0) {
             boolean canBeLanded = this.tryLandAircraft();
             if (canBeLanded == false) {
@@ -252,7 +659,103 @@ public class ControlTower implements Tickable {
             this.tryTakeOffAircraft();
         }
         //place all aircraft in appropriate queue
+        phase = phase.next(TickPhaseEvent.QUEUES);
         this.placeAllAircraftInQueues();
+
+        phase = phase.next(TickPhaseEvent.LISTENERS);
+        for (TickListener listener : this.tickListeners) {
+            listener.onTick(this);
+        }
+        phase.commit();
+        tickEvent.finish(this);
+    }
+
+    /**
+     * Returns how long aircraft managed by this tower have waited to land, waited to take off
+     * and stayed parked at gates.
+     * <p>
+     * Aircraft are timed from when they join a queue or park at a gate while managed by the
+     * tower. Aircraft already queued or parked when the tower was created are timed from then,
+     * unless the wait times are loaded from a save with {@link WaitTimes#load}.
+     *
+     * @return wait times of this tower
+     */
+    public WaitTimes getWaitTimes() {
+        return this.waitTimes;
+    }
+
+    /**
+     * Returns the mailbox through which other threads submit changes to this tower.
+     * <p>
+     * Commands in the mailbox are executed at the start of every tick. Owners of the tower that
+     * need changes applied between ticks, such as while the simulation is paused, may also call
+     * {@link #processCommands()} from the thread that ticks the tower.
+     *
+     * @return command mailbox of this tower
+     */
+    public CommandMailbox getMailbox() {
+        return this.mailbox;
+    }
+
+    /**
+     * Executes every command submitted to this tower's mailbox so far, outside of a tick, and
+     * notifies every tick listener with {@link TickListener#onCommandsExecuted(ControlTower)} if
+     * any were executed.
+     * <p>
+     * Must only be called by the thread that ticks this tower.
+     *
+     * @return number of commands executed
+     */
+    public int processCommands() {
+        int executed = this.mailbox.drain(this);
+        if (executed > 0) {
+            for (TickListener listener : this.tickListeners) {
+                listener.onCommandsExecuted(this);
+            }
+        }
+        return executed;
+    }
+
+    /**
+     * Sets the listener to notify whenever this tower changes in a way that would change how it
+     * is saved, replacing any previous listener.
+     * <p>
+     * The listener is set on every terminal and queue managed by the tower, and on every terminal
+     * added later, and is told of every change to an aircraft managed by the tower. It is told
+     * when aircraft and terminals are added to or removed from the tower. Changes to the ticks
+     * remaining of loading aircraft are not reported, since these change on every tick.
+     *
+     * @param listener listener to notify; or null to stop notifying
+     */
+    public void setMutationListener(MutationListener listener) {
+        this.mutationListener = listener;
+        this.aircraftIndex.setMutationListener(listener);
+        for (Terminal terminal : this.terminals) {
+            terminal.setMutationListener(listener);
+        }
+        this.landingQueue.setMutationListener(listener);
+        this.takeoffQueue.setMutationListener(listener);
+    }
+
+    /**
+     * Registers a listener to be notified at the end of every tick of this tower.
+     * <p>
+     * Listeners are notified in the order they were added.
+     *
+     * @param listener listener to add
+     */
+    public void addTickListener(TickListener listener) {
+        this.tickListeners.add(listener);
+    }
+
+    /**
+     * Stops notifying the given listener at the end of every tick. If the listener was not
+     * registered, no action is taken.
+     *
+     * @param listener listener to remove
+     */
+    public void removeTickListener(TickListener listener) {
+        this.tickListeners.remove(listener);
     }
 
 
@@ -284,10 +787,32 @@ public class ControlTower implements Tickable {
 
     /**
      * Return the mapping of the loading aircraft to their remaining load times
+     * <p>
+     * The returned map is a snapshot that cannot be modified, and does not change as aircraft
+     * load. This differs from earlier versions, which returned the tower's own map; aircraft
+     * start loading through {@link #placeAircraftInQueues(Aircraft)} and stop through
+     * {@link #loadAircraft()}, and the map must be fetched again to see their changes.
+     * <p>
+     * Until aircraft are first loaded by {@link #loadAircraft()}, the map is ordered the same as
+     * the map given to the constructor if that map was sorted. Otherwise, aircraft are in the
+     * order they started loading, so the order never depends on how aircraft are hashed.
      * @return loading aircraft map
      */
     public Map<Aircraft, Integer> getLoadingAircraft() {
-        return this.loadingAircraft;
+        Map<Aircraft, Integer> loading = this.initialLoadingOrder == null
+                ? new LinkedHashMap<>()
+                : new TreeMap<>(this.initialLoadingOrder);
+        return Collections.unmodifiableMap(this.loadingAircraft.copyInto(loading));
+    }
+
+    /**
+     * Returns the number of aircraft currently loading, without taking a snapshot of them as
+     * {@link #getLoadingAircraft()} does.
+     *
+     * @return number of loading aircraft
+     */
+    public int getNumLoadingAircraft() {
+        return this.loadingAircraft.size();
     }
 
     /**
@@ -307,18 +832,24 @@ public class ControlTower implements Tickable {
             return false;
         }
         Aircraft aircraftToLand = this.landingQueue.peekAircraft();
+        LandingEvent event = new LandingEvent();
+        event.begin();
         try {
             // finds gate
             Gate gateToLand = this.findUnoccupiedGate(aircraftToLand);
+            event.finish(getTicksElapsed(), aircraftToLand, gateToLand);
             // removes from queue
             this.landingQueue.removeAircraft();
             // parks at gate, unload aircraft and moves to next task
             gateToLand.parkAircraft(aircraftToLand);
+            this.waitTimes.finish(WaitTimes.Phase.LANDING, aircraftToLand, getTicksElapsed());
+            this.waitTimes.start(WaitTimes.Phase.GATE_DWELL, aircraftToLand, getTicksElapsed());
             aircraftToLand.unload();
             aircraftToLand.getTaskList().moveToNextTask();
             return true;
         } catch (NoSuitableGateException e) {
             // no gate found, do nothing and return false
+            event.finish(getTicksElapsed(), aircraftToLand, null);
             return false;
         } catch (NoSpaceException ignored) {
             /*
@@ -340,8 +871,13 @@ public class ControlTower implements Tickable {
         if (this.getTakeoffQueue().getAircraftInOrder().isEmpty()) {
             // if queue is empty d nothing
         } else {
-            this.getTakeoffQueue().peekAircraft().getTaskList().moveToNextTask();
+            TakeoffEvent event = new TakeoffEvent();
+            event.begin();
+            Aircraft aircraftTakingOff = this.getTakeoffQueue().peekAircraft();
+            aircraftTakingOff.getTaskList().moveToNextTask();
             this.getTakeoffQueue().removeAircraft();
+            this.waitTimes.finish(WaitTimes.Phase.TAKEOFF, aircraftTakingOff, getTicksElapsed());
+            event.finish(getTicksElapsed(), aircraftTakingOff);
         }
     }
 
@@ -351,33 +887,24 @@ public class ControlTower implements Tickable {
      * Aicraft in loading map should have their time remaining decremented by one tick;
      * If time == 0, then remove from loading map and leave the gate it is parked.
      * Said aircraft must also move onto the next task.
+     * <p>
+     * Only the aircraft that finish loading on this tick are visited; the time remaining for
+     * every other aircraft follows from the tick on which it finishes.
      */
     public void loadAircraft() {
-        /*
-        To prevent Concurrent Modification Exception, create an new map
-        to update/decrement the ticks .
-         */
-        Map<Aircraft, Integer> updatedLoadingAircraft = new HashMap<>();
-        for (Map.Entry<Aircraft, Integer> aircraftWithLoad : this.getLoadingAircraft().entrySet()) {
-            // decrement ticks
-            int newTime = aircraftWithLoad.getValue() - 1;
-            Aircraft aircraftLoaded = aircraftWithLoad.getKey();
-            if (newTime > 0) { // update decremented ticks
-                updatedLoadingAircraft.put(aircraftLoaded, newTime);
-            } else if (newTime == 0) {
-                /*
-                If tick is 0 after decremented, remove from loading map.
-                Do not have to add to thew new updated map.
-                 */
-                if (this.findGateOfAircraft(aircraftLoaded) != null) {
-                    this.findGateOfAircraft(aircraftLoaded).aircraftLeaves();
-                }
-                // should move onto next task
-                aircraftLoaded.getTaskList().moveToNextTask();
+        this.initialLoadingOrder = null;
+        this.loadingAircraft.advance(aircraftLoaded -> {
+            LoadCompleteEvent event = new LoadCompleteEvent();
+            event.begin();
+            Gate gate = this.findGateOfAircraft(aircraftLoaded);
+            if (gate != null) {
+                gate.aircraftLeaves();
             }
-        }
-        // updates this tower's loadingAircraft
-        this.loadingAircraft = updatedLoadingAircraft;
+            this.waitTimes.finish(WaitTimes.Phase.GATE_DWELL, aircraftLoaded, getTicksElapsed());
+            // should move onto next task
+            aircraftLoaded.getTaskList().moveToNextTask();
+            event.finish(getTicksElapsed(), aircraftLoaded, gate);
+        });
     }
 
     /**
@@ -400,13 +927,51 @@ public class ControlTower implements Tickable {
         if (aircraft.getTaskList().getCurrentTask().getType() == TaskType.LAND
                 && !this.getLandingQueue().getAircraftInOrder().contains(aircraft)) {
             this.getLandingQueue().addAircraft(aircraft);
+            this.waitTimes.start(WaitTimes.Phase.LANDING, aircraft, getTicksElapsed());
         } else if (aircraft.getTaskList().getCurrentTask().getType() == TaskType.TAKEOFF
                 && !this.getTakeoffQueue().getAircraftInOrder().contains(aircraft)) {
             this.getTakeoffQueue().addAircraft(aircraft);
+            this.waitTimes.start(WaitTimes.Phase.TAKEOFF, aircraft, getTicksElapsed());
         } else if (aircraft.getTaskList().getCurrentTask().getType() == TaskType.LOAD
-                && !this.getLoadingAircraft().containsKey(aircraft)) {
-            this.loadingAircraft.put(aircraft, aircraft.getLoadingTime());
+                && !this.loadingAircraft.contains(aircraft)) {
+            this.loadingAircraft.add(aircraft, aircraft.getLoadingTime());
+        }
+    }
+
+    /**
+     * Returns an independent copy of this control tower.
+     * <p>
+     * The copy has the same ticks elapsed, terminals, gates, aircraft, queues and loading
+     * aircraft as this tower, and ticks exactly as this tower would. Aircraft, gates, terminals
+     * and queues are copied, since each of them changes as the simulation runs; immutable state
+     * such as aircraft characteristics and the tasks of each task list is shared with this
+     * tower. Ticking or otherwise changing the copy does not affect this tower, and vice versa.
+     * <p>
+     * Tick listeners, commands waiting in the mailbox and aircraft waiting to be admitted are not
+     * copied.
+     *
+     * @return copy of this tower
+     */
+    public ControlTower fork() {
+        // aircraft are identified by reference, so each is copied exactly once
+        Map<Aircraft, Aircraft> copies = new IdentityHashMap<>(this.aircraft.size() * 2);
+        UnaryOperator<Aircraft> aircraftCopies = original ->
+                copies.computeIfAbsent(original, Aircraft::copy);
+
+        List<Aircraft> aircraftCopy = new ArrayList<>(this.aircraft.size());
+        for (Aircraft original : this.aircraft) {
+            aircraftCopy.add(aircraftCopies.apply(original));
+        }
+
+        ControlTower copy = new ControlTower(this.ticksElapsed, aircraftCopy,
+                this.landingQueue.copy(aircraftCopies), this.takeoffQueue.copy(aircraftCopies),
+                this.loadingAircraft.copy(aircraftCopies), this.initialLoadingOrder);
+        copy.ticksCalled = this.ticksCalled;
+        copy.waitTimes = this.waitTimes.copy(aircraftCopies);
+        for (Terminal terminal : this.terminals) {
+            copy.terminals.add(terminal.copy(aircraftCopies));
         }
+        return copy;
     }
 
     /**
@@ -423,6 +988,6 @@ public class ControlTower implements Tickable {
                 this.getAircraft().size(),
                 this.getLandingQueue().getAircraftInOrder().size(),
                 this.getTakeoffQueue().getAircraftInOrder().size(),
-                this.getLoadingAircraft().size());
+                this.loadingAircraft.size());
     }
 }
@@ -5,6 +5,7 @@ import towersim.ground.AirplaneTerminal;
 import towersim.ground.Gate;
 import towersim.ground.HelicopterTerminal;
 import towersim.ground.Terminal;
+import towersim.recording.SaveReadEvent;
 import towersim.tasks.Task;
 import towersim.tasks.TaskList;
 import towersim.tasks.TaskType;
@@ -270,7 +271,9 @@ public class ControlTowerInitialiser {
     public static ControlTower createControlTower(Reader tick, Reader aircraft, Reader queues,
                                                   Reader terminalsWithGates)
             throws MalformedSaveException, IOException {
-
+        SaveReadEvent event = new SaveReadEvent();
+        event.begin();
+        ControlTower controlTower = null;
         try {
             List<Aircraft> aircraftsLoaded;
             // load ticks and aircraft
@@ -288,7 +291,7 @@ public class ControlTowerInitialiser {
                     Aircraft::getCallsign));
             loadQueues(queues, aircraftsLoaded, takeOffQueue, landingQueue, loadingAircraft);
             // creates control tower from loaded entities
-            ControlTower controlTower = new ControlTower(ticksLoaded, aircraftsLoaded, landingQueue,
+            controlTower = new ControlTower(ticksLoaded, aircraftsLoaded, landingQueue,
                     takeOffQueue, loadingAircraft);
             // add terminals to control tower's jurisdiction
             for (Terminal terminalToAdd : terminalsLoaded) {
@@ -297,6 +300,8 @@ public class ControlTowerInitialiser {
             return controlTower;
         } catch (IOException ioe) {
             throw new IOException("encountered problem with reading the files");
+        } finally {
+            event.finish("text", controlTower);
         }
     }
 
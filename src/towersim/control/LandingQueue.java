@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.function.UnaryOperator;
 
 /**
  * Represents a rule-based queue of aircraft waiting in the air to land.
@@ -15,6 +16,39 @@ import java.util.Queue;
  */
 public class LandingQueue extends AircraftQueue {
 
+    /**
+     * Urgency tiers of aircraft waiting to land, most urgent first. Aircraft in a more urgent
+     * tier always land before those in a less urgent one.
+     */
+    public enum Tier {
+        /** Aircraft in a state of emergency */
+        EMERGENCY,
+        /** Aircraft with 20% or less of their fuel remaining */
+        LOW_FUEL,
+        /** Passenger aircraft with passengers on board */
+        PASSENGERS,
+        /** All other aircraft */
+        OTHER;
+
+        /**
+         * Returns the tier the given aircraft currently belongs to.
+         *
+         * @param aircraft aircraft waiting to land
+         * @return urgency tier of the aircraft
+         */
+        public static Tier of(Aircraft aircraft) {
+            if (aircraft.hasEmergency()) {
+                return EMERGENCY;
+            } else if (aircraft.getFuelPercentRemaining() <= 20) {
+                return LOW_FUEL;
+            } else if ((aircraft instanceof PassengerAircraft)
+                    && (aircraft.calculateOccupancyLevel() != 0)) {
+                return PASSENGERS;
+            }
+            return OTHER;
+        }
+    }
+
     /** Queue of aircraft waiting to land */
     private Queue<Aircraft> aircraftLandingQueue;
 
@@ -30,6 +64,23 @@ public class LandingQueue extends AircraftQueue {
         this.aircraftLandingQueue = new LinkedList();
     }
 
+    /**
+     * Returns a new landing queue holding the copy of each aircraft in this queue.
+     * <p>
+     * Aircraft are kept in the order they were added, so the copy orders aircraft exactly as
+     * this queue does, now and after any later changes to their fuel or emergency state.
+     *
+     * @param aircraftCopies function returning the copy of a given aircraft
+     * @return copy of this queue
+     */
+    LandingQueue copy(UnaryOperator<Aircraft> aircraftCopies) {
+        LandingQueue copy = new LandingQueue();
+        for (Aircraft aircraft : this.unsortedQueue) {
+            copy.unsortedQueue.add(aircraftCopies.apply(aircraft));
+        }
+        return copy;
+    }
+
     /**
      * Adds the given aircraft to the queue.
      * In this case, the queue does not yet needed to be sorted as this
@@ -39,6 +90,7 @@ public class LandingQueue extends AircraftQueue {
     @Override
     public void addAircraft(Aircraft aircraft) {
         this.unsortedQueue.add(aircraft);
+        notifyMutation();
     }
 
     /**
@@ -51,7 +103,9 @@ public class LandingQueue extends AircraftQueue {
         // remove from sorted queue
         Aircraft toRemoveAircraft = aircraftLandingQueue.poll();
         //remove from unsorted list
-        unsortedQueue.remove(toRemoveAircraft);
+        if (unsortedQueue.remove(toRemoveAircraft)) {
+            notifyMutation();
+        }
         return toRemoveAircraft;
     }
 
@@ -87,15 +141,18 @@ public class LandingQueue extends AircraftQueue {
         them to the correct arraylist according to their of emergency/urgency
          */
         for (Aircraft unsortedAircraft : this.unsortedQueue) {
-            if (unsortedAircraft.hasEmergency()) {
-                inEmergencyAircraft.add(unsortedAircraft);
-            } else if (unsortedAircraft.getFuelPercentRemaining() <= 20) {
-                lowFuelListAircraft.add(unsortedAircraft);
-            } else if ((unsortedAircraft instanceof PassengerAircraft)
-                    && (unsortedAircraft.calculateOccupancyLevel() != 0)) {
-                hasPassengerAircraft.add(unsortedAircraft);
-            } else {
-                otherAircraft.add(unsortedAircraft);
+            switch (Tier.of(unsortedAircraft)) {
+                case EMERGENCY:
+                    inEmergencyAircraft.add(unsortedAircraft);
+                    break;
+                case LOW_FUEL:
+                    lowFuelListAircraft.add(unsortedAircraft);
+                    break;
+                case PASSENGERS:
+                    hasPassengerAircraft.add(unsortedAircraft);
+                    break;
+                default:
+                    otherAircraft.add(unsortedAircraft);
             }
         }
         /*
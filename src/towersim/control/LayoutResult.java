@@ -0,0 +1,122 @@
+package towersim.control;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Outcome of applying a {@link TerminalLayout} to a control tower.
+ * <p>
+ * Every difference between the layout and the tower's terminals is either applied, and counted
+ * by the kind of change, or deferred because an aircraft is parked at a gate that the layout
+ * removes. Deferred changes are left for a later application of the layout.
+ */
+public class LayoutResult {
+
+    /** Kind of change made to the tower's terminals */
+    public enum Change {
+        /** A terminal was added, with all its gates */
+        TERMINAL_ADDED,
+        /** A terminal, with none of its gates occupied, was removed */
+        TERMINAL_REMOVED,
+        /** A gate was added to an existing terminal */
+        GATE_ADDED,
+        /** An unoccupied gate was removed from an existing terminal */
+        GATE_REMOVED,
+        /** A terminal's state of emergency was declared or cleared */
+        EMERGENCY_CHANGED
+    }
+
+    /** Number of changes of each kind that were made */
+    private final Map<Change, Integer> counts = new EnumMap<>(Change.class);
+
+    /** Descriptions of the changes that were deferred, in the order they were found */
+    private final List<String> deferred = new ArrayList<>();
+
+    /**
+     * Creates a new, empty result.
+     */
+    LayoutResult() {
+        for (Change change : Change.values()) {
+            counts.put(change, 0);
+        }
+    }
+
+    /* Records a change as made */
+    void record(Change change) {
+        counts.merge(change, 1, Integer::sum);
+    }
+
+    /* Records a change as deferred, with a description of it */
+    void defer(String description) {
+        deferred.add(description);
+    }
+
+    /**
+     * Returns whether the tower's terminals now match the layout.
+     *
+     * @return true if no change was deferred; false otherwise
+     */
+    public boolean isComplete() {
+        return deferred.isEmpty();
+    }
+
+    /**
+     * Returns whether anything in the tower was changed.
+     *
+     * @return true if at least one change was made; false otherwise
+     */
+    public boolean hasChanges() {
+        for (int count : counts.values()) {
+            if (count > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of changes of the given kind that were made.
+     *
+     * @param change kind of change
+     * @return number of changes made
+     */
+    public int getCount(Change change) {
+        return counts.get(change);
+    }
+
+    /**
+     * Returns a description of each change that was deferred, in the order they were found.
+     *
+     * @return unmodifiable list of deferred changes
+     */
+    public List<String> getDeferred() {
+        return Collections.unmodifiableList(deferred);
+    }
+
+    /**
+     * Returns the human-readable string representation of this result.
+     * <p>
+     * The format is a comma-separated list of {@code change=count} for each kind of change made,
+     * followed by {@code deferred=[...]} listing any deferred changes. For example,
+     * {@code "GATE_REMOVED=1, deferred=[Gate 4 is occupied]"}.
+     *
+     * @return string representation of this result
+     */
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (Map.Entry<Change, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() > 0) {
+                joiner.add(entry.getKey() + "=" + entry.getValue());
+            }
+        }
+        if (!deferred.isEmpty()) {
+            joiner.add("deferred=" + deferred);
+        }
+        return joiner.length() == 0 ? "no changes" : joiner.toString();
+    }
+}
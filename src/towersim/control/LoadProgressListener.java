@@ -0,0 +1,37 @@
+package towersim.control;
+
+import towersim.ground.Terminal;
+
+/**
+ * Listener told how far loading a control tower from save files has progressed.
+ * <p>
+ * Save files may be loaded on several threads at once, so a listener may be called from any
+ * thread, including more than one at a time, and must not modify what it is given.
+ */
+public interface LoadProgressListener {
+
+    /** Listener that ignores all progress */
+    LoadProgressListener NONE = new LoadProgressListener() {};
+
+    /**
+     * Called as aircraft are read from the aircraft file, every so often and once all have been
+     * read.
+     *
+     * @param loaded number of aircraft read so far
+     * @param total number of aircraft in the file
+     */
+    default void aircraftLoaded(int loaded, int total) {}
+
+    /**
+     * Called once a terminal and its gates have been read, before aircraft are parked at its
+     * gates.
+     * <p>
+     * If the terminals file has to be read again, such as when it is not in the form written by
+     * a save, the same terminal may be reported more than once.
+     *
+     * @param terminal terminal that was read
+     * @param loaded number of terminals read so far
+     * @param total number of terminals in the file
+     */
+    default void terminalLoaded(Terminal terminal, int loaded, int total) {}
+}
@@ -0,0 +1,184 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Hashed timing wheel holding the loading countdowns of a control tower.
+ * <p>
+ * Each loading aircraft is filed in the slot of the tick on which it finishes loading, so
+ * advancing the wheel by one tick only visits the aircraft in that tick's slot rather than every
+ * loading aircraft. Aircraft finishing more than one revolution ahead share a slot with earlier
+ * aircraft and are skipped until their tick comes around.
+ * <p>
+ * The number of ticks remaining for an aircraft is not stored; it is derived from its
+ * completion tick and the wheel's current tick.
+ */
+class LoadingWheel {
+
+    /** Number of slots in the wheel; a power of two so slots can be found by masking */
+    private static final int SLOTS = 64;
+
+    /** Heads of the singly linked list of entries filed in each slot */
+    private final Entry[] slots = new Entry[SLOTS];
+
+    /** Entry of every loading aircraft, in the order the aircraft started loading */
+    private final Map<Aircraft, Entry> entries = new LinkedHashMap<>();
+
+    /** Tick the wheel last advanced to */
+    private long now;
+
+    /** Countdown of a single loading aircraft */
+    private static final class Entry {
+
+        /** Aircraft that is loading */
+        private final Aircraft aircraft;
+
+        /** Tick on which the aircraft finishes loading */
+        private final long completionTick;
+
+        /** Tick on which the entry is removed from the wheel; never before the next tick */
+        private final long dueTick;
+
+        /** Next entry filed in the same slot */
+        private Entry next;
+
+        /** Creates an entry for the given aircraft */
+        private Entry(Aircraft aircraft, long completionTick, long dueTick) {
+            this.aircraft = aircraft;
+            this.completionTick = completionTick;
+            this.dueTick = dueTick;
+        }
+    }
+
+    /**
+     * Creates a new, empty loading wheel.
+     *
+     * @param now tick the wheel starts at
+     */
+    LoadingWheel(long now) {
+        this.now = now;
+    }
+
+    /**
+     * Starts the loading countdown of the given aircraft, unless it is already loading.
+     * <p>
+     * An aircraft with zero or fewer ticks remaining is removed at the next tick without
+     * finishing, the same as if its countdown had already run out.
+     *
+     * @param aircraft aircraft to add
+     * @param ticksRemaining number of ticks until the aircraft finishes loading
+     * @return true if the aircraft was added; false if it was already loading
+     */
+    boolean add(Aircraft aircraft, int ticksRemaining) {
+        if (entries.containsKey(aircraft)) {
+            return false;
+        }
+        long completionTick = now + ticksRemaining;
+        file(new Entry(aircraft, completionTick, Math.max(completionTick, now + 1)));
+        return true;
+    }
+
+    /* Links the entry into its slot and records it as loading */
+    private void file(Entry entry) {
+        int slot = (int) (entry.dueTick & (SLOTS - 1));
+        entry.next = slots[slot];
+        slots[slot] = entry;
+        entries.put(entry.aircraft, entry);
+    }
+
+    /**
+     * Returns whether the given aircraft is currently loading.
+     *
+     * @param aircraft aircraft to check
+     * @return true if the aircraft is in the wheel
+     */
+    boolean contains(Aircraft aircraft) {
+        return entries.containsKey(aircraft);
+    }
+
+    /**
+     * Returns the number of aircraft currently loading.
+     *
+     * @return number of loading aircraft
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Advances the wheel by one tick, removing every aircraft due on the new tick.
+     * <p>
+     * Aircraft that finish loading on the new tick are passed to the given action, in the order
+     * they started loading, after all of them have been removed from the wheel.
+     *
+     * @param finished action to perform on each aircraft that finished loading
+     */
+    void advance(Consumer<Aircraft> finished) {
+        now++;
+        int slot = (int) (now & (SLOTS - 1));
+        List<Entry> due = new ArrayList<>();
+        Entry previous = null;
+        for (Entry entry = slots[slot]; entry != null; entry = entry.next) {
+            if (entry.dueTick != now) {
+                previous = entry;
+                continue;
+            }
+            if (previous == null) {
+                slots[slot] = entry.next;
+            } else {
+                previous.next = entry.next;
+            }
+            due.add(entry);
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+        for (Entry entry : due) {
+            entries.remove(entry.aircraft);
+        }
+        // slots are built by prepending, so due entries were found latest first
+        for (int i = due.size() - 1; i >= 0; i--) {
+            Entry entry = due.get(i);
+            if (entry.completionTick == now) {
+                finished.accept(entry.aircraft);
+            }
+        }
+    }
+
+    /**
+     * Copies every loading aircraft and its ticks remaining into the given map, in the order
+     * the aircraft started loading.
+     *
+     * @param target map to add loading aircraft to
+     * @param <M> type of map
+     * @return the given map
+     */
+    <M extends Map<Aircraft, Integer>> M copyInto(M target) {
+        for (Entry entry : entries.values()) {
+            target.put(entry.aircraft, (int) (entry.completionTick - now));
+        }
+        return target;
+    }
+
+    /**
+     * Returns an independent copy of this wheel, at the same tick and with the same countdowns.
+     *
+     * @param aircraftCopies function returning the copy of each aircraft to use in the new wheel
+     * @return copy of this wheel
+     */
+    LoadingWheel copy(UnaryOperator<Aircraft> aircraftCopies) {
+        LoadingWheel copy = new LoadingWheel(this.now);
+        for (Entry entry : this.entries.values()) {
+            copy.file(new Entry(aircraftCopies.apply(entry.aircraft), entry.completionTick,
+                    entry.dueTick));
+        }
+        return copy;
+    }
+}
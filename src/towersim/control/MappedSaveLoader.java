@@ -0,0 +1,1015 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.FreightAircraft;
+import towersim.aircraft.PassengerAircraft;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.HelicopterTerminal;
+import towersim.ground.Terminal;
+import towersim.recording.SaveReadEvent;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import towersim.util.MalformedSaveException;
+import towersim.util.NoSpaceException;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Loads a control tower from save files by parsing them directly from memory-mapped bytes.
+ * <p>
+ * {@link ControlTowerInitialiser} decodes every line of the save files into a String before
+ * parsing it, which dominates the time taken to load very large files. This loader maps each
+ * file in windows with {@link FileChannel#map} and parses the ASCII save grammar byte by byte;
+ * the only Strings created are callsigns, and the task lists of lazily loaded aircraft.
+ * <p>
+ * The result is always the same as {@link ControlTowerInitialiser#createControlTower}: files
+ * are accepted and rejected in exactly the same cases, with the same exceptions. This is done by
+ * only parsing files in their canonical form, as written by a save, from bytes. As soon as any
+ * part of a file is not in canonical form, such as a number with a sign or an invalid record,
+ * that whole file is loaded by {@code ControlTowerInitialiser} instead, which then either
+ * accepts it or throws the appropriate exception.
+ * <p>
+ * Only the aircraft file is needed to load the others, to resolve the callsigns they refer to.
+ * Each queues and terminals file is therefore loaded in two steps: it is first tokenised into
+ * callsigns, which can be done at the same time as the aircraft file is loaded, and its callsigns
+ * are then resolved once the aircraft are known.
+ * <p>
+ * Towers can also be loaded lazily, where each aircraft keeps the encoded text of its task list
+ * and only creates its tasks once the tower first needs more than the run of AWAY tasks it
+ * starts with; see {@link TaskList#decodeLazily(String)}. Large fleets that are mostly away
+ * then open faster and use less memory, with no change to how the tower behaves.
+ */
+public class MappedSaveLoader {
+
+    /**
+     * System property that, when set to {@code true}, makes save files with no delta file load
+     * lazily.
+     */
+    public static final String LAZY_LOAD_PROPERTY = "towersim.load.lazy";
+
+    /** How files are read, as recorded by flight recorder events */
+    private static final String READER = "mapped";
+
+    /** How files are read when task lists are decoded lazily, as recorded by events */
+    private static final String READER_LAZY = "mapped, lazy task lists";
+
+    /** Number of bytes of a file mapped at once, unless a single line is longer */
+    private static final int WINDOW_SIZE = 64 << 20;
+
+    /** Largest number of bytes that can be mapped at once */
+    private static final int MAX_WINDOW_SIZE = Integer.MAX_VALUE - 8;
+
+    /** Most decimal digits in an int that can be parsed without overflow checks */
+    private static final int MAX_INT_DIGITS = 9;
+
+    /** Most decimal digits in a long that can be parsed without overflow checks */
+    private static final int MAX_LONG_DIGITS = 18;
+
+    /** Most significant digits of a decimal that are held exactly by a double */
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    /** Exact powers of ten representable by a double, up to 10^22 */
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    /** Encoded names of every aircraft model */
+    private static final byte[][] MODEL_NAMES;
+
+    /** Tasks without a load percentage, shared since tasks are immutable */
+    private static final Map<TaskType, Task> PLAIN_TASKS = new HashMap<>();
+
+    /** Number of aircraft read between reports to the progress listener */
+    private static final int PROGRESS_INTERVAL = 4096;
+
+    /** Whether the default charset, used by FileReader, decodes ASCII bytes as ASCII */
+    private static final boolean ASCII_COMPATIBLE;
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+        AircraftCharacteristics[] models = AircraftCharacteristics.values();
+        MODEL_NAMES = new byte[models.length][];
+        for (int i = 0; i < models.length; i++) {
+            MODEL_NAMES[i] = ascii(models[i].name());
+        }
+        for (TaskType type : List.of(TaskType.AWAY, TaskType.LAND, TaskType.WAIT,
+                TaskType.TAKEOFF)) {
+            PLAIN_TASKS.put(type, new Task(type));
+        }
+        StringBuilder allAscii = new StringBuilder();
+        for (char c = 0; c < 0x80; c++) {
+            allAscii.append(c);
+        }
+        ASCII_COMPATIBLE = Arrays.equals(allAscii.toString().getBytes(Charset.defaultCharset()),
+                ascii(allAscii.toString()));
+    }
+
+    /**
+     * Signals that a file is not in canonical form, and must be loaded by
+     * {@link ControlTowerInitialiser} instead.
+     */
+    private static final class NotCanonical extends Exception {
+
+        /** Version of the serialized form; instances are never serialized */
+        private static final long serialVersionUID = 1L;
+
+        /** The only instance; no stack trace is needed */
+        private static final NotCanonical INSTANCE = new NotCanonical();
+
+        /** Creates the only instance */
+        private NotCanonical() {
+            super(null, null, false, false);
+        }
+    }
+
+    /** Loading step that may fail in the same ways as loading a save file */
+    @FunctionalInterface
+    private interface Step<T> {
+
+        /** Runs the step */
+        T run() throws MalformedSaveException, IOException;
+    }
+
+    /** Tokenised file whose callsigns are yet to be resolved to aircraft */
+    @FunctionalInterface
+    private interface Resolution<T> {
+
+        /** Resolves callsigns using the given aircraft, failing if the file is not canonical */
+        T resolve(Map<String, List<Aircraft>> byCallsign) throws NotCanonical;
+    }
+
+    /** Queues and loading aircraft read from a queues file */
+    private static final class LoadedQueues {
+
+        /** Aircraft waiting to take off */
+        private final TakeoffQueue takeoffQueue = new TakeoffQueue();
+
+        /** Aircraft waiting to land */
+        private final LandingQueue landingQueue = new LandingQueue();
+
+        /** Aircraft loading, with their ticks remaining, ordered as ControlTowerInitialiser */
+        private final Map<Aircraft, Integer> loadingAircraft =
+                new TreeMap<>(Comparator.comparing(Aircraft::getCallsign));
+    }
+
+    private MappedSaveLoader() {}
+
+    /**
+     * Creates a control tower by reading from the given save files.
+     * <p>
+     * See {@link ControlTowerInitialiser#createControlTower} for the format of the files.
+     *
+     * @param tick path to the tick file
+     * @param aircraft path to the aircraft file
+     * @param queues path to the queues file
+     * @param terminalsWithGates path to the terminals with gates file
+     * @return control tower created from the files
+     * @throws MalformedSaveException if the format of any file is invalid
+     * @throws IOException if a file cannot be read
+     */
+    public static ControlTower createControlTower(Path tick, Path aircraft, Path queues,
+                                                  Path terminalsWithGates)
+            throws MalformedSaveException, IOException {
+        try {
+            return load(tick, aircraft, queues, terminalsWithGates, false,
+                    LoadProgressListener.NONE);
+        } catch (IOException ioe) {
+            throw new IOException("encountered problem with reading the files");
+        }
+    }
+
+    /**
+     * Creates a control tower by reading from the given save files concurrently.
+     * <p>
+     * The four files are mapped and tokenised at the same time on the given executor. Callsigns
+     * in the queues and terminals files are resolved to aircraft as soon as the aircraft file has
+     * been loaded, so loading takes about as long as the slowest file rather than all four in
+     * turn. The tower created, and any exception thrown, is the same as for
+     * {@link #createControlTower(Path, Path, Path, Path)}; when several files are invalid, the
+     * error reported is for the file the sequential loader would have read first.
+     *
+     * @param tick path to the tick file
+     * @param aircraft path to the aircraft file
+     * @param queues path to the queues file
+     * @param terminalsWithGates path to the terminals with gates file
+     * @param executor executor to load the files on; should run at least three tasks at once
+     * @param listener listener to tell of progress, from the executor's threads
+     * @return control tower created from the files
+     * @throws MalformedSaveException if the format of any file is invalid
+     * @throws IOException if a file cannot be read
+     */
+    public static ControlTower createControlTower(Path tick, Path aircraft, Path queues,
+                                                  Path terminalsWithGates, Executor executor,
+                                                  LoadProgressListener listener)
+            throws MalformedSaveException, IOException {
+        return loadConcurrently(tick, aircraft, queues, terminalsWithGates, executor, false,
+                listener);
+    }
+
+    /**
+     * Creates a control tower by reading from the given save files concurrently, creating the
+     * tasks of each aircraft only when they are first needed.
+     * <p>
+     * The tower behaves, and is saved, exactly as one loaded by
+     * {@link #createControlTower(Path, Path, Path, Path, Executor, LoadProgressListener)}, and
+     * the same files are accepted and rejected.
+     *
+     * @param tick path to the tick file
+     * @param aircraft path to the aircraft file
+     * @param queues path to the queues file
+     * @param terminalsWithGates path to the terminals with gates file
+     * @param executor executor to load the files on; should run at least three tasks at once
+     * @param listener listener to tell of progress, from the executor's threads
+     * @return control tower created from the files
+     * @throws MalformedSaveException if the format of any file is invalid
+     * @throws IOException if a file cannot be read
+     */
+    public static ControlTower createControlTowerLazily(Path tick, Path aircraft, Path queues,
+                                                        Path terminalsWithGates,
+                                                        Executor executor,
+                                                        LoadProgressListener listener)
+            throws MalformedSaveException, IOException {
+        return loadConcurrently(tick, aircraft, queues, terminalsWithGates, executor, true,
+                listener);
+    }
+
+    /* Loads the control tower on the executor; see createControlTower() */
+    private static ControlTower loadConcurrently(Path tick, Path aircraft, Path queues,
+                                                 Path terminalsWithGates, Executor executor,
+                                                 boolean lazy, LoadProgressListener listener)
+            throws MalformedSaveException, IOException {
+        SaveReadEvent event = new SaveReadEvent();
+        event.begin();
+        ControlTower controlTower = null;
+        CompletableFuture<Long> ticksLoaded = async(() -> loadTick(tick), executor);
+        CompletableFuture<List<Aircraft>> aircraftLoaded =
+                async(() -> loadAircraft(aircraft, lazy, listener), executor);
+        CompletableFuture<Resolution<List<Terminal>>> terminalTokens =
+                async(() -> tokeniseTerminals(terminalsWithGates, listener), executor);
+        CompletableFuture<Resolution<LoadedQueues>> queueTokens =
+                async(() -> tokeniseQueues(queues), executor);
+
+        // resolution only waits for the aircraft index, not for the other file
+        CompletableFuture<Map<String, List<Aircraft>>> byCallsign =
+                aircraftLoaded.thenApply(MappedSaveLoader::indexByCallsign);
+        CompletableFuture<List<Terminal>> terminalsLoaded = terminalTokens.thenCombineAsync(
+                byCallsign, (tokens, index) -> call(() -> resolveTerminals(tokens,
+                        terminalsWithGates, aircraftLoaded.join(), index, listener)), executor);
+        CompletableFuture<LoadedQueues> queuesLoaded = queueTokens.thenCombineAsync(
+                byCallsign, (tokens, index) -> call(() -> resolveQueues(tokens, queues,
+                        aircraftLoaded.join(), index)), executor);
+
+        try {
+            // joined in the order the sequential loader reads the files
+            long ticks = join(ticksLoaded);
+            List<Aircraft> loaded = join(aircraftLoaded);
+            List<Terminal> terminals = join(terminalsLoaded);
+            controlTower = assemble(ticks, loaded, join(queuesLoaded), terminals);
+            return controlTower;
+        } catch (IOException ioe) {
+            throw new IOException("encountered problem with reading the files");
+        } finally {
+            event.finish(lazy ? READER_LAZY : READER, controlTower);
+        }
+    }
+
+    /* Loads the control tower; see createControlTower() */
+    private static ControlTower load(Path tick, Path aircraft, Path queues,
+                                     Path terminalsWithGates, boolean lazy,
+                                     LoadProgressListener listener)
+            throws MalformedSaveException, IOException {
+        SaveReadEvent event = new SaveReadEvent();
+        event.begin();
+        ControlTower controlTower = null;
+        try {
+            final long ticksLoaded = loadTick(tick);
+            List<Aircraft> aircraftLoaded = loadAircraft(aircraft, lazy, listener);
+            Map<String, List<Aircraft>> byCallsign = indexByCallsign(aircraftLoaded);
+            List<Terminal> terminalsLoaded = resolveTerminals(
+                    tokeniseTerminals(terminalsWithGates, listener), terminalsWithGates,
+                    aircraftLoaded, byCallsign, listener);
+            LoadedQueues queuesLoaded = resolveQueues(tokeniseQueues(queues), queues,
+                    aircraftLoaded, byCallsign);
+            controlTower = assemble(ticksLoaded, aircraftLoaded, queuesLoaded, terminalsLoaded);
+            return controlTower;
+        } finally {
+            event.finish(lazy ? READER_LAZY : READER, controlTower);
+        }
+    }
+
+    /* Creates the control tower from the loaded entities */
+    private static ControlTower assemble(long ticksLoaded, List<Aircraft> aircraftLoaded,
+                                         LoadedQueues queuesLoaded,
+                                         List<Terminal> terminalsLoaded) {
+        ControlTower controlTower = new ControlTower(ticksLoaded, aircraftLoaded,
+                queuesLoaded.landingQueue, queuesLoaded.takeoffQueue,
+                queuesLoaded.loadingAircraft);
+        for (Terminal terminal : terminalsLoaded) {
+            controlTower.addTerminal(terminal);
+        }
+        return controlTower;
+    }
+
+    /* Returns every aircraft with each callsign, in the order they were loaded */
+    private static Map<String, List<Aircraft>> indexByCallsign(List<Aircraft> aircraft) {
+        Map<String, List<Aircraft>> byCallsign = new HashMap<>(aircraft.size() * 2);
+        for (Aircraft plane : aircraft) {
+            byCallsign.computeIfAbsent(plane.getCallsign(), c -> new ArrayList<>(1)).add(plane);
+        }
+        return byCallsign;
+    }
+
+    /* Loads the number of ticks elapsed from the given tick file */
+    private static long loadTick(Path path) throws MalformedSaveException, IOException {
+        try (MappedLines lines = MappedLines.open(path)) {
+            lines.next();
+            return lines.parseLong(0, lines.length());
+        } catch (NotCanonical e) {
+            return ControlTowerInitialiser.loadTick(new FileReader(path.toFile()));
+        }
+    }
+
+    /*
+     * Loads every aircraft from the given aircraft file, in the order they appear, with task
+     * lists decoded lazily if requested
+     */
+    private static List<Aircraft> loadAircraft(Path path, boolean lazy,
+            LoadProgressListener listener) throws MalformedSaveException, IOException {
+        List<Aircraft> aircraft;
+        try (MappedLines lines = MappedLines.open(path)) {
+            lines.next();
+            int numAircraft = lines.parseInt(0, lines.length());
+            aircraft = new ArrayList<>(numAircraft);
+            for (int i = 0; i < numAircraft; i++) {
+                lines.next();
+                aircraft.add(readAircraft(lines, lazy));
+                if ((i + 1) % PROGRESS_INTERVAL == 0) {
+                    listener.aircraftLoaded(i + 1, numAircraft);
+                }
+            }
+            lines.expectEnd();
+        } catch (NotCanonical e) {
+            aircraft = ControlTowerInitialiser.loadAircraft(new FileReader(path.toFile()));
+        }
+        listener.aircraftLoaded(aircraft.size(), aircraft.size());
+        return aircraft;
+    }
+
+    /*
+     * Tokenises the terminals file into terminals and their gates, leaving aircraft to be parked
+     * once they are known. Returns null if the file is not in canonical form.
+     */
+    private static Resolution<List<Terminal>> tokeniseTerminals(Path path,
+            LoadProgressListener listener) throws IOException {
+        try (MappedLines lines = MappedLines.open(path)) {
+            lines.next();
+            int numTerminals = lines.parseInt(0, lines.length());
+            List<Terminal> terminals = new ArrayList<>(numTerminals);
+            List<Gate> occupiedGates = new ArrayList<>();
+            List<String> parkedCallsigns = new ArrayList<>();
+            for (int i = 0; i < numTerminals; i++) {
+                lines.next();
+                terminals.add(readTerminal(lines, occupiedGates, parkedCallsigns));
+                listener.terminalLoaded(terminals.get(i), i + 1, numTerminals);
+            }
+            lines.expectEnd();
+            return byCallsign -> {
+                for (int i = 0; i < occupiedGates.size(); i++) {
+                    List<Aircraft> parked = byCallsign.get(parkedCallsigns.get(i));
+                    // an aircraft sharing its callsign with another cannot be parked
+                    if (parked == null || parked.size() != 1) {
+                        throw NotCanonical.INSTANCE;
+                    }
+                    try {
+                        occupiedGates.get(i).parkAircraft(parked.get(0));
+                    } catch (NoSpaceException e) {
+                        throw NotCanonical.INSTANCE;
+                    }
+                }
+                return terminals;
+            };
+        } catch (NotCanonical e) {
+            return null;
+        }
+    }
+
+    /* Finishes loading the terminals, reading the whole file again if it is not canonical */
+    private static List<Terminal> resolveTerminals(Resolution<List<Terminal>> tokens, Path path,
+            List<Aircraft> aircraft, Map<String, List<Aircraft>> byCallsign,
+            LoadProgressListener listener) throws MalformedSaveException, IOException {
+        if (tokens != null) {
+            try {
+                return tokens.resolve(byCallsign);
+            } catch (NotCanonical e) {
+                // fall through to the reader
+            }
+        }
+        List<Terminal> terminals = ControlTowerInitialiser.loadTerminalsWithGates(
+                new FileReader(path.toFile()), aircraft);
+        for (int i = 0; i < terminals.size(); i++) {
+            listener.terminalLoaded(terminals.get(i), i + 1, terminals.size());
+        }
+        return terminals;
+    }
+
+    /*
+     * Tokenises the queues file into the callsigns of each queue and of the loading aircraft,
+     * leaving them to be resolved once the aircraft are known. Returns null if the file is not
+     * in canonical form.
+     */
+    private static Resolution<LoadedQueues> tokeniseQueues(Path path) throws IOException {
+        try (MappedLines lines = MappedLines.open(path)) {
+            List<String> takeoff = readQueue(lines, TakeoffQueue.class.getSimpleName());
+            List<String> landing = readQueue(lines, LandingQueue.class.getSimpleName());
+            List<String> loadingCallsigns = new ArrayList<>();
+            List<Integer> loadingTicks = new ArrayList<>();
+            readLoadingAircraft(lines, loadingCallsigns, loadingTicks);
+            return byCallsign -> {
+                LoadedQueues loaded = new LoadedQueues();
+                addAll(loaded.takeoffQueue, takeoff, byCallsign);
+                addAll(loaded.landingQueue, landing, byCallsign);
+                for (int i = 0; i < loadingCallsigns.size(); i++) {
+                    List<Aircraft> matching = byCallsign.get(loadingCallsigns.get(i));
+                    if (matching == null) {
+                        throw NotCanonical.INSTANCE;
+                    }
+                    loaded.loadingAircraft.put(matching.get(0), loadingTicks.get(i));
+                }
+                return loaded;
+            };
+        } catch (NotCanonical e) {
+            return null;
+        }
+    }
+
+    /* Finishes loading the queues, reading the whole file again if it is not canonical */
+    private static LoadedQueues resolveQueues(Resolution<LoadedQueues> tokens, Path path,
+            List<Aircraft> aircraft, Map<String, List<Aircraft>> byCallsign)
+            throws MalformedSaveException, IOException {
+        if (tokens != null) {
+            try {
+                return tokens.resolve(byCallsign);
+            } catch (NotCanonical e) {
+                // fall through to the reader
+            }
+        }
+        LoadedQueues loaded = new LoadedQueues();
+        ControlTowerInitialiser.loadQueues(new FileReader(path.toFile()), aircraft,
+                loaded.takeoffQueue, loaded.landingQueue, loaded.loadingAircraft);
+        return loaded;
+    }
+
+    /* Adds every aircraft with each of the given callsigns to the queue, in order */
+    private static void addAll(AircraftQueue queue, List<String> callsigns,
+            Map<String, List<Aircraft>> byCallsign) throws NotCanonical {
+        for (String callsign : callsigns) {
+            List<Aircraft> matching = byCallsign.get(callsign);
+            if (matching == null) {
+                throw NotCanonical.INSTANCE;
+            }
+            for (Aircraft plane : matching) {
+                queue.addAircraft(plane);
+            }
+        }
+    }
+
+    /* Reads an aircraft from the current line, in the format written by Aircraft.encode() */
+    private static Aircraft readAircraft(MappedLines lines, boolean lazy) throws NotCanonical {
+        int[] colons = lines.split(':', 5);
+        int callsignEnd = colons[0];
+        int modelEnd = colons[1];
+        int tasksEnd = colons[2];
+        int fuelEnd = colons[3];
+        int emergencyEnd = colons[4];
+        int end = lines.length();
+
+        String callsign = lines.string(0, callsignEnd);
+        AircraftCharacteristics characteristics = null;
+        for (int i = 0; i < MODEL_NAMES.length && characteristics == null; i++) {
+            if (lines.matches(callsignEnd + 1, modelEnd, MODEL_NAMES[i])) {
+                characteristics = AircraftCharacteristics.values()[i];
+            }
+        }
+        if (characteristics == null) {
+            throw NotCanonical.INSTANCE;
+        }
+        TaskList taskList;
+        if (lazy) {
+            try {
+                taskList = TaskList.decodeLazily(lines.string(modelEnd + 1, tasksEnd));
+            } catch (IllegalArgumentException e) {
+                throw NotCanonical.INSTANCE;
+            }
+        } else {
+            taskList = readTaskList(lines, modelEnd + 1, tasksEnd);
+        }
+        double fuelAmount = lines.parseDecimal(tasksEnd + 1, fuelEnd);
+        boolean emergency = lines.parseBoolean(fuelEnd + 1, emergencyEnd);
+        int cargo = lines.parseInt(emergencyEnd + 1, end);
+        if (fuelAmount > characteristics.fuelCapacity) {
+            throw NotCanonical.INSTANCE;
+        }
+        Aircraft plane;
+        try {
+            if (characteristics.passengerCapacity > 0) {
+                plane = new PassengerAircraft(callsign, characteristics, taskList, fuelAmount,
+                        cargo);
+            } else {
+                plane = new FreightAircraft(callsign, characteristics, taskList, fuelAmount,
+                        cargo);
+            }
+        } catch (IllegalArgumentException e) {
+            throw NotCanonical.INSTANCE;
+        }
+        if (emergency) {
+            plane.declareEmergency();
+        }
+        return plane;
+    }
+
+    /* Reads a comma-separated task list from the given range of the current line */
+    private static TaskList readTaskList(MappedLines lines, int start, int end)
+            throws NotCanonical {
+        List<Task> tasks = new ArrayList<>();
+        int taskStart = start;
+        while (taskStart <= end) {
+            int taskEnd = lines.indexOf(',', taskStart, end);
+            tasks.add(readTask(lines, taskStart, taskEnd));
+            taskStart = taskEnd + 1;
+        }
+        try {
+            return new TaskList(tasks);
+        } catch (IllegalArgumentException e) {
+            throw NotCanonical.INSTANCE;
+        }
+    }
+
+    /* Reads a single task, as written by Task.encode() */
+    private static Task readTask(MappedLines lines, int start, int end) throws NotCanonical {
+        switch (end - start) {
+            case 4:
+                if (lines.matches(start, end, "AWAY")) {
+                    return PLAIN_TASKS.get(TaskType.AWAY);
+                } else if (lines.matches(start, end, "LAND")) {
+                    return PLAIN_TASKS.get(TaskType.LAND);
+                } else if (lines.matches(start, end, "WAIT")) {
+                    return PLAIN_TASKS.get(TaskType.WAIT);
+                }
+                break;
+            case 7:
+                if (lines.matches(start, end, "TAKEOFF")) {
+                    return PLAIN_TASKS.get(TaskType.TAKEOFF);
+                }
+                break;
+            default:
+                break;
+        }
+        if (end - start > 5 && lines.matches(start, start + 5, "LOAD@")) {
+            return new Task(TaskType.LOAD, lines.parseInt(start + 5, end));
+        }
+        throw NotCanonical.INSTANCE;
+    }
+
+    /*
+     * Reads a terminal from the current line, and its gates from the lines that follow, noting
+     * the callsign of the aircraft at each occupied gate
+     */
+    private static Terminal readTerminal(MappedLines lines, List<Gate> occupiedGates,
+            List<String> parkedCallsigns) throws IOException, NotCanonical {
+        int[] colons = lines.split(':', 3);
+        int typeEnd = colons[0];
+        int terminalNumber = lines.parseInt(typeEnd + 1, colons[1]);
+        boolean emergency = lines.parseBoolean(colons[1] + 1, colons[2]);
+        int numGates = lines.parseInt(colons[2] + 1, lines.length());
+        if (terminalNumber < 1 || numGates > Terminal.MAX_NUM_GATES) {
+            throw NotCanonical.INSTANCE;
+        }
+        Terminal terminal;
+        if (lines.matches(0, typeEnd, "AirplaneTerminal")) {
+            terminal = new AirplaneTerminal(terminalNumber);
+        } else if (lines.matches(0, typeEnd, "HelicopterTerminal")) {
+            terminal = new HelicopterTerminal(terminalNumber);
+        } else {
+            throw NotCanonical.INSTANCE;
+        }
+        if (emergency) {
+            terminal.declareEmergency();
+        }
+        for (int i = 0; i < numGates; i++) {
+            lines.next();
+            int colon = lines.split(':', 1)[0];
+            int gateNumber = lines.parseInt(0, colon);
+            if (gateNumber < 1) {
+                throw NotCanonical.INSTANCE;
+            }
+            Gate gate = new Gate(gateNumber);
+            if (!lines.matches(colon + 1, lines.length(), "empty")) {
+                occupiedGates.add(gate);
+                parkedCallsigns.add(lines.string(colon + 1, lines.length()));
+            }
+            try {
+                terminal.addGate(gate);
+            } catch (NoSpaceException e) {
+                throw NotCanonical.INSTANCE;
+            }
+        }
+        return terminal;
+    }
+
+    /* Reads the callsigns of a queue, whose header must start with the given queue type */
+    private static List<String> readQueue(MappedLines lines, String queueType)
+            throws IOException, NotCanonical {
+        lines.next();
+        int colon = lines.split(':', 1)[0];
+        if (!lines.matches(0, colon, queueType)) {
+            throw NotCanonical.INSTANCE;
+        }
+        int numAircraft = lines.parseInt(colon + 1, lines.length());
+        List<String> callsigns = new ArrayList<>(numAircraft);
+        if (numAircraft == 0) {
+            return callsigns;
+        }
+        lines.next();
+        int start = 0;
+        for (int i = 0; i < numAircraft; i++) {
+            int end = lines.indexOf(',', start, lines.length());
+            if (i == numAircraft - 1 && end != lines.length()) {
+                throw NotCanonical.INSTANCE;
+            }
+            callsigns.add(lines.string(start, end));
+            start = end + 1;
+        }
+        return callsigns;
+    }
+
+    /* Reads the callsigns of the loading aircraft and their ticks remaining */
+    private static void readLoadingAircraft(MappedLines lines, List<String> callsigns,
+            List<Integer> ticksRemaining) throws IOException, NotCanonical {
+        lines.next();
+        int numLoading = lines.parseInt(lines.split(':', 1)[0] + 1, lines.length());
+        if (numLoading == 0) {
+            return;
+        }
+        lines.next();
+        int start = 0;
+        for (int i = 0; i < numLoading; i++) {
+            int end = lines.indexOf(',', start, lines.length());
+            if (i == numLoading - 1 && end != lines.length()) {
+                throw NotCanonical.INSTANCE;
+            }
+            int colon = lines.indexOf(':', start, end);
+            if (colon == end) {
+                throw NotCanonical.INSTANCE;
+            }
+            callsigns.add(lines.string(start, colon));
+            int ticks = lines.parseInt(colon + 1, end);
+            if (ticks < 1) {
+                throw NotCanonical.INSTANCE;
+            }
+            ticksRemaining.add(ticks);
+            start = end + 1;
+        }
+    }
+
+    /* Runs the given step on the executor */
+    private static <T> CompletableFuture<T> async(Step<T> step, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> call(step), executor);
+    }
+
+    /* Runs the given step, wrapping any checked exception it throws */
+    private static <T> T call(Step<T> step) {
+        try {
+            return step.run();
+        } catch (MalformedSaveException | IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /* Waits for the given step to finish, rethrowing any exception it threw */
+    private static <T> T join(CompletableFuture<T> future)
+            throws MalformedSaveException, IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof MalformedSaveException) {
+                throw (MalformedSaveException) cause;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /* Returns the ASCII bytes of the given string */
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Reads a file line by line through a window mapped into memory, following the same rules as
+     * {@link java.io.BufferedReader#readLine()} for where lines end.
+     * <p>
+     * Positions passed to the parsing methods are relative to the start of the current line.
+     */
+    private static final class MappedLines implements AutoCloseable {
+
+        /** Channel of the file being read */
+        private final FileChannel channel;
+
+        /** Size of the file, in bytes */
+        private final long size;
+
+        /** Currently mapped part of the file */
+        private MappedByteBuffer window;
+
+        /** Offset in the file of the start of the window */
+        private long windowStart;
+
+        /** Offset in the window of the start of the next line */
+        private int next;
+
+        /** Offset in the window of the start of the current line */
+        private int lineStart;
+
+        /** Length of the current line, excluding its terminator */
+        private int lineLength;
+
+        /* Creates lines reading from the given channel */
+        private MappedLines(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            map(0, WINDOW_SIZE);
+        }
+
+        /* Opens the file at the given path; files are not canonical in other charsets */
+        static MappedLines open(Path path) throws IOException, NotCanonical {
+            if (!ASCII_COMPATIBLE) {
+                throw NotCanonical.INSTANCE;
+            }
+            return new MappedLines(FileChannel.open(path, StandardOpenOption.READ));
+        }
+
+        /* Maps up to the given number of bytes of the file, from the given offset */
+        private void map(long start, int length) throws IOException {
+            this.windowStart = start;
+            this.window = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                    Math.min(length, size - start));
+            this.next = 0;
+        }
+
+        /*
+         * Moves to the next line. Files that end before the line, and lines containing bytes
+         * outside ASCII, are not canonical.
+         */
+        void next() throws IOException, NotCanonical {
+            if (!tryNext()) {
+                throw NotCanonical.INSTANCE;
+            }
+        }
+
+        /* Requires that there are no more lines */
+        void expectEnd() throws IOException, NotCanonical {
+            if (tryNext()) {
+                throw NotCanonical.INSTANCE;
+            }
+        }
+
+        /* Moves to the next line, returning false if there are none */
+        private boolean tryNext() throws IOException, NotCanonical {
+            int windowLength = window.limit();
+            while (true) {
+                boolean windowAtEnd = windowStart + windowLength == size;
+                int i = next;
+                while (i < windowLength) {
+                    byte b = window.get(i);
+                    if (b == '\n' || b == '\r') {
+                        break;
+                    }
+                    if (b < 0) {
+                        throw NotCanonical.INSTANCE;
+                    }
+                    i++;
+                }
+                // a carriage return ending the window may be followed by a line feed
+                boolean complete = i < windowLength - 1 || windowAtEnd
+                        || (i == windowLength - 1 && window.get(i) == '\n');
+                if (complete) {
+                    if (i == next && i == windowLength) {
+                        return false;
+                    }
+                    lineStart = next;
+                    lineLength = i - next;
+                    next = Math.min(i + 1, windowLength);
+                    if (i < windowLength && window.get(i) == '\r' && next < windowLength
+                            && window.get(next) == '\n') {
+                        next++;
+                    }
+                    return true;
+                }
+                // the line does not fit in the rest of the window, so map a window starting at it
+                long lineOffset = windowStart + next;
+                int length = windowLength;
+                if (next == 0) {
+                    if (windowLength >= MAX_WINDOW_SIZE) {
+                        throw NotCanonical.INSTANCE;
+                    }
+                    length = (int) Math.min((long) windowLength * 2, MAX_WINDOW_SIZE);
+                }
+                map(lineOffset, Math.max(length, WINDOW_SIZE));
+                windowLength = window.limit();
+            }
+        }
+
+        /* Returns the length of the current line */
+        int length() {
+            return lineLength;
+        }
+
+        /* Returns the byte at the given position of the current line */
+        private byte at(int position) {
+            return window.get(lineStart + position);
+        }
+
+        /*
+         * Returns the positions of exactly the given number of separators in the current line.
+         * Every field they separate must be non-empty.
+         */
+        int[] split(char separator, int count) throws NotCanonical {
+            int[] positions = new int[count];
+            int found = 0;
+            int fieldStart = 0;
+            for (int i = 0; i < lineLength; i++) {
+                if (at(i) == separator) {
+                    if (found == count || i == fieldStart) {
+                        throw NotCanonical.INSTANCE;
+                    }
+                    positions[found++] = i;
+                    fieldStart = i + 1;
+                }
+            }
+            if (found != count || fieldStart == lineLength) {
+                throw NotCanonical.INSTANCE;
+            }
+            return positions;
+        }
+
+        /* Returns the position of the separator in the given range, or its end if there is none */
+        int indexOf(char separator, int start, int end) throws NotCanonical {
+            for (int i = start; i < end; i++) {
+                if (at(i) == separator) {
+                    if (i == start) {
+                        throw NotCanonical.INSTANCE;
+                    }
+                    return i;
+                }
+            }
+            if (start == end) {
+                throw NotCanonical.INSTANCE;
+            }
+            return end;
+        }
+
+        /* Returns whether the given range holds exactly the given ASCII text */
+        boolean matches(int start, int end, String text) {
+            if (end - start != text.length()) {
+                return false;
+            }
+            for (int i = 0; i < text.length(); i++) {
+                if (at(start + i) != text.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /* Returns whether the given range holds exactly the given bytes */
+        boolean matches(int start, int end, byte[] bytes) {
+            if (end - start != bytes.length) {
+                return false;
+            }
+            for (int i = 0; i < bytes.length; i++) {
+                if (at(start + i) != bytes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /* Returns the text of the given non-empty range, such as a callsign */
+        String string(int start, int end) throws NotCanonical {
+            if (start >= end) {
+                throw NotCanonical.INSTANCE;
+            }
+            byte[] bytes = new byte[end - start];
+            window.get(lineStart + start, bytes);
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+
+        /* Parses "true" or "false" */
+        boolean parseBoolean(int start, int end) throws NotCanonical {
+            if (matches(start, end, "true")) {
+                return true;
+            } else if (matches(start, end, "false")) {
+                return false;
+            }
+            throw NotCanonical.INSTANCE;
+        }
+
+        /* Parses an unsigned int made only of decimal digits */
+        int parseInt(int start, int end) throws NotCanonical {
+            if (end - start > MAX_INT_DIGITS) {
+                throw NotCanonical.INSTANCE;
+            }
+            return (int) parseLong(start, end);
+        }
+
+        /* Parses an unsigned long made only of decimal digits */
+        long parseLong(int start, int end) throws NotCanonical {
+            if (start >= end || end - start > MAX_LONG_DIGITS) {
+                throw NotCanonical.INSTANCE;
+            }
+            long value = 0;
+            for (int i = start; i < end; i++) {
+                int digit = at(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw NotCanonical.INSTANCE;
+                }
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+
+        /*
+         * Parses an unsigned decimal such as "123.45". Decimals with up to 15 significant digits
+         * and 22 fraction digits are exact as a long divided by a power of ten, and a single
+         * division of exact doubles is correctly rounded, giving the same result as
+         * Double.parseDouble(); longer decimals are parsed by Double.parseDouble().
+         */
+        double parseDecimal(int start, int end) throws NotCanonical {
+            if (start >= end) {
+                throw NotCanonical.INSTANCE;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int point = -1;
+            for (int i = start; i < end; i++) {
+                byte b = at(i);
+                if (b == '.' && point < 0 && i > start && i < end - 1) {
+                    point = i;
+                    continue;
+                }
+                int digit = b - '0';
+                if (digit < 0 || digit > 9) {
+                    throw NotCanonical.INSTANCE;
+                }
+                if (digits > 0 || digit > 0) {
+                    digits++;
+                }
+                mantissa = digits <= MAX_LONG_DIGITS ? mantissa * 10 + digit : mantissa;
+            }
+            int fractionDigits = point < 0 ? 0 : end - point - 1;
+            if (digits <= MAX_EXACT_DIGITS && fractionDigits < POWERS_OF_TEN.length) {
+                return mantissa / POWERS_OF_TEN[fractionDigits];
+            }
+            byte[] bytes = new byte[end - start];
+            window.get(lineStart + start, bytes);
+            return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+        }
+
+        /**
+         * Closes the file.
+         *
+         * @throws IOException if the file cannot be closed
+         */
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
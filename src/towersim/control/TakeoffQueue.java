@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.function.UnaryOperator;
 
 /**
  * Represents a first-in-first-out queue of aircraft waiting to takeoff.
@@ -22,6 +23,21 @@ public class TakeoffQueue extends AircraftQueue {
         this.aircraftToTakeoff = new LinkedList();
     }
 
+    /**
+     * Returns a new takeoff queue holding the copy of each aircraft in this queue, in the same
+     * order.
+     *
+     * @param aircraftCopies function returning the copy of a given aircraft
+     * @return copy of this queue
+     */
+    TakeoffQueue copy(UnaryOperator<Aircraft> aircraftCopies) {
+        TakeoffQueue copy = new TakeoffQueue();
+        for (Aircraft aircraft : this.aircraftToTakeoff) {
+            copy.aircraftToTakeoff.add(aircraftCopies.apply(aircraft));
+        }
+        return copy;
+    }
+
     /**
      * Adds given aircraft to queue
      * @param aircraft to add
@@ -29,6 +45,7 @@ public class TakeoffQueue extends AircraftQueue {
     @Override
     public void addAircraft(Aircraft aircraft) {
         this.aircraftToTakeoff.add(aircraft);
+        notifyMutation();
     }
 
     /**
@@ -46,7 +63,11 @@ public class TakeoffQueue extends AircraftQueue {
      */
     @Override
     public Aircraft removeAircraft() {
-        return this.aircraftToTakeoff.poll();
+        Aircraft removed = this.aircraftToTakeoff.poll();
+        if (removed != null) {
+            notifyMutation();
+        }
+        return removed;
     }
 
     /**
@@ -0,0 +1,159 @@
+package towersim.control;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches a terminals file and applies it to a control tower as a {@link TerminalLayout}
+ * whenever it changes, so terminals and gates can be changed without reloading the simulation.
+ * <p>
+ * Only the terminals file is read; the tower's aircraft are left as they are. Each change is
+ * submitted to the tower's {@link CommandMailbox}, so it is applied between ticks on the thread
+ * that ticks the tower. Changes to the file made within {@value #SETTLE_MILLIS} ms of each
+ * other are applied once, so a file written in several steps is only read when complete.
+ * <p>
+ * A layout that could not be fully applied, because aircraft are parked at gates it removes, is
+ * applied again every {@value #RETRY_MILLIS} ms until it is complete or the file changes again.
+ * A file that cannot be read or parsed is reported to the error listener and otherwise ignored,
+ * leaving the tower's terminals as they were. If the directory of the file can no longer be
+ * watched, that is reported too and watching stops.
+ */
+public class TerminalFileWatcher implements Closeable {
+
+    /** Milliseconds the file must be left unchanged before it is read */
+    public static final long SETTLE_MILLIS = 200;
+
+    /** Milliseconds between attempts to apply a layout that could not be fully applied */
+    public static final long RETRY_MILLIS = 1000;
+
+    /** File watched */
+    private final Path file;
+
+    /** Tower the file is applied to */
+    private final ControlTower tower;
+
+    /** Told of the outcome of each application, on the thread that ticks the tower */
+    private final Consumer<LayoutResult> listener;
+
+    /** Told of each failure to read, apply or watch the file, on the watching thread */
+    private final Consumer<IOException> errorListener;
+
+    /** Service watching the directory of the file */
+    private final WatchService watchService;
+
+    /** Thread waiting for changes to the file */
+    private final Thread watcher;
+
+    /**
+     * Starts watching the given terminals file for changes.
+     *
+     * @param file terminals file to watch
+     * @param tower tower to apply the file to
+     * @param listener told of the outcome of each application of the file. It is called from
+     *                 within the mailbox command applying the layout, on the thread that ticks
+     *                 the tower, so it may read the tower but must not block
+     * @param errorListener told of each failure to read or apply the file, and of watching
+     *                      stopping because the directory of the file is gone, on a thread of
+     *                      the watcher's own
+     * @throws IOException if the directory of the file cannot be watched
+     */
+    public TerminalFileWatcher(Path file, ControlTower tower, Consumer<LayoutResult> listener,
+            Consumer<IOException> errorListener) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.tower = tower;
+        this.listener = listener;
+        this.errorListener = errorListener;
+        this.watchService = this.file.getFileSystem().newWatchService();
+        this.file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        this.watcher = new Thread(this::watch, "terminals-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /* Waits for changes to the file and applies them, until closed */
+    private void watch() {
+        boolean pending = false;
+        try {
+            while (true) {
+                WatchKey key = pending
+                        ? watchService.poll(RETRY_MILLIS, TimeUnit.MILLISECONDS)
+                        : watchService.take();
+                // wait for the file to settle, taking every change made in the meantime
+                while (key != null) {
+                    pending |= concernsFile(key);
+                    if (!key.reset()) {
+                        errorListener.accept(new IOException("Stopped watching " + file
+                                + ": directory is gone"));
+                        return;
+                    }
+                    key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                if (pending) {
+                    pending = !apply();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    /* Returns whether any event of the given key is about the watched file */
+    private boolean concernsFile(WatchKey key) {
+        boolean concerns = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || file.getFileName().equals(event.context())) {
+                concerns = true;
+            }
+        }
+        return concerns;
+    }
+
+    /* Applies the file to the tower; false if some of it must be applied again later */
+    private boolean apply() throws InterruptedException {
+        String encoded;
+        try {
+            encoded = Files.readString(file, Charset.defaultCharset());
+        } catch (IOException e) {
+            errorListener.accept(new IOException("Could not read " + file + ": "
+                    + e.getMessage(), e));
+            return true;
+        }
+        TerminalLayout layout = new TerminalLayout(encoded);
+        try {
+            LayoutResult result = tower.getMailbox().submit(changed -> {
+                LayoutResult applied = layout.execute(changed);
+                listener.accept(applied);
+                return applied;
+            }).get();
+            return result.isComplete();
+        } catch (ExecutionException e) {
+            errorListener.accept(new IOException("Could not apply " + file + ": "
+                    + e.getCause().getMessage(), e.getCause()));
+            return true;
+        }
+    }
+
+    /**
+     * Stops watching the file. A change already being applied may still be applied.
+     *
+     * @throws IOException if the watch service cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        watcher.interrupt();
+        watchService.close();
+    }
+}
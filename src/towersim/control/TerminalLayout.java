@@ -0,0 +1,147 @@
+package towersim.control;
+
+import towersim.ground.Gate;
+import towersim.ground.Terminal;
+import towersim.util.MalformedSaveException;
+import towersim.util.NoSpaceException;
+
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command bringing a control tower's terminals and gates into line with the contents of a
+ * terminals file, without touching its aircraft.
+ * <p>
+ * The file is parsed as by {@link ControlTowerInitialiser#loadTerminalsWithGates} when the
+ * command executes, and compared with the tower's terminals, matching terminals by type and
+ * number and gates by number. Terminals and gates only in the file are added, empty; those only
+ * in the tower are removed; and the state of emergency of each terminal in both is set to match
+ * the file. Terminals keep their order, with new terminals added after existing ones.
+ * <p>
+ * Aircraft parked in the tower stay where they are: which aircraft the file lists at each gate
+ * is ignored, and a terminal or gate with an aircraft parked at it is not removed. Such removals
+ * are deferred and reported in the {@link LayoutResult}, so the layout can be applied again
+ * once the aircraft have left.
+ */
+public class TerminalLayout implements TowerCommand<LayoutResult> {
+
+    /** Contents of the terminals file */
+    private final String encoded;
+
+    /**
+     * Creates a new command applying the given contents of a terminals file.
+     *
+     * @param encoded terminals and gates, in the format of a terminals file
+     */
+    public TerminalLayout(String encoded) {
+        this.encoded = encoded;
+    }
+
+    /**
+     * Applies the layout to the given tower.
+     *
+     * @param tower tower whose terminals to change
+     * @return changes made, and those deferred
+     * @throws MalformedSaveException if the layout is not a valid terminals file; the tower is
+     * left unchanged
+     * @throws java.io.IOException if the layout cannot be read
+     */
+    @Override
+    public LayoutResult execute(ControlTower tower) throws Exception {
+        List<Terminal> wanted = ControlTowerInitialiser.loadTerminalsWithGates(
+                new StringReader(encoded), tower.getAircraft());
+        Map<Terminal, Terminal> wantedByKey = new HashMap<>();
+        for (Terminal terminal : wanted) {
+            wantedByKey.put(terminal, terminal);
+        }
+        LayoutResult result = new LayoutResult();
+
+        // removals come first, so gates moved between terminals are free to be added again
+        Set<Integer> liveGates = new HashSet<>();
+        for (Terminal live : tower.getTerminals()) {
+            Terminal target = wantedByKey.get(live);
+            if (target == null) {
+                if (tower.removeTerminal(live)) {
+                    result.record(LayoutResult.Change.TERMINAL_REMOVED);
+                    continue;
+                }
+                result.defer(live.getClass().getSimpleName() + " "
+                        + live.getTerminalNumber() + " has aircraft parked");
+            } else {
+                for (Gate gate : live.getGates()) {
+                    if (target.getGates().contains(gate)) {
+                        continue;
+                    }
+                    if (live.removeGate(gate)) {
+                        result.record(LayoutResult.Change.GATE_REMOVED);
+                    } else {
+                        result.defer("Gate " + gate.getGateNumber() + " has aircraft parked");
+                    }
+                }
+            }
+            for (Gate gate : live.getGates()) {
+                liveGates.add(gate.getGateNumber());
+            }
+        }
+
+        for (Terminal target : wanted) {
+            Terminal live = findTerminal(tower, target);
+            if (live == null) {
+                Terminal added = target.copy(parked -> null);
+                for (Gate gate : added.getGates()) {
+                    if (liveGates.contains(gate.getGateNumber())) {
+                        added.removeGate(gate);
+                        deferGateInUse(result, gate);
+                    }
+                }
+                tower.addTerminal(added);
+                result.record(LayoutResult.Change.TERMINAL_ADDED);
+                live = added;
+            } else {
+                for (Gate gate : target.getGates()) {
+                    if (live.getGates().contains(gate)) {
+                        continue;
+                    }
+                    if (liveGates.contains(gate.getGateNumber())) {
+                        deferGateInUse(result, gate);
+                        continue;
+                    }
+                    try {
+                        live.addGate(new Gate(gate.getGateNumber()));
+                        result.record(LayoutResult.Change.GATE_ADDED);
+                    } catch (NoSpaceException e) {
+                        result.defer("Gate " + gate.getGateNumber() + ": " + e.getMessage());
+                    }
+                }
+            }
+            if (live.hasEmergency() != target.hasEmergency()) {
+                if (target.hasEmergency()) {
+                    live.declareEmergency();
+                } else {
+                    live.clearEmergency();
+                }
+                result.record(LayoutResult.Change.EMERGENCY_CHANGED);
+            }
+        }
+        return result;
+    }
+
+    /* Defers adding a gate whose number is kept by another terminal until its aircraft leaves */
+    private static void deferGateInUse(LayoutResult result, Gate gate) {
+        result.defer("Gate " + gate.getGateNumber() + " is still in another terminal");
+    }
+
+    /* Returns the terminal of the tower equal to the given terminal, or null if there is none */
+    private static Terminal findTerminal(ControlTower tower, Terminal terminal) {
+        for (Terminal live : tower.getTerminals()) {
+            if (live.equals(terminal)) {
+                return live;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,30 @@
+package towersim.control;
+
+/**
+ * A listener notified each time a control tower finishes a tick.
+ * <p>
+ * Listeners are called on the thread that ticked the tower, after all of the tick's work has been
+ * done, so the tower is in a consistent state for the duration of the call. Listeners should
+ * return quickly, since the next tick cannot start until every listener has returned.
+ */
+@FunctionalInterface
+public interface TickListener {
+
+    /**
+     * Called after the given tower has finished a tick.
+     *
+     * @param tower tower that ticked
+     */
+    void onTick(ControlTower tower);
+
+    /**
+     * Called after commands from the given tower's mailbox have been executed between ticks,
+     * such as while the simulation is paused. See {@link ControlTower#processCommands()}.
+     * <p>
+     * Commands executed at the start of a tick are only followed by {@link #onTick}. Does
+     * nothing by default.
+     *
+     * @param tower tower that executed the commands
+     */
+    default void onCommandsExecuted(ControlTower tower) {}
+}
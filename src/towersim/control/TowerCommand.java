@@ -0,0 +1,23 @@
+package towersim.control;
+
+/**
+ * A single mutation of a control tower, submitted to the tower's {@link CommandMailbox} and
+ * executed later on the thread that ticks the tower.
+ *
+ * @param <T> type of the result of the command
+ */
+@FunctionalInterface
+public interface TowerCommand<T> {
+
+    /**
+     * Performs this command on the given tower.
+     * <p>
+     * Commands are only ever executed on the thread that ticks the tower, between ticks, so they
+     * may read and change the tower freely.
+     *
+     * @param tower tower to act on
+     * @return result of the command, passed to whoever submitted it; may be null
+     * @throws Exception if the command fails; the exception is passed to whoever submitted it
+     */
+    T execute(ControlTower tower) throws Exception;
+}
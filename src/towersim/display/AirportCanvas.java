@@ -6,8 +6,9 @@ import javafx.beans.property.SimpleDoubleProperty;
 import javafx.geometry.VPos;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Tooltip;
+import javafx.scene.input.KeyCode;
 import javafx.scene.input.MouseButton;
-import javafx.scene.input.MouseEvent;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
@@ -22,14 +23,25 @@ import towersim.ground.Terminal;
 import towersim.tasks.Task;
 import towersim.tasks.TaskType;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * Subclass of the JavaFX Canvas to represent the main elements of the airport graphically.
+ * <p>
+ * The airport is drawn through a {@link Viewport}: scrolling zooms about the cursor, dragging
+ * pans, and the Home key shows the whole airport from the top-left again. Queues and the list of
+ * away aircraft wrap onto as many lines as they need. Only what is visible is drawn or can be
+ * clicked, and only the visible slots of each queue, list and terminal grid are visited, so the
+ * number of aircraft drawn and added to the {@link HitGrid} is bounded by the size of the canvas.
+ * Drawing is not otherwise free of the number of aircraft: each frame still fetches the queues
+ * and the list of away aircraft from the tower, and a row drawn as a count looks through
+ * its aircraft for emergencies.
+ * Below a zoom of {@value #DETAIL_ZOOM}, queues and lists are each drawn as a single count of
+ * their aircraft, and parked aircraft as plain blocks.
+ * <p>
+ * Clicking an aircraft selects it, and hovering over one shows a tooltip describing it. Both
+ * look up the aircraft drawn under the mouse in a {@link HitGrid} built as the canvas is drawn.
  * @given
  */
 public class AirportCanvas extends Canvas {
@@ -37,12 +49,42 @@ public class AirportCanvas extends Canvas {
     /** View model containing the main model of the application */
     private final ViewModel viewModel;
 
-    /** Mapping of clickable regions (rectangles) to aircraft drawn on the canvas */
-    private final Map<ClickableRegion, Aircraft> drawnAircraft;
+    /** Aircraft drawn on the canvas, by where they were drawn, in world coordinates */
+    private final HitGrid<Aircraft> drawnAircraft;
 
     /** Width of an aircraft when drawn on the canvas, in pixels */
     private static final double AIRCRAFT_WIDTH = 75;
 
+    /** Number of aircraft drawn on each line of a queue or list */
+    private static final int ROW_CAPACITY = 6;
+
+    /** Zoom below which aircraft are no longer drawn individually in queues and lists */
+    private static final double DETAIL_ZOOM = 0.5;
+
+    /** Part of the airport shown on the canvas */
+    private final Viewport viewport;
+
+    /** Y coordinate of the top of the runway, below the list of away aircraft */
+    private double runwayY;
+
+    /** Screen x-coordinate of the mouse when last pressed or dragged */
+    private double dragX;
+
+    /** Screen y-coordinate of the mouse when last pressed or dragged */
+    private double dragY;
+
+    /** Timer redrawing the aircraft landing or taking off, or null if none is animated */
+    private AnimationTimer animationTimer;
+
+    /** Tooltip describing the aircraft under the mouse */
+    private final Tooltip hoverTooltip = new Tooltip();
+
+    /** Aircraft the tooltip describes, or null if it is hidden */
+    private Aircraft hoveredAircraft;
+
+    /** Cached images of aircraft and their text, or null if aircraft are drawn afresh */
+    private SpriteCache sprites = new SpriteCache(AIRCRAFT_WIDTH);
+
     /** X coordinate of the top-left corner of the runway */
     private final double runwayStartX;
 
@@ -61,36 +103,6 @@ public class AirportCanvas extends Canvas {
     /** Animation timeline of an aircraft taking off */
     private final Timeline takeoffTimeline;
 
-    /** A class to represent a rectangular region on the canvas that responds to click events */
-    private static class ClickableRegion {
-
-        /** X-coordinate of the region (top left) */
-        private final double xcoord;
-        /** Y-coordinate of the region (top left) */
-        private final double ycoord;
-        /** Width of the region, in pixels */
-        private final double width;
-        /** Height of the region, in pixels */
-        private final double height;
-
-        /** Creates a new clickable region with the given coordinates and dimensions */
-        public ClickableRegion(double x, double y, double width, double height) {
-            this.xcoord = x;
-            this.ycoord = y;
-            this.width = width;
-            this.height = height;
-        }
-
-        /**
-         * Returns whether or not the given click event's coordinates fall within this clickable
-         * region
-         */
-        public boolean wasClicked(double clickX, double clickY) {
-            return clickX >= this.xcoord && clickX <= this.xcoord + this.width
-                    && clickY >= this.ycoord && clickY <= this.ycoord + this.height;
-        }
-    }
-
     /**
      * Creates a new AirportCanvas with the given dimensions.
      *
@@ -103,32 +115,54 @@ public class AirportCanvas extends Canvas {
         super(width, height);
 
         this.viewModel = viewModel;
-        this.drawnAircraft = new HashMap<>();
+        this.drawnAircraft = new HitGrid<>(AIRCRAFT_WIDTH);
+        this.viewport = new Viewport(width, height);
 
         this.runwayStartX = getWidth() / 2 + AIRCRAFT_WIDTH + 5;
         this.runwayWidth = getWidth() / 2 - 2 * 5 - AIRCRAFT_WIDTH;
+        this.runwayY = AIRCRAFT_HEIGHT + 5;
+
+        setOnMousePressed(event -> {
+            dragX = event.getX();
+            dragY = event.getY();
+            /* Ensures the canvas gains focus when it is clicked */
+            requestFocus();
+        });
+        setOnMouseDragged(event -> {
+            showHovered(null, 0, 0);
+            viewport.panBy(event.getX() - dragX, event.getY() - dragY);
+            dragX = event.getX();
+            dragY = event.getY();
+            draw();
+        });
+        setOnScroll(event -> {
+            viewport.zoomAt(Math.pow(1.002, event.getDeltaY()), event.getX(), event.getY());
+            draw();
+        });
+        setOnKeyPressed(event -> {
+            if (event.getCode() == KeyCode.HOME) {
+                viewport.reset();
+                draw();
+            }
+        });
 
         setOnMouseClicked(event -> {
-            /* Discard any click that is not a primary (left mouse button) click */
-            if (event.getButton() != MouseButton.PRIMARY) {
+            /* Discard any click that is not a primary (left mouse button) click, or ends a drag */
+            if (event.getButton() != MouseButton.PRIMARY || !event.isStillSincePress()) {
                 return;
             }
-            double x = event.getX();
-            double y = event.getY();
-            Aircraft clickedAircraft = null;
-            for (Map.Entry<ClickableRegion, Aircraft> entry : drawnAircraft.entrySet()) {
-                if (entry.getKey().wasClicked(x, y)) {
-                    clickedAircraft = entry.getValue();
-                }
-            }
+            double x = viewport.toWorldX(event.getX());
+            double y = viewport.toWorldY(event.getY());
+            Aircraft clickedAircraft = drawnAircraft.itemAt(x, y);
             viewModel.getSelectedAircraft().set(clickedAircraft);
             viewModel.registerChange();
-
-
-            /* Ensures the canvas gains focus when it is clicked */
-            addEventFilter(MouseEvent.MOUSE_PRESSED, e -> requestFocus());
         });
 
+        setOnMouseMoved(event -> showHovered(drawnAircraft.itemAt(
+                viewport.toWorldX(event.getX()), viewport.toWorldY(event.getY())),
+                event.getScreenX(), event.getScreenY()));
+        setOnMouseExited(event -> showHovered(null, 0, 0));
+
         landTimeline = new Timeline(
                 new KeyFrame(Duration.seconds(0),
                         new KeyValue(runwayAnimationX,
@@ -147,11 +181,13 @@ public class AirportCanvas extends Canvas {
                 ),
                 new KeyFrame(Duration.seconds(1),
                         "end animation",
-                        e -> drawRunway(),
+                        e -> draw(),
                         new KeyValue(runwayAnimationX, runwayStartX - AIRCRAFT_WIDTH,
                                 Interpolator.EASE_IN)
                 )
         );
+        landTimeline.setOnFinished(e -> stopAnimation());
+        takeoffTimeline.setOnFinished(e -> stopAnimation());
     }
 
     /**
@@ -167,37 +203,51 @@ public class AirportCanvas extends Canvas {
         gc.setFill(Color.DARKGREEN);
         gc.fillRect(0, 0, getWidth(), getHeight());
 
+        gc.save();
+        applyViewport(gc);
+        final double marginBelow = 5;
+        double queuesHeight = drawQueue(viewModel.getControlTower().getTakeoffQueue(), 0, 0);
+        queuesHeight += drawQueue(viewModel.getControlTower().getLandingQueue(), 0,
+                queuesHeight);
+        runwayY = drawAwayAircraft() + marginBelow;
         drawRunway();
-        drawQueue(viewModel.getControlTower().getTakeoffQueue(), 0, 0);
-        drawQueue(viewModel.getControlTower().getLandingQueue(), 0, AIRCRAFT_HEIGHT);
-        drawAwayAircraft();
-        drawTerminals();
+        drawTerminals(Math.max(queuesHeight, runwayY + AIRCRAFT_HEIGHT) + 2 * marginBelow);
+        gc.restore();
         drawTickStatus();
     }
 
+    /* Transforms what is drawn from world coordinates to the part of the canvas shown */
+    private void applyViewport(GraphicsContext gc) {
+        double zoom = viewport.getZoom();
+        gc.setTransform(zoom, 0, 0, zoom, -viewport.getLeft() * zoom,
+                -viewport.getTop() * zoom);
+    }
+
     /* Draws the runway */
     private void drawRunway() {
         GraphicsContext gc = getGraphicsContext2D();
 
         final double runwayHeight = AIRCRAFT_HEIGHT;
-        final double marginTop = 5;
         final double lineLength = 30;
         final double runwayTarmacWidth = AIRCRAFT_WIDTH;
 
+        if (!viewport.isVisible(runwayStartX, runwayY, runwayWidth, runwayHeight)) {
+            return;
+        }
         gc.setFill(Color.gray(0.2));
         gc.fillRect(runwayStartX,
-                AIRCRAFT_HEIGHT + marginTop,
+                runwayY,
                 runwayTarmacWidth,
                 runwayHeight);
         gc.setFill(Color.BLACK);
         gc.fillRect(runwayStartX + runwayTarmacWidth,
-                AIRCRAFT_HEIGHT + marginTop,
+                runwayY,
                 runwayWidth - runwayTarmacWidth,
                 runwayHeight);
 
         for (int i = 0; i < ((runwayWidth - runwayTarmacWidth) - lineLength) / lineLength; ++i) {
             gc.setStroke(Color.WHITE);
-            final double lineY = AIRCRAFT_HEIGHT + marginTop + (runwayHeight / 2);
+            final double lineY = runwayY + (runwayHeight / 2);
             final double lineStartOffset = 7; // makes lines look more centered
             gc.strokeLine(runwayStartX + runwayTarmacWidth + lineStartOffset + lineLength / 2
                             + (i * lineLength),
@@ -228,18 +278,23 @@ public class AirportCanvas extends Canvas {
         }
 
         Aircraft finalAircraftToAnimate = aircraftToAnimate;
-        AnimationTimer timer = new AnimationTimer() {
+        stopAnimation();
+        animationTimer = new AnimationTimer() {
             @Override
             public void handle(long now) {
                 draw();
 
+                GraphicsContext gc = getGraphicsContext2D();
+                gc.save();
+                applyViewport(gc);
                 drawAircraft(finalAircraftToAnimate,
                         runwayAnimationX.doubleValue(),
-                        AIRCRAFT_HEIGHT + 5,
+                        runwayY,
                         Color.WHITE);
+                gc.restore();
             }
         };
-        timer.start();
+        animationTimer.start();
         if (takingOff) {
             takeoffTimeline.play();
         } else {
@@ -247,80 +302,136 @@ public class AirportCanvas extends Canvas {
         }
     }
 
-    /* Draws an aircraft queue */
-    private void drawQueue(AircraftQueue queue, double x, double y) {
-        GraphicsContext gc = getGraphicsContext2D();
-
-        final int queueCapacity = 6;
-        final double labelWidth = 65;
-
-        gc.setFill(Color.WHITE);
-        gc.fillRect(x, y, AIRCRAFT_WIDTH * queueCapacity + labelWidth, AIRCRAFT_HEIGHT);
+    /* Shows the tooltip describing the given aircraft near the given screen point, or hides it */
+    private void showHovered(Aircraft aircraft, double screenX, double screenY) {
+        if (aircraft == hoveredAircraft) {
+            return;
+        }
+        hoveredAircraft = aircraft;
+        if (aircraft == null) {
+            hoverTooltip.hide();
+            return;
+        }
+        hoverTooltip.setText(aircraft + System.lineSeparator() + "Fuel: "
+                + aircraft.getFuelPercentRemaining() + "%");
+        hoverTooltip.show(this, screenX + 12, screenY + 12);
+    }
 
-        gc.setStroke(Color.BLACK);
-        gc.strokeRect(x, y, AIRCRAFT_WIDTH * queueCapacity + labelWidth, AIRCRAFT_HEIGHT);
+    /* Stops redrawing the aircraft last animated, if it is still being redrawn */
+    private void stopAnimation() {
+        if (animationTimer != null) {
+            animationTimer.stop();
+            animationTimer = null;
+        }
+    }
 
-        gc.setFill(Color.BLACK);
-        gc.setTextBaseline(VPos.CENTER);
-        gc.setTextAlign(TextAlignment.LEFT);
-        gc.setFont(Font.font("monospace", FontWeight.BOLD, 30));
+    /* Draws an aircraft queue, returning its height */
+    private double drawQueue(AircraftQueue queue, double x, double y) {
         String labelText;
         if (queue instanceof TakeoffQueue) {
             labelText = "T/O";
         } else {
             labelText = "LND";
         }
-        gc.fillText(labelText, x + 5, y + AIRCRAFT_HEIGHT / 2);
-
-        gc.setStroke(Color.BLACK);
-        gc.strokeLine(x + labelWidth, y, x + labelWidth, y + AIRCRAFT_HEIGHT);
-
-        // Draw aircraft in queue
-        var aircraft = queue.getAircraftInOrder();
+        return drawRow(labelText, 65, queue.getAircraftInOrder(), x, y);
+    }
 
-        for (int i = 0; i < aircraft.size(); ++i) {
-            Aircraft a = aircraft.get(i);
-            drawAircraft(a, x + labelWidth + AIRCRAFT_WIDTH * i, y, Color.BLACK);
-        }
+    /* Draws the list of aircraft that are currently AWAY, returning its height */
+    private double drawAwayAircraft() {
+        return drawRow("AWAY", 85,
+                viewModel.getControlTower().getAircraftWithTask(TaskType.AWAY),
+                getWidth() / 2 + 5, 0);
     }
 
-    /* Draws the list of aircraft that are currently AWAY */
-    private void drawAwayAircraft() {
+    /*
+     * Draws a labelled row of aircraft, wrapped onto as many lines as needed.
+     *
+     * @param label text labelling the row
+     * @param labelWidth width of the label, in pixels
+     * @param aircraft aircraft in the row, in order
+     * @param x x-coord of top left corner
+     * @param y y-coord of top left corner
+     * @return height of the row
+     */
+    private double drawRow(String label, double labelWidth, List<Aircraft> aircraft,
+            double x, double y) {
         GraphicsContext gc = getGraphicsContext2D();
 
-        final int capacity = 6;
-        final double labelWidth = 85;
-        final double x = getWidth() / 2 + 5;
-        final double y = 0;
+        final int lines = Math.max(1, (aircraft.size() + ROW_CAPACITY - 1) / ROW_CAPACITY);
+        final double width = AIRCRAFT_WIDTH * ROW_CAPACITY + labelWidth;
+        final double height = AIRCRAFT_HEIGHT * lines;
+        if (!viewport.isVisible(x, y, width, height)) {
+            return height;
+        }
 
         gc.setFill(Color.WHITE);
-        gc.fillRect(x, y, AIRCRAFT_WIDTH * capacity + labelWidth, AIRCRAFT_HEIGHT);
+        gc.fillRect(x, y, width, height);
 
         gc.setStroke(Color.BLACK);
-        gc.strokeRect(x, y, AIRCRAFT_WIDTH * capacity + labelWidth, AIRCRAFT_HEIGHT);
+        gc.strokeRect(x, y, width, height);
 
         gc.setFill(Color.BLACK);
         gc.setTextBaseline(VPos.CENTER);
         gc.setTextAlign(TextAlignment.LEFT);
         gc.setFont(Font.font("monospace", FontWeight.BOLD, 30));
-        gc.fillText("AWAY", x + 5, y + AIRCRAFT_HEIGHT / 2);
+        gc.fillText(label, x + 5, y + AIRCRAFT_HEIGHT / 2);
 
         gc.setStroke(Color.BLACK);
-        gc.strokeLine(x + labelWidth, y, x + labelWidth, y + AIRCRAFT_HEIGHT);
+        gc.strokeLine(x + labelWidth, y, x + labelWidth, y + height);
+
+        final double slotsX = x + labelWidth;
+        if (viewport.getZoom() < DETAIL_ZOOM) {
+            drawAggregate(aircraft, slotsX, y, width - labelWidth, height);
+            return height;
+        }
+
+        // Draw only the aircraft in visible slots
+        int firstLine = Viewport.firstVisibleSlot(y, AIRCRAFT_HEIGHT, viewport.getTop());
+        int endLine = Viewport.visibleSlotsEnd(y, AIRCRAFT_HEIGHT, lines,
+                viewport.getBottom());
+        int firstColumn = Viewport.firstVisibleSlot(slotsX, AIRCRAFT_WIDTH,
+                viewport.getLeft());
+        int endColumn = Viewport.visibleSlotsEnd(slotsX, AIRCRAFT_WIDTH, ROW_CAPACITY,
+                viewport.getRight());
+        for (int line = firstLine; line < endLine; ++line) {
+            for (int column = firstColumn; column < endColumn; ++column) {
+                int i = line * ROW_CAPACITY + column;
+                if (i >= aircraft.size()) {
+                    break;
+                }
+                drawAircraft(aircraft.get(i), slotsX + AIRCRAFT_WIDTH * column,
+                        y + AIRCRAFT_HEIGHT * line, Color.BLACK);
+            }
+        }
+        return height;
+    }
 
-        // Draw aircraft in queue
-        var aircraft = viewModel.getControlTower().getAircraft().stream()
-                .filter(a -> a.getTaskList().getCurrentTask().getType() == TaskType.AWAY)
-                .collect(Collectors.toList());
+    /*
+     * Draws the number of the given aircraft in place of the aircraft themselves, in red if any
+     * has an emergency. Looks at every aircraft until one with an emergency is found.
+     */
+    private void drawAggregate(List<Aircraft> aircraft, double x, double y, double width,
+            double height) {
+        if (aircraft.isEmpty()) {
+            return;
+        }
+        GraphicsContext gc = getGraphicsContext2D();
 
-        for (int i = 0; i < aircraft.size(); ++i) {
-            Aircraft a = aircraft.get(i);
-            drawAircraft(a, x + labelWidth + AIRCRAFT_WIDTH * i, y, Color.BLACK);
+        gc.setFill(Color.BLACK);
+        for (Aircraft a : aircraft) {
+            if (a.hasEmergency()) {
+                gc.setFill(Color.RED);
+                break;
+            }
         }
+        gc.setTextBaseline(VPos.CENTER);
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setFont(Font.font("monospace", FontWeight.BOLD, 30));
+        gc.fillText(aircraft.size() + " aircraft", x + width / 2, y + height / 2);
     }
 
-    /* Draws the terminals and their gates */
-    private void drawTerminals() {
+    /* Draws the terminals and their gates in two columns, starting at the given y-coord */
+    private void drawTerminals(double top) {
         GraphicsContext gc = getGraphicsContext2D();
 
         final double terminalLabelHeight = 25;
@@ -328,19 +439,28 @@ public class AirportCanvas extends Canvas {
         final double terminalHeight = terminalLabelHeight + terminalAircraftHeight;
         final double marginBelow = 5;
         final double marginLeft = 5;
-        final double spaceAbove = 2 * AIRCRAFT_HEIGHT + 2 * marginBelow; // queues + padding
         final double terminalWidth = getWidth() / 2 - (2 * marginLeft);
+        final boolean detailed = viewport.getZoom() >= DETAIL_ZOOM;
 
         List<Terminal> terminals = this.viewModel.getControlTower().getTerminals();
 
-        for (int i = 0; i < terminals.size(); ++i) {
+        // Visit only the rows of terminals that are visible
+        final double rowPitch = terminalHeight + marginBelow;
+        final int rows = (terminals.size() + 1) / 2;
+        final int end = Math.min(terminals.size(),
+                2 * Viewport.visibleSlotsEnd(top, rowPitch, rows, viewport.getBottom()));
+        for (int i = 2 * Viewport.firstVisibleSlot(top, rowPitch, viewport.getTop()); i < end;
+                ++i) {
             Terminal terminal = terminals.get(i);
 
             final double terminalStartX = marginLeft + (i % 2 == 1
                     ? terminalWidth + 2 * marginLeft
                     : 0);
-            final double terminalStartY = spaceAbove + marginBelow
-                    + ((i / 2) * (terminalHeight + marginBelow));
+            final double terminalStartY = top + ((i / 2) * rowPitch);
+            if (!viewport.isVisible(terminalStartX, terminalStartY, terminalWidth,
+                    terminalHeight)) {
+                continue;
+            }
 
             gc.setFill(Color.gray(0.7));
             gc.fillRect(terminalStartX,
@@ -419,34 +539,52 @@ public class AirportCanvas extends Canvas {
                 }
 
                 // Draw parked aircraft
-                if (gate.isOccupied()) {
+                if (gate.isOccupied() && detailed) {
                     drawAircraft(gate.getAircraftAtGate(),
                             gateLineX - AIRCRAFT_WIDTH,
                             terminalStartY + terminalLabelHeight,
                             Color.WHITE);
+                } else if (gate.isOccupied()) {
+                    drawParkedBlock(gate.getAircraftAtGate(),
+                            gateLineX - AIRCRAFT_WIDTH,
+                            terminalStartY + terminalLabelHeight);
                 }
             }
         }
     }
 
-    /*
-     * Draws an aircraft at the given position on the canvas.
+    /* Draws a plain block in place of an aircraft parked with its top left at x, y */
+    private void drawParkedBlock(Aircraft aircraft, double x, double y) {
+        GraphicsContext gc = getGraphicsContext2D();
+
+        if (aircraft.hasEmergency()) {
+            gc.setFill(Color.RED);
+        } else if (aircraft instanceof PassengerAircraft) {
+            gc.setFill(Color.CADETBLUE);
+        } else {
+            gc.setFill(Color.SADDLEBROWN);
+        }
+        gc.fillRect(x + 4, y + 4, AIRCRAFT_WIDTH - 8, AIRCRAFT_HEIGHT - 8);
+    }
+
+    /**
+     * Draws an aircraft at the given position on the canvas, and makes it clickable there.
      *
      * @param aircraft aircraft to draw
      * @param x x-coord of top left corner
      * @param y y-coord of top left corner
      * @param textColor color to use when drawing aircraft info text
      */
-    private void drawAircraft(Aircraft aircraft, double x, double y, Color textColor) {
+    void drawAircraft(Aircraft aircraft, double x, double y, Color textColor) {
         GraphicsContext gc = getGraphicsContext2D();
 
-        this.drawnAircraft.put(new ClickableRegion(x, y, AIRCRAFT_WIDTH, AIRCRAFT_HEIGHT),
-                aircraft);
+        this.drawnAircraft.add(x, y, AIRCRAFT_WIDTH, AIRCRAFT_HEIGHT, aircraft);
 
+        Color bodyColor;
         if (aircraft instanceof PassengerAircraft) {
-            gc.setFill(Color.CADETBLUE);
+            bodyColor = Color.CADETBLUE;
         } else {
-            gc.setFill(Color.SADDLEBROWN);
+            bodyColor = Color.SADDLEBROWN;
         }
 
         // Emergency
@@ -460,13 +598,39 @@ public class AirportCanvas extends Canvas {
             fontWeight = FontWeight.BOLD;
         }
 
+        Task currentTask = aircraft.getTaskList().getCurrentTask();
+        String aircraftTaskLine;
+        if (currentTask.getType() == TaskType.LOAD) {
+            aircraftTaskLine = "LOAD@" + currentTask.getLoadPercent() + "%";
+        } else {
+            aircraftTaskLine = currentTask.getType().name();
+        }
+        String occupancyLine = aircraft.calculateOccupancyLevel() + "%";
+
+        if (sprites != null) {
+            // Copy cached images of the aircraft and each line of its text, bottom-aligned
+            double zoom = viewport.getZoom();
+            sprites.drawAircraft(gc, aircraft.getCharacteristics().type, bodyColor, zoom, x, y);
+            double lineHeight = sprites.getLineHeight();
+            double centreX = x + AIRCRAFT_WIDTH / 2;
+            double bottom = y + AIRCRAFT_HEIGHT;
+            sprites.drawLabel(gc, aircraft.getCallsign(), textColor, fontWeight, zoom, centreX,
+                    bottom - 3 * lineHeight);
+            sprites.drawLabel(gc, aircraftTaskLine, textColor, fontWeight, zoom, centreX,
+                    bottom - 2 * lineHeight);
+            sprites.drawLabel(gc, occupancyLine, textColor, fontWeight, zoom, centreX,
+                    bottom - lineHeight);
+            return;
+        }
+
+        gc.setFill(bodyColor);
         switch (aircraft.getCharacteristics().type) {
             case HELICOPTER:
-                drawHelicopter(x, y);
+                SpriteCache.drawHelicopter(gc, x, y, AIRCRAFT_WIDTH);
                 break;
             case AIRPLANE:
             default:
-                drawAirplane(x, y);
+                SpriteCache.drawAirplane(gc, x, y, AIRCRAFT_WIDTH);
         }
 
         // Text
@@ -475,67 +639,22 @@ public class AirportCanvas extends Canvas {
         gc.setTextAlign(TextAlignment.CENTER);
         gc.setFont(Font.font("monospace", fontWeight, 12));
 
-        Task currentTask = aircraft.getTaskList().getCurrentTask();
-        String aircraftTaskLine;
-        if (currentTask.getType() == TaskType.LOAD) {
-            aircraftTaskLine = "LOAD@" + currentTask.getLoadPercent() + "%";
-        } else {
-            aircraftTaskLine = currentTask.getType().name();
-        }
         String aircraftText = aircraft.getCallsign() + System.lineSeparator()
                 + aircraftTaskLine + System.lineSeparator()
-                + aircraft.calculateOccupancyLevel() + "%";
+                + occupancyLine;
         gc.fillText(aircraftText,
                 x + AIRCRAFT_WIDTH / 2,
                 y + AIRCRAFT_HEIGHT);
     }
 
-    private void drawAirplane(double x, double y) {
-        GraphicsContext gc = getGraphicsContext2D();
-
-        // Wings
-        gc.fillPolygon(new double[] {
-            x + AIRCRAFT_WIDTH / 2 + 8,
-            x + AIRCRAFT_WIDTH / 2 + 8,
-            x + AIRCRAFT_WIDTH / 2 - 10
-        }, new double[] {
-            y + 4,
-            y + 36,
-            y + 22}, 3);
-
-        // Tail
-        gc.fillPolygon(new double[] {
-            x + AIRCRAFT_WIDTH - 4,
-            x + AIRCRAFT_WIDTH - 16,
-            x + AIRCRAFT_WIDTH - 4
-        }, new double[] {
-            y + 22,
-            y + 18,
-            y + 4}, 3);
-
-        // Fuselage
-        gc.fillRoundRect(x + 4,
-                y + 17,
-                AIRCRAFT_WIDTH - 8,
-                8,
-                10,
-                10);
-    }
-
-    private void drawHelicopter(double x, double y) {
-        GraphicsContext gc = getGraphicsContext2D();
-
-
-        // Fuselage
-        gc.fillOval(x + 15, y + 16, 30, 16);
-
-        // Main rotor
-        gc.fillRect(x + 30 - 1, y + 16 - 4, 3, 4);
-        gc.fillRect(x + 4, y + 10, 50, 3);
-
-        // Tail rotor
-        gc.fillRect(x + 30, y + 22, 40, 3);
-        gc.fillRect(x + AIRCRAFT_WIDTH - 14, y + 16, 2, 14);
+    /**
+     * Sets whether aircraft are copied from cached images, or drawn afresh with vector commands
+     * each time. Images are cached unless otherwise set; see {@link SpriteCache}.
+     *
+     * @param caching true to copy aircraft from cached images; false to draw them afresh
+     */
+    void setCachingSprites(boolean caching) {
+        this.sprites = caching ? new SpriteCache(AIRCRAFT_WIDTH) : null;
     }
 
     /* Draws the status bar containing tick information */
@@ -551,8 +670,10 @@ public class AirportCanvas extends Canvas {
         gc.setTextBaseline(VPos.CENTER);
         gc.setTextAlign(TextAlignment.CENTER);
         gc.setFont(Font.font("sans-serif", 14));
-        gc.fillText(String.format("%d ticks elapsed",
-                viewModel.getControlTower().getTicksElapsed()),
+        String zoomText = viewport.getZoom() == 1 ? ""
+                : String.format(" (zoom %.0f%%)", 100 * viewport.getZoom());
+        gc.fillText(String.format("%d ticks elapsed%s",
+                viewModel.getControlTower().getTicksElapsed(), zoomText),
                 getWidth() / 2, getHeight() - 0.5 * height);
     }
 }
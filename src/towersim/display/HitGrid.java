@@ -0,0 +1,213 @@
+package towersim.display;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uniform grid of the rectangles drawn on a canvas, finding what was drawn at a point or within
+ * an area without looking at everything that was drawn.
+ * <p>
+ * Each rectangle is added to every grid cell it overlaps, so a lookup only checks the few
+ * rectangles sharing the cell of the point looked up, and takes constant time on average when
+ * cells are about the size of the rectangles. Rectangles are ordered by when they were added,
+ * as they would be by drawing them: where rectangles overlap, the last added is on top.
+ * <p>
+ * The grid is meant to be rebuilt as its canvas is drawn, by calling {@link #clear()} before
+ * drawing and {@link #add} as each item is drawn. Clearing keeps the cells already allocated,
+ * so rebuilding the grid each frame allocates little once the layout has settled.
+ *
+ * @param <T> type of the items drawn
+ */
+public class HitGrid<T> {
+
+    /** Most empty cells kept for reuse when the grid is cleared */
+    private static final int MAX_SPARE_CELLS = 1024;
+
+    /** Width and height of each cell */
+    private final double cellSize;
+
+    /** Rectangles overlapping each cell, in the order added, by packed cell coordinates */
+    private final Map<Long, List<Entry<T>>> cells = new HashMap<>();
+
+    /** Cells with at least one rectangle since the grid was last cleared */
+    private final List<List<Entry<T>>> usedCells = new ArrayList<>();
+
+    /** Number of rectangles added since the grid was last cleared */
+    private int size = 0;
+
+    /** A rectangle and the item drawn in it */
+    private static final class Entry<T> {
+
+        /** Left edge of the rectangle */
+        private final double x;
+
+        /** Top edge of the rectangle */
+        private final double y;
+
+        /** Right edge of the rectangle */
+        private final double right;
+
+        /** Bottom edge of the rectangle */
+        private final double bottom;
+
+        /** Position of the rectangle in the order rectangles were added */
+        private final int order;
+
+        /** Item drawn in the rectangle */
+        private final T item;
+
+        /* Creates a new entry */
+        private Entry(double x, double y, double width, double height, int order, T item) {
+            this.x = x;
+            this.y = y;
+            this.right = x + width;
+            this.bottom = y + height;
+            this.order = order;
+            this.item = item;
+        }
+
+        /* Returns whether the given point is in the rectangle, including its edges */
+        private boolean contains(double pointX, double pointY) {
+            return pointX >= x && pointX <= right && pointY >= y && pointY <= bottom;
+        }
+    }
+
+    /**
+     * Creates a new, empty grid of cells of the given size.
+     *
+     * @param cellSize width and height of each cell; ideally about the size of the rectangles
+     * @throws IllegalArgumentException if cellSize &lt;= 0
+     */
+    public HitGrid(double cellSize) {
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Removes every rectangle from the grid.
+     */
+    public void clear() {
+        if (cells.size() > MAX_SPARE_CELLS + usedCells.size()) {
+            // the layout has moved on; drop the cells it left behind rather than keep them all
+            cells.clear();
+        }
+        for (List<Entry<T>> cell : usedCells) {
+            cell.clear();
+        }
+        usedCells.clear();
+        size = 0;
+    }
+
+    /**
+     * Returns the number of rectangles added since the grid was last cleared.
+     *
+     * @return number of rectangles
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a rectangle drawn with the given item, on top of every rectangle already added.
+     *
+     * @param x left edge of the rectangle
+     * @param y top edge of the rectangle
+     * @param width width of the rectangle
+     * @param height height of the rectangle
+     * @param item item drawn in the rectangle
+     */
+    public void add(double x, double y, double width, double height, T item) {
+        Entry<T> entry = new Entry<>(x, y, width, height, size++, item);
+        for (int row = cellOf(y); row <= cellOf(entry.bottom); row++) {
+            for (int column = cellOf(x); column <= cellOf(entry.right); column++) {
+                List<Entry<T>> cell = cells.computeIfAbsent(key(column, row),
+                        unused -> new ArrayList<>());
+                if (cell.isEmpty()) {
+                    usedCells.add(cell);
+                }
+                cell.add(entry);
+            }
+        }
+    }
+
+    /**
+     * Returns the item drawn on top at the given point.
+     *
+     * @param x x-coordinate of the point
+     * @param y y-coordinate of the point
+     * @return item of the last rectangle added that contains the point, or null if none does
+     */
+    public T itemAt(double x, double y) {
+        List<Entry<T>> cell = cells.get(key(cellOf(x), cellOf(y)));
+        if (cell == null) {
+            return null;
+        }
+        // rectangles are added to each cell in order, so the last match is on top
+        for (int i = cell.size() - 1; i >= 0; i--) {
+            if (cell.get(i).contains(x, y)) {
+                return cell.get(i).item;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the items of every rectangle overlapping the given area, bottom first.
+     * <p>
+     * Each item is returned once for each rectangle it was added with that overlaps the area,
+     * in the order the rectangles were added.
+     *
+     * @param x left edge of the area
+     * @param y top edge of the area
+     * @param width width of the area
+     * @param height height of the area
+     * @return items overlapping the area, in the order added
+     */
+    public List<T> itemsWithin(double x, double y, double width, double height) {
+        double right = x + width;
+        double bottom = y + height;
+        int firstColumn = cellOf(x);
+        int firstRow = cellOf(y);
+        List<Entry<T>> found = new ArrayList<>();
+        for (int row = firstRow; row <= cellOf(bottom); row++) {
+            for (int column = firstColumn; column <= cellOf(right); column++) {
+                List<Entry<T>> cell = cells.get(key(column, row));
+                if (cell == null) {
+                    continue;
+                }
+                for (Entry<T> entry : cell) {
+                    /*
+                    A rectangle is in every cell it overlaps; it is only taken from the first of
+                    those cells that is also in the area, so it is found once
+                     */
+                    if (entry.x <= right && entry.right >= x && entry.y <= bottom
+                            && entry.bottom >= y
+                            && Math.max(cellOf(entry.x), firstColumn) == column
+                            && Math.max(cellOf(entry.y), firstRow) == row) {
+                        found.add(entry);
+                    }
+                }
+            }
+        }
+        found.sort((first, second) -> Integer.compare(first.order, second.order));
+        List<T> items = new ArrayList<>(found.size());
+        for (Entry<T> entry : found) {
+            items.add(entry.item);
+        }
+        return items;
+    }
+
+    /* Returns the index of the cell containing the given coordinate along either axis */
+    private int cellOf(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    /* Returns the key of the cell in the given column and row */
+    private static long key(int column, int row) {
+        return ((long) column << 32) | (row & 0xFFFFFFFFL);
+    }
+}
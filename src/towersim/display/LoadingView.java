@@ -0,0 +1,129 @@
+package towersim.display;
+
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.FlowPane;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import towersim.control.LoadProgressListener;
+import towersim.ground.Terminal;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * View shown while the control tower is loaded from save files in the background.
+ * <p>
+ * Shows how many aircraft have been loaded so far, and each terminal as soon as it has been read.
+ * Progress may be reported from any thread; the view itself is only updated on the JavaFX
+ * application thread, at most once per frame for aircraft.
+ */
+public class LoadingView implements LoadProgressListener {
+
+    /** Most terminals shown individually; any more are only counted */
+    private static final int MAX_TERMINAL_TILES = 48;
+
+    /** Value of pendingAircraft when no progress is waiting to be shown */
+    private static final long NO_PROGRESS = -1;
+
+    /** Stage the view is shown on, later used by the simulation view */
+    private final Stage stage;
+
+    /** Fraction of aircraft loaded so far */
+    private final ProgressBar progressBar = new ProgressBar(ProgressBar.INDETERMINATE_PROGRESS);
+
+    /** Describes how far loading has progressed */
+    private final Label statusLabel = new Label("Reading save files...");
+
+    /** Terminals read so far */
+    private final FlowPane terminalTiles = new FlowPane(8, 8);
+
+    /** Counts terminals read that are not shown individually */
+    private final Label moreTerminalsLabel = new Label();
+
+    /** Tile showing each terminal read so far, by type and number */
+    private final Map<String, Label> tilesByTerminal = new HashMap<>();
+
+    /** Latest aircraft progress not yet shown, as loaded and total packed into a long */
+    private final AtomicLong pendingAircraft = new AtomicLong(NO_PROGRESS);
+
+    /**
+     * Creates a new loading view and adds its GUI elements to the given stage.
+     *
+     * @param stage stage to add GUI elements to
+     */
+    public LoadingView(Stage stage) {
+        this.stage = stage;
+
+        stage.setResizable(false);
+        stage.setTitle("Control Tower Simulation (Loading)");
+
+        progressBar.setPrefWidth(500);
+        terminalTiles.setPrefWrapLength(500);
+        var pane = new VBox(10, statusLabel, progressBar, terminalTiles, moreTerminalsLabel);
+        pane.setPadding(new Insets(20, 20, 20, 20));
+        pane.setPrefWidth(540);
+        stage.setScene(new Scene(pane));
+    }
+
+    /**
+     * Shows the stage with this view.
+     */
+    public void show() {
+        stage.show();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void aircraftLoaded(int loaded, int total) {
+        // only schedule an update if none is already waiting; it shows the latest progress
+        if (pendingAircraft.getAndSet(((long) loaded << 32) | total) == NO_PROGRESS) {
+            Platform.runLater(this::showAircraftProgress);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void terminalLoaded(Terminal terminal, int loaded, int total) {
+        // read the terminal on this thread, which is still loading it
+        String name = terminal.getClass().getSimpleName() + " " + terminal.getTerminalNumber();
+        String text = name + System.lineSeparator() + terminal.getGates().size() + " gates"
+                + (terminal.hasEmergency() ? " (EMERGENCY)" : "");
+        if (loaded <= MAX_TERMINAL_TILES) {
+            Platform.runLater(() -> showTerminal(name, text));
+        } else if (loaded == total) {
+            Platform.runLater(() -> moreTerminalsLabel.setText(
+                    "and " + (total - MAX_TERMINAL_TILES) + " more terminals"));
+        }
+    }
+
+    /* Shows the latest aircraft progress reported */
+    private void showAircraftProgress() {
+        long progress = pendingAircraft.getAndSet(NO_PROGRESS);
+        int loaded = (int) (progress >>> 32);
+        int total = (int) progress;
+        progressBar.setProgress(total == 0 ? 1 : (double) loaded / total);
+        statusLabel.setText(String.format("Loaded %d of %d aircraft", loaded, total));
+    }
+
+    /* Adds a tile for the given terminal, or updates its tile if it is already shown */
+    private void showTerminal(String name, String text) {
+        Label tile = tilesByTerminal.get(name);
+        if (tile == null) {
+            tile = new Label();
+            tile.setPadding(new Insets(6, 6, 6, 6));
+            tile.setStyle("-fx-border-color: grey; -fx-background-color: lightgrey;");
+            tilesByTerminal.put(name, tile);
+            terminalTiles.getChildren().add(tile);
+        }
+        tile.setText(text);
+    }
+}
@@ -0,0 +1,309 @@
+package towersim.display;
+
+import javafx.geometry.Bounds;
+import javafx.geometry.VPos;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+import towersim.aircraft.AircraftType;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Images of aircraft and their labels, each drawn once with vector commands and then reused
+ * by {@link AirportCanvas}, which only has to copy them onto the canvas.
+ * <p>
+ * Aircraft are kept by type, body colour and scale. Lines of label text, such as callsigns, are
+ * kept by text, colour, weight and scale, so a label is drawn again whenever any of these
+ * changes. At most {@value #MAX_LABELS} labels are kept; the least recently used are dropped
+ * first. Images are drawn at twice their size when zoomed in, so they stay sharp.
+ * <p>
+ * A sprite cache must only be used on the JavaFX application thread.
+ */
+class SpriteCache {
+
+    /** Most label images kept at once */
+    static final int MAX_LABELS = 8192;
+
+    /** Size of the font used for labels */
+    private static final double LABEL_FONT_SIZE = 12;
+
+    /** Width and height of an aircraft image, before scaling */
+    private final double aircraftSize;
+
+    /** Images of aircraft, by type, body colour and scale */
+    private final Map<SpriteKey, Image> aircraft = new HashMap<>();
+
+    /** Images of lines of label text, least recently used first */
+    private final Map<SpriteKey, Image> labels = leastRecentlyUsed(MAX_LABELS);
+
+    /** Font of labels, by weight */
+    private final Map<FontWeight, Font> fonts = new EnumMap<>(FontWeight.class);
+
+    /** Height of a line of label text */
+    private final double lineHeight;
+
+    /** Snapshot parameters keeping the background of images transparent */
+    private final SnapshotParameters transparent = new SnapshotParameters();
+
+    /** Identifies one image: what is drawn, in what colour and weight, at what scale */
+    static final class SpriteKey {
+
+        /** Aircraft type or label text */
+        private final Object subject;
+
+        /** Body or text colour */
+        private final Color color;
+
+        /** Weight of label text, or null for an aircraft */
+        private final FontWeight weight;
+
+        /** Number of image pixels per canvas pixel */
+        private final int scale;
+
+        /* Creates a new key */
+        private SpriteKey(Object subject, Color color, FontWeight weight, int scale) {
+            this.subject = subject;
+            this.color = color;
+            this.weight = weight;
+            this.scale = scale;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof SpriteKey)) {
+                return false;
+            }
+            SpriteKey other = (SpriteKey) obj;
+            return subject.equals(other.subject) && color.equals(other.color)
+                    && weight == other.weight && scale == other.scale;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(subject, color, weight, scale);
+        }
+    }
+
+    /**
+     * Returns the key of the image of an aircraft of the given type and colour, drawn at the
+     * given zoom.
+     *
+     * @param type type of aircraft
+     * @param body colour of the aircraft
+     * @param zoom zoom the canvas is drawn at
+     * @return key of the image
+     */
+    static SpriteKey aircraftKey(AircraftType type, Color body, double zoom) {
+        return new SpriteKey(type, body, null, scaleFor(zoom));
+    }
+
+    /**
+     * Returns the key of the image of a line of label text, drawn at the given zoom.
+     *
+     * @param text text of the line
+     * @param color colour of the text
+     * @param weight weight of the text
+     * @param zoom zoom the canvas is drawn at
+     * @return key of the image
+     */
+    static SpriteKey labelKey(String text, Color color, FontWeight weight, double zoom) {
+        return new SpriteKey(text, color, weight, scaleFor(zoom));
+    }
+
+    /**
+     * Returns an empty map that drops its least recently used entry whenever it holds more
+     * than the given number of entries. Getting an entry counts as using it.
+     *
+     * @param capacity most entries kept at once
+     * @param <K> type of keys
+     * @param <V> type of values
+     * @return new map
+     */
+    static <K, V> Map<K, V> leastRecentlyUsed(int capacity) {
+        return new LinkedHashMap<>(Math.min(capacity, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Creates a new, empty sprite cache.
+     *
+     * @param aircraftSize width and height of an aircraft image, in canvas pixels
+     */
+    SpriteCache(double aircraftSize) {
+        this.aircraftSize = aircraftSize;
+        for (FontWeight weight : FontWeight.values()) {
+            fonts.put(weight, Font.font("monospace", weight, LABEL_FONT_SIZE));
+        }
+        this.lineHeight = measure("X", fonts.get(FontWeight.NORMAL)).getHeight();
+        transparent.setFill(Color.TRANSPARENT);
+    }
+
+    /**
+     * Returns the height of a line of label text, in canvas pixels.
+     *
+     * @return line height
+     */
+    double getLineHeight() {
+        return lineHeight;
+    }
+
+    /**
+     * Draws an aircraft of the given type from its cached image.
+     *
+     * @param gc graphics context to draw with
+     * @param type type of aircraft
+     * @param body colour of the aircraft
+     * @param zoom zoom the canvas is drawn at
+     * @param x x-coord of top left corner
+     * @param y y-coord of top left corner
+     */
+    void drawAircraft(GraphicsContext gc, AircraftType type, Color body, double zoom, double x,
+            double y) {
+        gc.drawImage(getAircraft(type, body, zoom), x, y, aircraftSize, aircraftSize);
+    }
+
+    /**
+     * Draws a single line of label text from its cached image.
+     *
+     * @param gc graphics context to draw with
+     * @param text text of the line
+     * @param color colour of the text
+     * @param weight weight of the text
+     * @param zoom zoom the canvas is drawn at
+     * @param centreX x-coord of the horizontal centre of the line
+     * @param y y-coord of the top of the line
+     */
+    void drawLabel(GraphicsContext gc, String text, Color color, FontWeight weight, double zoom,
+            double centreX, double y) {
+        SpriteKey key = labelKey(text, color, weight, zoom);
+        Image image = getLabel(key);
+        double width = image.getWidth() / key.scale;
+        gc.drawImage(image, centreX - width / 2, y, width, image.getHeight() / key.scale);
+    }
+
+    /* Returns the image of an aircraft of the given type, drawn in the given colour */
+    private Image getAircraft(AircraftType type, Color body, double zoom) {
+        SpriteKey key = aircraftKey(type, body, zoom);
+        Image image = aircraft.get(key);
+        if (image == null) {
+            Canvas canvas = new Canvas(aircraftSize * key.scale, aircraftSize * key.scale);
+            GraphicsContext gc = canvas.getGraphicsContext2D();
+            gc.scale(key.scale, key.scale);
+            gc.setFill(body);
+            if (type == AircraftType.HELICOPTER) {
+                drawHelicopter(gc, 0, 0, aircraftSize);
+            } else {
+                drawAirplane(gc, 0, 0, aircraftSize);
+            }
+            image = canvas.snapshot(transparent, null);
+            aircraft.put(key, image);
+        }
+        return image;
+    }
+
+    /* Returns the image of the single line of label text with the given key */
+    private Image getLabel(SpriteKey key) {
+        Image image = labels.get(key);
+        if (image == null) {
+            String text = (String) key.subject;
+            Font font = fonts.get(key.weight);
+            Bounds bounds = measure(text, font);
+            Canvas canvas = new Canvas(Math.ceil(bounds.getWidth()) * key.scale,
+                    Math.ceil(lineHeight) * key.scale);
+            GraphicsContext gc = canvas.getGraphicsContext2D();
+            gc.scale(key.scale, key.scale);
+            gc.setFill(key.color);
+            gc.setFont(font);
+            gc.setTextBaseline(VPos.TOP);
+            gc.fillText(text, 0, 0);
+            image = canvas.snapshot(transparent, null);
+            labels.put(key, image);
+        }
+        return image;
+    }
+
+    /* Returns the number of image pixels per canvas pixel for images drawn at the given zoom */
+    private static int scaleFor(double zoom) {
+        return zoom > 1 ? 2 : 1;
+    }
+
+    /* Returns the size of the given text set in the given font */
+    private static Bounds measure(String text, Font font) {
+        Text node = new Text(text);
+        node.setFont(font);
+        return node.getLayoutBounds();
+    }
+
+    /**
+     * Draws an airplane with vector commands, filling a square with its top left at x, y.
+     *
+     * @param gc graphics context to draw with, already set to the colour of the airplane
+     * @param x x-coord of top left corner
+     * @param y y-coord of top left corner
+     * @param size width and height of the square
+     */
+    static void drawAirplane(GraphicsContext gc, double x, double y, double size) {
+        // Wings
+        gc.fillPolygon(new double[] {
+            x + size / 2 + 8,
+            x + size / 2 + 8,
+            x + size / 2 - 10
+        }, new double[] {
+            y + 4,
+            y + 36,
+            y + 22}, 3);
+
+        // Tail
+        gc.fillPolygon(new double[] {
+            x + size - 4,
+            x + size - 16,
+            x + size - 4
+        }, new double[] {
+            y + 22,
+            y + 18,
+            y + 4}, 3);
+
+        // Fuselage
+        gc.fillRoundRect(x + 4,
+                y + 17,
+                size - 8,
+                8,
+                10,
+                10);
+    }
+
+    /**
+     * Draws a helicopter with vector commands, filling a square with its top left at x, y.
+     *
+     * @param gc graphics context to draw with, already set to the colour of the helicopter
+     * @param x x-coord of top left corner
+     * @param y y-coord of top left corner
+     * @param size width and height of the square
+     */
+    static void drawHelicopter(GraphicsContext gc, double x, double y, double size) {
+        // Fuselage
+        gc.fillOval(x + 15, y + 16, 30, 16);
+
+        // Main rotor
+        gc.fillRect(x + 30 - 1, y + 16 - 4, 3, 4);
+        gc.fillRect(x + 4, y + 10, 50, 3);
+
+        // Tail rotor
+        gc.fillRect(x + 30, y + 22, 40, 3);
+        gc.fillRect(x + size - 14, y + 16, 2, 14);
+    }
+}
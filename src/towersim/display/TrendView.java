@@ -0,0 +1,120 @@
+package towersim.display;
+
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.Label;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import towersim.control.ControlTower;
+import towersim.control.TickListener;
+import towersim.stats.TimeSeries;
+import towersim.stats.TimeSeriesRecorder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Window charting the trends recorded by a {@link TimeSeriesRecorder}.
+ * <p>
+ * The chart is redrawn at the end of every tick while the window is showing.
+ */
+public class TrendView implements TickListener {
+
+    /** Window the chart is shown in */
+    private final Stage stage = new Stage();
+
+    /** Recorder whose series are charted */
+    private final TimeSeriesRecorder recorder;
+
+    /** Tower the recorder records */
+    private final ControlTower tower;
+
+    /** Chart of every series */
+    private final LineChart<Number, Number> chart;
+
+    /** Resolution of the points charted */
+    private final ChoiceBox<TimeSeries.Resolution> resolution = new ChoiceBox<>();
+
+    /**
+     * Creates a new trend window, not yet shown.
+     *
+     * @param owner window that owns the trend window
+     * @param recorder recorder whose series to chart
+     * @param tower tower the recorder records, whose ticks redraw the chart
+     */
+    public TrendView(Window owner, TimeSeriesRecorder recorder, ControlTower tower) {
+        this.recorder = recorder;
+        this.tower = tower;
+
+        NumberAxis tickAxis = new NumberAxis();
+        tickAxis.setLabel("Tick");
+        tickAxis.setForceZeroInRange(false);
+        NumberAxis valueAxis = new NumberAxis();
+        valueAxis.setLabel("Aircraft, or occupancy (%)");
+        this.chart = new LineChart<>(tickAxis, valueAxis);
+        chart.setAnimated(false);
+        chart.setCreateSymbols(false);
+        chart.setPrefSize(900, 500);
+
+        resolution.getItems().addAll(TimeSeries.Resolution.values());
+        resolution.setValue(TimeSeries.Resolution.RAW);
+        var controls = new HBox(10, new Label("Resolution:"), resolution);
+        var pane = new VBox(10, controls, chart);
+        pane.setPadding(new Insets(10, 10, 10, 10));
+
+        stage.initOwner(owner);
+        stage.setTitle("Control Tower Simulation Trends");
+        stage.setScene(new Scene(pane));
+    }
+
+    /**
+     * Shows the window, or brings it to the front if it is already showing.
+     */
+    public void show() {
+        if (!stage.isShowing()) {
+            tower.addTickListener(this);
+            // handlers referring to this view are set once it is built, never from the constructor
+            resolution.setOnAction(event -> redraw());
+            stage.setOnHidden(event -> tower.removeTickListener(this));
+            redraw();
+        }
+        stage.show();
+        stage.toFront();
+    }
+
+    /**
+     * Redraws the chart with the points recorded at the tick that just ended.
+     *
+     * @param tower tower that ticked
+     */
+    @Override
+    public void onTick(ControlTower tower) {
+        redraw();
+    }
+
+    /* Replaces the chart's data with the points of every series at the chosen resolution */
+    private void redraw() {
+        TimeSeries.Resolution chosen = resolution.getValue();
+        List<XYChart.Series<Number, Number>> lines = new ArrayList<>();
+        for (TimeSeries timeSeries : recorder.getSeries()) {
+            double[] points = timeSeries.getPoints(chosen);
+            List<XYChart.Data<Number, Number>> data = new ArrayList<>(points.length);
+            long tick = timeSeries.getStartTick(chosen);
+            for (double point : points) {
+                data.add(new XYChart.Data<>(tick, point));
+                tick += chosen.ticksPerPoint;
+            }
+            // adding the points all at once lays out the chart once rather than per point
+            lines.add(new XYChart.Series<>(timeSeries.getName(),
+                    FXCollections.observableList(data)));
+        }
+        chart.getData().setAll(lines);
+    }
+}
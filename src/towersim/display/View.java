@@ -1,6 +1,7 @@
 package towersim.display;
 
 import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
@@ -21,12 +22,15 @@ import towersim.ground.AirplaneTerminal;
 import towersim.ground.Gate;
 import towersim.ground.HelicopterTerminal;
 import towersim.ground.Terminal;
+import towersim.stats.TimeSeries;
+import towersim.stats.TimeSeriesRecorder;
 import towersim.tasks.Task;
 import towersim.tasks.TaskList;
 import towersim.tasks.TaskType;
 import towersim.util.NoSpaceException;
 import towersim.util.NoSuitableGateException;
 
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.*;
@@ -57,6 +61,9 @@ public class View {
     /** Maximum number of terminals that can be displayed */
     private static final int MAX_TERMINALS = 6;
 
+    /** Window charting the trends of the simulation; or null if it has not been opened */
+    private TrendView trendView;
+
     /**
      * Creates a new view for the given view model and adds the associated GUI elements to the given
      * stage.
@@ -142,6 +149,17 @@ public class View {
                     "Saved to default provided file locations successfully.");
         });
 
+        MenuItem quickSave = new MenuItem("_Quick Save");
+        quickSave.setMnemonicParsing(true);
+        quickSave.setOnAction(event -> {
+            try {
+                viewModel.quickSave();
+            } catch (IOException e) {
+                viewModel.createErrorDialog("Error saving to file",
+                        e.getMessage());
+            }
+        });
+
         MenuItem exit = new MenuItem("_Exit");
         exit.setMnemonicParsing(true);
         exit.setOnAction(event -> System.exit(0));
@@ -150,7 +168,9 @@ public class View {
         Menu menuFile = new Menu("_File");
         menuFile.setMnemonicParsing(true);
         menuFile.getItems().add(save);
+        menuFile.getItems().add(quickSave);
         menuFile.getItems().add(createSaveAsMenuItem());
+        menuFile.getItems().add(createExportTrendsMenuItem());
         menuFile.getItems().add(new SeparatorMenuItem());
         menuFile.getItems().add(exit);
 
@@ -231,6 +251,16 @@ public class View {
         speed.getItems().add(highSpeed);
         menuSim.getItems().add(pause);
         menuSim.getItems().add(speed);
+        MenuItem trends = new MenuItem("_Trends...");
+        trends.setMnemonicParsing(true);
+        trends.setOnAction(event -> {
+            if (trendView == null) {
+                trendView = new TrendView(stage, viewModel.getTrendRecorder(),
+                        viewModel.getControlTower());
+            }
+            trendView.show();
+        });
+        menuSim.getItems().add(trends);
         return menuSim;
     }
 
@@ -275,9 +305,11 @@ public class View {
             } else {
                 newTerminal = new HelicopterTerminal(terminalNumber.get());
             }
-            viewModel.getControlTower().addTerminal(newTerminal);
-            viewModel.getNumTerminals().set(viewModel.getNumTerminals().get() + 1);
-            viewModel.registerChange();
+            viewModel.submit(tower -> {
+                tower.addTerminal(newTerminal);
+                return null;
+            }).thenRunAsync(() -> viewModel.getNumTerminals()
+                    .set(viewModel.getControlTower().getTerminals().size()), Platform::runLater);
         });
         addTerminal.disableProperty().bind(Bindings.greaterThan(viewModel.getNumTerminals(),
                 MAX_TERMINALS - 1));
@@ -325,12 +357,14 @@ public class View {
                         "A gate already exists with number " + gateNumberChoice.get());
                 return;
             }
-            try {
-                terminal.addGate(new Gate(gateNumberChoice.get()));
-            } catch (NoSpaceException ex) {
-                // ignored (not possible)
-            }
-            viewModel.registerChange();
+            viewModel.submit(tower -> {
+                try {
+                    terminal.addGate(new Gate(gateNumberChoice.get()));
+                } catch (NoSpaceException ex) {
+                    // ignored (not possible)
+                }
+                return null;
+            });
         });
         return addGate;
     }
@@ -394,16 +428,19 @@ public class View {
             }
             String chosenKey = choice.get();
             Aircraft chosenAircraft = aircraftPresets.get(chosenKey);
-            try {
-                viewModel.getControlTower().addAircraft(chosenAircraft);
-            } catch (NoSuitableGateException e) {
-                viewModel.createErrorDialog("Cannot create aircraft",
-                        "No suitable gate for aircraft " + chosenAircraft);
-                return;
-            }
-            viewModel.registerChange();
-            viewModel.createSuccessDialog("Successfully created aircraft",
-                    "Aircraft created:\n" + chosenAircraft);
+            viewModel.submit(tower -> {
+                tower.addAircraft(chosenAircraft);
+                return chosenAircraft;
+            }).whenCompleteAsync((added, failure) -> {
+                // dialogs cannot be shown while a frame is being processed, so run them after
+                if (failure instanceof NoSuitableGateException) {
+                    viewModel.createErrorDialog("Cannot create aircraft",
+                            "No suitable gate for aircraft " + chosenAircraft);
+                } else if (failure == null) {
+                    viewModel.createSuccessDialog("Successfully created aircraft",
+                            "Aircraft created:\n" + chosenAircraft);
+                }
+            }, Platform::runLater);
         });
         return addAircraft;
     }
@@ -425,10 +462,7 @@ public class View {
                 enteredFilenames.add(filename.get());
             }
             try {
-                viewModel.saveAs(new FileWriter(enteredFilenames.get(0)),
-                        new FileWriter(enteredFilenames.get(1)),
-                        new FileWriter(enteredFilenames.get(2)),
-                        new FileWriter(enteredFilenames.get(3)));
+                viewModel.saveAs(enteredFilenames);
             } catch (IOException e) {
                 viewModel.createErrorDialog("Error saving to file",
                         e.getMessage());
@@ -441,6 +475,50 @@ public class View {
         return saveAs;
     }
 
+    /* Creates a menu item that, when clicked, prompts for the recorded trends to be exported */
+    private MenuItem createExportTrendsMenuItem() {
+        final String binary = "Binary, all resolutions";
+        Map<String, TimeSeries.Resolution> csvFormats = new LinkedHashMap<>();
+        csvFormats.put("CSV, every tick", TimeSeries.Resolution.RAW);
+        csvFormats.put("CSV, every 10 ticks", TimeSeries.Resolution.TEN_TICKS);
+        csvFormats.put("CSV, every 100 ticks", TimeSeries.Resolution.HUNDRED_TICKS);
+        List<String> formats = new ArrayList<>(csvFormats.keySet());
+        formats.add(binary);
+
+        MenuItem exportTrends = new MenuItem("_Export Trends...");
+        exportTrends.setMnemonicParsing(true);
+        exportTrends.setOnAction(event -> {
+            var format = getChoice("Export Trends", "Please choose a format to export in",
+                    "Format", formats.get(0), formats.toArray(new String[0]));
+            if (format.isEmpty()) {
+                return;
+            }
+            var filename = getResponse("Export Trends",
+                    "Please enter the path of the file to export to", "File name", "");
+            if (filename.isEmpty()) {
+                return;
+            }
+            TimeSeriesRecorder recorder = viewModel.getTrendRecorder();
+            try {
+                if (format.get().equals(binary)) {
+                    try (var out = new FileOutputStream(filename.get())) {
+                        recorder.writeBinary(out);
+                    }
+                } else {
+                    try (var writer = new FileWriter(filename.get())) {
+                        recorder.writeCsv(writer, csvFormats.get(format.get()));
+                    }
+                }
+            } catch (IOException e) {
+                viewModel.createErrorDialog("Error exporting trends", e.getMessage());
+                return;
+            }
+            viewModel.createSuccessDialog("Exported trends successfully",
+                    "Exported to \"" + filename.get() + "\" successfully.");
+        });
+        return exportTrends;
+    }
+
     /* Generates a random callsign based on the given airline code and list of existing aircraft */
     private String generateRandomCallsign(String airlineCode, List<Aircraft> existingAircraft) {
         Random random = new Random();
@@ -564,6 +642,7 @@ public class View {
         new AnimationTimer() {
             @Override
             public void handle(long currentNanoTime) {
+                viewModel.processCommands();
                 if (viewModel.isChanged()) {
                     viewModel.notChanged();
                     canvas.draw();
@@ -7,18 +7,29 @@ import javafx.scene.control.Alert;
 import towersim.aircraft.Aircraft;
 import towersim.control.ControlTower;
 import towersim.control.ControlTowerInitialiser;
+import towersim.control.LoadProgressListener;
+import towersim.control.TowerCommand;
 import towersim.ground.Gate;
 import towersim.ground.Terminal;
+import towersim.recording.SaveWriteEvent;
+import towersim.save.AircraftFileEncoder;
+import towersim.save.DeltaSave;
+import towersim.stats.TimeSeriesRecorder;
+import towersim.status.DeltaPublisher;
 import towersim.tasks.TaskType;
 import towersim.util.MalformedSaveException;
 import towersim.util.NoSuitableGateException;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.StringJoiner;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * View model for the Control Tower Simulation GUI.
@@ -68,20 +79,20 @@ public class ViewModel {
     /** List of all aircraft whose task is LAND; used in finding aircraftLanding */
     private List<Aircraft> allLandAircraft = new ArrayList<>();
 
-    /** File path of the tick file that we loaded from */
-    private final String defaultTickSaveLocation;
+    /** Incremental save of the control tower to the files it was loaded from */
+    private final DeltaSave deltaSave;
 
-    /** File path of the aircraft file that we loaded from */
-    private final String defaultAircraftSaveLocation;
+    /** Trends of the control tower, sampled at the end of every tick */
+    private final TimeSeriesRecorder trendRecorder = new TimeSeriesRecorder();
 
-    /** File path of the queues file that we loaded from */
-    private final String defaultQueuesSaveLocation;
-
-    /** File path of the terminals with gates file that we loaded from */
-    private final String defaultTerminalsSaveLocation;
+    /** Publisher of what changed in the control tower over each tick */
+    private final DeltaPublisher deltaPublisher;
 
     /**
      * Creates a new view model and constructs a control tower by reading from the given filenames.
+     * <p>
+     * Changes quick saved by {@link #quickSave()} since the files were last saved in full are
+     * also loaded.
      *
      * @param filenames list of four filenames, specifying the paths to: (1) the tick file;
      *                  (2) the aircraft file; (3) the queues file; (4) the terminals/gates file
@@ -92,16 +103,30 @@ public class ViewModel {
      * @given
      */
     public ViewModel(List<String> filenames) throws IOException, MalformedSaveException {
-        this.defaultTickSaveLocation = filenames.get(0);
-        this.defaultAircraftSaveLocation = filenames.get(1);
-        this.defaultQueuesSaveLocation = filenames.get(2);
-        this.defaultTerminalsSaveLocation = filenames.get(3);
+        this(filenames, LoadProgressListener.NONE);
+    }
 
-        this.tower = ControlTowerInitialiser.createControlTower(
-                new FileReader(filenames.get(0)),
-                new FileReader(filenames.get(1)),
-                new FileReader(filenames.get(2)),
-                new FileReader(filenames.get(3)));
+    /**
+     * Creates a new view model and constructs a control tower by reading from the given
+     * filenames, telling the given listener how far loading has progressed.
+     * <p>
+     * The view model may be created on any thread; it must only be used on the JavaFX
+     * application thread once created.
+     *
+     * @param filenames list of four filenames, specifying the paths to: (1) the tick file;
+     *                  (2) the aircraft file; (3) the queues file; (4) the terminals/gates file
+     * @param listener listener to tell of loading progress, from any thread
+     * @throws IOException if loading from the files specifies generates an IOException
+     * @throws MalformedSaveException if any of the files are invalid according to
+     * {@link ControlTowerInitialiser#createControlTower(Reader, Reader, Reader, Reader)}
+     * @requires filenames != null &amp;&amp; filenames.size() == 4
+     */
+    public ViewModel(List<String> filenames, LoadProgressListener listener)
+            throws IOException, MalformedSaveException {
+        this.deltaSave = DeltaSave.open(filenames, listener);
+        this.tower = deltaSave.getControlTower();
+        this.tower.addTickListener(trendRecorder);
+        this.deltaPublisher = DeltaPublisher.start(tower);
 
         this.numTerminals.set(tower.getTerminals().size());
 
@@ -121,7 +146,8 @@ public class ViewModel {
      * Returns an event handler for when the "Drone Alert" button is clicked.
      * <p>
      * This event handler should declare a state of emergency on all terminals managed by the
-     * control tower. Finally, it should call {@link #registerChange()} to update the GUI.
+     * control tower. The change is submitted as a command to the tower's mailbox, and the GUI is
+     * updated once {@link #processCommands()} has executed it.
      *
      * @return event handler for "Drone Alert" button
      * @ass2
@@ -131,11 +157,12 @@ public class ViewModel {
         EventHandler<ActionEvent> eventHandler = new EventHandler<>() {
             @Override
             public void handle(ActionEvent actionEvent) {
-                List<Terminal> terminals = getControlTower().getTerminals();
-                for (Terminal terminal : terminals) {
-                    terminal.declareEmergency();
-                }
-                registerChange();
+                submit(tower -> {
+                    for (Terminal terminal : tower.getTerminals()) {
+                        terminal.declareEmergency();
+                    }
+                    return null;
+                });
             }
         };
 
@@ -146,7 +173,8 @@ public class ViewModel {
      * Returns an event handler for when the "Clear Drone Alert" button is clicked.
      * <p>
      * This event handler should clear the state of emergency on all terminals managed by
-     * control tower. Finally, it should all {@link #registerChange()} to update the GUI.
+     * control tower. The change is submitted as a command to the tower's mailbox, and the GUI is
+     * updated once {@link #processCommands()} has executed it.
      *
      * @return event handler for "Clear Drone Alert" button
      * @ass2
@@ -156,11 +184,12 @@ public class ViewModel {
         EventHandler<ActionEvent> eventHandler = new EventHandler<>() {
             @Override
             public void handle(ActionEvent actionEvent) {
-                List<Terminal> terminals = getControlTower().getTerminals();
-                for (Terminal terminal : terminals) {
-                    terminal.clearEmergency();
-                }
-                registerChange();
+                submit(tower -> {
+                    for (Terminal terminal : tower.getTerminals()) {
+                        terminal.clearEmergency();
+                    }
+                    return null;
+                });
             }
         };
 
@@ -285,52 +314,94 @@ public class ViewModel {
      */
     public void saveAs(Writer tickWriter, Writer aircraftWriter, Writer queuesWriter,
             Writer terminalsWithGatesWriter) throws IOException {
+        SaveWriteEvent event = new SaveWriteEvent();
+        event.begin();
+        boolean succeeded = false;
         try {
-            // writes ticks
-            tickWriter.write(String.valueOf(getControlTower().getTicksElapsed()));
-            tickWriter.close();
-
+            writeTick(tickWriter);
             // writes aircraft
-            StringJoiner aircraftJoiner = new StringJoiner(System.lineSeparator());
-            aircraftJoiner.add(String.valueOf(getControlTower().getAircraft().size()));
-            for (Aircraft aircraft : getControlTower().getAircraft()) {
-                aircraftJoiner.add(aircraft.encode());
-            }
-            aircraftWriter.write(String.valueOf(aircraftJoiner));
+            AircraftFileEncoder.write(getControlTower().getAircraft(), aircraftWriter);
             aircraftWriter.close();
-            // writes queues
-            queuesWriter.write(getControlTower().getTakeoffQueue().encode());
-            queuesWriter.write(System.lineSeparator());
-            queuesWriter.write(getControlTower().getLandingQueue().encode());
-            queuesWriter.write(System.lineSeparator());
-            // writes the loading aircraft
-            queuesWriter.write("LoadingAircraft:" + getControlTower().getLoadingAircraft().size());
-            queuesWriter.write(System.lineSeparator());
-            StringJoiner loadingAircrafts = new StringJoiner(",");
-            for (Map.Entry<Aircraft, Integer> aircraftWithLoad :
-                    getControlTower().getLoadingAircraft().entrySet()) {
-                loadingAircrafts.add(aircraftWithLoad.getKey().getCallsign() + ":"
-                        + aircraftWithLoad.getValue());
-            }
-            queuesWriter.write(String.valueOf(loadingAircrafts));
-            queuesWriter.close();
-
-            // writes terminals
-            List<Terminal> terminals = getControlTower().getTerminals();
-            StringJoiner terminalJoiner = new StringJoiner(System.lineSeparator());
-            int numOfTerminals = terminals.size();
-            terminalJoiner.add(String.valueOf(numOfTerminals));
-            int i = 0;
-            while (i < numOfTerminals) {
-                terminalJoiner.add(terminals.get(i).encode());
-                i++;
-            }
-            terminalsWithGatesWriter.write(String.valueOf(terminalJoiner));
-            terminalsWithGatesWriter.close();
+            writeQueues(queuesWriter);
+            writeTerminals(terminalsWithGatesWriter);
+            succeeded = true;
 
         } catch (IOException ioe) {
             throw new IOException(ioe);
+        } finally {
+            event.finish("full", getControlTower(), succeeded);
+        }
+    }
+
+    /**
+     * Saves the current state of the control tower simulation to the files with the given
+     * names, in the order tick, aircraft, queues and terminals with gates, in the same format
+     * as {@link #saveAs(Writer, Writer, Writer, Writer)} and the platform's default charset.
+     * <p>
+     * The aircraft are encoded in parallel chunks and written to the aircraft file with a
+     * single gathering write; see {@link AircraftFileEncoder}.
+     *
+     * @param filenames names of the files to save to
+     * @throws IOException if an IOException occurs when writing to the files
+     */
+    public void saveAs(List<String> filenames) throws IOException {
+        SaveWriteEvent event = new SaveWriteEvent();
+        event.begin();
+        boolean succeeded = false;
+        try {
+            writeTick(new FileWriter(filenames.get(0)));
+            try (FileChannel aircraftChannel = FileChannel.open(Paths.get(filenames.get(1)),
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE)) {
+                AircraftFileEncoder.write(getControlTower().getAircraft(),
+                        Charset.defaultCharset(), aircraftChannel);
+            }
+            writeQueues(new FileWriter(filenames.get(2)));
+            writeTerminals(new FileWriter(filenames.get(3)));
+            succeeded = true;
+        } finally {
+            event.finish("full", getControlTower(), succeeded);
+        }
+    }
+
+    /* Writes the number of ticks elapsed to the given writer, then closes it */
+    private void writeTick(Writer tickWriter) throws IOException {
+        tickWriter.write(String.valueOf(getControlTower().getTicksElapsed()));
+        tickWriter.close();
+    }
+
+    /* Writes the queues and loading aircraft to the given writer, then closes it */
+    private void writeQueues(Writer queuesWriter) throws IOException {
+        queuesWriter.write(getControlTower().getTakeoffQueue().encode());
+        queuesWriter.write(System.lineSeparator());
+        queuesWriter.write(getControlTower().getLandingQueue().encode());
+        queuesWriter.write(System.lineSeparator());
+        // writes the loading aircraft
+        queuesWriter.write("LoadingAircraft:" + getControlTower().getLoadingAircraft().size());
+        queuesWriter.write(System.lineSeparator());
+        StringJoiner loadingAircrafts = new StringJoiner(",");
+        for (Map.Entry<Aircraft, Integer> aircraftWithLoad :
+                getControlTower().getLoadingAircraft().entrySet()) {
+            loadingAircrafts.add(aircraftWithLoad.getKey().getCallsign() + ":"
+                    + aircraftWithLoad.getValue());
+        }
+        queuesWriter.write(String.valueOf(loadingAircrafts));
+        queuesWriter.close();
+    }
+
+    /* Writes the terminals and their gates to the given writer, then closes it */
+    private void writeTerminals(Writer terminalsWithGatesWriter) throws IOException {
+        List<Terminal> terminals = getControlTower().getTerminals();
+        StringJoiner terminalJoiner = new StringJoiner(System.lineSeparator());
+        int numOfTerminals = terminals.size();
+        terminalJoiner.add(String.valueOf(numOfTerminals));
+        int i = 0;
+        while (i < numOfTerminals) {
+            terminalJoiner.add(terminals.get(i).encode());
+            i++;
         }
+        terminalsWithGatesWriter.write(String.valueOf(terminalJoiner));
+        terminalsWithGatesWriter.close();
     }
 
     /**
@@ -343,6 +414,50 @@ public class ViewModel {
         return tower;
     }
 
+    /**
+     * Returns the recorder of the control tower's trends, such as queue lengths and gate
+     * occupancy, which samples the tower at the end of every tick.
+     *
+     * @return trend recorder
+     */
+    public TimeSeriesRecorder getTrendRecorder() {
+        return trendRecorder;
+    }
+
+    /**
+     * Returns the publisher of what changed in the control tower over each tick, to which
+     * dashboards, loggers and other consumers may subscribe from any thread.
+     *
+     * @return delta publisher
+     */
+    public DeltaPublisher getDeltaPublisher() {
+        return deltaPublisher;
+    }
+
+    /**
+     * Submits a change to the control tower. The command is executed by the next call to
+     * {@link #processCommands()} or {@link #tick()}, whichever comes first.
+     *
+     * @param command command to execute
+     * @param <T> type of the result of the command
+     * @return future completed on the JavaFX application thread once the command has executed
+     * @see towersim.control.CommandMailbox#submit(TowerCommand)
+     */
+    public <T> CompletableFuture<T> submit(TowerCommand<T> command) {
+        return tower.getMailbox().submit(command);
+    }
+
+    /**
+     * Executes every command submitted to the control tower since the last call, and updates the
+     * GUI if any were executed. Called on every frame, so changes take effect promptly even while
+     * the simulation is paused.
+     */
+    public void processCommands() {
+        if (tower.processCommands() > 0) {
+            registerChange();
+        }
+    }
+
     /**
      * Ticks the model and updates the state of the GUI.
      *
@@ -362,14 +477,16 @@ public class ViewModel {
     private void updateTakeoffLandAircraft() {
         this.aircraftTakingOff.set(null);
         this.aircraftLanding.set(null);
-        for (Aircraft aircraft : getControlTower().getAircraft()) {
-            TaskType currentTaskType = aircraft.getTaskList().getCurrentTask().getType();
-            if (currentTaskType == TaskType.AWAY && allTakeoffAircraft.contains(aircraft)) {
+        // only aircraft that were taking off or landing before the tick can have just done so
+        for (Aircraft aircraft : allTakeoffAircraft) {
+            if (aircraft.getTaskList().getCurrentTask().getType() == TaskType.AWAY) {
                 // Aircraft has just taken off
                 this.aircraftTakingOff.set(aircraft);
             }
-            if ((currentTaskType == TaskType.WAIT || currentTaskType == TaskType.LOAD)
-                    && allLandAircraft.contains(aircraft)) {
+        }
+        for (Aircraft aircraft : allLandAircraft) {
+            TaskType currentTaskType = aircraft.getTaskList().getCurrentTask().getType();
+            if (currentTaskType == TaskType.WAIT || currentTaskType == TaskType.LOAD) {
                 // Aircraft has just landed
                 this.aircraftLanding.set(aircraft);
             }
@@ -382,17 +499,8 @@ public class ViewModel {
      * same for LAND
      */
     private void fillTakeoffLandAircraftLists() {
-        this.allTakeoffAircraft = findAircraftWithTask(getControlTower().getAircraft(),
-                TaskType.TAKEOFF);
-        this.allLandAircraft = findAircraftWithTask(getControlTower().getAircraft(),
-                TaskType.LAND);
-    }
-
-    /* Returns all aircraft in the given list whose current task's type is the given type */
-    private List<Aircraft> findAircraftWithTask(List<Aircraft> aircraft, TaskType taskType) {
-        return aircraft.stream()
-                .filter(a -> a.getTaskList().getCurrentTask().getType() == taskType)
-                .collect(Collectors.toList());
+        this.allTakeoffAircraft = getControlTower().getAircraftWithTask(TaskType.TAKEOFF);
+        this.allLandAircraft = getControlTower().getAircraftWithTask(TaskType.LAND);
     }
 
     /* Generates the formatted information text for the given aircraft */
@@ -447,15 +555,30 @@ public class ViewModel {
     /**
      * Saves the current state of the control tower simulation to the same files it was loaded
      * from when the application was launched.
+     * <p>
+     * The new files are written alongside the old ones and only replace them, and any quick
+     * saves, once all four have been written. See {@link DeltaSave#commitFullSave()}.
      *
      * @throws IOException if an IOException occurs when writing to the files
      * @given
      */
     public void save() throws IOException {
-        saveAs(new FileWriter(this.defaultTickSaveLocation),
-                new FileWriter(this.defaultAircraftSaveLocation),
-                new FileWriter(this.defaultQueuesSaveLocation),
-                new FileWriter((this.defaultTerminalsSaveLocation)));
+        saveAs(deltaSave.getFullSaveFilenames());
+        deltaSave.commitFullSave();
+        deltaSave.saveWaitTimes();
+    }
+
+    /**
+     * Saves only what has changed since the last save to a delta file next to the files the
+     * control tower was loaded from. See {@link DeltaSave}.
+     * <p>
+     * Once the delta file grows large enough, it is merged back into the files, which then hold
+     * the same as if {@link #save()} had been called.
+     *
+     * @throws IOException if an IOException occurs when writing to the files
+     */
+    public void quickSave() throws IOException {
+        deltaSave.save();
     }
 
     /**
@@ -0,0 +1,190 @@
+package towersim.display;
+
+/**
+ * Pannable and zoomable window onto the world drawn by {@link AirportCanvas}.
+ * <p>
+ * The world is laid out in world units, which are pixels at a zoom of 1. The viewport maps the
+ * world onto a screen area of fixed size: the world point at {@link #getLeft()},
+ * {@link #getTop()} is drawn at the top-left corner of the screen, and every world unit is
+ * drawn {@link #getZoom()} pixels wide.
+ */
+public class Viewport {
+
+    /** Smallest zoom allowed, at which the world is drawn at a tenth of its size */
+    public static final double MIN_ZOOM = 0.1;
+
+    /** Largest zoom allowed */
+    public static final double MAX_ZOOM = 4;
+
+    /** Width of the screen area, in pixels */
+    private final double screenWidth;
+
+    /** Height of the screen area, in pixels */
+    private final double screenHeight;
+
+    /** World x-coordinate drawn at the left edge of the screen */
+    private double left = 0;
+
+    /** World y-coordinate drawn at the top edge of the screen */
+    private double top = 0;
+
+    /** Pixels per world unit */
+    private double zoom = 1;
+
+    /**
+     * Creates a new viewport onto a screen area of the given size, showing the world from its
+     * origin at a zoom of 1.
+     *
+     * @param screenWidth width of the screen area, in pixels
+     * @param screenHeight height of the screen area, in pixels
+     */
+    public Viewport(double screenWidth, double screenHeight) {
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+    }
+
+    /**
+     * Returns the number of pixels each world unit is drawn across.
+     *
+     * @return zoom, from {@value #MIN_ZOOM} to {@value #MAX_ZOOM}
+     */
+    public double getZoom() {
+        return zoom;
+    }
+
+    /**
+     * Returns the world x-coordinate drawn at the left edge of the screen.
+     *
+     * @return leftmost visible world x-coordinate
+     */
+    public double getLeft() {
+        return left;
+    }
+
+    /**
+     * Returns the world y-coordinate drawn at the top edge of the screen.
+     *
+     * @return topmost visible world y-coordinate
+     */
+    public double getTop() {
+        return top;
+    }
+
+    /**
+     * Returns the world x-coordinate drawn at the right edge of the screen.
+     *
+     * @return rightmost visible world x-coordinate
+     */
+    public double getRight() {
+        return left + screenWidth / zoom;
+    }
+
+    /**
+     * Returns the world y-coordinate drawn at the bottom edge of the screen.
+     *
+     * @return bottommost visible world y-coordinate
+     */
+    public double getBottom() {
+        return top + screenHeight / zoom;
+    }
+
+    /**
+     * Returns the world x-coordinate drawn at the given screen x-coordinate.
+     *
+     * @param screenX x-coordinate on the screen, in pixels
+     * @return world x-coordinate
+     */
+    public double toWorldX(double screenX) {
+        return left + screenX / zoom;
+    }
+
+    /**
+     * Returns the world y-coordinate drawn at the given screen y-coordinate.
+     *
+     * @param screenY y-coordinate on the screen, in pixels
+     * @return world y-coordinate
+     */
+    public double toWorldY(double screenY) {
+        return top + screenY / zoom;
+    }
+
+    /**
+     * Returns whether any part of the given world rectangle is visible on the screen.
+     *
+     * @param x world x-coordinate of the left edge of the rectangle
+     * @param y world y-coordinate of the top edge of the rectangle
+     * @param width width of the rectangle, in world units
+     * @param height height of the rectangle, in world units
+     * @return true if the rectangle overlaps the visible part of the world; false otherwise
+     */
+    public boolean isVisible(double x, double y, double width, double height) {
+        return x < getRight() && x + width > left && y < getBottom() && y + height > top;
+    }
+
+    /**
+     * Returns the first of a run of equally spaced slots that is at least partly visible along
+     * one axis.
+     * <p>
+     * Slot {@code i} covers world coordinates from {@code start + i * pitch} up to
+     * {@code start + (i + 1) * pitch}. Together with {@link #visibleSlotsEnd}, this finds the
+     * visible slots of a row or column without looking at any of the others.
+     *
+     * @param start world coordinate where the first slot starts
+     * @param pitch world size of each slot
+     * @param visibleStart lowest visible world coordinate along the axis of the slots
+     * @return index of the first visible slot, or 0 if the first slot is visible
+     */
+    public static int firstVisibleSlot(double start, double pitch, double visibleStart) {
+        return (int) Math.max(0, Math.floor((visibleStart - start) / pitch));
+    }
+
+    /**
+     * Returns one past the last of a run of equally spaced slots that is at least partly
+     * visible along one axis. See {@link #firstVisibleSlot}.
+     *
+     * @param start world coordinate where the first slot starts
+     * @param pitch world size of each slot
+     * @param count number of slots in the run
+     * @param visibleEnd highest visible world coordinate along the axis of the slots
+     * @return index after the last visible slot, at most count
+     */
+    public static int visibleSlotsEnd(double start, double pitch, int count, double visibleEnd) {
+        return (int) Math.max(0, Math.min(count, Math.ceil((visibleEnd - start) / pitch)));
+    }
+
+    /**
+     * Moves the view by the given distance on the screen, as if dragging the world with it.
+     *
+     * @param dx pixels to move the world right
+     * @param dy pixels to move the world down
+     */
+    public void panBy(double dx, double dy) {
+        left -= dx / zoom;
+        top -= dy / zoom;
+    }
+
+    /**
+     * Multiplies the zoom by the given factor, keeping the world point at the given screen point
+     * where it is. The zoom is kept from {@value #MIN_ZOOM} to {@value #MAX_ZOOM}.
+     *
+     * @param factor factor to multiply the zoom by; greater than 1 to zoom in
+     * @param screenX x-coordinate on the screen to zoom about, in pixels
+     * @param screenY y-coordinate on the screen to zoom about, in pixels
+     */
+    public void zoomAt(double factor, double screenX, double screenY) {
+        double worldX = toWorldX(screenX);
+        double worldY = toWorldY(screenY);
+        zoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom * factor));
+        left = worldX - screenX / zoom;
+        top = worldY - screenY / zoom;
+    }
+
+    /**
+     * Shows the world from its origin at a zoom of 1 again.
+     */
+    public void reset() {
+        left = 0;
+        top = 0;
+        zoom = 1;
+    }
+}
@@ -1,5 +1,9 @@
 package towersim.ground;
 
+import towersim.aircraft.Aircraft;
+
+import java.util.function.UnaryOperator;
+
 /**
  * Represents an airport terminal that is designed to accommodate airplanes.
  * @ass1
@@ -16,4 +20,17 @@ public class AirplaneTerminal extends Terminal {
     public AirplaneTerminal(int terminalNumber) {
         super(terminalNumber);
     }
+
+    /* Creates a new airplane terminal in the same state as the given terminal */
+    private AirplaneTerminal(AirplaneTerminal other, UnaryOperator<Aircraft> aircraftCopies) {
+        super(other, aircraftCopies);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AirplaneTerminal copy(UnaryOperator<Aircraft> aircraftCopies) {
+        return new AirplaneTerminal(this, aircraftCopies);
+    }
 }
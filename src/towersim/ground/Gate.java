@@ -1,9 +1,11 @@
 package towersim.ground;
 
 import towersim.aircraft.Aircraft;
+import towersim.util.MutationListener;
 import towersim.util.NoSpaceException;
 
 import java.util.Objects;
+import java.util.function.UnaryOperator;
 
 /**
  * Represents an aircraft gate with facilities for a single aircraft to be parked.
@@ -17,6 +19,9 @@ public class Gate {
     /** Aircraft currently occupying the gate; or null if gate is empty. */
     private Aircraft aircraftAtGate;
 
+    /** Listener notified whenever this gate changes; or null if there is none */
+    private MutationListener mutationListener;
+
     /**
      * Creates a new Gate with the given unique gate number.
      * <p>
@@ -32,6 +37,39 @@ public class Gate {
         this.aircraftAtGate = null;
     }
 
+    /**
+     * Returns a new gate with the same gate number as this gate, occupied by the copy of the
+     * aircraft parked at this gate, if any.
+     *
+     * @param aircraftCopies function returning the copy of a given aircraft
+     * @return copy of this gate
+     */
+    public Gate copy(UnaryOperator<Aircraft> aircraftCopies) {
+        Gate copy = new Gate(this.gateNumber);
+        if (this.aircraftAtGate != null) {
+            copy.aircraftAtGate = aircraftCopies.apply(this.aircraftAtGate);
+        }
+        return copy;
+    }
+
+    /**
+     * Sets the listener to notify whenever this gate changes, replacing any previous listener.
+     * <p>
+     * Copies of this gate do not inherit the listener.
+     *
+     * @param listener listener to notify; or null to stop notifying
+     */
+    public void setMutationListener(MutationListener listener) {
+        this.mutationListener = listener;
+    }
+
+    /* Notifies the listener, if any, that this gate has changed */
+    private void notifyMutation() {
+        if (this.mutationListener != null) {
+            this.mutationListener.mutated(this);
+        }
+    }
+
     /**
      * Returns this gate's gate number.
      *
@@ -58,6 +96,7 @@ public class Gate {
                     + " is occupied, cannot park aircraft");
         }
         this.aircraftAtGate = aircraft;
+        notifyMutation();
     }
 
     /**
@@ -67,7 +106,10 @@ public class Gate {
      * @ass1
      */
     public void aircraftLeaves() {
-        this.aircraftAtGate = null;
+        if (this.aircraftAtGate != null) {
+            this.aircraftAtGate = null;
+            notifyMutation();
+        }
     }
 
     /**
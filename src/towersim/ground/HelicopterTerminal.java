@@ -1,5 +1,9 @@
 package towersim.ground;
 
+import towersim.aircraft.Aircraft;
+
+import java.util.function.UnaryOperator;
+
 /**
  * Represents an airport terminal that is designed to accommodate helicopters.
  * @ass1
@@ -16,4 +20,17 @@ public class HelicopterTerminal extends Terminal {
     public HelicopterTerminal(int terminalNumber) {
         super(terminalNumber);
     }
+
+    /* Creates a new helicopter terminal in the same state as the given terminal */
+    private HelicopterTerminal(HelicopterTerminal other, UnaryOperator<Aircraft> aircraftCopies) {
+        super(other, aircraftCopies);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public HelicopterTerminal copy(UnaryOperator<Aircraft> aircraftCopies) {
+        return new HelicopterTerminal(this, aircraftCopies);
+    }
 }
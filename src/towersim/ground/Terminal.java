@@ -1,6 +1,8 @@
 package towersim.ground;
 
+import towersim.aircraft.Aircraft;
 import towersim.util.EmergencyState;
+import towersim.util.MutationListener;
 import towersim.util.NoSpaceException;
 import towersim.util.NoSuitableGateException;
 import towersim.util.OccupancyLevel;
@@ -10,6 +12,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.StringJoiner;
+import java.util.function.UnaryOperator;
 
 /**
  * Represents an airport terminal building, containing several aircraft gates.
@@ -31,6 +34,9 @@ public abstract class Terminal implements EmergencyState, OccupancyLevel {
     /** Whether or not the terminal is currently in a state of emergency. */
     private boolean emergency;
 
+    /** Listener notified whenever this terminal or any of its gates changes; or null if none */
+    private MutationListener mutationListener;
+
     /**
      * Creates a new Terminal with the given unique terminal number.
      * <p>
@@ -49,6 +55,62 @@ public abstract class Terminal implements EmergencyState, OccupancyLevel {
         this.emergency = false;
     }
 
+    /**
+     * Creates a new terminal in the same state as the given terminal.
+     * <p>
+     * The new terminal has the same terminal number, gate layout and emergency state as the given
+     * terminal. Each gate is copied, and is occupied by the copy of the aircraft parked at the
+     * original gate.
+     *
+     * @param other terminal to copy
+     * @param aircraftCopies function returning the copy of a given aircraft
+     */
+    protected Terminal(Terminal other, UnaryOperator<Aircraft> aircraftCopies) {
+        this.terminalNumber = other.terminalNumber;
+        this.gates = new ArrayList<>(other.gates.size());
+        for (Gate gate : other.gates) {
+            this.gates.add(gate.copy(aircraftCopies));
+        }
+        this.emergency = other.emergency;
+    }
+
+    /**
+     * Returns a new terminal of the same type and in the same state as this terminal.
+     * <p>
+     * See {@link #Terminal(Terminal, UnaryOperator)}.
+     *
+     * @param aircraftCopies function returning the copy of a given aircraft
+     * @return copy of this terminal
+     */
+    public abstract Terminal copy(UnaryOperator<Aircraft> aircraftCopies);
+
+    /**
+     * Sets the listener to notify whenever this terminal or any of its gates changes, replacing any
+     * previous listener.
+     * <p>
+     * Copies of this terminal do not inherit the listener.
+     *
+     * @param listener listener to notify; or null to stop notifying
+     */
+    public void setMutationListener(MutationListener listener) {
+        this.mutationListener = listener;
+        for (Gate gate : this.gates) {
+            gate.setMutationListener(gateListener());
+        }
+    }
+
+    /* Returns the listener to set on each gate, passing changes on to this terminal's listener */
+    private MutationListener gateListener() {
+        return this.mutationListener == null ? null : changed -> notifyMutation();
+    }
+
+    /* Notifies the listener, if any, that this terminal has changed */
+    private void notifyMutation() {
+        if (this.mutationListener != null) {
+            this.mutationListener.mutated(this);
+        }
+    }
+
     /**
      * Returns this terminal's terminal number.
      *
@@ -74,6 +136,26 @@ public abstract class Terminal implements EmergencyState, OccupancyLevel {
             throw new NoSpaceException("Maximum number of gates reached (" + MAX_NUM_GATES + ")");
         }
         this.gates.add(gate);
+        gate.setMutationListener(gateListener());
+        notifyMutation();
+    }
+
+    /**
+     * Removes the given gate from the terminal.
+     * <p>
+     * A gate with an aircraft parked at it cannot be removed, since the aircraft would be left
+     * without a gate.
+     *
+     * @param gate gate to remove
+     * @return true if the gate was removed; false if it is not in this terminal or is occupied
+     */
+    public boolean removeGate(Gate gate) {
+        if (gate.isOccupied() || !this.gates.remove(gate)) {
+            return false;
+        }
+        gate.setMutationListener(null);
+        notifyMutation();
+        return true;
     }
 
     /**
@@ -118,7 +200,10 @@ public abstract class Terminal implements EmergencyState, OccupancyLevel {
      */
     @Override
     public void declareEmergency() {
-        this.emergency = true;
+        if (!this.emergency) {
+            this.emergency = true;
+            notifyMutation();
+        }
     }
 
     /**
@@ -127,7 +212,10 @@ public abstract class Terminal implements EmergencyState, OccupancyLevel {
      */
     @Override
     public void clearEmergency() {
-        this.emergency = false;
+        if (this.emergency) {
+            this.emergency = false;
+            notifyMutation();
+        }
     }
 
     /**
@@ -0,0 +1,152 @@
+package towersim.history;
+
+import towersim.status.TowerDelta;
+import towersim.tasks.TaskType;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Immutable criteria selecting records from a {@link HistoryStore}.
+ * <p>
+ * A query always covers a range of ticks, and may be narrowed down by any combination of
+ * callsign, task types, queue and fuel remaining, each of which returns a new query. For
+ * example, the aircraft waiting to land with 20% fuel or less between ticks 10,000 and 12,000
+ * are selected by
+ * <pre>HistoryQuery.between(10_000, 12_000).inQueue(TowerDelta.Queue.LANDING)
+ *         .withFuelAtMost(20)</pre>
+ */
+public final class HistoryQuery {
+
+    /** First tick selected */
+    private final long fromTick;
+
+    /** Last tick selected */
+    private final long toTick;
+
+    /** Callsign selected, or null for any */
+    private final String callsign;
+
+    /** Task types selected */
+    private final Set<TaskType> tasks;
+
+    /** Queue selected, or null for any */
+    private final TowerDelta.Queue queue;
+
+    /** Highest fuel percentage selected */
+    private final int maxFuelPercent;
+
+    /* Creates a new query */
+    private HistoryQuery(long fromTick, long toTick, String callsign, Set<TaskType> tasks,
+            TowerDelta.Queue queue, int maxFuelPercent) {
+        this.fromTick = fromTick;
+        this.toTick = toTick;
+        this.callsign = callsign;
+        this.tasks = tasks;
+        this.queue = queue;
+        this.maxFuelPercent = maxFuelPercent;
+    }
+
+    /**
+     * Returns a query selecting every record between the given ticks, inclusive.
+     *
+     * @param fromTick first tick selected
+     * @param toTick last tick selected
+     * @return new query
+     * @throws IllegalArgumentException if fromTick &gt; toTick
+     */
+    public static HistoryQuery between(long fromTick, long toTick) {
+        if (fromTick > toTick) {
+            throw new IllegalArgumentException("First tick cannot be after last tick");
+        }
+        return new HistoryQuery(fromTick, toTick, null, EnumSet.allOf(TaskType.class), null,
+                100);
+    }
+
+    /**
+     * Returns a query selecting only the records of this query with the given callsign.
+     *
+     * @param callsign callsign to select
+     * @return new query
+     */
+    public HistoryQuery withCallsign(String callsign) {
+        return new HistoryQuery(fromTick, toTick, callsign, tasks, queue, maxFuelPercent);
+    }
+
+    /**
+     * Returns a query selecting only the records of this query whose current task is one of the
+     * given types.
+     *
+     * @param first task type to select
+     * @param rest other task types to select
+     * @return new query
+     */
+    public HistoryQuery withTask(TaskType first, TaskType... rest) {
+        Set<TaskType> selected = EnumSet.of(first, rest);
+        selected.retainAll(tasks);
+        return new HistoryQuery(fromTick, toTick, callsign, selected, queue, maxFuelPercent);
+    }
+
+    /**
+     * Returns a query selecting only the records of this query waiting in the given queue.
+     *
+     * @param queue queue to select
+     * @return new query
+     */
+    public HistoryQuery inQueue(TowerDelta.Queue queue) {
+        return new HistoryQuery(fromTick, toTick, callsign, tasks, queue, maxFuelPercent);
+    }
+
+    /**
+     * Returns a query selecting only the records of this query with at most the given
+     * percentage of fuel remaining.
+     *
+     * @param percent highest fuel percentage to select
+     * @return new query
+     */
+    public HistoryQuery withFuelAtMost(int percent) {
+        return new HistoryQuery(fromTick, toTick, callsign, tasks, queue,
+                Math.min(percent, maxFuelPercent));
+    }
+
+    /* Returns the first tick selected */
+    long getFromTick() {
+        return fromTick;
+    }
+
+    /* Returns the last tick selected */
+    long getToTick() {
+        return toTick;
+    }
+
+    /* Returns the callsign selected, or null for any */
+    String getCallsign() {
+        return callsign;
+    }
+
+    /* Returns the task types selected */
+    Set<TaskType> getTasks() {
+        return tasks;
+    }
+
+    /* Returns whether the given record is selected by this query */
+    boolean matches(HistoryRecord record) {
+        return record.getTick() >= fromTick && record.getTick() <= toTick
+                && (callsign == null || callsign.equals(record.getCallsign()))
+                && tasks.contains(record.getTask())
+                && (queue == null || queue == record.getQueue())
+                && record.getFuelPercent() <= maxFuelPercent;
+    }
+
+    /**
+     * Returns the human-readable string representation of this query.
+     *
+     * @return string representation of this query
+     */
+    @Override
+    public String toString() {
+        return String.format("Ticks %d to %d, callsign %s, tasks %s, queue %s, fuel <= %d%%",
+                fromTick, toTick, callsign == null ? "any" : callsign, tasks,
+                queue == null ? "any" : queue, maxFuelPercent);
+    }
+}
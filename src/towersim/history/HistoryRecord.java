@@ -0,0 +1,149 @@
+package towersim.history;
+
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.status.TowerDelta;
+import towersim.tasks.TaskType;
+
+/**
+ * Immutable state of one aircraft at the end of one tick, as kept in a {@link HistoryStore}.
+ */
+public final class HistoryRecord {
+
+    /** Ticks elapsed at the end of the tick */
+    private final long tick;
+
+    /** Callsign of the aircraft */
+    private final String callsign;
+
+    /** Characteristics of the aircraft */
+    private final AircraftCharacteristics characteristics;
+
+    /** Type of the aircraft's current task */
+    private final TaskType task;
+
+    /** Percentage of fuel capacity remaining */
+    private final int fuelPercent;
+
+    /** Whether the aircraft was in a state of emergency */
+    private final boolean emergency;
+
+    /** Queue the aircraft was waiting in */
+    private final TowerDelta.Queue queue;
+
+    /** Position of the aircraft in its queue, from 0 at the front, or -1 if in none */
+    private final int queuePosition;
+
+    /** Number of the gate the aircraft was parked at, or -1 if none */
+    private final int gate;
+
+    /* Creates a new record */
+    HistoryRecord(long tick, String callsign, AircraftCharacteristics characteristics,
+            TaskType task, int fuelPercent, boolean emergency, TowerDelta.Queue queue,
+            int queuePosition, int gate) {
+        this.tick = tick;
+        this.callsign = callsign;
+        this.characteristics = characteristics;
+        this.task = task;
+        this.fuelPercent = fuelPercent;
+        this.emergency = emergency;
+        this.queue = queue;
+        this.queuePosition = queuePosition;
+        this.gate = gate;
+    }
+
+    /**
+     * Returns the number of ticks elapsed at the end of the tick this record was taken.
+     *
+     * @return tick of this record
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Returns the callsign of the aircraft.
+     *
+     * @return callsign
+     */
+    public String getCallsign() {
+        return callsign;
+    }
+
+    /**
+     * Returns the characteristics of the aircraft.
+     *
+     * @return aircraft characteristics
+     */
+    public AircraftCharacteristics getCharacteristics() {
+        return characteristics;
+    }
+
+    /**
+     * Returns the type of the aircraft's current task.
+     *
+     * @return current task type
+     */
+    public TaskType getTask() {
+        return task;
+    }
+
+    /**
+     * Returns the percentage of fuel capacity remaining, rounded to the nearest whole
+     * percentage.
+     *
+     * @return fuel remaining, from 0 to 100
+     */
+    public int getFuelPercent() {
+        return fuelPercent;
+    }
+
+    /**
+     * Returns whether the aircraft was in a state of emergency.
+     *
+     * @return true if in a state of emergency
+     */
+    public boolean hasEmergency() {
+        return emergency;
+    }
+
+    /**
+     * Returns the queue the aircraft was waiting in.
+     *
+     * @return queue
+     */
+    public TowerDelta.Queue getQueue() {
+        return queue;
+    }
+
+    /**
+     * Returns the position of the aircraft in its queue.
+     *
+     * @return position from 0 at the front, or -1 if not in a queue
+     */
+    public int getQueuePosition() {
+        return queuePosition;
+    }
+
+    /**
+     * Returns the number of the gate the aircraft was parked at.
+     *
+     * @return gate number, or -1 if not parked at a gate
+     */
+    public int getGate() {
+        return gate;
+    }
+
+    /**
+     * Returns the human-readable string representation of this record.
+     * <p>
+     * For example, {@code "tick 120: ABC123 AIRBUS_A320 LAND fuel:18% LANDING:0 gate:-1"}.
+     *
+     * @return string representation of this record
+     */
+    @Override
+    public String toString() {
+        return String.format("tick %d: %s %s %s fuel:%d%% %s:%d gate:%d%s", tick, callsign,
+                characteristics, task, fuelPercent, queue, queuePosition, gate,
+                emergency ? " (EMERGENCY)" : "");
+    }
+}
@@ -0,0 +1,191 @@
+package towersim.history;
+
+import towersim.aircraft.Aircraft;
+import towersim.control.ControlTower;
+import towersim.control.TickListener;
+import towersim.ground.Gate;
+import towersim.status.QueuePositions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Records the state of every aircraft managed by a control tower at the end of every tick into a
+ * {@link HistoryStore}.
+ * <p>
+ * The state of the tower is captured on the thread that ticks it, and written to the store in
+ * blocks of many ticks by a background thread, so the tick itself never waits on the disk. Up to
+ * {@value #MAX_PENDING_TICKS} captured ticks may wait to be written; if the disk falls further
+ * behind than that, the tick waits for the writer to catch up rather than dropping history.
+ */
+public class HistoryRecorder implements TickListener, Closeable {
+
+    /** Number of captured ticks that may wait to be written before ticking waits */
+    public static final int MAX_PENDING_TICKS = 256;
+
+    /** Number of records at or after which a block is written */
+    private static final int BLOCK_RECORDS = 4096;
+
+    /** Number of ticks at or after which a block is written, however few records it holds */
+    private static final int BLOCK_TICKS = 100;
+
+    /** Tick batch telling the writer to write what it holds and stop */
+    private static final List<HistoryRecord> END = new ArrayList<>();
+
+    /** Tower whose history is recorded */
+    private final ControlTower tower;
+
+    /** Store the history is written to */
+    private final HistoryStore store;
+
+    /** Records of each captured tick not yet taken by the writer */
+    private final BlockingQueue<List<HistoryRecord>> pending =
+            new ArrayBlockingQueue<>(MAX_PENDING_TICKS);
+
+    /** Thread writing blocks to the store */
+    private final Thread writer;
+
+    /** Error that stopped the writer, if any */
+    private volatile IOException failure;
+
+    /* Creates a new recorder writing to the given store, which is not yet recording */
+    private HistoryRecorder(ControlTower tower, HistoryStore store) {
+        this.tower = tower;
+        this.store = store;
+        this.writer = new Thread(this::write, "history-writer");
+        writer.setDaemon(true);
+    }
+
+    /**
+     * Creates a new recorder writing to the given store, and starts recording the given tower
+     * from the end of its next tick.
+     * <p>
+     * The history in the store must end before the next tick of the tower, for example because
+     * the tower was saved and reloaded since the store was last written to. A tower that starts
+     * from an earlier tick, such as one reloaded from an older save, must be recorded to a new
+     * store.
+     *
+     * @param tower tower to record
+     * @param store store to write history to; not closed by the recorder
+     * @return recorder of the tower
+     * @throws IllegalArgumentException if the store holds the next tick of the tower, or any
+     * later tick
+     */
+    public static HistoryRecorder start(ControlTower tower, HistoryStore store) {
+        if (store.getLastTick() > tower.getTicksElapsed()) {
+            throw new IllegalArgumentException("History already recorded up to tick "
+                    + store.getLastTick() + ", after tick " + tower.getTicksElapsed()
+                    + " of the tower");
+        }
+        HistoryRecorder recorder = new HistoryRecorder(tower, store);
+        recorder.writer.start();
+        tower.addTickListener(recorder);
+        return recorder;
+    }
+
+    /**
+     * Captures the state of every aircraft managed by the tower that just ticked.
+     * <p>
+     * Waits if {@value #MAX_PENDING_TICKS} ticks are already waiting to be written. Once the
+     * writer has failed, ticks are no longer captured.
+     *
+     * @param tower tower that ticked
+     */
+    @Override
+    public void onTick(ControlTower tower) {
+        if (failure != null) {
+            return;
+        }
+        long tick = tower.getTicksElapsed();
+        Map<Aircraft, Gate> gates = tower.getParkedAircraftGates();
+        QueuePositions queues = QueuePositions.of(tower);
+
+        List<Aircraft> managed = tower.getAircraft();
+        List<HistoryRecord> records = new ArrayList<>(managed.size());
+        for (Aircraft aircraft : managed) {
+            Gate gate = gates.get(aircraft);
+            records.add(new HistoryRecord(tick, aircraft.getCallsign(),
+                    aircraft.getCharacteristics(),
+                    aircraft.getTaskList().getCurrentTask().getType(),
+                    aircraft.getFuelPercentRemaining(), aircraft.hasEmergency(),
+                    queues.queueOf(aircraft), queues.positionOf(aircraft),
+                    gate == null ? -1 : gate.getGateNumber()));
+        }
+        if (!records.isEmpty()) {
+            enqueue(records);
+        }
+    }
+
+    /* Hands the given batch to the writer, waiting for space if need be */
+    private void enqueue(List<HistoryRecord> batch) {
+        try {
+            pending.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /* Takes captured ticks and writes them to the store in blocks, until told to end */
+    private void write() {
+        List<HistoryRecord> block = new ArrayList<>(BLOCK_RECORDS);
+        int ticks = 0;
+        try {
+            while (true) {
+                List<HistoryRecord> batch = pending.take();
+                if (batch != END) {
+                    block.addAll(batch);
+                    ticks++;
+                }
+                if (!block.isEmpty() && (batch == END || block.size() >= BLOCK_RECORDS
+                        || ticks >= BLOCK_TICKS)) {
+                    store.append(block);
+                    block.clear();
+                    ticks = 0;
+                }
+                if (batch == END) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            fail(e);
+        } catch (IllegalArgumentException e) {
+            // the tower went back to a tick already recorded
+            fail(new IOException(e.getMessage(), e));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /* Stops the writer with the given error */
+    private void fail(IOException e) {
+        failure = e;
+        // drain so a waiting tick is not blocked forever
+        pending.clear();
+    }
+
+    /**
+     * Stops recording the tower, and waits for every captured tick to be written to the store.
+     *
+     * @throws IOException if writing any tick to the store failed
+     */
+    @Override
+    public void close() throws IOException {
+        tower.removeTickListener(this);
+        if (writer.isAlive()) {
+            enqueue(END);
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
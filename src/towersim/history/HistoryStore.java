@@ -0,0 +1,401 @@
+package towersim.history;
+
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.status.TowerDelta;
+import towersim.tasks.TaskType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * File-based store of the state of every aircraft at the end of every tick recorded, which can
+ * be queried by tick, callsign, task type, queue and fuel.
+ * <p>
+ * Records are appended to a single file in blocks of whole ticks, in order of tick. Each block
+ * starts with a header giving the range of ticks it covers, the task types of its records and a
+ * Bloom filter of the callsigns of its records, and of their pairs of callsign and task type,
+ * sized to the number of distinct keys so that it stays selective however many records the
+ * block holds. The headers
+ * are read when the store is opened and kept in memory as its indexes: a query only reads the
+ * blocks whose ticks overlap the query, and skips those that cannot hold a selected task type,
+ * or a selected callsign with a selected task type. A block left incomplete by a crash is
+ * dropped when the store is next opened.
+ * <p>
+ * A store may be queried from any thread, including while blocks are being appended.
+ */
+public class HistoryStore implements Closeable {
+
+    /** Identifies the start of a block */
+    private static final int BLOCK_MAGIC = 0x54484232;
+
+    /** Number of bytes in each block header before its Bloom filter */
+    private static final int HEADER_SIZE = 36;
+
+    /** Number of bits of Bloom filter per distinct key in a block */
+    private static final int BLOOM_BITS_PER_KEY = 10;
+
+    /** Number of bits of the Bloom filter set for each key */
+    private static final int BLOOM_HASHES = 3;
+
+    /** Largest number of 64-bit words in a block's Bloom filter */
+    private static final int MAX_BLOOM_WORDS = 1 << 14;
+
+    /** File the blocks are stored in */
+    private final FileChannel channel;
+
+    /** Index of every complete block, in order of tick */
+    private final List<Block> blocks = new CopyOnWriteArrayList<>();
+
+    /** Header of one block, read into memory as an index of the file */
+    private static final class Block {
+
+        /** Position of the block header in the file */
+        private final long position;
+
+        /** First tick recorded in the block */
+        private final long firstTick;
+
+        /** Last tick recorded in the block */
+        private final long lastTick;
+
+        /** Number of records in the block */
+        private final int records;
+
+        /** Bit set of the ordinals of the task types recorded in the block */
+        private final int taskMask;
+
+        /** Bloom filter of the callsigns, and pairs of callsign and task type, in the block */
+        private final long[] callsignBloom;
+
+        /** Number of bytes of records following the header */
+        private final int payloadLength;
+
+        /* Creates a new block header */
+        private Block(long position, long firstTick, long lastTick, int records, int taskMask,
+                long[] callsignBloom, int payloadLength) {
+            this.position = position;
+            this.firstTick = firstTick;
+            this.lastTick = lastTick;
+            this.records = records;
+            this.taskMask = taskMask;
+            this.callsignBloom = callsignBloom;
+            this.payloadLength = payloadLength;
+        }
+
+        /* Returns whether the block may hold records selected by the given query */
+        private boolean mayMatch(HistoryQuery query) {
+            if (lastTick < query.getFromTick() || firstTick > query.getToTick()) {
+                return false;
+            }
+            int selectedTasks = 0;
+            for (TaskType task : query.getTasks()) {
+                selectedTasks |= 1 << task.ordinal();
+            }
+            if ((taskMask & selectedTasks) == 0) {
+                return false;
+            }
+            if (query.getCallsign() == null) {
+                return true;
+            }
+            if (!mayContain(callsignBloom, bloomKey(query.getCallsign(), null))) {
+                return false;
+            }
+            for (TaskType task : query.getTasks()) {
+                if (mayContain(callsignBloom, bloomKey(query.getCallsign(), task))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /* Returns the number of bytes in the header of the block */
+        private int headerSize() {
+            return HEADER_SIZE + callsignBloom.length * Long.BYTES;
+        }
+    }
+
+    /**
+     * Opens the store in the given file, creating the file if it does not exist.
+     * <p>
+     * Any incomplete block at the end of the file is truncated.
+     *
+     * @param file file to store records in
+     * @throws IOException if the file cannot be read, written or created, or is not a store
+     */
+    public HistoryStore(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        long position = 0;
+        long size = channel.size();
+        while (position + HEADER_SIZE <= size) {
+            header.clear();
+            readFully(header, position);
+            header.flip();
+            if (header.getInt() != BLOCK_MAGIC) {
+                throw new IOException("Not a history store: " + file);
+            }
+            long firstTick = header.getLong();
+            long lastTick = header.getLong();
+            int records = header.getInt();
+            int taskMask = header.getInt();
+            int payloadLength = header.getInt();
+            int bloomWords = header.getInt();
+            if (bloomWords <= 0 || bloomWords > MAX_BLOOM_WORDS
+                    || Integer.bitCount(bloomWords) != 1) {
+                throw new IOException("Not a history store: " + file);
+            }
+            long blockSize = HEADER_SIZE + (long) bloomWords * Long.BYTES + payloadLength;
+            if (position + blockSize > size) {
+                break;
+            }
+            ByteBuffer bloomBytes = ByteBuffer.allocate(bloomWords * Long.BYTES);
+            readFully(bloomBytes, position + HEADER_SIZE);
+            bloomBytes.flip();
+            long[] bloom = new long[bloomWords];
+            bloomBytes.asLongBuffer().get(bloom);
+            blocks.add(new Block(position, firstTick, lastTick, records, taskMask, bloom,
+                    payloadLength));
+            position += blockSize;
+        }
+        if (position < size) {
+            channel.truncate(position);
+        }
+    }
+
+    /**
+     * Returns the first tick recorded in the store.
+     *
+     * @return first tick, or -1 if nothing has been recorded
+     */
+    public long getFirstTick() {
+        return blocks.isEmpty() ? -1 : blocks.get(0).firstTick;
+    }
+
+    /**
+     * Returns the last tick recorded in the store.
+     *
+     * @return last tick, or -1 if nothing has been recorded
+     */
+    public long getLastTick() {
+        return blocks.isEmpty() ? -1 : blocks.get(blocks.size() - 1).lastTick;
+    }
+
+    /**
+     * Returns every record selected by the given query, in order of tick, and for each tick in
+     * the order the tower managed the aircraft.
+     *
+     * @param query criteria selecting records
+     * @return selected records
+     * @throws IOException if the file cannot be read
+     */
+    public List<HistoryRecord> query(HistoryQuery query) throws IOException {
+        List<HistoryRecord> selected = new ArrayList<>();
+        for (Block block : blocksToRead(query)) {
+            for (HistoryRecord record : read(block)) {
+                if (query.matches(record)) {
+                    selected.add(record);
+                }
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Returns the number of blocks that would be read to answer the given query.
+     *
+     * @param query criteria selecting records
+     * @return number of blocks not skipped by the indexes
+     */
+    int countBlocksToRead(HistoryQuery query) {
+        return blocksToRead(query).size();
+    }
+
+    /* Returns the blocks that may hold records selected by the given query, in order of tick */
+    private List<Block> blocksToRead(HistoryQuery query) {
+        List<Block> candidates = new ArrayList<>(blocks);
+        List<Block> toRead = new ArrayList<>();
+        for (int i = firstBlockEndingAtOrAfter(candidates, query.getFromTick());
+                i < candidates.size() && candidates.get(i).firstTick <= query.getToTick(); i++) {
+            if (candidates.get(i).mayMatch(query)) {
+                toRead.add(candidates.get(i));
+            }
+        }
+        return toRead;
+    }
+
+    /* Returns the index of the first block whose last tick is at or after the given tick */
+    private static int firstBlockEndingAtOrAfter(List<Block> blocks, long tick) {
+        int low = 0;
+        int high = blocks.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (blocks.get(middle).lastTick < tick) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /* Reads every record in the given block */
+    private List<HistoryRecord> read(Block block) throws IOException {
+        ByteBuffer payload = ByteBuffer.allocate(block.payloadLength);
+        readFully(payload, block.position + block.headerSize());
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload.array()));
+        AircraftCharacteristics[] models = AircraftCharacteristics.values();
+        TaskType[] tasks = TaskType.values();
+        TowerDelta.Queue[] queues = TowerDelta.Queue.values();
+        List<HistoryRecord> records = new ArrayList<>(block.records);
+        for (int i = 0; i < block.records; i++) {
+            records.add(new HistoryRecord(in.readLong(), in.readUTF(), models[in.readByte()],
+                    tasks[in.readByte()], in.readByte(), in.readBoolean(), queues[in.readByte()],
+                    in.readInt(), in.readInt()));
+        }
+        return records;
+    }
+
+    /**
+     * Appends a block of the given records, which must all be of later ticks than any already
+     * stored, and must be in order of tick. Must only be called by one thread at a time.
+     *
+     * @param records records to append
+     * @throws IllegalArgumentException if records is empty, is not in order of tick, or holds a
+     * tick at or before the last tick already stored
+     * @throws IOException if the file cannot be written
+     */
+    void append(List<HistoryRecord> records) throws IOException {
+        if (records.isEmpty()) {
+            throw new IllegalArgumentException("Cannot append an empty block");
+        }
+        long previousTick = getLastTick();
+        if (records.get(0).getTick() <= previousTick) {
+            throw new IllegalArgumentException("Tick " + records.get(0).getTick()
+                    + " is not after the last tick stored, " + previousTick);
+        }
+        Set<Long> keys = new HashSet<>();
+        for (HistoryRecord record : records) {
+            if (record.getTick() < previousTick) {
+                throw new IllegalArgumentException("Records are not in order of tick");
+            }
+            previousTick = record.getTick();
+            keys.add(bloomKey(record.getCallsign(), null));
+            keys.add(bloomKey(record.getCallsign(), record.getTask()));
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(records.size() * 32);
+        DataOutputStream out = new DataOutputStream(bytes);
+        int taskMask = 0;
+        long[] bloom = new long[bloomWords(keys.size())];
+        for (long key : keys) {
+            for (int bit : bloomBits(bloom, key)) {
+                bloom[bit / Long.SIZE] |= 1L << bit;
+            }
+        }
+        for (HistoryRecord record : records) {
+            out.writeLong(record.getTick());
+            out.writeUTF(record.getCallsign());
+            out.writeByte(record.getCharacteristics().ordinal());
+            out.writeByte(record.getTask().ordinal());
+            out.writeByte(record.getFuelPercent());
+            out.writeBoolean(record.hasEmergency());
+            out.writeByte(record.getQueue().ordinal());
+            out.writeInt(record.getQueuePosition());
+            out.writeInt(record.getGate());
+            taskMask |= 1 << record.getTask().ordinal();
+        }
+        out.flush();
+
+        long firstTick = records.get(0).getTick();
+        long lastTick = records.get(records.size() - 1).getTick();
+        int headerSize = HEADER_SIZE + bloom.length * Long.BYTES;
+        ByteBuffer header = ByteBuffer.allocate(headerSize);
+        header.putInt(BLOCK_MAGIC).putLong(firstTick).putLong(lastTick).putInt(records.size())
+                .putInt(taskMask).putInt(bytes.size()).putInt(bloom.length);
+        for (long word : bloom) {
+            header.putLong(word);
+        }
+        header.flip();
+        ByteBuffer[] block = {header, ByteBuffer.wrap(bytes.toByteArray())};
+
+        long position = channel.size();
+        long written = 0;
+        while (written < headerSize + bytes.size()) {
+            written += channel.position(position + written).write(block);
+        }
+        blocks.add(new Block(position, firstTick, lastTick, records.size(), taskMask, bloom,
+                bytes.size()));
+    }
+
+    /* Returns the number of words of a Bloom filter of the given number of distinct keys */
+    private static int bloomWords(int keys) {
+        long bits = Math.max(Long.SIZE, (long) keys * BLOOM_BITS_PER_KEY);
+        long words = Math.min(MAX_BLOOM_WORDS, (bits + Long.SIZE - 1) / Long.SIZE);
+        // a power of two, so a hash selects a bit with a mask
+        return Long.bitCount(words) == 1 ? (int) words : (int) Long.highestOneBit(words) << 1;
+    }
+
+    /* Returns the key of a Bloom filter for the given callsign and task type, or any if null */
+    private static long bloomKey(String callsign, TaskType task) {
+        long hash = callsign.hashCode() * 31L + (task == null ? -1 : task.ordinal());
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    /* Returns whether the given Bloom filter may contain the given key */
+    private static boolean mayContain(long[] bloom, long key) {
+        for (int bit : bloomBits(bloom, key)) {
+            if ((bloom[bit / Long.SIZE] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* Returns the bits of the given Bloom filter set for the given key */
+    private static int[] bloomBits(long[] bloom, long key) {
+        int mask = bloom.length * Long.SIZE - 1;
+        int first = (int) key;
+        int step = (int) (key >>> 32) | 1;
+        int[] bits = new int[BLOOM_HASHES];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = (first + i * step) & mask;
+        }
+        return bits;
+    }
+
+    /* Reads from the file at the given position until the buffer is full */
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of history store");
+            }
+        }
+    }
+
+    /**
+     * Closes the file of the store.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,66 @@
+package towersim.recording;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import towersim.aircraft.Aircraft;
+import towersim.control.LandingQueue;
+import towersim.ground.Gate;
+
+/**
+ * JDK Flight Recorder event for one decision to land the aircraft at the front of the landing
+ * queue, whether or not a suitable gate was found for it.
+ * <p>
+ * Disabled by default; see {@link TickEvent}.
+ */
+@Name("towersim.Landing")
+@Label("Landing")
+@Category("Tower Simulation")
+@Description("Attempt to land the aircraft at the front of the landing queue")
+@Enabled(false)
+@StackTrace(false)
+public final class LandingEvent extends Event {
+
+    /** Ticks elapsed when the aircraft tried to land */
+    @Label("Ticks Elapsed")
+    long ticksElapsed;
+
+    /** Callsign of the aircraft */
+    @Label("Callsign")
+    String callsign;
+
+    /** Urgency tier of the aircraft in the landing queue */
+    @Label("Tier")
+    String tier;
+
+    /** Whether a suitable gate was found, so the aircraft landed */
+    @Label("Landed")
+    boolean landed;
+
+    /** Number of the gate the aircraft parked at, or -1 if no suitable gate was found */
+    @Label("Gate")
+    int gate;
+
+    /**
+     * Finishes timing the decision, recording the event if enabled.
+     *
+     * @param ticksElapsed ticks elapsed when the aircraft tried to land
+     * @param aircraft aircraft chosen to land
+     * @param gate gate the aircraft parked at, or null if no suitable gate was found
+     */
+    public void finish(long ticksElapsed, Aircraft aircraft, Gate gate) {
+        end();
+        if (shouldCommit()) {
+            this.ticksElapsed = ticksElapsed;
+            this.callsign = aircraft.getCallsign();
+            this.tier = LandingQueue.Tier.of(aircraft).name();
+            this.landed = gate != null;
+            this.gate = gate == null ? -1 : gate.getGateNumber();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package towersim.recording;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import towersim.aircraft.Aircraft;
+import towersim.ground.Gate;
+
+/**
+ * JDK Flight Recorder event for an aircraft finishing loading and leaving its gate.
+ * <p>
+ * Disabled by default; see {@link TickEvent}.
+ */
+@Name("towersim.LoadComplete")
+@Label("Load Complete")
+@Category("Tower Simulation")
+@Description("Aircraft finishing loading and leaving its gate")
+@Enabled(false)
+@StackTrace(false)
+public final class LoadCompleteEvent extends Event {
+
+    /** Ticks elapsed when the aircraft finished loading */
+    @Label("Ticks Elapsed")
+    long ticksElapsed;
+
+    /** Callsign of the aircraft */
+    @Label("Callsign")
+    String callsign;
+
+    /** Number of the gate the aircraft left, or -1 if it was not parked at a gate */
+    @Label("Gate")
+    int gate;
+
+    /**
+     * Finishes timing the aircraft leaving its gate, recording the event if enabled.
+     *
+     * @param ticksElapsed ticks elapsed when the aircraft finished loading
+     * @param aircraft aircraft that finished loading
+     * @param gate gate the aircraft left, or null if it was not parked at a gate
+     */
+    public void finish(long ticksElapsed, Aircraft aircraft, Gate gate) {
+        end();
+        if (shouldCommit()) {
+            this.ticksElapsed = ticksElapsed;
+            this.callsign = aircraft.getCallsign();
+            this.gate = gate == null ? -1 : gate.getGateNumber();
+            commit();
+        }
+    }
+}
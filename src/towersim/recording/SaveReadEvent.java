@@ -0,0 +1,64 @@
+package towersim.recording;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import towersim.control.ControlTower;
+
+/**
+ * JDK Flight Recorder event timing one load of a control tower from save files.
+ * <p>
+ * Disabled by default; see {@link TickEvent}.
+ */
+@Name("towersim.SaveRead")
+@Label("Save Read")
+@Category("Tower Simulation")
+@Description("Load of the control tower from save files")
+@Enabled(false)
+@StackTrace(false)
+public final class SaveReadEvent extends Event {
+
+    /** How the files were read, such as through readers or memory-mapped */
+    @Label("Reader")
+    String reader;
+
+    /** Whether a control tower was loaded, rather than the files being invalid or unreadable */
+    @Label("Succeeded")
+    boolean succeeded;
+
+    /** Ticks elapsed of the tower loaded, or 0 if none was loaded */
+    @Label("Ticks Elapsed")
+    long ticksElapsed;
+
+    /** Number of aircraft managed by the tower loaded, or 0 if none was loaded */
+    @Label("Aircraft")
+    int aircraft;
+
+    /** Number of terminals of the tower loaded, or 0 if none was loaded */
+    @Label("Terminals")
+    int terminals;
+
+    /**
+     * Finishes timing the load, recording the event if enabled.
+     *
+     * @param reader how the files were read, such as {@code text} or {@code mapped}
+     * @param tower tower loaded, or null if the files could not be loaded
+     */
+    public void finish(String reader, ControlTower tower) {
+        end();
+        if (shouldCommit()) {
+            this.reader = reader;
+            this.succeeded = tower != null;
+            if (tower != null) {
+                this.ticksElapsed = tower.getTicksElapsed();
+                this.aircraft = tower.getAircraft().size();
+                this.terminals = tower.getTerminals().size();
+            }
+            commit();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package towersim.recording;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import towersim.control.ControlTower;
+
+/**
+ * JDK Flight Recorder event timing one save of a control tower.
+ * <p>
+ * Disabled by default; see {@link TickEvent}.
+ */
+@Name("towersim.SaveWrite")
+@Label("Save Write")
+@Category("Tower Simulation")
+@Description("Save of the control tower")
+@Enabled(false)
+@StackTrace(false)
+public final class SaveWriteEvent extends Event {
+
+    /** Kind of save written: a full save of every file, or a delta of changes */
+    @Label("Kind")
+    String kind;
+
+    /** Whether the save completed without an error */
+    @Label("Succeeded")
+    boolean succeeded;
+
+    /** Ticks elapsed of the tower saved */
+    @Label("Ticks Elapsed")
+    long ticksElapsed;
+
+    /** Number of aircraft managed by the tower saved */
+    @Label("Aircraft")
+    int aircraft;
+
+    /**
+     * Finishes timing the save, recording the event if enabled.
+     *
+     * @param kind kind of save written, such as {@code full} or {@code delta}
+     * @param tower tower saved
+     * @param succeeded whether the save completed without an error
+     */
+    public void finish(String kind, ControlTower tower, boolean succeeded) {
+        end();
+        if (shouldCommit()) {
+            this.kind = kind;
+            this.succeeded = succeeded;
+            this.ticksElapsed = tower.getTicksElapsed();
+            this.aircraft = tower.getAircraft().size();
+            commit();
+        }
+    }
+}
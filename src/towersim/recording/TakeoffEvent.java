@@ -0,0 +1,47 @@
+package towersim.recording;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import towersim.aircraft.Aircraft;
+
+/**
+ * JDK Flight Recorder event for an aircraft taking off from the front of the takeoff queue.
+ * <p>
+ * Disabled by default; see {@link TickEvent}.
+ */
+@Name("towersim.Takeoff")
+@Label("Takeoff")
+@Category("Tower Simulation")
+@Description("Aircraft taking off from the front of the takeoff queue")
+@Enabled(false)
+@StackTrace(false)
+public final class TakeoffEvent extends Event {
+
+    /** Ticks elapsed when the aircraft took off */
+    @Label("Ticks Elapsed")
+    long ticksElapsed;
+
+    /** Callsign of the aircraft */
+    @Label("Callsign")
+    String callsign;
+
+    /**
+     * Finishes timing the takeoff, recording the event if enabled.
+     *
+     * @param ticksElapsed ticks elapsed when the aircraft took off
+     * @param aircraft aircraft that took off
+     */
+    public void finish(long ticksElapsed, Aircraft aircraft) {
+        end();
+        if (shouldCommit()) {
+            this.ticksElapsed = ticksElapsed;
+            this.callsign = aircraft.getCallsign();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package towersim.recording;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import towersim.control.ControlTower;
+
+/**
+ * JDK Flight Recorder event timing one call of {@link ControlTower#tick()}.
+ * <p>
+ * Every event in this package is disabled by default, so it records nothing unless a recording
+ * enables it by name, for example {@code towersim.Tick}, in its settings; a custom {@code .jfc}
+ * file or JDK Mission Control can enable them all with the {@code Tower Simulation} category.
+ * While disabled, starting and finishing an event is optimised away entirely by the JIT, and no
+ * field of the event is computed, so the events can be left in production code at no cost.
+ * Events do not record stack traces.
+ */
+@Name("towersim.Tick")
+@Label("Tick")
+@Category("Tower Simulation")
+@Description("One tick of the control tower")
+@Enabled(false)
+@StackTrace(false)
+public final class TickEvent extends Event {
+
+    /** Ticks elapsed at the end of the tick */
+    @Label("Ticks Elapsed")
+    long ticksElapsed;
+
+    /** Number of aircraft managed at the end of the tick */
+    @Label("Aircraft")
+    int aircraft;
+
+    /**
+     * Finishes timing the tick, recording the event if enabled.
+     *
+     * @param tower tower that ticked
+     */
+    public void finish(ControlTower tower) {
+        end();
+        if (shouldCommit()) {
+            this.ticksElapsed = tower.getTicksElapsed();
+            this.aircraft = tower.getAircraft().size();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package towersim.recording;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event timing one phase of a tick, such as landing and taking off
+ * aircraft. Phase events fall within the {@link TickEvent} of their tick on the same thread.
+ * <p>
+ * Disabled by default; see {@link TickEvent}.
+ */
+@Name("towersim.TickPhase")
+@Label("Tick Phase")
+@Category("Tower Simulation")
+@Description("One phase of a tick of the control tower")
+@Enabled(false)
+@StackTrace(false)
+public final class TickPhaseEvent extends Event {
+
+    /** Phase applying commands submitted to the tower's mailbox */
+    public static final String MAILBOX = "mailbox";
+
+    /** Phase admitting aircraft that have arrived */
+    public static final String ARRIVALS = "arrivals";
+
+    /** Phase ticking each aircraft */
+    public static final String AIRCRAFT = "aircraft";
+
+    /** Phase advancing loading aircraft */
+    public static final String LOADING = "loading";
+
+    /** Phase landing and taking off aircraft */
+    public static final String RUNWAY = "runway";
+
+    /** Phase placing aircraft in queues */
+    public static final String QUEUES = "queues";
+
+    /** Phase notifying tick listeners */
+    public static final String LISTENERS = "listeners";
+
+    /** Name of the phase */
+    @Label("Phase")
+    String phase;
+
+    /**
+     * Starts timing the given phase.
+     *
+     * @param phase name of the phase
+     * @return started event
+     */
+    public static TickPhaseEvent start(String phase) {
+        TickPhaseEvent event = new TickPhaseEvent();
+        event.phase = phase;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Finishes timing this phase, recording the event if enabled, and starts timing the next.
+     *
+     * @param next name of the next phase
+     * @return started event of the next phase
+     */
+    public TickPhaseEvent next(String next) {
+        commit();
+        return start(next);
+    }
+}
@@ -0,0 +1,98 @@
+package towersim.save;
+
+import towersim.aircraft.Aircraft;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Encodes the aircraft file of a save, splitting the aircraft into chunks that are encoded in
+ * parallel and written out in their original order.
+ * <p>
+ * The file is the number of aircraft on the first line, followed by the encoded representation
+ * of each aircraft on its own line, as returned by {@link Aircraft#encode()}, with lines
+ * separated by {@link System#lineSeparator()} and no separator after the last line. The output is
+ * exactly what encoding every aircraft in turn on one thread would write, however the work is
+ * split up.
+ * <p>
+ * The aircraft must not change while they are being encoded.
+ */
+public final class AircraftFileEncoder {
+
+    /** Number of aircraft encoded together by one task */
+    static final int CHUNK_SIZE = 2048;
+
+    /* Not instantiable */
+    private AircraftFileEncoder() {}
+
+    /**
+     * Writes the aircraft file of the given aircraft to the given writer.
+     *
+     * @param aircraft aircraft to encode, in the order to write them
+     * @param writer writer to write to; not closed
+     * @throws IOException if an I/O error occurs
+     */
+    public static void write(List<Aircraft> aircraft, Writer writer) throws IOException {
+        for (String chunk : encode(aircraft, String[]::new, Function.identity())) {
+            writer.write(chunk);
+        }
+    }
+
+    /**
+     * Writes the aircraft file of the given aircraft to the given channel, in the given charset,
+     * with a single gathering write of every chunk where the channel allows.
+     *
+     * @param aircraft aircraft to encode, in the order to write them
+     * @param charset charset to encode the file in
+     * @param channel channel to write to, at its current position; not closed
+     * @throws IOException if an I/O error occurs
+     */
+    public static void write(List<Aircraft> aircraft, Charset charset,
+            GatheringByteChannel channel) throws IOException {
+        ByteBuffer[] chunks = encode(aircraft, ByteBuffer[]::new,
+                chunk -> ByteBuffer.wrap(chunk.getBytes(charset)));
+        int first = 0;
+        while (first < chunks.length) {
+            channel.write(chunks, first, chunks.length - first);
+            // channels may write only part of what they are given
+            while (first < chunks.length && !chunks[first].hasRemaining()) {
+                first++;
+            }
+        }
+    }
+
+    /* Encodes the chunks of the file in parallel, converting each as it is encoded */
+    private static <T> T[] encode(List<Aircraft> aircraft, IntFunction<T[]> newArray,
+            Function<String, T> convert) {
+        int chunkCount = Math.max(1, (aircraft.size() + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        IntStream chunks = IntStream.range(0, chunkCount);
+        if (chunkCount > 1) {
+            chunks = chunks.parallel();
+        }
+        // toArray() keeps the chunks in order, whichever order they are encoded in
+        return chunks.mapToObj(chunk -> convert.apply(encodeChunk(aircraft, chunk)))
+                .toArray(newArray);
+    }
+
+    /* Encodes the given chunk, each line preceded by the separator ending the line before */
+    private static String encodeChunk(List<Aircraft> aircraft, int chunk) {
+        int from = chunk * CHUNK_SIZE;
+        int to = Math.min(aircraft.size(), from + CHUNK_SIZE);
+        String separator = System.lineSeparator();
+        StringBuilder encoded = new StringBuilder((to - from) * 64);
+        if (chunk == 0) {
+            encoded.append(aircraft.size());
+        }
+        for (int i = from; i < to; i++) {
+            encoded.append(separator).append(aircraft.get(i).encode());
+        }
+        return encoded.toString();
+    }
+}
@@ -0,0 +1,148 @@
+package towersim.save;
+
+import towersim.aircraft.Aircraft;
+import towersim.control.AircraftQueue;
+import towersim.ground.Terminal;
+import towersim.tasks.TaskType;
+import towersim.util.MutationListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records which parts of a control tower have changed since it was last saved.
+ * <p>
+ * A tracker is registered as the mutation listener of a control tower by
+ * {@link towersim.control.ControlTower#setMutationListener(MutationListener)}. It then collects
+ * the aircraft and terminals that changed, those that were added to or removed from the tower,
+ * in the order this happened, and whether either queue changed.
+ * <p>
+ * Entities are tracked by reference, so an aircraft removed from the tower and replaced by an
+ * equal aircraft is recorded as two separate changes.
+ */
+public class ChangeTracker implements MutationListener {
+
+    /** Aircraft and terminals added to or removed from the tower, in the order it happened */
+    private final List<Membership> memberships = new ArrayList<>();
+
+    /** Aircraft that changed since the last save */
+    private final Set<Aircraft> changedAircraft =
+            Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** Terminals, including their gates, that changed since the last save */
+    private final Set<Terminal> changedTerminals =
+            Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** Whether the order or contents of either queue may have changed since the last save */
+    private boolean queuesChanged = false;
+
+    /** An entity coming under or leaving the jurisdiction of the tower */
+    static final class Membership {
+
+        /** Aircraft or terminal that was added or removed */
+        final Object entity;
+
+        /** True if the entity was added; false if it was removed */
+        final boolean added;
+
+        /** Creates a new membership change */
+        private Membership(Object entity, boolean added) {
+            this.entity = entity;
+            this.added = added;
+        }
+    }
+
+    /**
+     * Creates a new tracker with no recorded changes.
+     */
+    public ChangeTracker() {}
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A change to an aircraft waiting to land also marks the queues as changed, since the
+     * landing queue is ordered by the fuel and emergency state of its aircraft.
+     */
+    @Override
+    public void mutated(Object entity) {
+        if (entity instanceof Aircraft) {
+            Aircraft aircraft = (Aircraft) entity;
+            changedAircraft.add(aircraft);
+            if (aircraft.getTaskList().getCurrentTask().getType() == TaskType.LAND) {
+                queuesChanged = true;
+            }
+        } else if (entity instanceof Terminal) {
+            changedTerminals.add((Terminal) entity);
+        } else if (entity instanceof AircraftQueue) {
+            queuesChanged = true;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void added(Object entity) {
+        memberships.add(new Membership(entity, true));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removed(Object entity) {
+        memberships.add(new Membership(entity, false));
+    }
+
+    /**
+     * Returns whether any change has been recorded since the last save.
+     *
+     * @return true if anything other than the ticks elapsed and loading times has changed
+     */
+    public boolean hasChanges() {
+        return !memberships.isEmpty() || !changedAircraft.isEmpty()
+                || !changedTerminals.isEmpty() || queuesChanged;
+    }
+
+    /**
+     * Returns the number of entities recorded as changed, added or removed since the last save.
+     *
+     * @return number of recorded changes
+     */
+    public int getNumChanges() {
+        return memberships.size() + changedAircraft.size() + changedTerminals.size();
+    }
+
+    /**
+     * Forgets every recorded change, as after the tower has been saved.
+     */
+    public void clear() {
+        memberships.clear();
+        changedAircraft.clear();
+        changedTerminals.clear();
+        queuesChanged = false;
+    }
+
+    /* Returns the recorded additions and removals, in the order they happened */
+    List<Membership> getMemberships() {
+        return memberships;
+    }
+
+    /* Returns the aircraft recorded as changed */
+    Set<Aircraft> getChangedAircraft() {
+        return changedAircraft;
+    }
+
+    /* Returns the terminals recorded as changed */
+    Set<Terminal> getChangedTerminals() {
+        return changedTerminals;
+    }
+
+    /* Returns whether either queue may have changed */
+    boolean haveQueuesChanged() {
+        return queuesChanged;
+    }
+}
@@ -0,0 +1,545 @@
+package towersim.save;
+
+import towersim.aircraft.Aircraft;
+import towersim.control.ControlTower;
+import towersim.control.ControlTowerInitialiser;
+import towersim.control.LoadProgressListener;
+import towersim.control.MappedSaveLoader;
+import towersim.ground.Terminal;
+import towersim.recording.SaveWriteEvent;
+import towersim.stats.WaitTimes;
+import towersim.util.MalformedSaveException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Saves a control tower incrementally, writing only what has changed since the last save.
+ * <p>
+ * The four save files a tower was loaded from are its base files. Each call to {@link #save()}
+ * appends one frame to a sidecar delta file next to the tick file, holding the aircraft and
+ * terminals that changed, were added or were removed since the previous save, the queues if
+ * they changed, and the loading aircraft and ticks elapsed. The cost of a save is therefore
+ * proportional to how much of the simulation changed, rather than to the size of the fleet.
+ * <p>
+ * Loading a tower with {@link #open(List)} applies every frame of the delta file on top of the
+ * base files, or maps the base files directly and concurrently with {@link MappedSaveLoader} if
+ * there is no delta file. In that case the tower is loaded lazily if the
+ * {@value MappedSaveLoader#LAZY_LOAD_PROPERTY} system property is {@code true}. Once the delta
+ * file grows past the compaction threshold, its frames are merged back into the base files, which
+ * are then exactly what a full save would have written, and the delta file is deleted.
+ * <p>
+ * Base files are never rewritten in place. Compaction, and a full save through
+ * {@link #getFullSaveFilenames()} and {@link #commitFullSave()}, first write the new base files
+ * next to the old ones, then create a commit marker next to the tick file before replacing the
+ * base files and deleting the delta file. If this is interrupted, the files are left either
+ * wholly as they were or with the marker in place, in which case the replacement is finished the
+ * next time the tower is opened or saved. The delta file is therefore never applied to base
+ * files that already hold its changes, and is never deleted before they do.
+ * <p>
+ * The tower's {@link WaitTimes} are not part of the base files. Each save writes them in full
+ * to a second sidecar file next to the tick file, which is small and does not grow with the
+ * number of waits recorded, and they are loaded from it when the tower is opened.
+ * <p>
+ * A delta save must only be used from the thread that ticks the tower.
+ */
+public class DeltaSave {
+
+    /** Suffix added to the name of the tick file to name the delta file */
+    public static final String DELTA_SUFFIX = ".delta";
+
+    /** Suffix added to the name of the tick file to name the wait times file */
+    public static final String WAITS_SUFFIX = ".waits";
+
+    /** Suffix added to the name of the tick file to name the commit marker */
+    public static final String COMMIT_SUFFIX = ".commit";
+
+    /** Suffix added to the name of each base file to name the new file that will replace it */
+    public static final String STAGED_SUFFIX = ".staged";
+
+    /** Default size of the delta file, in bytes, above which it is compacted */
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 1 << 20;
+
+    /** Charset of the base files, the same as used by FileReader and FileWriter */
+    private static final Charset BASE_CHARSET = Charset.defaultCharset();
+
+    /** Tower being saved */
+    private final ControlTower tower;
+
+    /** Paths of the tick, aircraft, queues and terminals with gates files */
+    private final List<Path> baseFiles;
+
+    /** Path of the delta file */
+    private final Path deltaFile;
+
+    /** Path of the wait times file */
+    private final Path waitsFile;
+
+    /** Path of the commit marker */
+    private final Path commitMarker;
+
+    /** Size of the delta file, in bytes, above which it is compacted */
+    private final long compactionThreshold;
+
+    /** Changes made to the tower since it was last saved */
+    private final ChangeTracker tracker = new ChangeTracker();
+
+    /** Number of bytes of the delta file taken up by complete frames */
+    private long deltaLength;
+
+    /* Creates a delta save for a tower that has just been loaded */
+    private DeltaSave(ControlTower tower, List<Path> baseFiles, long deltaLength,
+                      long compactionThreshold) {
+        this.tower = tower;
+        this.baseFiles = baseFiles;
+        this.deltaFile = deltaFileOf(baseFiles.get(0).toString());
+        this.waitsFile = waitsFileOf(baseFiles.get(0).toString());
+        this.commitMarker = commitMarkerOf(baseFiles.get(0).toString());
+        this.deltaLength = deltaLength;
+        this.compactionThreshold = compactionThreshold;
+        tower.setMutationListener(tracker);
+    }
+
+    /**
+     * Loads a control tower from the given save files and any delta file next to them, using
+     * the default compaction threshold.
+     *
+     * @param filenames paths to the tick, aircraft, queues and terminals with gates files
+     * @return delta save of the loaded tower
+     * @throws IOException if the files cannot be read
+     * @throws MalformedSaveException if the files, after applying the delta file, are invalid
+     * according to {@link ControlTowerInitialiser#createControlTower}
+     */
+    public static DeltaSave open(List<String> filenames)
+            throws IOException, MalformedSaveException {
+        return open(filenames, DEFAULT_COMPACTION_THRESHOLD, LoadProgressListener.NONE);
+    }
+
+    /**
+     * Loads a control tower from the given save files and any delta file next to them, using
+     * the default compaction threshold and telling the given listener of progress.
+     *
+     * @param filenames paths to the tick, aircraft, queues and terminals with gates files
+     * @param listener listener to tell of progress, from any thread
+     * @return delta save of the loaded tower
+     * @throws IOException if the files cannot be read
+     * @throws MalformedSaveException if the files, after applying the delta file, are invalid
+     * according to {@link ControlTowerInitialiser#createControlTower}
+     */
+    public static DeltaSave open(List<String> filenames, LoadProgressListener listener)
+            throws IOException, MalformedSaveException {
+        return open(filenames, DEFAULT_COMPACTION_THRESHOLD, listener);
+    }
+
+    /**
+     * Loads a control tower from the given save files and any delta file next to them.
+     * <p>
+     * If there is a delta file, the listener is only told of progress once the whole tower has
+     * been loaded.
+     *
+     * @param filenames paths to the tick, aircraft, queues and terminals with gates files
+     * @param compactionThreshold size of the delta file, in bytes, above which it is merged into
+     *                            the base files
+     * @param listener listener to tell of progress, from any thread
+     * @return delta save of the loaded tower
+     * @throws IOException if the files cannot be read
+     * @throws MalformedSaveException if the files, after applying the delta file, are invalid
+     * according to {@link ControlTowerInitialiser#createControlTower}
+     */
+    public static DeltaSave open(List<String> filenames, long compactionThreshold,
+                                 LoadProgressListener listener)
+            throws IOException, MalformedSaveException {
+        List<Path> baseFiles = new ArrayList<>(4);
+        for (String filename : filenames) {
+            baseFiles.add(Paths.get(filename));
+        }
+        recover(baseFiles, commitMarkerOf(filenames.get(0)));
+        Path deltaFile = deltaFileOf(filenames.get(0));
+        if (!Files.exists(deltaFile)) {
+            ExecutorService loader = Executors.newFixedThreadPool(3, runnable -> {
+                Thread thread = new Thread(runnable, "save-loader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            ControlTower tower;
+            try {
+                tower = Boolean.getBoolean(MappedSaveLoader.LAZY_LOAD_PROPERTY)
+                        ? MappedSaveLoader.createControlTowerLazily(baseFiles.get(0),
+                                baseFiles.get(1), baseFiles.get(2), baseFiles.get(3), loader,
+                                listener)
+                        : MappedSaveLoader.createControlTower(baseFiles.get(0),
+                                baseFiles.get(1), baseFiles.get(2), baseFiles.get(3), loader,
+                                listener);
+            } finally {
+                loader.shutdownNow();
+            }
+            loadWaitTimes(tower, filenames.get(0));
+            return new DeltaSave(tower, baseFiles, 0, compactionThreshold);
+        }
+        String[] contents = new String[4];
+        for (int i = 0; i < 4; i++) {
+            contents[i] = Files.readString(baseFiles.get(i), BASE_CHARSET);
+        }
+        SaveText text = SaveText.parse(contents[0], contents[1], contents[2], contents[3]);
+        byte[] delta = Files.readAllBytes(deltaFile);
+        int deltaLength = text.applyFrames(delta, delta.length);
+        ControlTower tower = ControlTowerInitialiser.createControlTower(
+                new StringReader(text.getTicks()), new StringReader(text.renderAircraft()),
+                new StringReader(text.renderQueues()), new StringReader(text.renderTerminals()));
+        listener.aircraftLoaded(tower.getAircraft().size(), tower.getAircraft().size());
+        List<Terminal> terminals = tower.getTerminals();
+        for (int i = 0; i < terminals.size(); i++) {
+            listener.terminalLoaded(terminals.get(i), i + 1, terminals.size());
+        }
+        loadWaitTimes(tower, filenames.get(0));
+        return new DeltaSave(tower, baseFiles, deltaLength, compactionThreshold);
+    }
+
+    /**
+     * Returns the path of the delta file kept next to the given tick file.
+     *
+     * @param tickFilename path of the tick file
+     * @return path of the delta file
+     */
+    public static Path deltaFileOf(String tickFilename) {
+        return Paths.get(tickFilename + DELTA_SUFFIX);
+    }
+
+    /**
+     * Returns the path of the wait times file kept next to the given tick file.
+     *
+     * @param tickFilename path of the tick file
+     * @return path of the wait times file
+     */
+    public static Path waitsFileOf(String tickFilename) {
+        return Paths.get(tickFilename + WAITS_SUFFIX);
+    }
+
+    /**
+     * Returns the path of the commit marker kept next to the given tick file while base files
+     * are being replaced.
+     *
+     * @param tickFilename path of the tick file
+     * @return path of the commit marker
+     */
+    public static Path commitMarkerOf(String tickFilename) {
+        return Paths.get(tickFilename + COMMIT_SUFFIX);
+    }
+
+    /* Returns the path of the file written to replace the given base file */
+    private static Path stagedFileOf(Path baseFile) {
+        return baseFile.resolveSibling(baseFile.getFileName() + STAGED_SUFFIX);
+    }
+
+    /*
+     * Finishes replacing the base files if the commit marker shows this was interrupted, or
+     * otherwise deletes any staged files left by a save that failed before it was committed
+     */
+    private static void recover(List<Path> baseFiles, Path commitMarker) throws IOException {
+        if (Files.exists(commitMarker)) {
+            finishCommit(baseFiles, commitMarker);
+            return;
+        }
+        for (Path baseFile : baseFiles) {
+            Files.deleteIfExists(stagedFileOf(baseFile));
+        }
+    }
+
+    /*
+     * Moves every staged file over its base file, then deletes the delta file and lastly the
+     * commit marker. Staged files already moved by an interrupted earlier call are skipped, so
+     * this may be repeated until it succeeds.
+     */
+    private static void finishCommit(List<Path> baseFiles, Path commitMarker)
+            throws IOException {
+        for (Path baseFile : baseFiles) {
+            Path staged = stagedFileOf(baseFile);
+            if (Files.exists(staged)) {
+                replace(staged, baseFile);
+            }
+        }
+        Files.deleteIfExists(deltaFileOf(baseFiles.get(0).toString()));
+        Files.delete(commitMarker);
+    }
+
+    /* Loads the tower's wait times from the file next to the given tick file, if there is one */
+    private static void loadWaitTimes(ControlTower tower, String tickFilename)
+            throws IOException, MalformedSaveException {
+        Path waitsFile = waitsFileOf(tickFilename);
+        if (Files.exists(waitsFile)) {
+            tower.getWaitTimes().load(Files.readString(waitsFile, StandardCharsets.UTF_8),
+                    tower.getAircraft());
+        }
+    }
+
+    /**
+     * Returns the tower loaded by this delta save.
+     *
+     * @return control tower
+     */
+    public ControlTower getControlTower() {
+        return tower;
+    }
+
+    /**
+     * Returns the changes made to the tower since it was last saved.
+     *
+     * @return change tracker of the tower
+     */
+    public ChangeTracker getTracker() {
+        return tracker;
+    }
+
+    /**
+     * Returns the number of bytes taken up by complete frames in the delta file.
+     *
+     * @return size of the delta file
+     */
+    public long getDeltaLength() {
+        return deltaLength;
+    }
+
+    /**
+     * Appends the changes made since the last save to the delta file, compacting the delta file
+     * afterwards if it has grown past the compaction threshold.
+     *
+     * @return true if the delta file was compacted into the base files
+     * @throws IOException if the delta file or base files cannot be written
+     */
+    public boolean save() throws IOException {
+        SaveWriteEvent event = new SaveWriteEvent();
+        event.begin();
+        boolean succeeded = false;
+        try {
+            finishPendingCommit();
+            byte[] frame = encodeFrame().getBytes(StandardCharsets.UTF_8);
+            try (FileChannel channel = FileChannel.open(deltaFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE)) {
+                // drop any frame left incomplete by an earlier failed save
+                if (channel.size() > deltaLength) {
+                    channel.truncate(deltaLength);
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(frame);
+                long position = deltaLength;
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+            }
+            deltaLength += frame.length;
+            tracker.clear();
+            saveWaitTimes();
+            boolean compacted = false;
+            if (deltaLength > compactionThreshold) {
+                compact();
+                compacted = true;
+            }
+            succeeded = true;
+            return compacted;
+        } finally {
+            event.finish("delta", tower, succeeded);
+        }
+    }
+
+    /**
+     * Writes the tower's wait times in full to the wait times file, replacing it. This is done by
+     * every delta save, and must also be done by a full save.
+     *
+     * @throws IOException if the wait times file cannot be written
+     */
+    public void saveWaitTimes() throws IOException {
+        Path temp = waitsFile.resolveSibling(waitsFile.getFileName() + ".saving");
+        Files.writeString(temp, tower.getWaitTimes().encode(), StandardCharsets.UTF_8);
+        replace(temp, waitsFile);
+    }
+
+    /**
+     * Merges every frame of the delta file into the base files and deletes the delta file.
+     * <p>
+     * The base files are then exactly what a full save of the tower, as of the last delta save,
+     * would have written. If there is no delta file, no action is taken.
+     *
+     * @throws IOException if the files cannot be read or written
+     */
+    public void compact() throws IOException {
+        finishPendingCommit();
+        if (!Files.exists(deltaFile)) {
+            return;
+        }
+        SaveText text;
+        try {
+            text = SaveText.parse(Files.readString(baseFiles.get(0), BASE_CHARSET),
+                    Files.readString(baseFiles.get(1), BASE_CHARSET),
+                    Files.readString(baseFiles.get(2), BASE_CHARSET),
+                    Files.readString(baseFiles.get(3), BASE_CHARSET));
+            byte[] delta = Files.readAllBytes(deltaFile);
+            text.applyFrames(delta, (int) Math.min(delta.length, deltaLength));
+        } catch (MalformedSaveException e) {
+            throw new IOException("Cannot merge delta file into base files", e);
+        }
+        String[] contents = {text.getTicks(), text.renderAircraft(), text.renderQueues(),
+            text.renderTerminals()};
+        for (int i = 0; i < 4; i++) {
+            Files.writeString(stagedFileOf(baseFiles.get(i)), contents[i], BASE_CHARSET);
+        }
+        commit(false);
+    }
+
+    /**
+     * Returns the paths a full save of the tower should be written to, in the order tick,
+     * aircraft, queues and terminals with gates. Once all four have been written, calling
+     * {@link #commitFullSave()} makes them the base files.
+     *
+     * @return paths to write a full save to
+     */
+    public List<String> getFullSaveFilenames() {
+        List<String> filenames = new ArrayList<>(4);
+        for (Path baseFile : baseFiles) {
+            filenames.add(stagedFileOf(baseFile).toString());
+        }
+        return filenames;
+    }
+
+    /**
+     * Replaces the base files with the full save written to {@link #getFullSaveFilenames()},
+     * deletes the delta file and forgets all recorded changes.
+     * <p>
+     * If this throws, the base files and delta file are left either as they were before the
+     * full save, with every recorded change kept for the next delta save, or committed to the
+     * full save, which is finished by the next save or the next time the tower is opened.
+     *
+     * @throws IOException if the base files cannot be replaced
+     */
+    public void commitFullSave() throws IOException {
+        for (Path baseFile : baseFiles) {
+            if (!Files.exists(stagedFileOf(baseFile))) {
+                throw new IOException("Full save was not written to " + stagedFileOf(baseFile));
+            }
+        }
+        commit(true);
+    }
+
+    /*
+     * Finishes replacing the base files if an earlier commit was interrupted. The delta file of
+     * that commit is already merged into the staged base files, so it is deleted.
+     */
+    private void finishPendingCommit() throws IOException {
+        if (Files.exists(commitMarker)) {
+            finishCommit(baseFiles, commitMarker);
+            deltaLength = 0;
+        }
+    }
+
+    /*
+     * Commits the staged base files: flushes them to disk, creates the commit marker and then
+     * finishes the commit. Once the marker exists the delta file is superseded, so it is
+     * forgotten, along with the recorded changes if the staged files are a full save, before the
+     * base files are replaced.
+     */
+    private void commit(boolean fullSave) throws IOException {
+        for (Path baseFile : baseFiles) {
+            try (FileChannel channel = FileChannel.open(stagedFileOf(baseFile),
+                    StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(commitMarker, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        deltaLength = 0;
+        if (fullSave) {
+            tracker.clear();
+        }
+        finishCommit(baseFiles, commitMarker);
+    }
+
+    /* Returns the frame recording every change since the last save */
+    private String encodeFrame() {
+        StringBuilder frame = new StringBuilder();
+        frame.append(SaveText.FRAME_START).append(tower.getTicksElapsed()).append('\n');
+
+        // entities added or removed are written by their membership record only
+        Set<Object> written = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (ChangeTracker.Membership membership : tracker.getMemberships()) {
+            written.add(membership.entity);
+            if (membership.entity instanceof Aircraft) {
+                Aircraft aircraft = (Aircraft) membership.entity;
+                if (membership.added) {
+                    record(frame, SaveText.AIRCRAFT, aircraft.encode());
+                } else {
+                    record(frame, SaveText.REMOVE_AIRCRAFT, aircraft.getCallsign() + ":"
+                            + aircraft.getCharacteristics().name());
+                }
+            } else if (membership.entity instanceof Terminal) {
+                Terminal terminal = (Terminal) membership.entity;
+                if (membership.added) {
+                    record(frame, SaveText.TERMINAL, terminal.encode());
+                } else {
+                    record(frame, SaveText.REMOVE_TERMINAL, terminal.getClass().getSimpleName()
+                            + ":" + terminal.getTerminalNumber());
+                }
+            }
+        }
+        for (Aircraft aircraft : tracker.getChangedAircraft()) {
+            if (!written.contains(aircraft)) {
+                record(frame, SaveText.AIRCRAFT, aircraft.encode());
+            }
+        }
+        for (Terminal terminal : tracker.getChangedTerminals()) {
+            if (!written.contains(terminal)) {
+                record(frame, SaveText.TERMINAL, terminal.encode());
+            }
+        }
+        if (tracker.haveQueuesChanged()) {
+            record(frame, SaveText.QUEUES, tower.getTakeoffQueue().encode()
+                    + System.lineSeparator() + tower.getLandingQueue().encode());
+        }
+        StringJoiner loading = new StringJoiner(",");
+        for (Map.Entry<Aircraft, Integer> entry : tower.getLoadingAircraft().entrySet()) {
+            loading.add(entry.getKey().getCallsign() + ":" + entry.getValue());
+        }
+        record(frame, SaveText.LOADING, "LoadingAircraft:" + tower.getLoadingAircraft().size()
+                + System.lineSeparator() + loading);
+
+        frame.append(SaveText.FRAME_END).append(tower.getTicksElapsed()).append('\n');
+        return frame.toString();
+    }
+
+    /* Appends a record holding the lines of the given encoded text */
+    private static void record(StringBuilder frame, String type, String encoded) {
+        List<String> lines = SaveText.lines(encoded);
+        frame.append(type).append(':').append(lines.size()).append('\n');
+        for (String line : lines) {
+            frame.append(line).append('\n');
+        }
+    }
+
+    /* Moves the source file over the target, atomically if the file system allows it */
+    private static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package towersim.save;
+
+import towersim.util.MalformedSaveException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Text of the four save files, split into records that delta frames can replace one at a time.
+ * <p>
+ * Aircraft are keyed by callsign and model, and terminals by type and number, so a record
+ * replacing an aircraft or terminal keeps its place in the file, and a record for a new aircraft
+ * or terminal is appended to the end, as {@link towersim.control.ControlTower} orders them.
+ * Rendering the records produces exactly what a full save of the same tower would write.
+ */
+class SaveText {
+
+    /** Line starting every frame in a delta file, followed by the ticks elapsed */
+    static final String FRAME_START = "Delta:";
+
+    /** Line ending every complete frame in a delta file, followed by the ticks elapsed */
+    static final String FRAME_END = "End:";
+
+    /** Record adding or replacing an aircraft */
+    static final String AIRCRAFT = "Aircraft";
+
+    /** Record removing an aircraft, given by its key */
+    static final String REMOVE_AIRCRAFT = "RemoveAircraft";
+
+    /** Record adding or replacing a terminal and its gates */
+    static final String TERMINAL = "Terminal";
+
+    /** Record removing a terminal, given by its key */
+    static final String REMOVE_TERMINAL = "RemoveTerminal";
+
+    /** Record replacing the encoded takeoff and landing queues */
+    static final String QUEUES = "Queues";
+
+    /** Record replacing the loading aircraft */
+    static final String LOADING = "Loading";
+
+    /** Prefix of the line starting the loading aircraft section of the queues file */
+    private static final String LOADING_HEADER = "LoadingAircraft:";
+
+    /** Contents of the tick file */
+    private String ticks;
+
+    /** Encoded aircraft, keyed by callsign and model, in save order */
+    private final Map<String, String> aircraft = new LinkedHashMap<>();
+
+    /** Lines of each encoded terminal, keyed by type and number, in save order */
+    private final Map<String, List<String>> terminals = new LinkedHashMap<>();
+
+    /** Lines of the queues file holding the encoded takeoff and landing queues */
+    private List<String> queues;
+
+    /** Lines of the queues file holding the loading aircraft */
+    private List<String> loading;
+
+    /* Creates an empty save text; use parse() */
+    private SaveText() {}
+
+    /**
+     * Splits the contents of the four save files into records.
+     * <p>
+     * Only the structure needed to find each record is checked here; the contents of records are
+     * validated when the tower is loaded.
+     *
+     * @param tick contents of the tick file
+     * @param aircraftText contents of the aircraft file
+     * @param queuesText contents of the queues file
+     * @param terminalsText contents of the terminals with gates file
+     * @return records of the given files
+     * @throws MalformedSaveException if the records cannot be found
+     */
+    static SaveText parse(String tick, String aircraftText, String queuesText,
+                          String terminalsText) throws MalformedSaveException {
+        SaveText text = new SaveText();
+        text.ticks = tick;
+
+        List<String> aircraftLines = lines(aircraftText);
+        int numAircraft = count(aircraftLines.get(0));
+        if (aircraftLines.size() < numAircraft + 1) {
+            throw new MalformedSaveException("Fewer aircraft than expected");
+        }
+        for (String line : aircraftLines.subList(1, numAircraft + 1)) {
+            text.aircraft.put(key(line), line);
+        }
+
+        List<String> terminalLines = lines(terminalsText);
+        int numTerminals = count(terminalLines.get(0));
+        int index = 1;
+        for (int i = 0; i < numTerminals; i++) {
+            if (index >= terminalLines.size()) {
+                throw new MalformedSaveException("Fewer terminals than expected");
+            }
+            String header = terminalLines.get(index);
+            int end = index + 1 + count(header.substring(header.lastIndexOf(':') + 1));
+            if (end > terminalLines.size()) {
+                throw new MalformedSaveException("Fewer gates than expected");
+            }
+            text.terminals.put(key(header), new ArrayList<>(terminalLines.subList(index, end)));
+            index = end;
+        }
+
+        List<String> queueLines = lines(queuesText);
+        int loadingIndex = 0;
+        while (loadingIndex < queueLines.size()
+                && !queueLines.get(loadingIndex).startsWith(LOADING_HEADER)) {
+            loadingIndex++;
+        }
+        if (loadingIndex == queueLines.size()) {
+            throw new MalformedSaveException("Missing loading aircraft");
+        }
+        text.queues = new ArrayList<>(queueLines.subList(0, loadingIndex));
+        text.loading = List.of(queueLines.get(loadingIndex),
+                loadingIndex + 1 < queueLines.size() ? queueLines.get(loadingIndex + 1) : "");
+        return text;
+    }
+
+    /**
+     * Applies every complete frame in the given delta file contents, in order.
+     * <p>
+     * Applying stops at the first frame that is incomplete, such as one cut short by a crash
+     * while it was being written.
+     *
+     * @param delta contents of the delta file
+     * @param length number of bytes of the delta file to read
+     * @return number of bytes taken up by the complete frames that were applied
+     * @throws MalformedSaveException if a complete frame contains an unknown record
+     */
+    int applyFrames(byte[] delta, int length) throws MalformedSaveException {
+        int applied = 0;
+        int position = 0;
+        List<String> frame = new ArrayList<>();
+        while (position < length) {
+            int newline = position;
+            while (newline < length && delta[newline] != '\n') {
+                newline++;
+            }
+            if (newline == length) {
+                break; // last line was cut short
+            }
+            String line = new String(delta, position, newline - position,
+                    StandardCharsets.UTF_8);
+            if (line.endsWith("\r")) {
+                line = line.substring(0, line.length() - 1);
+            }
+            position = newline + 1;
+            frame.add(line);
+            if (line.startsWith(FRAME_END)) {
+                applyFrame(frame);
+                frame.clear();
+                applied = position;
+            }
+        }
+        return applied;
+    }
+
+    /* Applies a single frame, from its start line to its end line inclusive */
+    private void applyFrame(List<String> frame) throws MalformedSaveException {
+        if (!frame.get(0).startsWith(FRAME_START)) {
+            throw new MalformedSaveException("Delta frame does not start with " + FRAME_START);
+        }
+        int index = 1;
+        while (index < frame.size() - 1) {
+            String header = frame.get(index);
+            int colon = header.lastIndexOf(':');
+            if (colon < 0) {
+                throw new MalformedSaveException("Invalid delta record: " + header);
+            }
+            int end = index + 1 + count(header.substring(colon + 1));
+            if (end > frame.size() - 1) {
+                throw new MalformedSaveException("Delta record longer than its frame");
+            }
+            List<String> lines = frame.subList(index + 1, end);
+            switch (header.substring(0, colon)) {
+                case AIRCRAFT:
+                    for (String line : lines) {
+                        aircraft.put(key(line), line);
+                    }
+                    break;
+                case REMOVE_AIRCRAFT:
+                    for (String line : lines) {
+                        aircraft.remove(line);
+                    }
+                    break;
+                case TERMINAL:
+                    terminals.put(key(lines.get(0)), new ArrayList<>(lines));
+                    break;
+                case REMOVE_TERMINAL:
+                    for (String line : lines) {
+                        terminals.remove(line);
+                    }
+                    break;
+                case QUEUES:
+                    queues = new ArrayList<>(lines);
+                    break;
+                case LOADING:
+                    loading = new ArrayList<>(lines);
+                    break;
+                default:
+                    throw new MalformedSaveException("Unknown delta record: " + header);
+            }
+            index = end;
+        }
+        ticks = frame.get(0).substring(FRAME_START.length());
+    }
+
+    /**
+     * Returns the contents of the tick file.
+     *
+     * @return tick file text
+     */
+    String getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Returns the contents of the aircraft file, exactly as a full save would write it.
+     *
+     * @return aircraft file text
+     */
+    String renderAircraft() {
+        StringJoiner joiner = new StringJoiner(System.lineSeparator());
+        joiner.add(String.valueOf(aircraft.size()));
+        for (String line : aircraft.values()) {
+            joiner.add(line);
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * Returns the contents of the queues file, exactly as a full save would write it.
+     *
+     * @return queues file text
+     */
+    String renderQueues() {
+        StringJoiner joiner = new StringJoiner(System.lineSeparator());
+        queues.forEach(joiner::add);
+        loading.forEach(joiner::add);
+        return joiner.toString();
+    }
+
+    /**
+     * Returns the contents of the terminals with gates file, exactly as a full save would write
+     * it.
+     *
+     * @return terminals with gates file text
+     */
+    String renderTerminals() {
+        StringJoiner joiner = new StringJoiner(System.lineSeparator());
+        joiner.add(String.valueOf(terminals.size()));
+        for (List<String> lines : terminals.values()) {
+            lines.forEach(joiner::add);
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * Returns the key identifying the aircraft or terminal encoded by the given line, made of
+     * the first two fields of the line.
+     *
+     * @param encoded encoded aircraft, or first line of an encoded terminal
+     * @return key of the encoded entity
+     * @throws MalformedSaveException if the line has fewer than two fields
+     */
+    static String key(String encoded) throws MalformedSaveException {
+        int second = encoded.indexOf(':', encoded.indexOf(':') + 1);
+        if (encoded.indexOf(':') < 0 || second < 0) {
+            throw new MalformedSaveException("Cannot identify record: " + encoded);
+        }
+        return encoded.substring(0, second);
+    }
+
+    /**
+     * Splits the given text into lines, keeping a trailing empty line.
+     *
+     * @param text text to split
+     * @return lines of the text
+     */
+    static List<String> lines(String text) {
+        return Arrays.asList(text.split("\r?\n", -1));
+    }
+
+    /* Parses a non-negative count of records */
+    private static int count(String text) throws MalformedSaveException {
+        try {
+            int count = Integer.parseInt(text.trim());
+            if (count < 0) {
+                throw new MalformedSaveException("Negative count: " + text);
+            }
+            return count;
+        } catch (NumberFormatException e) {
+            throw new MalformedSaveException("Invalid count: " + text);
+        }
+    }
+}
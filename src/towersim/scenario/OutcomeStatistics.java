@@ -0,0 +1,217 @@
+package towersim.scenario;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Aggregated outcome statistics over every completed variant of one scenario.
+ * <p>
+ * Statistics are accumulated in constant memory as variants complete, so they can be reported
+ * while the engine is still running.
+ */
+public class OutcomeStatistics {
+
+    /** Outcome measurements aggregated across variants */
+    public enum Metric {
+        /** Mean landing queue length */
+        MEAN_LANDING_QUEUE(VariantOutcome::getMeanLandingQueue),
+        /** Longest landing queue */
+        MAX_LANDING_QUEUE(VariantOutcome::getMaxLandingQueue),
+        /** Mean takeoff queue length */
+        MEAN_TAKEOFF_QUEUE(VariantOutcome::getMeanTakeoffQueue),
+        /** Longest takeoff queue */
+        MAX_TAKEOFF_QUEUE(VariantOutcome::getMaxTakeoffQueue),
+        /** Mean percentage of gates occupied */
+        GATE_UTILISATION(VariantOutcome::getMeanGateUtilisation),
+        /** Number of aircraft landed */
+        LANDED(VariantOutcome::getLanded),
+        /** Mean ticks spent waiting to land */
+        MEAN_TIME_TO_LAND(VariantOutcome::getMeanTimeToLand),
+        /** Longest time spent waiting to land */
+        MAX_TIME_TO_LAND(VariantOutcome::getMaxTimeToLand),
+        /** Aircraft still waiting to land at the end of the run */
+        STILL_WAITING_TO_LAND(VariantOutcome::getStillWaitingToLand);
+
+        /** Extracts this metric from a variant outcome */
+        private final ToDoubleFunction<VariantOutcome> extractor;
+
+        Metric(ToDoubleFunction<VariantOutcome> extractor) {
+            this.extractor = extractor;
+        }
+    }
+
+    /** Running mean, variance and range of a single metric, using Welford's algorithm */
+    public static class Summary {
+        /** Number of values seen */
+        private long count;
+        /** Mean of values seen */
+        private double mean;
+        /** Sum of squared differences from the mean */
+        private double squares;
+        /** Smallest value seen */
+        private double min = Double.POSITIVE_INFINITY;
+        /** Largest value seen */
+        private double max = Double.NEGATIVE_INFINITY;
+
+        /* Adds a value to the summary */
+        private void add(double value) {
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            squares += delta * (value - mean);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        /* Returns a copy of this summary */
+        private Summary copy() {
+            Summary copy = new Summary();
+            copy.count = count;
+            copy.mean = mean;
+            copy.squares = squares;
+            copy.min = min;
+            copy.max = max;
+            return copy;
+        }
+
+        /**
+         * Returns the mean of all values.
+         *
+         * @return mean value, or 0 if there are no values
+         */
+        public double getMean() {
+            return mean;
+        }
+
+        /**
+         * Returns the sample standard deviation of all values.
+         *
+         * @return standard deviation, or 0 if there are fewer than two values
+         */
+        public double getStandardDeviation() {
+            return count < 2 ? 0 : Math.sqrt(squares / (count - 1));
+        }
+
+        /**
+         * Returns the smallest value.
+         *
+         * @return minimum value, or 0 if there are no values
+         */
+        public double getMin() {
+            return count == 0 ? 0 : min;
+        }
+
+        /**
+         * Returns the largest value.
+         *
+         * @return maximum value, or 0 if there are no values
+         */
+        public double getMax() {
+            return count == 0 ? 0 : max;
+        }
+
+        /**
+         * Returns the human-readable string representation of this summary.
+         * Format: mean+/-stddev [min..max]
+         *
+         * @return human-readable string representation of summary
+         */
+        @Override
+        public String toString() {
+            return String.format("%.2f+/-%.2f [%.2f..%.2f]",
+                    getMean(), getStandardDeviation(), getMin(), getMax());
+        }
+    }
+
+    /** Scenario these statistics describe */
+    private final String scenarioName;
+
+    /** Number of variants aggregated */
+    private int variants = 0;
+
+    /** Summary of each metric across variants */
+    private final Map<Metric, Summary> summaries = new EnumMap<>(Metric.class);
+
+    /**
+     * Creates empty statistics for the given scenario.
+     *
+     * @param scenarioName name of the scenario
+     */
+    public OutcomeStatistics(String scenarioName) {
+        this.scenarioName = scenarioName;
+        for (Metric metric : Metric.values()) {
+            summaries.put(metric, new Summary());
+        }
+    }
+
+    /**
+     * Adds the outcome of a completed variant to these statistics.
+     *
+     * @param outcome outcome of variant
+     */
+    public void add(VariantOutcome outcome) {
+        variants++;
+        for (Map.Entry<Metric, Summary> entry : summaries.entrySet()) {
+            entry.getValue().add(entry.getKey().extractor.applyAsDouble(outcome));
+        }
+    }
+
+    /**
+     * Returns an independent copy of these statistics.
+     *
+     * @return copy of statistics
+     */
+    public OutcomeStatistics copy() {
+        OutcomeStatistics copy = new OutcomeStatistics(scenarioName);
+        copy.variants = variants;
+        for (Map.Entry<Metric, Summary> entry : summaries.entrySet()) {
+            copy.summaries.put(entry.getKey(), entry.getValue().copy());
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the name of the scenario these statistics describe.
+     *
+     * @return scenario name
+     */
+    public String getScenarioName() {
+        return scenarioName;
+    }
+
+    /**
+     * Returns the number of variants aggregated so far.
+     *
+     * @return number of variants
+     */
+    public int getVariants() {
+        return variants;
+    }
+
+    /**
+     * Returns the summary of the given metric across all variants aggregated so far.
+     *
+     * @param metric metric to summarise
+     * @return summary of metric
+     */
+    public Summary getSummary(Metric metric) {
+        return summaries.get(metric);
+    }
+
+    /**
+     * Returns the human-readable string representation of these statistics.
+     * Format: scenarioName (variants variants): METRIC=summary, ...
+     *
+     * @return human-readable string representation of statistics
+     */
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (Map.Entry<Metric, Summary> entry : summaries.entrySet()) {
+            joiner.add(entry.getKey() + "=" + entry.getValue());
+        }
+        return String.format("%s (%d variants): %s", scenarioName, variants, joiner);
+    }
+}
@@ -0,0 +1,63 @@
+package towersim.scenario;
+
+import towersim.control.ControlTower;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A named set of mutations describing one what-if question, such as "two terminals closed" or
+ * "fifty extra arrivals".
+ */
+public class Scenario {
+
+    /** Name used to identify this scenario in results */
+    private final String name;
+
+    /** Mutations applied, in order, to every variant of this scenario */
+    private final List<ScenarioMutation> mutations;
+
+    /**
+     * Creates a new scenario.
+     *
+     * @param name name used to identify this scenario in results
+     * @param mutations mutations applied, in order, to every variant; may be empty for a
+     *                  baseline scenario
+     */
+    public Scenario(String name, List<ScenarioMutation> mutations) {
+        this.name = name;
+        this.mutations = List.copyOf(mutations);
+    }
+
+    /**
+     * Returns the name of this scenario.
+     *
+     * @return scenario name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Applies every mutation of this scenario to the given tower.
+     *
+     * @param tower tower to mutate
+     * @param random random number generator for this variant
+     */
+    public void apply(ControlTower tower, Random random) {
+        for (ScenarioMutation mutation : mutations) {
+            mutation.apply(tower, random);
+        }
+    }
+
+    /**
+     * Returns the human-readable string representation of this scenario.
+     * Format: Scenario name (numMutations mutations)
+     *
+     * @return human-readable string representation of scenario
+     */
+    @Override
+    public String toString() {
+        return String.format("Scenario %s (%d mutations)", name, mutations.size());
+    }
+}
@@ -0,0 +1,152 @@
+package towersim.scenario;
+
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.FreightAircraft;
+import towersim.aircraft.PassengerAircraft;
+import towersim.control.ControlTower;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+
+import java.util.*;
+
+/**
+ * A change applied to a freshly forked control tower before a what-if variant is run.
+ * <p>
+ * Mutations are given a random number generator seeded per variant, so a run of the engine with
+ * the same seed always produces the same variants.
+ */
+@FunctionalInterface
+public interface ScenarioMutation {
+
+    /** Number of distinct callsigns available to aircraft added by {@link #extraAircraft} */
+    int EXTRA_CALLSIGNS = 100000;
+
+    /**
+     * Applies this mutation to the given tower.
+     *
+     * @param tower tower to mutate; owned exclusively by the calling variant
+     * @param random random number generator for this variant
+     */
+    void apply(ControlTower tower, Random random);
+
+    /**
+     * Returns a mutation that adds the given number of new aircraft to the tower, each with a
+     * copy of the given task list and a random amount of fuel.
+     * <p>
+     * New aircraft are given callsigns from {@code WIF00000} to {@code WIF99999}, taken in order
+     * from a random starting point and skipping any already in use by the tower. Aircraft that
+     * need a gate but cannot be given one are not added.
+     *
+     * @param count number of aircraft to add
+     * @param characteristics characteristics of the new aircraft
+     * @param tasks tasks given to each new aircraft; the first task is the current task
+     * @return extra aircraft mutation
+     * @throws IllegalArgumentException if count is negative or greater than the number of
+     * {@code WIF} callsigns; the mutation itself throws this if the tower leaves too few
+     * callsigns unused
+     */
+    static ScenarioMutation extraAircraft(int count, AircraftCharacteristics characteristics,
+                                          List<Task> tasks) {
+        if (count < 0 || count > EXTRA_CALLSIGNS) {
+            throw new IllegalArgumentException("Cannot add " + count + " extra aircraft");
+        }
+        return (tower, random) -> {
+            Set<String> callsigns = new HashSet<>();
+            for (Aircraft aircraft : tower.getAircraft()) {
+                callsigns.add(aircraft.getCallsign());
+            }
+            List<String> free = new ArrayList<>(count);
+            int start = random.nextInt(EXTRA_CALLSIGNS);
+            for (int i = 0; i < EXTRA_CALLSIGNS && free.size() < count; i++) {
+                String callsign = String.format("WIF%05d", (start + i) % EXTRA_CALLSIGNS);
+                if (!callsigns.contains(callsign)) {
+                    free.add(callsign);
+                }
+            }
+            if (free.size() < count) {
+                throw new IllegalArgumentException("Only " + free.size()
+                        + " unused callsigns remain for " + count + " extra aircraft");
+            }
+            List<Aircraft> extra = new ArrayList<>(count);
+            for (String callsign : free) {
+                double fuel = characteristics.fuelCapacity * (0.1 + 0.9 * random.nextDouble());
+                Aircraft aircraft;
+                if (characteristics.passengerCapacity > 0) {
+                    aircraft = new PassengerAircraft(callsign, characteristics,
+                            new TaskList(tasks), fuel, 0);
+                } else {
+                    aircraft = new FreightAircraft(callsign, characteristics,
+                            new TaskList(tasks), fuel, 0);
+                }
+                extra.add(aircraft);
+            }
+            // aircraft rejected for want of a gate are left out; the scenario runs without them
+            tower.addAllAircraft(extra);
+        };
+    }
+
+    /**
+     * Returns a mutation that declares a state of emergency on the given number of randomly
+     * chosen terminals, closing them to arriving aircraft.
+     *
+     * @param count number of terminals to close
+     * @return terminal closure mutation
+     */
+    static ScenarioMutation closeTerminals(int count) {
+        return (tower, random) -> {
+            List<Terminal> terminals = tower.getTerminals();
+            Collections.shuffle(terminals, random);
+            for (Terminal terminal : terminals.subList(0, Math.min(count, terminals.size()))) {
+                terminal.declareEmergency();
+            }
+        };
+    }
+
+    /**
+     * Returns a mutation that sets the load percentage of every {@code LOAD} task of every
+     * aircraft that is currently {@code AWAY}.
+     * <p>
+     * Only {@code AWAY} aircraft are changed, as they are not parked at a gate or waiting in a
+     * queue and so can be replaced by an otherwise identical aircraft with the new task list.
+     * Each is replaced in place, so the tower manages its aircraft in the same order as before.
+     *
+     * @param loadPercent load percentage to use
+     * @return load percentage mutation
+     */
+    static ScenarioMutation loadPercent(int loadPercent) {
+        return (tower, random) -> {
+            for (Aircraft aircraft : tower.getAircraft()) {
+                if (aircraft.getTaskList().getCurrentTask().getType() != TaskType.AWAY) {
+                    continue;
+                }
+                List<Task> tasks = new ArrayList<>();
+                for (Task task : aircraft.getTaskList().getTasks()) {
+                    tasks.add(task.getType() == TaskType.LOAD
+                            ? new Task(TaskType.LOAD, loadPercent) : task);
+                }
+                TaskList taskList = new TaskList(tasks);
+                for (int i = 0; i < aircraft.getTaskList().getCurrentTaskIndex(); i++) {
+                    taskList.moveToNextTask();
+                }
+                Aircraft replacement;
+                if (aircraft instanceof PassengerAircraft) {
+                    replacement = new PassengerAircraft(aircraft.getCallsign(),
+                            aircraft.getCharacteristics(), taskList, aircraft.getFuelAmount(),
+                            ((PassengerAircraft) aircraft).getNumPassengers());
+                } else {
+                    replacement = new FreightAircraft(aircraft.getCallsign(),
+                            aircraft.getCharacteristics(), taskList, aircraft.getFuelAmount(),
+                            ((FreightAircraft) aircraft).getFreightAmount());
+                }
+                if (aircraft.hasEmergency()) {
+                    replacement.declareEmergency();
+                }
+                // in place, so variants keep the order the base tower manages aircraft in
+                tower.replaceAircraft(replacement);
+            }
+        };
+    }
+}
@@ -0,0 +1,172 @@
+package towersim.scenario;
+
+import towersim.aircraft.Aircraft;
+import towersim.control.ControlTower;
+import towersim.ground.Gate;
+import towersim.ground.Terminal;
+import towersim.tasks.TaskType;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Outcome measurements of a single what-if variant, collected while its tower is ticked.
+ */
+public class VariantOutcome {
+
+    /** Number of ticks sampled */
+    private int ticks = 0;
+
+    /** Sum of landing queue lengths over all sampled ticks */
+    private long landingQueueTotal = 0;
+
+    /** Longest landing queue seen */
+    private int landingQueueMax = 0;
+
+    /** Sum of takeoff queue lengths over all sampled ticks */
+    private long takeoffQueueTotal = 0;
+
+    /** Longest takeoff queue seen */
+    private int takeoffQueueMax = 0;
+
+    /** Sum of the fraction of gates occupied over all sampled ticks */
+    private double gateUtilisationTotal = 0;
+
+    /** Number of aircraft that landed */
+    private int landed = 0;
+
+    /** Sum of ticks waited by every aircraft that landed */
+    private long timeToLandTotal = 0;
+
+    /** Longest time any aircraft waited to land */
+    private long timeToLandMax = 0;
+
+    /** Tick at which each aircraft currently waiting to land started waiting */
+    private final Map<Aircraft, Long> landingSince = new HashMap<>();
+
+    /**
+     * Records the state of the tower after a tick.
+     *
+     * @param tower tower to sample
+     */
+    public void sample(ControlTower tower) {
+        long now = tower.getTicksElapsed();
+        ticks++;
+
+        int landingQueueLength = tower.getLandingQueue().getAircraftInOrder().size();
+        landingQueueTotal += landingQueueLength;
+        landingQueueMax = Math.max(landingQueueMax, landingQueueLength);
+        int takeoffQueueLength = tower.getTakeoffQueue().getAircraftInOrder().size();
+        takeoffQueueTotal += takeoffQueueLength;
+        takeoffQueueMax = Math.max(takeoffQueueMax, takeoffQueueLength);
+
+        int gates = 0;
+        int occupied = 0;
+        for (Terminal terminal : tower.getTerminals()) {
+            for (Gate gate : terminal.getGates()) {
+                gates++;
+                if (gate.isOccupied()) {
+                    occupied++;
+                }
+            }
+        }
+        gateUtilisationTotal += gates == 0 ? 0 : (double) occupied / gates;
+
+        for (Aircraft aircraft : tower.getAircraft()) {
+            TaskType taskType = aircraft.getTaskList().getCurrentTask().getType();
+            if (taskType == TaskType.LAND) {
+                landingSince.putIfAbsent(aircraft, now);
+            } else if (taskType == TaskType.WAIT || taskType == TaskType.LOAD) {
+                Long since = landingSince.remove(aircraft);
+                if (since != null) {
+                    long waited = now - since;
+                    landed++;
+                    timeToLandTotal += waited;
+                    timeToLandMax = Math.max(timeToLandMax, waited);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the mean landing queue length over all sampled ticks.
+     *
+     * @return mean landing queue length
+     */
+    public double getMeanLandingQueue() {
+        return ticks == 0 ? 0 : (double) landingQueueTotal / ticks;
+    }
+
+    /**
+     * Returns the longest landing queue seen.
+     *
+     * @return maximum landing queue length
+     */
+    public int getMaxLandingQueue() {
+        return landingQueueMax;
+    }
+
+    /**
+     * Returns the mean takeoff queue length over all sampled ticks.
+     *
+     * @return mean takeoff queue length
+     */
+    public double getMeanTakeoffQueue() {
+        return ticks == 0 ? 0 : (double) takeoffQueueTotal / ticks;
+    }
+
+    /**
+     * Returns the longest takeoff queue seen.
+     *
+     * @return maximum takeoff queue length
+     */
+    public int getMaxTakeoffQueue() {
+        return takeoffQueueMax;
+    }
+
+    /**
+     * Returns the mean percentage of gates occupied over all sampled ticks, 0 to 100.
+     *
+     * @return mean gate utilisation percentage
+     */
+    public double getMeanGateUtilisation() {
+        return ticks == 0 ? 0 : 100 * gateUtilisationTotal / ticks;
+    }
+
+    /**
+     * Returns the number of aircraft that landed while sampling.
+     *
+     * @return number of landings
+     */
+    public int getLanded() {
+        return landed;
+    }
+
+    /**
+     * Returns the mean number of ticks aircraft waited between joining the landing queue and
+     * landing, or 0 if no aircraft landed.
+     *
+     * @return mean time to land, in ticks
+     */
+    public double getMeanTimeToLand() {
+        return landed == 0 ? 0 : (double) timeToLandTotal / landed;
+    }
+
+    /**
+     * Returns the longest time any aircraft waited to land.
+     *
+     * @return maximum time to land, in ticks
+     */
+    public long getMaxTimeToLand() {
+        return timeToLandMax;
+    }
+
+    /**
+     * Returns the number of aircraft still waiting to land when sampling stopped.
+     *
+     * @return number of aircraft still waiting to land
+     */
+    public int getStillWaitingToLand() {
+        return landingSince.size();
+    }
+}
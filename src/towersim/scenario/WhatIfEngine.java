@@ -0,0 +1,185 @@
+package towersim.scenario;
+
+import towersim.control.ControlTower;
+import towersim.control.ControlTowerInitialiser;
+import towersim.util.MalformedSaveException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Batch engine for Monte Carlo what-if runs over a single base snapshot.
+ * <p>
+ * The base snapshot is loaded once and held in memory. Every variant of every scenario gets its
+ * own independent tower forked from the snapshot with {@link ControlTower#fork()}, has the
+ * scenario's mutations applied with its own random seed, and is ticked a fixed number of times.
+ * Variants run in parallel on a fixed pool of worker threads; as each one finishes, its outcome
+ * is merged into its scenario's {@link OutcomeStatistics} and the updated statistics are
+ * streamed to a listener.
+ * <p>
+ * Runs are reproducible: the same snapshot, scenarios and seed always give every variant the
+ * same outcome, regardless of the number of threads. Aggregated statistics may differ only by
+ * floating-point rounding, depending on the order in which variants finish.
+ */
+public class WhatIfEngine {
+
+    /** Tower in the state of the base snapshot; never ticked or changed, only forked */
+    private final ControlTower baseTower;
+
+    /** Number of worker threads used to run variants */
+    private final int threads;
+
+    /**
+     * Creates a new engine over a base snapshot given as the contents of the four save files.
+     *
+     * @param tickData contents of the tick file
+     * @param aircraftData contents of the aircraft file
+     * @param queuesData contents of the queues file
+     * @param terminalsData contents of the terminals with gates file
+     * @param threads number of worker threads used to run variants
+     * @throws MalformedSaveException if the snapshot is not a valid save
+     */
+    public WhatIfEngine(String tickData, String aircraftData, String queuesData,
+                        String terminalsData, int threads) throws MalformedSaveException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is required");
+        }
+        try {
+            this.baseTower = ControlTowerInitialiser.createControlTower(
+                    new StringReader(tickData),
+                    new StringReader(aircraftData),
+                    new StringReader(queuesData),
+                    new StringReader(terminalsData));
+        } catch (IOException e) {
+            // reading from a string never fails
+            throw new UncheckedIOException(e);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Creates a new engine over a base snapshot read from the four given save files, using one
+     * worker thread per available processor.
+     *
+     * @param tickFile path to the tick file
+     * @param aircraftFile path to the aircraft file
+     * @param queuesFile path to the queues file
+     * @param terminalsFile path to the terminals with gates file
+     * @return engine over the snapshot
+     * @throws IOException if a file cannot be read
+     * @throws MalformedSaveException if the snapshot is not a valid save
+     */
+    public static WhatIfEngine fromFiles(String tickFile, String aircraftFile, String queuesFile,
+                                         String terminalsFile)
+            throws IOException, MalformedSaveException {
+        return new WhatIfEngine(
+                Files.readString(Path.of(tickFile)),
+                Files.readString(Path.of(aircraftFile)),
+                Files.readString(Path.of(queuesFile)),
+                Files.readString(Path.of(terminalsFile)),
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Returns a new tower in the state of the base snapshot, sharing no mutable state with any
+     * other tower returned by this method.
+     *
+     * @return independent copy of the base snapshot
+     */
+    public ControlTower fork() {
+        return baseTower.fork();
+    }
+
+    /**
+     * Runs every scenario for the given number of variants and ticks.
+     * <p>
+     * The listener is called on the calling thread each time a variant finishes, with a snapshot
+     * of the statistics of that variant's scenario so far.
+     *
+     * @param scenarios scenarios to run
+     * @param variantsPerScenario number of variants run for each scenario
+     * @param ticks number of ticks each variant is run for
+     * @param seed seed from which every variant's random seed is derived
+     * @param listener listener receiving statistics as variants finish
+     * @return final statistics of each scenario, keyed by scenario name, in scenario order
+     * @throws InterruptedException if interrupted while waiting for variants to finish
+     */
+    public Map<String, OutcomeStatistics> run(List<Scenario> scenarios, int variantsPerScenario,
+                                              int ticks, long seed,
+                                              Consumer<OutcomeStatistics> listener)
+            throws InterruptedException {
+        Map<String, OutcomeStatistics> results = new LinkedHashMap<>();
+        for (Scenario scenario : scenarios) {
+            if (results.put(scenario.getName(), new OutcomeStatistics(scenario.getName()))
+                    != null) {
+                throw new IllegalArgumentException("Duplicate scenario " + scenario.getName());
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "what-if-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletionService<Map.Entry<Scenario, VariantOutcome>> completion =
+                    new ExecutorCompletionService<>(executor);
+            int submitted = 0;
+            for (int s = 0; s < scenarios.size(); s++) {
+                Scenario scenario = scenarios.get(s);
+                for (int v = 0; v < variantsPerScenario; v++) {
+                    long variantSeed = variantSeed(seed, s, v);
+                    completion.submit(() -> Map.entry(scenario,
+                            runVariant(scenario, ticks, variantSeed)));
+                    submitted++;
+                }
+            }
+
+            // merge in completion order so results stream as soon as they are ready
+            for (int i = 0; i < submitted; i++) {
+                Map.Entry<Scenario, VariantOutcome> done;
+                try {
+                    done = completion.take().get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new IllegalStateException("Variant failed", cause);
+                }
+                OutcomeStatistics statistics = results.get(done.getKey().getName());
+                statistics.add(done.getValue());
+                listener.accept(statistics.copy());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    /* Forks the snapshot, applies the scenario and ticks the tower, sampling after every tick */
+    private VariantOutcome runVariant(Scenario scenario, int ticks, long variantSeed) {
+        ControlTower tower = fork();
+        scenario.apply(tower, new Random(variantSeed));
+        VariantOutcome outcome = new VariantOutcome();
+        for (int i = 0; i < ticks; i++) {
+            tower.tick();
+            outcome.sample(tower);
+        }
+        return outcome;
+    }
+
+    /* Derives a well-mixed, reproducible seed for one variant of one scenario */
+    private static long variantSeed(long seed, int scenarioIndex, int variantIndex) {
+        long z = seed + 0x9E3779B97F4A7C15L * (((long) scenarioIndex << 32) | variantIndex);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
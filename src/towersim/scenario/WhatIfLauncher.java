@@ -0,0 +1,83 @@
+package towersim.scenario;
+
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.tasks.Task;
+import towersim.tasks.TaskType;
+import towersim.util.MalformedSaveException;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line entry point for running what-if scenarios without the GUI.
+ * <p>
+ * Usage: {@code tick_file aircraft_file queues_file terminalsWithGates_file variants ticks
+ * [seed]}
+ * <p>
+ * Runs a fixed set of scenarios over the given base snapshot, printing each scenario's statistics
+ * as variants finish and a final summary once every variant is done.
+ */
+public class WhatIfLauncher {
+
+    /** Seed used when none is given on the command line */
+    private static final long DEFAULT_SEED = 42;
+
+    private WhatIfLauncher() {}
+
+    /**
+     * Runs the built-in scenarios over the save files named on the command line.
+     *
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length != 6 && args.length != 7) {
+            System.err.println("Usage: tick_file aircraft_file queues_file"
+                    + " terminalsWithGates_file variants ticks [seed]");
+            System.exit(1);
+        }
+        try {
+            WhatIfEngine engine = WhatIfEngine.fromFiles(args[0], args[1], args[2], args[3]);
+            int variants = Integer.parseInt(args[4]);
+            int ticks = Integer.parseInt(args[5]);
+            long seed = args.length == 7 ? Long.parseLong(args[6]) : DEFAULT_SEED;
+
+            Map<String, OutcomeStatistics> results = engine.run(defaultScenarios(), variants,
+                    ticks, seed, statistics -> {
+                        if (statistics.getVariants() % Math.max(1, variants / 10) == 0) {
+                            System.out.println(statistics);
+                        }
+                    });
+            System.out.println();
+            for (OutcomeStatistics statistics : results.values()) {
+                System.out.println(statistics);
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Not a valid number: " + e.getMessage());
+            System.exit(1);
+        } catch (IOException | MalformedSaveException e) {
+            System.err.println("Could not load base snapshot. Stack trace below:");
+            e.printStackTrace();
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /* Returns the scenarios run by the launcher */
+    private static List<Scenario> defaultScenarios() {
+        List<Task> arrival = List.of(new Task(TaskType.AWAY), new Task(TaskType.LAND),
+                new Task(TaskType.WAIT), new Task(TaskType.LOAD, 50), new Task(TaskType.TAKEOFF));
+        return List.of(
+                new Scenario("baseline", List.of()),
+                new Scenario("extra arrivals", List.of(
+                        ScenarioMutation.extraAircraft(10, AircraftCharacteristics.AIRBUS_A320,
+                                arrival),
+                        ScenarioMutation.extraAircraft(5, AircraftCharacteristics.BOEING_747_8F,
+                                arrival))),
+                new Scenario("one terminal closed", List.of(
+                        ScenarioMutation.closeTerminals(1))),
+                new Scenario("full loads", List.of(
+                        ScenarioMutation.loadPercent(100))));
+    }
+}
@@ -0,0 +1,239 @@
+package towersim.stats;
+
+import towersim.util.Encodable;
+import towersim.util.MalformedSaveException;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+/**
+ * Streaming estimate of the distribution of non-negative whole numbers, such as waits in ticks,
+ * in bounded memory.
+ * <p>
+ * Values below {@value #EXACT_LIMIT} are counted exactly. Larger values are counted in
+ * logarithmic buckets, {@value #SUB_BUCKETS} per power of two, so any quantile is estimated to
+ * within about 1.6% of the true value however many values are added. The number of buckets only
+ * grows with the largest value added, to at most a few thousand, and never with the number of
+ * values. The largest value is kept exactly.
+ */
+public class QuantileSketch implements Encodable {
+
+    /** Values below this are counted exactly, one bucket each */
+    private static final int EXACT_LIMIT = 64;
+
+    /** Base-two logarithm of EXACT_LIMIT */
+    private static final int EXACT_BITS = 6;
+
+    /** Number of buckets per power of two above EXACT_LIMIT */
+    private static final int SUB_BUCKETS = 32;
+
+    /** Base-two logarithm of SUB_BUCKETS */
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /** Number of values counted in each bucket; grown as larger values are added */
+    private long[] counts = new long[0];
+
+    /** Number of values added */
+    private long count;
+
+    /** Largest value added, or 0 if none */
+    private long max;
+
+    /**
+     * Creates a new, empty sketch.
+     */
+    public QuantileSketch() {}
+
+    /**
+     * Adds a value to the sketch.
+     *
+     * @param value value to add
+     * @throws IllegalArgumentException if value &lt; 0
+     */
+    public void add(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value cannot be negative");
+        }
+        int bucket = bucketOf(value);
+        if (bucket >= counts.length) {
+            counts = Arrays.copyOf(counts, bucket + 1);
+        }
+        counts[bucket]++;
+        count++;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds every value counted by the given sketch to this sketch.
+     *
+     * @param other sketch to merge into this one
+     */
+    public void merge(QuantileSketch other) {
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Returns the number of values added.
+     *
+     * @return number of values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the largest value added, exactly.
+     *
+     * @return largest value, or 0 if none have been added
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns an estimate of the given quantile of the values added; for example, 0.95 for the
+     * value that 95% of values are at or below.
+     *
+     * @param quantile quantile to estimate, from 0 to 1
+     * @return estimated value at that quantile, or 0 if no values have been added
+     * @throws IllegalArgumentException if quantile &lt; 0 or &gt; 1
+     */
+    public long getQuantile(double quantile) {
+        return getQuantiles(quantile)[0];
+    }
+
+    /**
+     * Returns estimates of each of the given quantiles, in a single pass over the buckets.
+     *
+     * @param quantiles quantiles to estimate, each from 0 to 1, in ascending order
+     * @return estimated value at each quantile, or 0 if no values have been added
+     * @throws IllegalArgumentException if a quantile is &lt; 0 or &gt; 1, or the quantiles are
+     * not in ascending order
+     */
+    public long[] getQuantiles(double... quantiles) {
+        long[] values = new long[quantiles.length];
+        double previous = 0;
+        for (double quantile : quantiles) {
+            if (quantile < previous || quantile > 1) {
+                throw new IllegalArgumentException("Quantiles must be ascending, from 0 to 1");
+            }
+            previous = quantile;
+        }
+        if (count == 0) {
+            return values;
+        }
+        int next = 0;
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length && next < quantiles.length; bucket++) {
+            seen += counts[bucket];
+            // the rank of a quantile is the position of its value among the sorted values
+            while (next < quantiles.length
+                    && seen >= rankOf(quantiles[next])) {
+                // the largest value is known exactly, so needs no estimate
+                values[next] = rankOf(quantiles[next]) == count
+                        ? max : Math.min(max, representativeOf(bucket));
+                next++;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns the machine-readable string representation of this sketch.
+     * <p>
+     * The format is {@code count:max:buckets}, where {@code buckets} is a comma-separated list
+     * of {@code bucket=count} for each non-empty bucket, in ascending order of bucket. For
+     * example, a sketch of the values 3, 3 and 70 is encoded as {@code 3:70:3=2,67=1}.
+     *
+     * @return encoded sketch
+     */
+    @Override
+    public String encode() {
+        StringJoiner buckets = new StringJoiner(",");
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                buckets.add(i + "=" + counts[i]);
+            }
+        }
+        return count + ":" + max + ":" + buckets;
+    }
+
+    /**
+     * Reads a sketch from the string representation returned by {@link #encode()}.
+     *
+     * @param encoded encoded sketch
+     * @return decoded sketch
+     * @throws MalformedSaveException if the encoded sketch is invalid, or its bucket counts do
+     * not add up to its count
+     */
+    public static QuantileSketch decode(String encoded) throws MalformedSaveException {
+        String[] parts = encoded.split(":", -1);
+        if (parts.length != 3) {
+            throw new MalformedSaveException("Invalid quantile sketch: " + encoded);
+        }
+        QuantileSketch sketch = new QuantileSketch();
+        try {
+            sketch.count = Long.parseLong(parts[0]);
+            sketch.max = Long.parseLong(parts[1]);
+            long total = 0;
+            if (!parts[2].isEmpty()) {
+                for (String bucket : parts[2].split(",", -1)) {
+                    String[] pair = bucket.split("=", -1);
+                    if (pair.length != 2) {
+                        throw new MalformedSaveException("Invalid quantile sketch: " + encoded);
+                    }
+                    int index = Integer.parseInt(pair[0]);
+                    long bucketCount = Long.parseLong(pair[1]);
+                    if (index < 0 || index > bucketOf(Long.MAX_VALUE) || bucketCount < 1
+                            || index < sketch.counts.length) {
+                        throw new MalformedSaveException("Invalid quantile sketch: " + encoded);
+                    }
+                    sketch.counts = Arrays.copyOf(sketch.counts, index + 1);
+                    sketch.counts[index] = bucketCount;
+                    total += bucketCount;
+                }
+            }
+            if (total != sketch.count || sketch.max < 0
+                    || (sketch.count > 0 && bucketOf(sketch.max) != sketch.counts.length - 1)) {
+                throw new MalformedSaveException("Invalid quantile sketch: " + encoded);
+            }
+        } catch (NumberFormatException e) {
+            throw new MalformedSaveException("Invalid quantile sketch: " + encoded, e);
+        }
+        return sketch;
+    }
+
+    /* Returns the position of the given quantile among the sorted values, from 1 to count */
+    private long rankOf(double quantile) {
+        return Math.max(1, (long) Math.ceil(quantile * count));
+    }
+
+    /* Returns the bucket counting the given value */
+    private static int bucketOf(long value) {
+        if (value < EXACT_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return EXACT_LIMIT + (exponent - EXACT_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    /* Returns the value reported for values counted in the given bucket; its midpoint */
+    private static long representativeOf(int bucket) {
+        if (bucket < EXACT_LIMIT) {
+            return bucket;
+        }
+        int exponent = (bucket - EXACT_LIMIT) / SUB_BUCKETS + EXACT_BITS;
+        long subBucket = (bucket - EXACT_LIMIT) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lowest = (SUB_BUCKETS + subBucket) * width;
+        return lowest + (width - 1) / 2;
+    }
+}
@@ -0,0 +1,177 @@
+package towersim.stats;
+
+/**
+ * A single measurement of a control tower, sampled once per tick and kept at several
+ * resolutions in fixed-size rings.
+ * <p>
+ * Every sample is kept at {@link Resolution#RAW} resolution. Every ten consecutive samples are
+ * also averaged into one {@link Resolution#TEN_TICKS} point, and every ten of those into one
+ * {@link Resolution#HUNDRED_TICKS} point. Each resolution holds at most the same number of
+ * points, overwriting its oldest point once full, so a series never grows however long it is
+ * recorded for, while the coarser resolutions cover ten and a hundred times as many ticks.
+ */
+public class TimeSeries {
+
+    /**
+     * Resolution at which the points of a series are kept.
+     */
+    public enum Resolution {
+        /** One point per tick */
+        RAW(1),
+        /** One point per ten ticks, averaging the samples of those ticks */
+        TEN_TICKS(10),
+        /** One point per hundred ticks, averaging the samples of those ticks */
+        HUNDRED_TICKS(100);
+
+        /** Number of ticks each point covers */
+        public final int ticksPerPoint;
+
+        Resolution(int ticksPerPoint) {
+            this.ticksPerPoint = ticksPerPoint;
+        }
+    }
+
+    /** Number of points of a resolution averaged into one point of the next resolution */
+    private static final int DOWNSAMPLE_FACTOR = 10;
+
+    /** Name of the measurement */
+    private final String name;
+
+    /** Tick of the first sample */
+    private final long firstTick;
+
+    /** Points at each resolution, indexed by resolution ordinal */
+    private final Ring[] rings;
+
+    /** Fixed-size ring of the most recent points at one resolution */
+    private static final class Ring {
+
+        /** Points, overwritten in order once full */
+        private final double[] points;
+
+        /** Number of points ever added */
+        private long added;
+
+        /** Sum of the points added since the last point was passed to the next resolution */
+        private double pendingSum;
+
+        /** Creates an empty ring holding the given number of points */
+        private Ring(int capacity) {
+            this.points = new double[capacity];
+        }
+
+        /* Adds a point, overwriting the oldest point if full */
+        private void add(double point) {
+            points[(int) (added % points.length)] = point;
+            added++;
+        }
+
+        /* Returns the number of points currently held */
+        private int size() {
+            return (int) Math.min(added, points.length);
+        }
+    }
+
+    /**
+     * Creates a new series with no samples, which keeps at most the given number of points at
+     * each resolution.
+     *
+     * @param name name of the measurement
+     * @param firstTick tick of the first sample that will be added
+     * @param capacity maximum number of points kept at each resolution
+     * @throws IllegalArgumentException if capacity &lt; 1
+     */
+    public TimeSeries(String name, long firstTick, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.name = name;
+        this.firstTick = firstTick;
+        this.rings = new Ring[Resolution.values().length];
+        for (int i = 0; i < rings.length; i++) {
+            rings[i] = new Ring(capacity);
+        }
+    }
+
+    /**
+     * Adds the sample of the next tick, and the averages of any groups of points it completes at
+     * coarser resolutions.
+     *
+     * @param sample value measured at the next tick
+     */
+    public void add(double sample) {
+        double point = sample;
+        for (int i = 0; i < rings.length; i++) {
+            Ring ring = rings[i];
+            ring.add(point);
+            if (i + 1 == rings.length) {
+                break;
+            }
+            ring.pendingSum += point;
+            if (ring.added % DOWNSAMPLE_FACTOR != 0) {
+                break;
+            }
+            point = ring.pendingSum / DOWNSAMPLE_FACTOR;
+            ring.pendingSum = 0;
+        }
+    }
+
+    /**
+     * Returns the name of the measurement.
+     *
+     * @return name of series
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the tick after the last sample added; that is, the tick of the next sample.
+     *
+     * @return tick of next sample
+     */
+    public long getEndTick() {
+        return firstTick + rings[0].added;
+    }
+
+    /**
+     * Returns the number of points currently kept at the given resolution.
+     *
+     * @param resolution resolution of points
+     * @return number of points
+     */
+    public int size(Resolution resolution) {
+        return rings[resolution.ordinal()].size();
+    }
+
+    /**
+     * Returns the first tick covered by the oldest point kept at the given resolution. Each
+     * later point covers the {@code resolution.ticksPerPoint} ticks after the one before it.
+     *
+     * @param resolution resolution of points
+     * @return first tick of the oldest point
+     */
+    public long getStartTick(Resolution resolution) {
+        Ring ring = rings[resolution.ordinal()];
+        return firstTick + (ring.added - ring.size()) * resolution.ticksPerPoint;
+    }
+
+    /**
+     * Returns the points currently kept at the given resolution, oldest first.
+     * <p>
+     * Changing the returned array does not affect the series.
+     *
+     * @param resolution resolution of points
+     * @return copy of points
+     */
+    public double[] getPoints(Resolution resolution) {
+        Ring ring = rings[resolution.ordinal()];
+        int size = ring.size();
+        double[] copy = new double[size];
+        int oldest = (int) ((ring.added - size) % ring.points.length);
+        int firstPart = Math.min(size, ring.points.length - oldest);
+        System.arraycopy(ring.points, oldest, copy, 0, firstPart);
+        System.arraycopy(ring.points, 0, copy, firstPart, size - firstPart);
+        return copy;
+    }
+}
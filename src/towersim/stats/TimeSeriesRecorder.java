@@ -0,0 +1,201 @@
+package towersim.stats;
+
+import towersim.aircraft.Aircraft;
+import towersim.control.ControlTower;
+import towersim.control.TickListener;
+import towersim.ground.Terminal;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Records trends of a control tower by sampling it at the end of every tick into a fixed-size
+ * {@link TimeSeries} per measurement.
+ * <p>
+ * The lengths of the landing and takeoff queues, the number of loading aircraft, the number of
+ * aircraft in a state of emergency, the number of aircraft waiting to land with low fuel, and the
+ * gate occupancy of each terminal are recorded. A series that is not sampled on a tick, such as
+ * that of a terminal that has been removed, is dropped. Since every series is fixed-size, the
+ * memory used by a recorder is bounded by the number of terminals the tower has at once, however
+ * long the tower runs.
+ * <p>
+ * A recorder must only be used on the thread that ticks the tower it records.
+ */
+public class TimeSeriesRecorder implements TickListener {
+
+    /** Number of points kept at each resolution of each series, unless otherwise given */
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    /** Fuel percentage at or below which an aircraft waiting to land has low fuel */
+    private static final int LOW_FUEL_PERCENT = 20;
+
+    /** Identifies the binary export format */
+    private static final int BINARY_MAGIC = 0x54535231;
+
+    /** Number of points kept at each resolution of each series */
+    private final int capacity;
+
+    /** Series of each measurement, by name, in the order first recorded */
+    private final Map<String, TimeSeries> series = new LinkedHashMap<>();
+
+    /**
+     * Creates a new recorder keeping {@value #DEFAULT_CAPACITY} points at each resolution.
+     */
+    public TimeSeriesRecorder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new recorder keeping the given number of points at each resolution.
+     *
+     * @param capacity number of points kept at each resolution of each series
+     * @throws IllegalArgumentException if capacity &lt; 1
+     */
+    public TimeSeriesRecorder(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Samples every measurement of the tower that just ticked, and drops every series that has
+     * no measurement on this tick.
+     *
+     * @param tower tower that ticked
+     */
+    @Override
+    public void onTick(ControlTower tower) {
+        long tick = tower.getTicksElapsed();
+        List<Aircraft> landing = tower.getLandingQueue().getAircraftInOrder();
+        int lowFuel = 0;
+        for (Aircraft aircraft : landing) {
+            if (aircraft.getFuelPercentRemaining() <= LOW_FUEL_PERCENT) {
+                lowFuel++;
+            }
+        }
+        record("Landing queue", tick, landing.size());
+        record("Takeoff queue", tick, tower.getTakeoffQueue().getAircraftInOrder().size());
+        record("Loading", tick, tower.getNumLoadingAircraft());
+        record("Emergencies", tick, tower.getAircraftWithEmergency().size());
+        record("Low fuel landing", tick, lowFuel);
+        for (Terminal terminal : tower.getTerminals()) {
+            record(terminal.getClass().getSimpleName() + " " + terminal.getTerminalNumber()
+                    + " occupancy (%)", tick, terminal.calculateOccupancyLevel());
+        }
+        series.values().removeIf(timeSeries -> timeSeries.getEndTick() != tick + 1);
+    }
+
+    /* Adds a sample to the named series, starting the series over if it missed any ticks */
+    private void record(String name, long tick, double sample) {
+        TimeSeries existing = series.get(name);
+        if (existing == null || existing.getEndTick() != tick) {
+            existing = new TimeSeries(name, tick, capacity);
+            series.put(name, existing);
+        }
+        existing.add(sample);
+    }
+
+    /**
+     * Returns every series sampled on the last tick recorded, in the order each was first
+     * recorded.
+     * <p>
+     * Adding or removing elements from the returned list does not affect the recorder.
+     *
+     * @return all series
+     */
+    public List<TimeSeries> getSeries() {
+        return new ArrayList<>(series.values());
+    }
+
+    /**
+     * Writes every series at the given resolution as comma-separated values.
+     * <p>
+     * The first line is a header of {@code tick} followed by the name of each series. Each
+     * following line gives the first tick covered by a point, followed by the point of each
+     * series at that tick; a series with no point at that tick has an empty value. Lines are in
+     * order of tick.
+     *
+     * @param writer writer to write to; not closed
+     * @param resolution resolution of points to write
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeCsv(Writer writer, TimeSeries.Resolution resolution) throws IOException {
+        List<TimeSeries> all = getSeries();
+        NavigableMap<Long, double[]> rows = new TreeMap<>();
+        for (int column = 0; column < all.size(); column++) {
+            TimeSeries timeSeries = all.get(column);
+            double[] points = timeSeries.getPoints(resolution);
+            long tick = timeSeries.getStartTick(resolution);
+            for (double point : points) {
+                double[] row = rows.computeIfAbsent(tick, unused -> {
+                    double[] empty = new double[all.size()];
+                    Arrays.fill(empty, Double.NaN);
+                    return empty;
+                });
+                row[column] = point;
+                tick += resolution.ticksPerPoint;
+            }
+        }
+
+        StringBuilder line = new StringBuilder("tick");
+        for (TimeSeries timeSeries : all) {
+            line.append(',').append(timeSeries.getName());
+        }
+        writer.write(line.append(System.lineSeparator()).toString());
+        for (Map.Entry<Long, double[]> row : rows.entrySet()) {
+            line.setLength(0);
+            line.append(row.getKey());
+            for (double point : row.getValue()) {
+                line.append(',');
+                if (!Double.isNaN(point)) {
+                    line.append(point);
+                }
+            }
+            writer.write(line.append(System.lineSeparator()).toString());
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes every series at every resolution in a compact binary form.
+     * <p>
+     * The output is written as by {@link DataOutputStream}: the int {@code 0x54535231}, the
+     * number of series as an int, then for each series its name (in modified UTF-8), followed
+     * for each resolution from finest to coarsest by the ticks per point as an int, the first
+     * tick of the oldest point as a long, the number of points as an int, and then each point,
+     * oldest first, as a double.
+     *
+     * @param out stream to write to; not closed
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeBinary(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        List<TimeSeries> all = getSeries();
+        data.writeInt(BINARY_MAGIC);
+        data.writeInt(all.size());
+        for (TimeSeries timeSeries : all) {
+            data.writeUTF(timeSeries.getName());
+            for (TimeSeries.Resolution resolution : TimeSeries.Resolution.values()) {
+                double[] points = timeSeries.getPoints(resolution);
+                data.writeInt(resolution.ticksPerPoint);
+                data.writeLong(timeSeries.getStartTick(resolution));
+                data.writeInt(points.length);
+                for (double point : points) {
+                    data.writeDouble(point);
+                }
+            }
+        }
+        data.flush();
+    }
+}
@@ -0,0 +1,373 @@
+package towersim.stats;
+
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.FreightAircraft;
+import towersim.util.Encodable;
+import towersim.util.MalformedSaveException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * How long aircraft have waited to land, waited to take off and stayed parked at a gate.
+ * <p>
+ * A control tower stamps an aircraft with the tick it starts each of these phases, and when the
+ * aircraft finishes the phase, the number of ticks since its stamp is added to a
+ * {@link QuantileSketch} for the phase, the aircraft's characteristics and whether it carries
+ * passengers or freight. Waits can be summarised for a phase overall, by characteristics or by
+ * cargo, and the memory used does not grow with the number of waits recorded.
+ * <p>
+ * Wait times must only be used on the thread that ticks the tower they belong to.
+ */
+public class WaitTimes implements Encodable {
+
+    /**
+     * Phase of an aircraft's operations that is timed.
+     */
+    public enum Phase {
+        /** From joining the landing queue to landing */
+        LANDING,
+        /** From joining the takeoff queue to taking off */
+        TAKEOFF,
+        /** From parking at a gate to leaving it */
+        GATE_DWELL
+    }
+
+    /**
+     * What an aircraft carries.
+     */
+    public enum Cargo {
+        /** Carries passengers */
+        PASSENGER,
+        /** Carries freight */
+        FREIGHT;
+
+        /**
+         * Returns what the given aircraft carries.
+         *
+         * @param aircraft aircraft to check
+         * @return FREIGHT for freight aircraft; PASSENGER otherwise
+         */
+        public static Cargo of(Aircraft aircraft) {
+            return aircraft instanceof FreightAircraft ? FREIGHT : PASSENGER;
+        }
+    }
+
+    /** Prefix of the line starting the recorded waits, followed by the number of sketches */
+    private static final String WAITS_HEADER = "Waits:";
+
+    /** Prefix of the line starting the phases in progress, followed by the number of stamps */
+    private static final String STARTED_HEADER = "Started:";
+
+    /** Tick each aircraft started each phase it is in, by phase; aircraft by reference */
+    private final Map<Phase, Map<Aircraft, Long>> started = new EnumMap<>(Phase.class);
+
+    /** Waits recorded for each phase, by characteristics, then indexed by cargo ordinal */
+    private final Map<Phase, Map<AircraftCharacteristics, QuantileSketch[]>> waits =
+            new EnumMap<>(Phase.class);
+
+    /**
+     * Creates a new record of wait times, with no waits recorded and no phases in progress.
+     */
+    public WaitTimes() {
+        for (Phase phase : Phase.values()) {
+            started.put(phase, new IdentityHashMap<>());
+            waits.put(phase, new EnumMap<>(AircraftCharacteristics.class));
+        }
+    }
+
+    /**
+     * Stamps the given aircraft as starting the given phase at the given tick, unless it has
+     * already started that phase.
+     *
+     * @param phase phase started
+     * @param aircraft aircraft starting the phase
+     * @param tick ticks elapsed when the phase started
+     */
+    public void start(Phase phase, Aircraft aircraft, long tick) {
+        started.get(phase).putIfAbsent(aircraft, tick);
+    }
+
+    /**
+     * Records the wait of the given aircraft that has finished the given phase at the given
+     * tick, and clears its stamp. If the aircraft was not stamped as starting the phase, no
+     * action is taken.
+     *
+     * @param phase phase finished
+     * @param aircraft aircraft finishing the phase
+     * @param tick ticks elapsed when the phase finished
+     */
+    public void finish(Phase phase, Aircraft aircraft, long tick) {
+        Long startTick = started.get(phase).remove(aircraft);
+        if (startTick != null) {
+            sketchOf(phase, aircraft.getCharacteristics(), Cargo.of(aircraft))
+                    .add(Math.max(0, tick - startTick));
+        }
+    }
+
+    /**
+     * Returns the waits recorded for the given phase, for all aircraft.
+     * <p>
+     * Changing the returned sketch does not affect these wait times.
+     *
+     * @param phase phase of waits
+     * @return sketch of waits, in ticks
+     */
+    public QuantileSketch getWaits(Phase phase) {
+        QuantileSketch merged = new QuantileSketch();
+        for (QuantileSketch[] byCargo : waits.get(phase).values()) {
+            mergeAll(merged, byCargo);
+        }
+        return merged;
+    }
+
+    /**
+     * Returns the waits recorded for the given phase, for aircraft with the given
+     * characteristics.
+     * <p>
+     * Changing the returned sketch does not affect these wait times.
+     *
+     * @param phase phase of waits
+     * @param characteristics characteristics of aircraft
+     * @return sketch of waits, in ticks
+     */
+    public QuantileSketch getWaits(Phase phase, AircraftCharacteristics characteristics) {
+        QuantileSketch merged = new QuantileSketch();
+        QuantileSketch[] byCargo = waits.get(phase).get(characteristics);
+        if (byCargo != null) {
+            mergeAll(merged, byCargo);
+        }
+        return merged;
+    }
+
+    /**
+     * Returns the waits recorded for the given phase, for aircraft carrying the given cargo.
+     * <p>
+     * Changing the returned sketch does not affect these wait times.
+     *
+     * @param phase phase of waits
+     * @param cargo what aircraft carry
+     * @return sketch of waits, in ticks
+     */
+    public QuantileSketch getWaits(Phase phase, Cargo cargo) {
+        QuantileSketch merged = new QuantileSketch();
+        for (QuantileSketch[] byCargo : waits.get(phase).values()) {
+            if (byCargo[cargo.ordinal()] != null) {
+                merged.merge(byCargo[cargo.ordinal()]);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Returns the characteristics of aircraft for which waits have been recorded in the given
+     * phase, in declaration order.
+     *
+     * @param phase phase of waits
+     * @return characteristics with recorded waits
+     */
+    public List<AircraftCharacteristics> getCharacteristicsWithWaits(Phase phase) {
+        return List.copyOf(waits.get(phase).keySet());
+    }
+
+    /**
+     * Returns a copy of these wait times, in which each stamped aircraft is replaced by its
+     * copy as given by the function.
+     *
+     * @param aircraftCopies returns the copy of each aircraft
+     * @return copy of wait times
+     */
+    public WaitTimes copy(UnaryOperator<Aircraft> aircraftCopies) {
+        WaitTimes copy = new WaitTimes();
+        for (Phase phase : Phase.values()) {
+            for (Map.Entry<Aircraft, Long> stamp : started.get(phase).entrySet()) {
+                copy.started.get(phase).put(aircraftCopies.apply(stamp.getKey()),
+                        stamp.getValue());
+            }
+            for (Map.Entry<AircraftCharacteristics, QuantileSketch[]> entry
+                    : waits.get(phase).entrySet()) {
+                for (Cargo cargo : Cargo.values()) {
+                    QuantileSketch sketch = entry.getValue()[cargo.ordinal()];
+                    if (sketch != null) {
+                        copy.sketchOf(phase, entry.getKey(), cargo).merge(sketch);
+                    }
+                }
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the machine-readable string representation of these wait times.
+     * <p>
+     * The first line is {@code Waits:n}, followed by a line for each of the n sketches of
+     * recorded waits, in the format {@code phase:model:cargo:sketch}, where {@code sketch} is as
+     * encoded by {@link QuantileSketch#encode()}. The next line is {@code Started:m}, followed by
+     * a line for each of the m aircraft part way through a phase, in the format
+     * {@code phase:callsign:model:tick}.
+     *
+     * @return encoded wait times
+     */
+    @Override
+    public String encode() {
+        List<String> sketches = new ArrayList<>();
+        for (Phase phase : Phase.values()) {
+            for (Map.Entry<AircraftCharacteristics, QuantileSketch[]> entry
+                    : waits.get(phase).entrySet()) {
+                for (Cargo cargo : Cargo.values()) {
+                    QuantileSketch sketch = entry.getValue()[cargo.ordinal()];
+                    if (sketch != null) {
+                        sketches.add(phase + ":" + entry.getKey() + ":" + cargo + ":"
+                                + sketch.encode());
+                    }
+                }
+            }
+        }
+        List<String> stamps = new ArrayList<>();
+        for (Phase phase : Phase.values()) {
+            List<String> phaseStamps = new ArrayList<>();
+            for (Map.Entry<Aircraft, Long> stamp : started.get(phase).entrySet()) {
+                phaseStamps.add(phase + ":" + stamp.getKey().getCallsign() + ":"
+                        + stamp.getKey().getCharacteristics() + ":" + stamp.getValue());
+            }
+            // stamps are kept by identity, in no particular order
+            Collections.sort(phaseStamps);
+            stamps.addAll(phaseStamps);
+        }
+        StringJoiner encoded = new StringJoiner(System.lineSeparator());
+        encoded.add(WAITS_HEADER + sketches.size());
+        sketches.forEach(encoded::add);
+        encoded.add(STARTED_HEADER + stamps.size());
+        stamps.forEach(encoded::add);
+        return encoded.toString();
+    }
+
+    /**
+     * Replaces the recorded waits with those in the given string representation, as returned by
+     * {@link #encode()}, and stamps the given aircraft as they were stamped when it was encoded.
+     * <p>
+     * Stamps of aircraft that are not among the given aircraft, found by callsign and model, are
+     * ignored. Aircraft that are given but were not stamped when encoded keep any stamps they
+     * already have.
+     *
+     * @param encoded encoded wait times
+     * @param aircraft aircraft that may have been stamped
+     * @throws MalformedSaveException if the encoded wait times are invalid
+     */
+    public void load(String encoded, Collection<Aircraft> aircraft)
+            throws MalformedSaveException {
+        List<String> lines = encoded.lines().collect(Collectors.toList());
+        int sketchCount = count(lines, 0, WAITS_HEADER);
+        int stampsLine = sketchCount + 1;
+        int stampCount = count(lines, stampsLine, STARTED_HEADER);
+        if (lines.size() != stampsLine + 1 + stampCount) {
+            throw new MalformedSaveException("Incorrect number of lines in wait times");
+        }
+
+        Map<Phase, Map<AircraftCharacteristics, QuantileSketch[]>> loaded =
+                new EnumMap<>(Phase.class);
+        for (Phase phase : Phase.values()) {
+            loaded.put(phase, new EnumMap<>(AircraftCharacteristics.class));
+        }
+        for (String line : lines.subList(1, stampsLine)) {
+            String[] parts = line.split(":", 4);
+            if (parts.length != 4) {
+                throw new MalformedSaveException("Invalid wait times: " + line);
+            }
+            QuantileSketch[] byCargo = loaded.get(valueOf(Phase.class, parts[0]))
+                    .computeIfAbsent(valueOf(AircraftCharacteristics.class, parts[1]),
+                            unused -> new QuantileSketch[Cargo.values().length]);
+            int cargo = valueOf(Cargo.class, parts[2]).ordinal();
+            if (byCargo[cargo] != null) {
+                throw new MalformedSaveException("Duplicate wait times: " + line);
+            }
+            byCargo[cargo] = QuantileSketch.decode(parts[3]);
+        }
+
+        Map<String, Aircraft> byKey = new HashMap<>();
+        for (Aircraft managed : aircraft) {
+            byKey.put(managed.getCallsign() + ":" + managed.getCharacteristics(), managed);
+        }
+        Map<Phase, Map<Aircraft, Long>> stamps = new EnumMap<>(Phase.class);
+        for (String line : lines.subList(stampsLine + 1, lines.size())) {
+            String[] parts = line.split(":", -1);
+            if (parts.length != 4) {
+                throw new MalformedSaveException("Invalid wait times: " + line);
+            }
+            Phase phase = valueOf(Phase.class, parts[0]);
+            long tick;
+            try {
+                tick = Long.parseLong(parts[3]);
+            } catch (NumberFormatException e) {
+                throw new MalformedSaveException("Invalid wait times: " + line, e);
+            }
+            Aircraft stamped = byKey.get(parts[1] + ":" + parts[2]);
+            if (stamped != null) {
+                stamps.computeIfAbsent(phase, unused -> new IdentityHashMap<>())
+                        .put(stamped, tick);
+            }
+        }
+
+        waits.putAll(loaded);
+        for (Map.Entry<Phase, Map<Aircraft, Long>> entry : stamps.entrySet()) {
+            started.get(entry.getKey()).putAll(entry.getValue());
+        }
+    }
+
+    /* Returns the count following the given header on the given line */
+    private static int count(List<String> lines, int index, String header)
+            throws MalformedSaveException {
+        if (index >= lines.size() || !lines.get(index).startsWith(header)) {
+            throw new MalformedSaveException("Expected " + header + " in wait times");
+        }
+        try {
+            int count = Integer.parseInt(lines.get(index).substring(header.length()));
+            if (count < 0) {
+                throw new MalformedSaveException("Negative count in wait times");
+            }
+            return count;
+        } catch (NumberFormatException e) {
+            throw new MalformedSaveException("Invalid count in wait times", e);
+        }
+    }
+
+    /* Returns the constant of the given enum with the given name */
+    private static <E extends Enum<E>> E valueOf(Class<E> type, String name)
+            throws MalformedSaveException {
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            throw new MalformedSaveException("Invalid " + type.getSimpleName() + ": " + name, e);
+        }
+    }
+
+    /* Returns the sketch for the given phase, characteristics and cargo, creating it if needed */
+    private QuantileSketch sketchOf(Phase phase, AircraftCharacteristics characteristics,
+            Cargo cargo) {
+        QuantileSketch[] byCargo = waits.get(phase).computeIfAbsent(characteristics,
+                unused -> new QuantileSketch[Cargo.values().length]);
+        if (byCargo[cargo.ordinal()] == null) {
+            byCargo[cargo.ordinal()] = new QuantileSketch();
+        }
+        return byCargo[cargo.ordinal()];
+    }
+
+    /* Merges every sketch in the given array that exists into the target */
+    private static void mergeAll(QuantileSketch target, QuantileSketch[] sketches) {
+        for (QuantileSketch sketch : sketches) {
+            if (sketch != null) {
+                target.merge(sketch);
+            }
+        }
+    }
+}
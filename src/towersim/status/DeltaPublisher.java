@@ -0,0 +1,324 @@
+package towersim.status;
+
+import towersim.aircraft.Aircraft;
+import towersim.control.ControlTower;
+import towersim.control.TickListener;
+import towersim.ground.Gate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes a {@link TowerDelta} of a control tower at the end of every tick to any number of
+ * {@link Flow.Subscriber subscribers}, so consumers can follow the tower without copying and
+ * diffing its aircraft themselves.
+ * <p>
+ * The first delta each subscriber receives is full. Every later delta holds only what changed
+ * over one tick, unless the subscriber falls behind: each subscriber has a backlog of at most a
+ * fixed number of deltas it has not yet requested, and once its backlog is full, the backlog is
+ * replaced by a single full delta of the latest state. A slow subscriber therefore skips to the
+ * latest state rather than holding up the tick, or other subscribers, or using unbounded memory.
+ * <p>
+ * Deltas are delivered on the given executor, never on the thread that ticks the tower, and are
+ * only computed while there is at least one subscriber.
+ */
+public class DeltaPublisher implements TickListener, Flow.Publisher<TowerDelta> {
+
+    /** Number of deltas held for each subscriber, unless otherwise given */
+    public static final int DEFAULT_BACKLOG = 16;
+
+    /** Tower whose deltas are published */
+    private final ControlTower tower;
+
+    /** Executor delivering deltas to subscribers */
+    private final Executor executor;
+
+    /** Number of deltas held for each subscriber before its backlog is replaced */
+    private final int backlog;
+
+    /** Subscriptions that have not been cancelled or completed */
+    private final List<DeltaSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /** State of each aircraft when the last delta was published; used only when ticking */
+    private Map<Aircraft, TowerDelta.AircraftState> states = new IdentityHashMap<>();
+
+    /** Whether the publisher has been closed */
+    private volatile boolean closed = false;
+
+    /* Creates a new publisher that is not yet registered with the tower */
+    private DeltaPublisher(ControlTower tower, Executor executor, int backlog) {
+        this.tower = tower;
+        this.executor = executor;
+        this.backlog = backlog;
+    }
+
+    /**
+     * Returns a new publisher delivering on the common fork-join pool and holding at most
+     * {@value #DEFAULT_BACKLOG} deltas for each subscriber, registered to publish at the end of
+     * each tick of the given tower.
+     *
+     * @param tower tower to publish
+     * @return publisher of the tower
+     */
+    public static DeltaPublisher start(ControlTower tower) {
+        return start(tower, ForkJoinPool.commonPool(), DEFAULT_BACKLOG);
+    }
+
+    /**
+     * Returns a new publisher registered to publish at the end of each tick of the given tower.
+     *
+     * @param tower tower to publish
+     * @param executor executor delivering deltas to subscribers
+     * @param backlog number of deltas held for each subscriber before its backlog is replaced by
+     *                a full delta
+     * @return publisher of the tower
+     * @throws IllegalArgumentException if backlog &lt; 1
+     */
+    public static DeltaPublisher start(ControlTower tower, Executor executor, int backlog) {
+        if (backlog < 1) {
+            throw new IllegalArgumentException("Backlog must be at least 1");
+        }
+        DeltaPublisher publisher = new DeltaPublisher(tower, executor, backlog);
+        tower.addTickListener(publisher);
+        return publisher;
+    }
+
+    /**
+     * Subscribes the given subscriber to the deltas published from the next tick onwards. May be
+     * called from any thread.
+     * <p>
+     * If the publisher has been closed, the subscriber is completed without any deltas.
+     *
+     * @param subscriber subscriber to receive deltas
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super TowerDelta> subscriber) {
+        DeltaSubscription subscription = new DeltaSubscription(
+                Objects.requireNonNull(subscriber));
+        subscriptions.add(subscription);
+        if (closed) {
+            subscription.complete();
+        }
+        subscription.schedule();
+    }
+
+    /**
+     * Computes what changed over the tick that just ended and offers it to every subscriber.
+     *
+     * @param tower tower that ticked
+     */
+    @Override
+    public void onTick(ControlTower tower) {
+        if (subscriptions.isEmpty()) {
+            // without subscribers there is nothing to diff against
+            if (!states.isEmpty()) {
+                states = new IdentityHashMap<>();
+            }
+            return;
+        }
+        Map<Aircraft, Gate> gates = tower.getParkedAircraftGates();
+        QueuePositions queues = QueuePositions.of(tower);
+
+        List<Aircraft> managed = tower.getAircraft();
+        Map<Aircraft, TowerDelta.AircraftState> current = new IdentityHashMap<>(managed.size());
+        List<TowerDelta.AircraftState> all = new ArrayList<>(managed.size());
+        List<TowerDelta.AircraftState> changed = new ArrayList<>();
+        for (Aircraft aircraft : managed) {
+            TowerDelta.AircraftState state = new TowerDelta.AircraftState(
+                    aircraft.getCallsign(), aircraft.getTaskList().getCurrentTask().getType(),
+                    aircraft.getFuelPercentRemaining(), aircraft.calculateOccupancyLevel(),
+                    gateNumberOf(gates.get(aircraft)), queues.queueOf(aircraft),
+                    queues.positionOf(aircraft));
+            current.put(aircraft, state);
+            all.add(state);
+            if (!state.equals(states.remove(aircraft))) {
+                changed.add(state);
+            }
+        }
+        // aircraft left over were not managed by the tower at the end of this tick
+        List<String> removed = new ArrayList<>(states.size());
+        for (Aircraft gone : states.keySet()) {
+            removed.add(gone.getCallsign());
+        }
+        states = current;
+
+        long ticksElapsed = tower.getTicksElapsed();
+        TowerDelta delta = new TowerDelta(ticksElapsed, false, changed, removed);
+        TowerDelta full = null;
+        for (DeltaSubscription subscription : subscriptions) {
+            if (!subscription.offer(delta)) {
+                if (full == null) {
+                    full = new TowerDelta(ticksElapsed, true, all, List.of());
+                }
+                subscription.resync(full);
+            }
+            subscription.schedule();
+        }
+    }
+
+    /* Returns the number of the given gate, or -1 if there is none */
+    private static int gateNumberOf(Gate gate) {
+        return gate == null ? -1 : gate.getGateNumber();
+    }
+
+    /**
+     * Stops publishing deltas. Every subscriber is completed once it has received the deltas
+     * already held for it. May be called from any thread.
+     */
+    public void close() {
+        closed = true;
+        tower.removeTickListener(this);
+        for (DeltaSubscription subscription : subscriptions) {
+            subscription.complete();
+            subscription.schedule();
+        }
+    }
+
+    /** Subscription holding the backlog of one subscriber and delivering it on the executor */
+    private final class DeltaSubscription implements Flow.Subscription {
+
+        /** Subscriber receiving deltas */
+        private final Flow.Subscriber<? super TowerDelta> subscriber;
+
+        /** Deltas offered but not yet delivered, oldest first; guarded by this */
+        private final Queue<TowerDelta> pending = new ArrayDeque<>();
+
+        /** Whether the next delta offered must be replaced by a full delta; guarded by this */
+        private boolean needsFull = true;
+
+        /** Number of deltas requested but not yet delivered */
+        private final AtomicLong requested = new AtomicLong();
+
+        /** Number of times delivery was scheduled while it was already scheduled or running */
+        private final AtomicInteger scheduled = new AtomicInteger();
+
+        /** Whether the subscriber has been told of its subscription; used only when delivering */
+        private boolean subscribed = false;
+
+        /** Error caused by a request that breaks the rules of a subscription, if any */
+        private volatile IllegalArgumentException badRequest;
+
+        /** Whether the subscriber is completed once every pending delta is delivered */
+        private volatile boolean completed = false;
+
+        /** Whether no more signals may be sent to the subscriber */
+        private volatile boolean cancelled = false;
+
+        /* Creates a new subscription for the given subscriber */
+        private DeltaSubscription(Flow.Subscriber<? super TowerDelta> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        /**
+         * Adds the given number of deltas to the number requested by the subscriber.
+         *
+         * @param n number of deltas to add to the request
+         */
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                badRequest = new IllegalArgumentException("Requested " + n + " deltas; "
+                        + "must request a positive number");
+            } else {
+                // saturates at Long.MAX_VALUE, which requests every delta from now on
+                requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            schedule();
+        }
+
+        /**
+         * Stops delivering deltas to the subscriber and drops any held for it.
+         */
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            synchronized (this) {
+                pending.clear();
+            }
+        }
+
+        /* Adds the given delta to the backlog; false if the backlog must be replaced instead */
+        private synchronized boolean offer(TowerDelta delta) {
+            if (needsFull || pending.size() >= backlog) {
+                return false;
+            }
+            pending.add(delta);
+            return true;
+        }
+
+        /* Replaces the backlog with the given full delta */
+        private synchronized void resync(TowerDelta full) {
+            pending.clear();
+            pending.add(full);
+            needsFull = false;
+        }
+
+        /* Marks the subscription to complete once its backlog is delivered */
+        private void complete() {
+            completed = true;
+            subscriptions.remove(this);
+        }
+
+        /* Schedules delivery on the executor, unless it is already scheduled or running */
+        private void schedule() {
+            if (scheduled.getAndIncrement() == 0) {
+                executor.execute(this::deliver);
+            }
+        }
+
+        /* Sends the subscriber every signal due to it, until none are left */
+        private void deliver() {
+            int missed = 1;
+            do {
+                if (!subscribed) {
+                    subscribed = true;
+                    subscriber.onSubscribe(this);
+                }
+                while (!cancelled) {
+                    if (badRequest != null) {
+                        cancel();
+                        subscriber.onError(badRequest);
+                        break;
+                    }
+                    TowerDelta next = null;
+                    boolean drained;
+                    synchronized (this) {
+                        if (requested.get() > 0) {
+                            next = pending.poll();
+                        }
+                        drained = pending.isEmpty();
+                    }
+                    if (next == null) {
+                        if (completed && drained) {
+                            cancel();
+                            subscriber.onComplete();
+                        }
+                        break;
+                    }
+                    if (requested.get() != Long.MAX_VALUE) {
+                        requested.decrementAndGet();
+                    }
+                    try {
+                        subscriber.onNext(next);
+                    } catch (RuntimeException e) {
+                        // a subscriber that throws is treated as having cancelled
+                        cancel();
+                    }
+                }
+                missed = scheduled.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
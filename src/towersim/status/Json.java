@@ -0,0 +1,86 @@
+package towersim.status;
+
+import java.util.Collection;
+
+/**
+ * Helpers for writing JSON text.
+ * <p>
+ * Only the small subset of JSON needed by the status views is supported: objects are written by
+ * the callers themselves, using these helpers for names, strings and arrays of strings.
+ */
+final class Json {
+
+    private Json() {}
+
+    /**
+     * Appends the given string as a quoted JSON string, or {@code null} if it is null.
+     *
+     * @param out builder to append to
+     * @param value string to append
+     * @return the given builder
+     */
+    static StringBuilder string(StringBuilder out, String value) {
+        if (value == null) {
+            return out.append("null");
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        return out.append('"');
+    }
+
+    /**
+     * Appends an object member name and the following colon.
+     *
+     * @param out builder to append to
+     * @param name member name
+     * @return the given builder
+     */
+    static StringBuilder name(StringBuilder out, String name) {
+        return string(out, name).append(':');
+    }
+
+    /**
+     * Appends the given strings as a JSON array of strings.
+     *
+     * @param out builder to append to
+     * @param values strings to append
+     * @return the given builder
+     */
+    static StringBuilder strings(StringBuilder out, Collection<String> values) {
+        out.append('[');
+        boolean first = true;
+        for (String value : values) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            string(out, value);
+        }
+        return out.append(']');
+    }
+}
@@ -0,0 +1,76 @@
+package towersim.status;
+
+import towersim.aircraft.Aircraft;
+import towersim.control.ControlTower;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable record of the queue each aircraft of a control tower is waiting in, and its position
+ * in that queue, taken at one moment.
+ * <p>
+ * An aircraft waiting in both queues is reported as waiting in the landing queue.
+ */
+public final class QueuePositions {
+
+    /** Position of each aircraft waiting to land, from 0 at the front */
+    private final Map<Aircraft, Integer> landing;
+
+    /** Position of each aircraft waiting to take off, from 0 at the front */
+    private final Map<Aircraft, Integer> takeoff;
+
+    /* Creates a new record of the given queue positions */
+    private QueuePositions(Map<Aircraft, Integer> landing, Map<Aircraft, Integer> takeoff) {
+        this.landing = landing;
+        this.takeoff = takeoff;
+    }
+
+    /**
+     * Returns the queue positions of the aircraft of the given tower, as it is now.
+     *
+     * @param tower tower whose queues to read
+     * @return queue positions
+     */
+    public static QueuePositions of(ControlTower tower) {
+        return new QueuePositions(positions(tower.getLandingQueue().getAircraftInOrder()),
+                positions(tower.getTakeoffQueue().getAircraftInOrder()));
+    }
+
+    /* Returns the position of each aircraft in the given queue order */
+    private static Map<Aircraft, Integer> positions(List<Aircraft> inOrder) {
+        Map<Aircraft, Integer> positions = new IdentityHashMap<>(inOrder.size());
+        for (int i = 0; i < inOrder.size(); i++) {
+            positions.put(inOrder.get(i), i);
+        }
+        return positions;
+    }
+
+    /**
+     * Returns the queue the given aircraft is waiting in.
+     *
+     * @param aircraft aircraft to look up
+     * @return queue of the aircraft, or {@link TowerDelta.Queue#NONE} if it is in neither
+     */
+    public TowerDelta.Queue queueOf(Aircraft aircraft) {
+        if (landing.containsKey(aircraft)) {
+            return TowerDelta.Queue.LANDING;
+        }
+        return takeoff.containsKey(aircraft) ? TowerDelta.Queue.TAKEOFF : TowerDelta.Queue.NONE;
+    }
+
+    /**
+     * Returns the position of the given aircraft in the queue it is waiting in.
+     *
+     * @param aircraft aircraft to look up
+     * @return position from 0 at the front, or -1 if it is in neither queue
+     */
+    public int positionOf(Aircraft aircraft) {
+        Integer position = landing.get(aircraft);
+        if (position == null) {
+            position = takeoff.get(aircraft);
+        }
+        return position == null ? -1 : position;
+    }
+}
@@ -0,0 +1,66 @@
+package towersim.status;
+
+import towersim.control.ControlTower;
+import towersim.control.TickListener;
+
+/**
+ * Publishes an immutable snapshot of a control tower at every tick boundary.
+ * <p>
+ * The simulation thread captures a new {@link TowerSnapshot} after each tick, and after any
+ * commands are executed between ticks, and publishes it with a single volatile write. Readers
+ * only ever see complete snapshots and never lock or wait on the simulation thread.
+ */
+public class SnapshotPublisher implements TickListener {
+
+    /** Most recently published snapshot */
+    private volatile TowerSnapshot latest;
+
+    /* Creates a new publisher holding the current state of the given tower */
+    private SnapshotPublisher(ControlTower tower) {
+        this.latest = TowerSnapshot.capture(tower);
+    }
+
+    /**
+     * Returns a new publisher that has published the current state of the given tower, and is
+     * registered to publish again at the end of each of its ticks.
+     * <p>
+     * Must be called on the thread that ticks the tower, between ticks.
+     *
+     * @param tower tower to publish
+     * @return publisher of the tower
+     */
+    public static SnapshotPublisher start(ControlTower tower) {
+        SnapshotPublisher publisher = new SnapshotPublisher(tower);
+        tower.addTickListener(publisher);
+        return publisher;
+    }
+
+    /**
+     * Captures and publishes the state of the tower that just ticked.
+     *
+     * @param tower tower that ticked
+     */
+    @Override
+    public void onTick(ControlTower tower) {
+        this.latest = TowerSnapshot.capture(tower);
+    }
+
+    /**
+     * Captures and publishes the state of the tower after commands changed it between ticks.
+     *
+     * @param tower tower that executed the commands
+     */
+    @Override
+    public void onCommandsExecuted(ControlTower tower) {
+        this.latest = TowerSnapshot.capture(tower);
+    }
+
+    /**
+     * Returns the most recently published snapshot. May be called from any thread.
+     *
+     * @return latest snapshot
+     */
+    public TowerSnapshot getLatest() {
+        return latest;
+    }
+}
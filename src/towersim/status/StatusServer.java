@@ -0,0 +1,176 @@
+package towersim.status;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Embedded HTTP server answering read-only JSON queries about a control tower.
+ * <p>
+ * Every response is built from the latest snapshot of a {@link SnapshotPublisher}, so requests
+ * never touch the live tower and never contend with the simulation thread. Requests are handled
+ * on virtual threads where the running JVM supports them, and on a cached pool of daemon threads
+ * otherwise.
+ * <p>
+ * The following paths are served, each answering {@code GET} and {@code HEAD} only:
+ * <ul>
+ * <li>{@code /status} - tick, aircraft, queue and gate counts</li>
+ * <li>{@code /queues} - landing and takeoff queues in order, and loading aircraft</li>
+ * <li>{@code /terminals} - every terminal and the aircraft at each of its gates</li>
+ * <li>{@code /aircraft} - every aircraft, including its current task and fuel</li>
+ * <li>{@code /aircraft/callsign} - a single aircraft</li>
+ * <li>{@code /waits} - percentiles of landing, takeoff and gate waits, by cargo and model</li>
+ * </ul>
+ */
+public class StatusServer {
+
+    /** Number of connections the server queues before refusing new ones */
+    private static final int BACKLOG = 1024;
+
+    /** Prefix of the path of a single aircraft */
+    private static final String AIRCRAFT_PREFIX = "/aircraft/";
+
+    /** Publisher of the snapshots served */
+    private final SnapshotPublisher publisher;
+
+    /** Underlying HTTP server */
+    private final HttpServer server;
+
+    /** Executor running request handlers */
+    private final ExecutorService executor;
+
+    /**
+     * Creates a new status server bound to the given address. The server does not accept
+     * requests until {@link #start()} is called.
+     *
+     * @param address address to listen on; port 0 picks a free port
+     * @param publisher publisher of the snapshots to serve
+     * @throws IOException if the address cannot be bound
+     */
+    public StatusServer(InetSocketAddress address, SnapshotPublisher publisher)
+            throws IOException {
+        this.publisher = publisher;
+        this.server = HttpServer.create(address, BACKLOG);
+        this.executor = newHandlerExecutor();
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+    }
+
+    /**
+     * Returns the address the server is listening on.
+     *
+     * @return local address
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Starts accepting requests in the background.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, waits up to the given number of seconds for requests in progress
+     * to finish, and then stops the server.
+     *
+     * @param delaySeconds maximum time to wait for requests in progress, in seconds
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdownNow();
+    }
+
+    /* Answers a single request from the latest snapshot */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                send(exchange, 405, error("method not allowed"));
+                return;
+            }
+            TowerSnapshot snapshot = publisher.getLatest();
+            String path = exchange.getRequestURI().getRawPath();
+            byte[] body;
+            switch (path) {
+                case "/status":
+                    body = snapshot.statusJson();
+                    break;
+                case "/queues":
+                    body = snapshot.queuesJson();
+                    break;
+                case "/terminals":
+                    body = snapshot.terminalsJson();
+                    break;
+                case "/aircraft":
+                    body = snapshot.aircraftJson();
+                    break;
+                case "/waits":
+                    body = snapshot.waitsJson();
+                    break;
+                default:
+                    body = path.startsWith(AIRCRAFT_PREFIX)
+                            ? snapshot.aircraftJson(URLDecoder.decode(
+                                    path.substring(AIRCRAFT_PREFIX.length()),
+                                    StandardCharsets.UTF_8))
+                            : null;
+            }
+            if (body == null) {
+                send(exchange, 404, error("not found"));
+                return;
+            }
+            send(exchange, 200, body);
+        }
+    }
+
+    /* Sends a JSON response; the body is omitted for HEAD requests */
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            exchange.getResponseHeaders().set("Content-Length", String.valueOf(body.length));
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /* Returns an error body */
+    private static byte[] error(String message) {
+        StringBuilder out = new StringBuilder("{");
+        Json.name(out, "error");
+        return Json.string(out, message).append('}').toString()
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    /*
+     * Returns an executor starting a virtual thread per request if the running JVM supports
+     * virtual threads, or a cached pool of daemon threads otherwise. Reflection keeps the code
+     * compiling on JDKs without virtual threads.
+     */
+    private static ExecutorService newHandlerExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "status-server");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package towersim.status;
+
+import towersim.tasks.TaskType;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable record of how the aircraft managed by a control tower changed over one tick.
+ * <p>
+ * A delta lists the state of every aircraft whose task, fuel tier, cargo, gate or queue position
+ * changed during the tick, including aircraft newly under the tower's jurisdiction, and the
+ * callsigns of aircraft that left it. A consumer keeping a map of aircraft states by callsign
+ * brings it up to date by removing the removed aircraft and then putting each changed state.
+ * <p>
+ * A full delta instead lists the state of every aircraft managed by the tower and removes
+ * nothing; a consumer replaces its whole map with it.
+ */
+public final class TowerDelta {
+
+    /** Queue an aircraft is waiting in */
+    public enum Queue {
+        /** Not waiting in either queue */
+        NONE,
+        /** Waiting in the landing queue */
+        LANDING,
+        /** Waiting in the takeoff queue */
+        TAKEOFF
+    }
+
+    /** Compact state of one aircraft at the end of a tick */
+    public static final class AircraftState {
+
+        /** Percentage of fuel capacity spanned by each fuel tier */
+        public static final int FUEL_TIER_PERCENT = 10;
+
+        /** Callsign of the aircraft */
+        private final String callsign;
+
+        /** Type of the aircraft's current task */
+        private final TaskType task;
+
+        /** Fuel remaining, in whole tiers of FUEL_TIER_PERCENT */
+        private final int fuelTier;
+
+        /** Percentage of the aircraft's cargo capacity in use */
+        private final int cargo;
+
+        /** Number of the gate the aircraft is parked at, or -1 if none */
+        private final int gate;
+
+        /** Queue the aircraft is waiting in */
+        private final Queue queue;
+
+        /** Position of the aircraft in its queue, from 0 at the front, or -1 if in none */
+        private final int queuePosition;
+
+        /**
+         * Creates a new aircraft state.
+         *
+         * @param callsign callsign of the aircraft
+         * @param task type of the aircraft's current task
+         * @param fuelPercent percentage of fuel capacity remaining
+         * @param cargo percentage of cargo capacity in use
+         * @param gate number of the gate the aircraft is parked at, or -1 if none
+         * @param queue queue the aircraft is waiting in
+         * @param queuePosition position in that queue from 0 at the front, or -1 if in none
+         */
+        public AircraftState(String callsign, TaskType task, int fuelPercent, int cargo,
+                int gate, Queue queue, int queuePosition) {
+            this.callsign = callsign;
+            this.task = task;
+            this.fuelTier = fuelPercent / FUEL_TIER_PERCENT;
+            this.cargo = cargo;
+            this.gate = gate;
+            this.queue = queue;
+            this.queuePosition = queuePosition;
+        }
+
+        /**
+         * Returns the callsign of the aircraft.
+         *
+         * @return callsign
+         */
+        public String getCallsign() {
+            return callsign;
+        }
+
+        /**
+         * Returns the type of the aircraft's current task.
+         *
+         * @return current task type
+         */
+        public TaskType getTask() {
+            return task;
+        }
+
+        /**
+         * Returns the fuel remaining, in whole tiers of {@value #FUEL_TIER_PERCENT}% of fuel
+         * capacity; for example, 2 for between 20% and 30%.
+         *
+         * @return fuel tier, from 0 to 10
+         */
+        public int getFuelTier() {
+            return fuelTier;
+        }
+
+        /**
+         * Returns the percentage of the aircraft's cargo capacity in use.
+         *
+         * @return cargo occupancy, from 0 to 100
+         */
+        public int getCargo() {
+            return cargo;
+        }
+
+        /**
+         * Returns the number of the gate the aircraft is parked at.
+         *
+         * @return gate number, or -1 if not parked at a gate
+         */
+        public int getGate() {
+            return gate;
+        }
+
+        /**
+         * Returns the queue the aircraft is waiting in.
+         *
+         * @return queue
+         */
+        public Queue getQueue() {
+            return queue;
+        }
+
+        /**
+         * Returns the position of the aircraft in its queue.
+         *
+         * @return position from 0 at the front, or -1 if not in a queue
+         */
+        public int getQueuePosition() {
+            return queuePosition;
+        }
+
+        /**
+         * Returns true if and only if this state is equal to the other given object.
+         * <p>
+         * Two states are equal if every one of their properties is equal.
+         *
+         * @param obj other object to check equality
+         * @return true if equal, false otherwise
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof AircraftState)) {
+                return false;
+            }
+            AircraftState other = (AircraftState) obj;
+            return callsign.equals(other.callsign) && task == other.task
+                    && fuelTier == other.fuelTier && cargo == other.cargo && gate == other.gate
+                    && queue == other.queue && queuePosition == other.queuePosition;
+        }
+
+        /**
+         * Returns the hash code of this state.
+         *
+         * @return hash code of this state
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash(callsign, task, fuelTier, cargo, gate, queue, queuePosition);
+        }
+
+        /**
+         * Returns the human-readable string representation of this state.
+         *
+         * @return string representation of this state
+         */
+        @Override
+        public String toString() {
+            return String.format("%s %s fuel:%d cargo:%d%% gate:%d %s:%d", callsign, task,
+                    fuelTier, cargo, gate, queue, queuePosition);
+        }
+    }
+
+    /** Ticks elapsed at the end of the tick */
+    private final long ticksElapsed;
+
+    /** Whether this delta holds the state of every aircraft */
+    private final boolean full;
+
+    /** States of aircraft that changed, or of every aircraft if full */
+    private final List<AircraftState> changed;
+
+    /** Callsigns of aircraft that left the tower's jurisdiction */
+    private final List<String> removed;
+
+    /**
+     * Creates a new delta.
+     *
+     * @param ticksElapsed ticks elapsed at the end of the tick
+     * @param full whether the delta holds the state of every aircraft
+     * @param changed states of aircraft that changed, or of every aircraft if full
+     * @param removed callsigns of aircraft that left the tower's jurisdiction
+     */
+    TowerDelta(long ticksElapsed, boolean full, List<AircraftState> changed,
+            List<String> removed) {
+        this.ticksElapsed = ticksElapsed;
+        this.full = full;
+        this.changed = Collections.unmodifiableList(changed);
+        this.removed = Collections.unmodifiableList(removed);
+    }
+
+    /**
+     * Returns the number of ticks elapsed at the end of the tick this delta covers.
+     *
+     * @return ticks elapsed
+     */
+    public long getTicksElapsed() {
+        return ticksElapsed;
+    }
+
+    /**
+     * Returns whether this delta holds the state of every aircraft managed by the tower, rather
+     * than only those that changed.
+     *
+     * @return true if this is a full delta
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * Returns the states of the aircraft that changed, or of every aircraft if this delta is
+     * full, in the order the tower manages them.
+     *
+     * @return aircraft states; cannot be modified
+     */
+    public List<AircraftState> getChanged() {
+        return changed;
+    }
+
+    /**
+     * Returns the callsigns of the aircraft that left the tower's jurisdiction; always empty if
+     * this delta is full.
+     *
+     * @return callsigns of removed aircraft; cannot be modified
+     */
+    public List<String> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Returns the human-readable string representation of this delta.
+     *
+     * @return string representation of this delta
+     */
+    @Override
+    public String toString() {
+        return String.format("%s delta at tick %d: %d changed, %d removed",
+                full ? "Full" : "Partial", ticksElapsed, changed.size(), removed.size());
+    }
+}
@@ -0,0 +1,667 @@
+package towersim.status;
+
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.FreightAircraft;
+import towersim.aircraft.PassengerAircraft;
+import towersim.control.ControlTower;
+import towersim.ground.Gate;
+import towersim.ground.Terminal;
+import towersim.stats.QuantileSketch;
+import towersim.stats.WaitTimes;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * An immutable copy of the state of a control tower at a tick boundary.
+ * <p>
+ * Snapshots are captured on the simulation thread and may then be read by any number of threads
+ * without further synchronisation. The JSON views of a snapshot are built the first time they are
+ * requested and then reused, so each view is rendered at most a few times per tick regardless of
+ * how many readers request it.
+ */
+public final class TowerSnapshot {
+
+    /** State of a single aircraft */
+    public static final class AircraftState {
+
+        /** Callsign of the aircraft */
+        private final String callsign;
+
+        /** Model of the aircraft, as named by its characteristics */
+        private final String model;
+
+        /** Type of the aircraft, airplane or helicopter */
+        private final String type;
+
+        /** Type of the aircraft's current task */
+        private final String currentTask;
+
+        /** Encoded task list of the aircraft */
+        private final String taskList;
+
+        /** Fuel onboard, in litres */
+        private final double fuelAmount;
+
+        /** Fuel onboard, as a percentage of capacity */
+        private final int fuelPercent;
+
+        /** Whether the aircraft is in a state of emergency */
+        private final boolean emergency;
+
+        /** Number of passengers onboard, or -1 if not a passenger aircraft */
+        private final int passengers;
+
+        /** Amount of freight onboard, or -1 if not a freight aircraft */
+        private final int freight;
+
+        /** Number of the gate the aircraft is parked at, or -1 if not parked */
+        private final int gateNumber;
+
+        /* Captures the state of the given aircraft */
+        private AircraftState(Aircraft aircraft, int gateNumber) {
+            this.callsign = aircraft.getCallsign();
+            this.model = aircraft.getCharacteristics().name();
+            this.type = aircraft.getCharacteristics().type.name();
+            this.currentTask = aircraft.getTaskList().getCurrentTask().getType().name();
+            this.taskList = aircraft.getTaskList().encode();
+            this.fuelAmount = aircraft.getFuelAmount();
+            this.fuelPercent = aircraft.getFuelPercentRemaining();
+            this.emergency = aircraft.hasEmergency();
+            this.passengers = aircraft instanceof PassengerAircraft
+                    ? ((PassengerAircraft) aircraft).getNumPassengers() : -1;
+            this.freight = aircraft instanceof FreightAircraft
+                    ? ((FreightAircraft) aircraft).getFreightAmount() : -1;
+            this.gateNumber = gateNumber;
+        }
+
+        /**
+         * Returns the callsign of the aircraft.
+         *
+         * @return callsign
+         */
+        public String getCallsign() {
+            return callsign;
+        }
+
+        /**
+         * Returns the type of the aircraft's current task.
+         *
+         * @return name of current task type
+         */
+        public String getCurrentTask() {
+            return currentTask;
+        }
+
+        /**
+         * Returns the amount of fuel onboard, in litres.
+         *
+         * @return fuel amount
+         */
+        public double getFuelAmount() {
+            return fuelAmount;
+        }
+
+        /**
+         * Returns the number of the gate the aircraft is parked at.
+         *
+         * @return gate number, or -1 if the aircraft is not parked at a gate
+         */
+        public int getGateNumber() {
+            return gateNumber;
+        }
+
+        /* Appends this aircraft as a JSON object */
+        private void appendJson(StringBuilder out) {
+            out.append('{');
+            Json.name(out, "callsign");
+            Json.string(out, callsign).append(',');
+            Json.name(out, "model");
+            Json.string(out, model).append(',');
+            Json.name(out, "type");
+            Json.string(out, type).append(',');
+            Json.name(out, "currentTask");
+            Json.string(out, currentTask).append(',');
+            Json.name(out, "taskList");
+            Json.string(out, taskList).append(',');
+            Json.name(out, "fuelAmount").append(fuelAmount).append(',');
+            Json.name(out, "fuelPercent").append(fuelPercent).append(',');
+            Json.name(out, "emergency").append(emergency);
+            if (passengers >= 0) {
+                out.append(',');
+                Json.name(out, "passengers").append(passengers);
+            }
+            if (freight >= 0) {
+                out.append(',');
+                Json.name(out, "freight").append(freight);
+            }
+            out.append(',');
+            Json.name(out, "gate");
+            if (gateNumber < 0) {
+                out.append("null");
+            } else {
+                out.append(gateNumber);
+            }
+            out.append('}');
+        }
+    }
+
+    /** State of a single terminal and its gates */
+    public static final class TerminalState {
+
+        /** Number of the terminal */
+        private final int terminalNumber;
+
+        /** Type of the terminal */
+        private final String type;
+
+        /** Whether the terminal is in a state of emergency */
+        private final boolean emergency;
+
+        /** Percentage of the terminal's gates that are occupied */
+        private final int occupancy;
+
+        /** Number of each gate of the terminal, in order */
+        private final int[] gateNumbers;
+
+        /** Callsign of the aircraft at each gate of the terminal, or null if empty */
+        private final String[] gateOccupants;
+
+        /* Captures the state of the given terminal */
+        private TerminalState(Terminal terminal) {
+            List<Gate> gates = terminal.getGates();
+            this.terminalNumber = terminal.getTerminalNumber();
+            this.type = terminal.getClass().getSimpleName();
+            this.emergency = terminal.hasEmergency();
+            this.occupancy = gates.isEmpty() ? 0 : terminal.calculateOccupancyLevel();
+            this.gateNumbers = new int[gates.size()];
+            this.gateOccupants = new String[gates.size()];
+            for (int i = 0; i < gates.size(); i++) {
+                Gate gate = gates.get(i);
+                gateNumbers[i] = gate.getGateNumber();
+                gateOccupants[i] = gate.isOccupied()
+                        ? gate.getAircraftAtGate().getCallsign() : null;
+            }
+        }
+
+        /**
+         * Returns the number of the terminal.
+         *
+         * @return terminal number
+         */
+        public int getTerminalNumber() {
+            return terminalNumber;
+        }
+
+        /**
+         * Returns the percentage of the terminal's gates that are occupied.
+         *
+         * @return occupancy level, 0 to 100
+         */
+        public int getOccupancy() {
+            return occupancy;
+        }
+
+        /* Appends this terminal as a JSON object */
+        private void appendJson(StringBuilder out) {
+            out.append('{');
+            Json.name(out, "number").append(terminalNumber).append(',');
+            Json.name(out, "type");
+            Json.string(out, type).append(',');
+            Json.name(out, "emergency").append(emergency).append(',');
+            Json.name(out, "occupancy").append(occupancy).append(',');
+            Json.name(out, "gates").append('[');
+            for (int i = 0; i < gateNumbers.length; i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append('{');
+                Json.name(out, "number").append(gateNumbers[i]).append(',');
+                Json.name(out, "aircraft");
+                Json.string(out, gateOccupants[i]);
+                out.append('}');
+            }
+            out.append("]}");
+        }
+    }
+
+    /** Summary of the waits recorded for one phase and group of aircraft */
+    public static final class WaitSummary {
+
+        /** Quantiles summarised */
+        private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+
+        /** Number of waits recorded */
+        private final long count;
+
+        /** Estimated median, 95th and 99th percentile waits, in ticks */
+        private final long[] percentiles;
+
+        /** Longest wait, in ticks */
+        private final long max;
+
+        /* Summarises the given sketch of waits */
+        private WaitSummary(QuantileSketch waits) {
+            this.count = waits.getCount();
+            this.percentiles = waits.getQuantiles(QUANTILES);
+            this.max = waits.getMax();
+        }
+
+        /**
+         * Returns the number of waits recorded.
+         *
+         * @return number of waits
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the estimated median wait.
+         *
+         * @return wait that half of waits are at or below, in ticks
+         */
+        public long getP50() {
+            return percentiles[0];
+        }
+
+        /**
+         * Returns the estimated 95th percentile wait.
+         *
+         * @return wait that 95% of waits are at or below, in ticks
+         */
+        public long getP95() {
+            return percentiles[1];
+        }
+
+        /**
+         * Returns the estimated 99th percentile wait.
+         *
+         * @return wait that 99% of waits are at or below, in ticks
+         */
+        public long getP99() {
+            return percentiles[2];
+        }
+
+        /**
+         * Returns the longest wait.
+         *
+         * @return longest wait, in ticks
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /* Appends this summary as a JSON object */
+        private void appendJson(StringBuilder out) {
+            out.append('{');
+            Json.name(out, "count").append(count).append(',');
+            Json.name(out, "p50").append(percentiles[0]).append(',');
+            Json.name(out, "p95").append(percentiles[1]).append(',');
+            Json.name(out, "p99").append(percentiles[2]).append(',');
+            Json.name(out, "max").append(max);
+            out.append('}');
+        }
+    }
+
+    /** Waits recorded for one phase, for all aircraft and broken down by cargo and by model */
+    private static final class PhaseWaits {
+
+        /** Waits of all aircraft */
+        private final WaitSummary all;
+
+        /** Waits of aircraft carrying each cargo */
+        private final Map<String, WaitSummary> byCargo = new LinkedHashMap<>();
+
+        /** Waits of aircraft of each model with any waits recorded */
+        private final Map<String, WaitSummary> byModel = new LinkedHashMap<>();
+
+        /* Summarises the waits recorded for the given phase */
+        private PhaseWaits(WaitTimes waitTimes, WaitTimes.Phase phase) {
+            this.all = new WaitSummary(waitTimes.getWaits(phase));
+            for (WaitTimes.Cargo cargo : WaitTimes.Cargo.values()) {
+                byCargo.put(cargo.name(), new WaitSummary(waitTimes.getWaits(phase, cargo)));
+            }
+            for (AircraftCharacteristics model : waitTimes.getCharacteristicsWithWaits(phase)) {
+                byModel.put(model.name(), new WaitSummary(waitTimes.getWaits(phase, model)));
+            }
+        }
+
+        /* Appends these waits as a JSON object */
+        private void appendJson(StringBuilder out) {
+            out.append('{');
+            Json.name(out, "all");
+            all.appendJson(out);
+            out.append(',');
+            appendJson(out, "byCargo", byCargo);
+            out.append(',');
+            appendJson(out, "byModel", byModel);
+            out.append('}');
+        }
+
+        /* Appends the given summaries as a named JSON object */
+        private static void appendJson(StringBuilder out, String name,
+                Map<String, WaitSummary> summaries) {
+            Json.name(out, name).append('{');
+            boolean first = true;
+            for (Map.Entry<String, WaitSummary> entry : summaries.entrySet()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                Json.name(out, entry.getKey());
+                entry.getValue().appendJson(out);
+            }
+            out.append('}');
+        }
+    }
+
+    /** Ticks elapsed when the snapshot was captured */
+    private final long tick;
+
+    /** State of every aircraft, keyed by callsign, in the order managed by the tower */
+    private final Map<String, AircraftState> aircraft;
+
+    /** Callsigns of the aircraft in the landing queue, in landing order */
+    private final List<String> landingQueue;
+
+    /** Callsigns of the aircraft in the takeoff queue, in takeoff order */
+    private final List<String> takeoffQueue;
+
+    /** Ticks remaining for each loading aircraft, keyed by callsign */
+    private final Map<String, Integer> loadingAircraft;
+
+    /** State of every terminal, in the order added to the tower */
+    private final List<TerminalState> terminals;
+
+    /** Waits recorded for each phase */
+    private final Map<WaitTimes.Phase, PhaseWaits> waits = new EnumMap<>(WaitTimes.Phase.class);
+
+    /** Rendered summary view, built on first request */
+    private volatile byte[] statusJson;
+
+    /** Rendered queues view, built on first request */
+    private volatile byte[] queuesJson;
+
+    /** Rendered terminals view, built on first request */
+    private volatile byte[] terminalsJson;
+
+    /** Rendered aircraft view, built on first request */
+    private volatile byte[] aircraftJson;
+
+    /** Rendered waits view, built on first request */
+    private volatile byte[] waitsJson;
+
+    /* Captures the state of the given tower */
+    private TowerSnapshot(ControlTower tower) {
+        this.tick = tower.getTicksElapsed();
+
+        List<TerminalState> terminalStates = new ArrayList<>();
+        Map<Aircraft, Integer> gateOfAircraft = new IdentityHashMap<>();
+        for (Terminal terminal : tower.getTerminals()) {
+            terminalStates.add(new TerminalState(terminal));
+            for (Gate gate : terminal.getGates()) {
+                if (gate.isOccupied()) {
+                    gateOfAircraft.put(gate.getAircraftAtGate(), gate.getGateNumber());
+                }
+            }
+        }
+        this.terminals = Collections.unmodifiableList(terminalStates);
+
+        Map<String, AircraftState> aircraftStates = new LinkedHashMap<>();
+        for (Aircraft managed : tower.getAircraft()) {
+            aircraftStates.put(managed.getCallsign(),
+                    new AircraftState(managed, gateOfAircraft.getOrDefault(managed, -1)));
+        }
+        this.aircraft = Collections.unmodifiableMap(aircraftStates);
+
+        this.landingQueue = callsigns(tower.getLandingQueue().getAircraftInOrder());
+        this.takeoffQueue = callsigns(tower.getTakeoffQueue().getAircraftInOrder());
+        Map<String, Integer> loading = new LinkedHashMap<>();
+        for (Map.Entry<Aircraft, Integer> entry : tower.getLoadingAircraft().entrySet()) {
+            loading.put(entry.getKey().getCallsign(), entry.getValue());
+        }
+        this.loadingAircraft = Collections.unmodifiableMap(loading);
+
+        for (WaitTimes.Phase phase : WaitTimes.Phase.values()) {
+            waits.put(phase, new PhaseWaits(tower.getWaitTimes(), phase));
+        }
+    }
+
+    /**
+     * Captures the current state of the given tower.
+     * <p>
+     * Must be called on the thread that ticks the tower, between ticks.
+     *
+     * @param tower tower to capture
+     * @return snapshot of tower
+     */
+    public static TowerSnapshot capture(ControlTower tower) {
+        return new TowerSnapshot(tower);
+    }
+
+    /* Returns the callsigns of the given aircraft, in order */
+    private static List<String> callsigns(List<Aircraft> aircraft) {
+        List<String> callsigns = new ArrayList<>(aircraft.size());
+        for (Aircraft queued : aircraft) {
+            callsigns.add(queued.getCallsign());
+        }
+        return Collections.unmodifiableList(callsigns);
+    }
+
+    /**
+     * Returns the number of ticks elapsed when this snapshot was captured.
+     *
+     * @return ticks elapsed
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Returns the state of the aircraft with the given callsign.
+     *
+     * @param callsign callsign of aircraft
+     * @return state of aircraft; or null if the tower did not manage such an aircraft
+     */
+    public AircraftState getAircraft(String callsign) {
+        return aircraft.get(callsign);
+    }
+
+    /**
+     * Returns the callsigns of the aircraft in the landing queue, in landing order.
+     *
+     * @return unmodifiable list of callsigns
+     */
+    public List<String> getLandingQueue() {
+        return landingQueue;
+    }
+
+    /**
+     * Returns the callsigns of the aircraft in the takeoff queue, in takeoff order.
+     *
+     * @return unmodifiable list of callsigns
+     */
+    public List<String> getTakeoffQueue() {
+        return takeoffQueue;
+    }
+
+    /**
+     * Returns the state of every terminal, in the order they were added to the tower.
+     *
+     * @return unmodifiable list of terminal states
+     */
+    public List<TerminalState> getTerminals() {
+        return terminals;
+    }
+
+    /**
+     * Returns the summary of the waits recorded for the given phase, for all aircraft.
+     *
+     * @param phase phase of waits
+     * @return summary of waits
+     */
+    public WaitSummary getWaits(WaitTimes.Phase phase) {
+        return waits.get(phase).all;
+    }
+
+    /**
+     * Returns a summary of the tower as UTF-8 encoded JSON.
+     *
+     * @return summary view; must not be modified
+     */
+    public byte[] statusJson() {
+        byte[] json = statusJson;
+        if (json == null) {
+            int gates = 0;
+            int occupied = 0;
+            for (TerminalState terminal : terminals) {
+                gates += terminal.gateNumbers.length;
+                for (String occupant : terminal.gateOccupants) {
+                    if (occupant != null) {
+                        occupied++;
+                    }
+                }
+            }
+            StringBuilder out = begin();
+            Json.name(out, "aircraft").append(aircraft.size()).append(',');
+            Json.name(out, "landing").append(landingQueue.size()).append(',');
+            Json.name(out, "takeoff").append(takeoffQueue.size()).append(',');
+            Json.name(out, "loading").append(loadingAircraft.size()).append(',');
+            Json.name(out, "terminals").append(terminals.size()).append(',');
+            Json.name(out, "gates").append(gates).append(',');
+            Json.name(out, "occupiedGates").append(occupied);
+            statusJson = json = end(out);
+        }
+        return json;
+    }
+
+    /**
+     * Returns the landing and takeoff queues and the loading aircraft as UTF-8 encoded JSON.
+     *
+     * @return queues view; must not be modified
+     */
+    public byte[] queuesJson() {
+        byte[] json = queuesJson;
+        if (json == null) {
+            StringBuilder out = begin();
+            Json.name(out, "landing");
+            Json.strings(out, landingQueue).append(',');
+            Json.name(out, "takeoff");
+            Json.strings(out, takeoffQueue).append(',');
+            Json.name(out, "loading").append('{');
+            boolean first = true;
+            for (Map.Entry<String, Integer> entry : loadingAircraft.entrySet()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                Json.name(out, entry.getKey()).append(entry.getValue());
+            }
+            out.append('}');
+            queuesJson = json = end(out);
+        }
+        return json;
+    }
+
+    /**
+     * Returns every terminal and its gates as UTF-8 encoded JSON.
+     *
+     * @return terminals view; must not be modified
+     */
+    public byte[] terminalsJson() {
+        byte[] json = terminalsJson;
+        if (json == null) {
+            StringBuilder out = begin();
+            Json.name(out, "terminals").append('[');
+            for (int i = 0; i < terminals.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                terminals.get(i).appendJson(out);
+            }
+            out.append(']');
+            terminalsJson = json = end(out);
+        }
+        return json;
+    }
+
+    /**
+     * Returns every aircraft as UTF-8 encoded JSON.
+     *
+     * @return aircraft view; must not be modified
+     */
+    public byte[] aircraftJson() {
+        byte[] json = aircraftJson;
+        if (json == null) {
+            StringBuilder out = begin();
+            Json.name(out, "aircraft").append('[');
+            boolean first = true;
+            for (AircraftState state : aircraft.values()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                state.appendJson(out);
+            }
+            out.append(']');
+            aircraftJson = json = end(out);
+        }
+        return json;
+    }
+
+    /**
+     * Returns the median, 95th and 99th percentile and longest waits recorded for each phase,
+     * for all aircraft, by cargo and by model, as UTF-8 encoded JSON.
+     *
+     * @return waits view; must not be modified
+     */
+    public byte[] waitsJson() {
+        byte[] json = waitsJson;
+        if (json == null) {
+            StringBuilder out = begin();
+            Json.name(out, "waits").append('{');
+            boolean first = true;
+            for (Map.Entry<WaitTimes.Phase, PhaseWaits> entry : waits.entrySet()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                Json.name(out, entry.getKey().name());
+                entry.getValue().appendJson(out);
+            }
+            out.append('}');
+            waitsJson = json = end(out);
+        }
+        return json;
+    }
+
+    /**
+     * Returns a single aircraft as UTF-8 encoded JSON.
+     *
+     * @param callsign callsign of aircraft
+     * @return aircraft view; or null if the tower did not manage such an aircraft
+     */
+    public byte[] aircraftJson(String callsign) {
+        AircraftState state = aircraft.get(callsign);
+        if (state == null) {
+            return null;
+        }
+        StringBuilder out = begin();
+        Json.name(out, "aircraft");
+        state.appendJson(out);
+        return end(out);
+    }
+
+    /* Starts a view object with the tick it describes */
+    private StringBuilder begin() {
+        StringBuilder out = new StringBuilder(256).append('{');
+        return Json.name(out, "tick").append(tick).append(',');
+    }
+
+    /* Closes a view object and encodes it */
+    private static byte[] end(StringBuilder out) {
+        return out.append('}').toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -1,5 +1,9 @@
 package towersim.tasks;
 
+import towersim.util.MutationListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.StringJoiner;
 
@@ -8,8 +12,20 @@ import java.util.StringJoiner;
  * @ass1
  */
 public class TaskList {
-    /** List of tasks to cycle through. */
-    private final List<Task> tasks;
+    /** Task returned as the current task of a lazily decoded list without decoding it */
+    private static final Task AWAY_TASK = new Task(TaskType.AWAY);
+
+    /** List of tasks to cycle through; or null until the tasks of a lazy list are needed. */
+    private List<Task> tasks;
+
+    /** Encoded tasks of a lazily decoded list, until they are decoded; otherwise null */
+    private String encodedTasks;
+
+    /** Number of tasks in the list */
+    private final int numTasks;
+
+    /** Number of AWAY tasks at the start of the list, known without decoding it */
+    private final int leadingAwayTasks;
 
     /** Index of current task in tasks list. */
     private int currentTaskIndex;
@@ -22,6 +38,9 @@ public class TaskList {
      */
     private int tasksCheckedNum = 0;
 
+    /** Listener notified whenever this task list changes; or null if there is none */
+    private MutationListener mutationListener;
+
     /**
      * Creates a new TaskList with the given list of tasks.
      * <p>
@@ -33,6 +52,8 @@ public class TaskList {
      */
     public TaskList(List<Task> tasks) {
         this.tasks = tasks;
+        this.numTasks = tasks.size();
+        this.leadingAwayTasks = 0;
         this.currentTaskIndex = 0;
         if (tasks.size() == 0) {
             throw new IllegalArgumentException(); // an empty list is invalid
@@ -50,6 +71,157 @@ public class TaskList {
         }
     }
 
+    /* Creates a task list sharing the already validated tasks of the given list */
+    private TaskList(TaskList other) {
+        this.tasks = other.tasks;
+        this.encodedTasks = other.encodedTasks;
+        this.numTasks = other.numTasks;
+        this.leadingAwayTasks = other.leadingAwayTasks;
+        this.currentTaskIndex = other.currentTaskIndex;
+    }
+
+    /* Creates a lazily decoded task list from already validated encoded tasks */
+    private TaskList(String encodedTasks, int numTasks, int leadingAwayTasks) {
+        this.encodedTasks = encodedTasks;
+        this.numTasks = numTasks;
+        this.leadingAwayTasks = leadingAwayTasks;
+        this.currentTaskIndex = 0;
+    }
+
+    /**
+     * Creates a task list from its machine-readable representation, as returned by
+     * {@link #encode()}, without creating its tasks until they are first needed.
+     * <p>
+     * The encoded tasks are checked to form a valid task list straight away, so the task list
+     * behaves exactly as if it had been created with {@link #TaskList(List)}. Until the tasks are
+     * decoded, a task list starting with a run of AWAY tasks answers {@link #getCurrentTask()}
+     * for those tasks, moves through them and encodes itself without decoding.
+     * <p>
+     * Only the exact representation written by {@code encode()} is accepted; for example, load
+     * percentages must not have leading zeros.
+     *
+     * @param encoded machine-readable representation of a task list
+     * @return task list with the encoded tasks
+     * @throws IllegalArgumentException if the representation is not one written by
+     * {@code encode()}, or the tasks do not form a valid task list
+     */
+    public static TaskList decodeLazily(String encoded) {
+        int numTasks = 0;
+        int leadingAwayTasks = 0;
+        TaskType first = null;
+        TaskType previous = null;
+        int start = 0;
+        while (start <= encoded.length()) {
+            int end = encoded.indexOf(',', start);
+            if (end < 0) {
+                end = encoded.length();
+            }
+            TaskType type = decodeType(encoded, start, end);
+            if (previous == null) {
+                first = type;
+            } else if (!canFollow(previous, type)) {
+                throw new IllegalArgumentException("Not a valid task list");
+            }
+            if (type == TaskType.AWAY && leadingAwayTasks == numTasks) {
+                leadingAwayTasks++;
+            }
+            previous = type;
+            numTasks++;
+            start = end + 1;
+        }
+        // the list is circular, so the last task is followed by the first
+        if (!canFollow(previous, first)) {
+            throw new IllegalArgumentException("Not a valid task list");
+        }
+        return new TaskList(encoded, numTasks, leadingAwayTasks);
+    }
+
+    /* Returns the type of the encoded task in the given range, checking its load percentage */
+    private static TaskType decodeType(String encoded, int start, int end) {
+        String task = encoded.substring(start, end);
+        if (task.startsWith("LOAD@") && task.length() > 5) {
+            String percent = task.substring(5);
+            if (percent.length() > 9 || (percent.length() > 1 && percent.charAt(0) == '0')) {
+                throw new IllegalArgumentException("Not a valid load percentage: " + task);
+            }
+            for (int i = 0; i < percent.length(); i++) {
+                if (percent.charAt(i) < '0' || percent.charAt(i) > '9') {
+                    throw new IllegalArgumentException("Not a valid load percentage: " + task);
+                }
+            }
+            return TaskType.LOAD;
+        }
+        switch (task) {
+            case "AWAY":
+                return TaskType.AWAY;
+            case "LAND":
+                return TaskType.LAND;
+            case "WAIT":
+                return TaskType.WAIT;
+            case "TAKEOFF":
+                return TaskType.TAKEOFF;
+            default:
+                throw new IllegalArgumentException("Not a valid task: " + task);
+        }
+    }
+
+    /* Returns the tasks of this list, decoding them first if this list was decoded lazily */
+    private List<Task> tasks() {
+        if (this.tasks == null) {
+            List<Task> decoded = new ArrayList<>(this.numTasks);
+            for (String task : this.encodedTasks.split(",")) {
+                if (task.startsWith("LOAD@")) {
+                    decoded.add(new Task(TaskType.LOAD, Integer.parseInt(task.substring(5))));
+                } else {
+                    decoded.add(new Task(TaskType.valueOf(task)));
+                }
+            }
+            this.tasks = decoded;
+            this.encodedTasks = null;
+        }
+        return this.tasks;
+    }
+
+    /**
+     * Returns whether the tasks of this list have been created. Always true unless this list was
+     * created by {@link #decodeLazily(String)}.
+     *
+     * @return true if the tasks of this list have been decoded
+     */
+    public boolean isDecoded() {
+        return this.tasks != null;
+    }
+
+    /**
+     * Returns a copy of this task list with the same current task.
+     * <p>
+     * Tasks are immutable, so the copy shares the underlying list of tasks with this task list;
+     * only the current task position is copied.
+     *
+     * @return copy of this task list
+     */
+    public TaskList copy() {
+        return new TaskList(this);
+    }
+
+    /**
+     * Sets the listener to notify whenever this task list changes, replacing any previous listener.
+     * <p>
+     * Copies of this task list do not inherit the listener.
+     *
+     * @param listener listener to notify; or null to stop notifying
+     */
+    public void setMutationListener(MutationListener listener) {
+        this.mutationListener = listener;
+    }
+
+    /* Notifies the listener, if any, that this task list has changed */
+    private void notifyMutation() {
+        if (this.mutationListener != null) {
+            this.mutationListener.mutated(this);
+        }
+    }
+
     private boolean validTaskListHelper(List<Task> tasksToCheck, int index) {
         /*
         Once tasksCheckedNum equals to size of tasksToCheck, then we have
@@ -61,31 +233,8 @@ public class TaskList {
             TaskType currentTask = tasksToCheck.get(index).getType();
             TaskType nextTask = tasksToCheck.get((index + 1) % tasksToCheck.size()).getType();
 
-            //AWAY --> AWAY OR LAND
-            if (currentTask == TaskType.AWAY) {
-                if (!((nextTask == TaskType.AWAY) || (nextTask == TaskType.LAND))) {
-                    return false;
-                }
-            } else if (currentTask == TaskType.LAND) {
-                // LAND --> WAIT, LOAD
-                if (!((nextTask == TaskType.WAIT) || (nextTask == TaskType.LOAD))) {
-                    return false;
-                }
-            } else if (currentTask == TaskType.WAIT) {
-                // WAIT --> WAIT OR LOAD
-                if (!((nextTask == TaskType.WAIT) || (nextTask == TaskType.LOAD))) {
-                    return false;
-                }
-            } else if (currentTask == TaskType.LOAD) {
-                // LOAD --> T/O
-                if (nextTask != TaskType.TAKEOFF) {
-                    return false;
-                }
-            } else if (currentTask == TaskType.TAKEOFF) {
-                // T/O --> AWAY
-                if (nextTask != TaskType.AWAY) {
-                    return false;
-                }
+            if (!canFollow(currentTask, nextTask)) {
+                return false;
             }
             tasksCheckedNum++;
             return validTaskListHelper(tasksToCheck, ++index);
@@ -93,6 +242,28 @@ public class TaskList {
 
     }
 
+    /* Returns whether a task of the given type may be followed by one of the next type */
+    private static boolean canFollow(TaskType currentTask, TaskType nextTask) {
+        switch (currentTask) {
+            case AWAY:
+                // AWAY --> AWAY OR LAND
+                return nextTask == TaskType.AWAY || nextTask == TaskType.LAND;
+            case LAND:
+                // LAND --> WAIT, LOAD
+            case WAIT:
+                // WAIT --> WAIT OR LOAD
+                return nextTask == TaskType.WAIT || nextTask == TaskType.LOAD;
+            case LOAD:
+                // LOAD --> T/O
+                return nextTask == TaskType.TAKEOFF;
+            case TAKEOFF:
+                // T/O --> AWAY
+                return nextTask == TaskType.AWAY;
+            default:
+                return true;
+        }
+    }
+
 
 
     /**
@@ -102,7 +273,10 @@ public class TaskList {
      * @ass1
      */
     public Task getCurrentTask() {
-        return this.tasks.get(this.currentTaskIndex);
+        if (this.tasks == null && this.currentTaskIndex < this.leadingAwayTasks) {
+            return AWAY_TASK;
+        }
+        return tasks().get(this.currentTaskIndex);
     }
 
     /**
@@ -118,8 +292,28 @@ public class TaskList {
      * @ass1
      */
     public Task getNextTask() {
-        int nextTaskIndex = (this.currentTaskIndex + 1) % this.tasks.size();
-        return this.tasks.get(nextTaskIndex);
+        int nextTaskIndex = (this.currentTaskIndex + 1) % this.numTasks;
+        return tasks().get(nextTaskIndex);
+    }
+
+    /**
+     * Returns all tasks in this task list, in the order they were given at construction.
+     * <p>
+     * The returned list cannot be modified.
+     *
+     * @return list of tasks
+     */
+    public List<Task> getTasks() {
+        return Collections.unmodifiableList(tasks());
+    }
+
+    /**
+     * Returns the index of the current task within the list returned by {@link #getTasks()}.
+     *
+     * @return index of current task
+     */
+    public int getCurrentTaskIndex() {
+        return this.currentTaskIndex;
     }
 
     /**
@@ -133,7 +327,8 @@ public class TaskList {
      * @ass1
      */
     public void moveToNextTask() {
-        this.currentTaskIndex = (this.currentTaskIndex + 1) % this.tasks.size();
+        this.currentTaskIndex = (this.currentTaskIndex + 1) % this.numTasks;
+        notifyMutation();
     }
 
     /**
@@ -158,7 +353,7 @@ public class TaskList {
         return String.format("TaskList currently on %s [%d/%d]",
                 this.getCurrentTask(),
                 this.currentTaskIndex + 1,
-                this.tasks.size());
+                this.numTasks);
     }
 
     /**
@@ -166,6 +361,9 @@ public class TaskList {
      * @return machine-readable representation of the task list
      */
     public String encode() {
+        if (this.tasks == null) {
+            return rotateEncodedTasks();
+        }
         int i = currentTaskIndex;
         StringJoiner encodedList = new StringJoiner(",");
         while (i < this.tasks.size() + currentTaskIndex) {
@@ -174,4 +372,17 @@ public class TaskList {
         }
         return String.valueOf(encodedList);
     }
+
+    /* Encodes a list that has not been decoded, starting from the current task */
+    private String rotateEncodedTasks() {
+        if (this.currentTaskIndex == 0) {
+            return this.encodedTasks;
+        }
+        int start = 0;
+        for (int i = 0; i < this.currentTaskIndex; i++) {
+            start = this.encodedTasks.indexOf(',', start) + 1;
+        }
+        return this.encodedTasks.substring(start) + ","
+                + this.encodedTasks.substring(0, start - 1);
+    }
 }
@@ -0,0 +1,199 @@
+package towersim.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * A bounded, lock-free ring buffer for many producer threads and a single consumer thread.
+ * <p>
+ * Producers claim a slot by advancing a shared tail counter with compare-and-set, then publish
+ * their element by updating the slot's sequence number. Each slot's sequence number tells both
+ * sides whose turn it is, so producers never wait on each other or on the consumer: if the buffer
+ * is full, {@link #offer(Object)} fails immediately instead of blocking.
+ * <p>
+ * Only one thread may consume from the buffer, by calling {@link #poll()} or
+ * {@link #drain(Consumer, int)}; any number of threads may call {@link #offer(Object)}.
+ *
+ * @param <E> type of elements held in the buffer
+ */
+public class MpscRingBuffer<E> {
+
+    /** Number of slots; always a power of two */
+    private final int capacity;
+
+    /** Mask mapping a position to its slot index */
+    private final int mask;
+
+    /** Elements, indexed by slot */
+    private final Object[] elements;
+
+    /**
+     * Sequence number of each slot. A slot is free for the producer claiming position {@code p}
+     * when its sequence is {@code p}, and holds an element for the consumer at position
+     * {@code p} when its sequence is {@code p + 1}.
+     */
+    private final AtomicLongArray sequences;
+
+    /** Next position to be claimed by a producer */
+    private final AtomicLong tail = new AtomicLong();
+
+    /** Next position to be consumed; only written by the consumer */
+    private volatile long head = 0;
+
+    /**
+     * Creates a new, empty ring buffer holding at least the given number of elements.
+     *
+     * @param minimumCapacity minimum number of elements the buffer can hold; rounded up to the
+     *                        next power of two
+     * @throws IllegalArgumentException if minimumCapacity &lt; 1 or &gt; 2<sup>30</sup>
+     */
+    public MpscRingBuffer(int minimumCapacity) {
+        if (minimumCapacity < 1 || minimumCapacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        int rounded = Integer.highestOneBit(minimumCapacity);
+        this.capacity = rounded == minimumCapacity ? rounded : rounded << 1;
+        this.mask = this.capacity - 1;
+        this.elements = new Object[this.capacity];
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            this.sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Returns the number of elements the buffer can hold.
+     *
+     * @return capacity
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Adds an element to the buffer without blocking. May be called from any thread.
+     *
+     * @param element element to add
+     * @return true if the element was added; false if the buffer was full
+     * @throws NullPointerException if element is null
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        long position = tail.get();
+        int index;
+        while (true) {
+            index = (int) position & mask;
+            long difference = sequences.getAcquire(index) - position;
+            if (difference == 0) {
+                if (tail.weakCompareAndSetVolatile(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // the consumer has not yet freed this slot from the previous lap
+                return false;
+            } else {
+                // another producer claimed this position first
+                position = tail.get();
+            }
+        }
+        elements[index] = element;
+        sequences.setRelease(index, position + 1);
+        return true;
+    }
+
+    /**
+     * Removes and returns the oldest element, if one has been fully published. Must only be
+     * called by the consumer thread.
+     *
+     * @return oldest element; or null if there is none
+     */
+    public E poll() {
+        long position = head;
+        E element = take(position);
+        if (element != null) {
+            head = position + 1;
+        }
+        return element;
+    }
+
+    /**
+     * Removes up to the given number of elements, passing each to the given action in the order
+     * they were added. Must only be called by the consumer thread.
+     * <p>
+     * Draining stops early at the first slot that a producer has claimed but not yet published,
+     * so elements are never reordered.
+     *
+     * @param action action to perform on each element removed
+     * @param limit maximum number of elements to remove
+     * @return number of elements removed
+     */
+    public int drain(Consumer<? super E> action, int limit) {
+        long position = head;
+        int drained = 0;
+        try {
+            while (drained < limit) {
+                E element = take(position);
+                if (element == null) {
+                    break;
+                }
+                position++;
+                drained++;
+                action.accept(element);
+            }
+        } finally {
+            head = position;
+        }
+        return drained;
+    }
+
+    /**
+     * Removes every published element, passing each to the given action in the order they were
+     * added. Must only be called by the consumer thread.
+     * <p>
+     * At most one lap of the buffer is drained, so producers adding elements as fast as they are
+     * removed cannot keep the consumer here indefinitely.
+     *
+     * @param action action to perform on each element removed
+     * @return number of elements removed
+     */
+    public int drain(Consumer<? super E> action) {
+        return drain(action, capacity);
+    }
+
+    /**
+     * Returns an estimate of the number of elements in the buffer. The estimate includes elements
+     * being added concurrently and may be stale by the time it is returned.
+     *
+     * @return estimated number of elements
+     */
+    public int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    /**
+     * Returns whether the buffer appears empty. See {@link #size()}.
+     *
+     * @return true if no elements appear to be in the buffer
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /* Removes the element at the given position and frees its slot, if it has been published */
+    @SuppressWarnings("unchecked")
+    private E take(long position) {
+        int index = (int) position & mask;
+        if (sequences.getAcquire(index) != position + 1) {
+            return null;
+        }
+        E element = (E) elements[index];
+        elements[index] = null;
+        sequences.setRelease(index, position + capacity);
+        return element;
+    }
+}
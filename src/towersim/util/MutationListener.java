@@ -0,0 +1,42 @@
+package towersim.util;
+
+/**
+ * Denotes an object that is told whenever part of the simulation changes state in a way that
+ * would change how it is saved.
+ * <p>
+ * Entities such as aircraft, gates and terminals notify their listener each time they change.
+ * A control tower additionally notifies its listener when an entity comes under or leaves its
+ * jurisdiction.
+ */
+@FunctionalInterface
+public interface MutationListener {
+
+    /**
+     * Called after the given entity has changed.
+     *
+     * @param entity entity that changed
+     */
+    void mutated(Object entity);
+
+    /**
+     * Called after the given entity has been added to a control tower.
+     * <p>
+     * By default, this is treated the same as a change to the entity.
+     *
+     * @param entity entity that was added
+     */
+    default void added(Object entity) {
+        mutated(entity);
+    }
+
+    /**
+     * Called after the given entity has been removed from a control tower.
+     * <p>
+     * By default, this is treated the same as a change to the entity.
+     *
+     * @param entity entity that was removed
+     */
+    default void removed(Object entity) {
+        mutated(entity);
+    }
+}
@@ -0,0 +1,69 @@
+package towersim.aircraft;
+
+import org.junit.Test;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+public class AircraftIdentityTest {
+
+    private static Aircraft aircraft(String callsign, AircraftCharacteristics characteristics) {
+        return new FreightAircraft(callsign, characteristics,
+                new TaskList(List.of(new Task(TaskType.AWAY))), 0, 0);
+    }
+
+    @Test
+    public void identityMatchesEqualityTest() {
+        // packed callsigns, hashed callsigns that are too long or use other characters
+        String[] callsigns = {"", "A", "AA", "ABC123", "abc123", "ZZZ-999ZZ", "ZZZ-999ZZZ",
+            "ABC 123", "\u00C4BC123", "A:B"};
+        AircraftCharacteristics[] models = {AircraftCharacteristics.BOEING_747_8F,
+            AircraftCharacteristics.SIKORSKY_SKYCRANE};
+        for (String callsign : callsigns) {
+            for (AircraftCharacteristics model : models) {
+                Aircraft first = aircraft(callsign, model);
+                for (String otherCallsign : callsigns) {
+                    for (AircraftCharacteristics otherModel : models) {
+                        Aircraft other = aircraft(otherCallsign, otherModel);
+                        boolean same = callsign.equals(otherCallsign) && model == otherModel;
+                        if (same) {
+                            assertEquals(first.getIdentity(), other.getIdentity());
+                        }
+                        assertEquals(first + " " + other, same, first.equals(other));
+                        if (same) {
+                            assertEquals(first.hashCode(), other.hashCode());
+                        }
+                    }
+                }
+                assertEquals(first, first.copy());
+                assertEquals(first.getIdentity(), first.copy().getIdentity());
+            }
+        }
+    }
+
+    @Test
+    public void hashedCallsignsCompareByCallsignTest() {
+        // neither can be packed, and both have the same String hash code
+        Aircraft first = aircraft("Aa 1", AircraftCharacteristics.BOEING_747_8F);
+        Aircraft second = aircraft("BB 1", AircraftCharacteristics.BOEING_747_8F);
+        assertEquals(first.getIdentity(), second.getIdentity());
+        assertNotEquals(first, second);
+        assertEquals(first, aircraft("Aa 1", AircraftCharacteristics.BOEING_747_8F));
+    }
+
+    @Test
+    public void packedCallsignsHaveDistinctIdentitiesTest() {
+        String[] callsigns = {"", "A", "AA", "ABC123", "abc123", "ZZZ-999ZZ", "Aa", "BB"};
+        for (String callsign : callsigns) {
+            for (String otherCallsign : callsigns) {
+                assertEquals(callsign.equals(otherCallsign),
+                        aircraft(callsign, AircraftCharacteristics.BOEING_747_8F).getIdentity()
+                        == aircraft(otherCallsign, AircraftCharacteristics.BOEING_747_8F)
+                                .getIdentity());
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package towersim.cluster;
+
+import org.junit.Before;
+import org.junit.Test;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.FreightAircraft;
+import towersim.aircraft.PassengerAircraft;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import towersim.util.MalformedSaveException;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+public class AircraftCodecTest {
+
+    private Aircraft freightAircraft;
+    private Aircraft passengerAircraft;
+
+    @Before
+    public void setup() {
+        TaskList taskList = new TaskList(List.of(
+                new Task(TaskType.AWAY),
+                new Task(TaskType.LAND),
+                new Task(TaskType.LOAD, 40),
+                new Task(TaskType.TAKEOFF)));
+        taskList.moveToNextTask(); // currently on LAND
+
+        this.freightAircraft = new FreightAircraft("UPS123", AircraftCharacteristics.BOEING_747_8F,
+                taskList,
+                1234.567,
+                999);
+        this.passengerAircraft = new PassengerAircraft("VH-ABC",
+                AircraftCharacteristics.ROBINSON_R44,
+                new TaskList(List.of(new Task(TaskType.WAIT))),
+                AircraftCharacteristics.ROBINSON_R44.fuelCapacity,
+                3);
+    }
+
+    @Test
+    public void roundTripFreight() throws MalformedSaveException {
+        freightAircraft.declareEmergency();
+        Aircraft decoded = AircraftCodec.decode(AircraftCodec.encode(freightAircraft));
+        assertEquals(freightAircraft, decoded);
+        assertTrue(decoded instanceof FreightAircraft);
+        assertTrue(decoded.hasEmergency());
+        // binary form keeps full precision, unlike encode()
+        assertEquals(1234.567, decoded.getFuelAmount(), 0);
+        assertEquals(TaskType.LAND, decoded.getTaskList().getCurrentTask().getType());
+        assertEquals(freightAircraft.encode(), decoded.encode());
+    }
+
+    @Test
+    public void roundTripPassenger() throws MalformedSaveException {
+        Aircraft decoded = AircraftCodec.decode(AircraftCodec.encode(passengerAircraft));
+        assertTrue(decoded instanceof PassengerAircraft);
+        assertFalse(decoded.hasEmergency());
+        assertEquals(passengerAircraft.encode(), decoded.encode());
+    }
+
+    @Test
+    public void encodedSizeMatchesBytesWritten() {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        AircraftCodec.encode(freightAircraft, buffer);
+        assertEquals(AircraftCodec.encodedSize(freightAircraft), buffer.position());
+    }
+
+    @Test
+    public void decodeConsecutiveAircraft() throws MalformedSaveException {
+        ByteBuffer buffer = ByteBuffer.allocate(AircraftCodec.encodedSize(freightAircraft)
+                + AircraftCodec.encodedSize(passengerAircraft));
+        AircraftCodec.encode(freightAircraft, buffer);
+        AircraftCodec.encode(passengerAircraft, buffer);
+        buffer.flip();
+        assertEquals(freightAircraft, AircraftCodec.decode(buffer));
+        assertEquals(passengerAircraft, AircraftCodec.decode(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test(expected = MalformedSaveException.class)
+    public void decodeTruncated() throws MalformedSaveException {
+        ByteBuffer encoded = AircraftCodec.encode(freightAircraft);
+        encoded.limit(encoded.limit() - 1);
+        AircraftCodec.decode(encoded);
+    }
+
+    @Test(expected = MalformedSaveException.class)
+    public void decodeCallsignLongerThanBuffer() throws MalformedSaveException {
+        ByteBuffer encoded = AircraftCodec.encode(freightAircraft);
+        // a negative length when read as signed, beyond the remaining bytes when unsigned
+        encoded.putShort(2, (short) -2);
+        AircraftCodec.decode(encoded);
+    }
+
+    @Test
+    public void roundTripLongCallsign() throws MalformedSaveException {
+        String callsign = "A".repeat(40000);
+        Aircraft aircraft = new PassengerAircraft(callsign, AircraftCharacteristics.ROBINSON_R44,
+                new TaskList(List.of(new Task(TaskType.WAIT))),
+                AircraftCharacteristics.ROBINSON_R44.fuelCapacity, 0);
+        assertEquals(callsign, AircraftCodec.decode(AircraftCodec.encode(aircraft)).getCallsign());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void encodeOversizeCallsign() {
+        Aircraft aircraft = new PassengerAircraft("A".repeat(70000),
+                AircraftCharacteristics.ROBINSON_R44,
+                new TaskList(List.of(new Task(TaskType.WAIT))),
+                AircraftCharacteristics.ROBINSON_R44.fuelCapacity, 0);
+        AircraftCodec.encode(aircraft);
+    }
+}
@@ -0,0 +1,159 @@
+package towersim.cluster;
+
+import org.junit.Test;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.PassengerAircraft;
+import towersim.control.ControlTower;
+import towersim.control.LandingQueue;
+import towersim.control.TakeoffQueue;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class ClusterTest {
+
+    /* Returns an empty tower for a shard */
+    private static ControlTower emptyTower() {
+        return new ControlTower(0, new ArrayList<>(), new LandingQueue(), new TakeoffQueue(),
+                new HashMap<>());
+    }
+
+    /* Starts a node running a single shard on a new thread */
+    private static Thread startNode(ClusterNode node) {
+        Thread thread = new Thread(node, "cluster-node-test");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /* Writes the whole frame to the channel */
+    private static void write(SocketChannel channel, ByteBuffer frame) throws IOException {
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+    }
+
+    /* Reads one frame from the channel and returns its type */
+    private static byte readFrameType(SocketChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(ClusterMessage.HEADER_SIZE);
+        while (header.hasRemaining()) {
+            if (channel.read(header) < 0) {
+                throw new IOException("Coordinator disconnected");
+            }
+        }
+        ByteBuffer payload = ByteBuffer.allocate(header.getInt(0) - 1);
+        while (payload.hasRemaining()) {
+            if (channel.read(payload) < 0) {
+                throw new IOException("Coordinator disconnected");
+            }
+        }
+        return header.get(4);
+    }
+
+    @Test(timeout = 10000)
+    public void handoffBetweenNodes() throws Exception {
+        ControlTower departureTower = emptyTower();
+        TaskList taskList = new TaskList(List.of(new Task(TaskType.AWAY), new Task(TaskType.LAND),
+                new Task(TaskType.LOAD, 0), new Task(TaskType.TAKEOFF)));
+        for (int i = 0; i < 3; i++) {
+            taskList.moveToNextTask();
+        }
+        Aircraft departing = new PassengerAircraft("QFA481", AircraftCharacteristics.AIRBUS_A320,
+                taskList, AircraftCharacteristics.AIRBUS_A320.fuelCapacity, 0);
+        departureTower.addAircraft(departing);
+        ControlTower arrivalTower = emptyTower();
+
+        List<TickReport> reports = Collections.synchronizedList(new ArrayList<>());
+        ClusterCoordinator coordinator = new ClusterCoordinator(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2, reports::add);
+        InetSocketAddress address = coordinator.getLocalAddress();
+        Thread first = startNode(new ClusterNode(address, Map.of(1, departureTower),
+                HandoffPolicy.nextShard()));
+        Thread second = startNode(new ClusterNode(address, Map.of(2, arrivalTower),
+                HandoffPolicy.nextShard()));
+
+        coordinator.run(1, 4);
+        first.join();
+        second.join();
+
+        // the aircraft took off on the first tick and was admitted to shard 2 on the second
+        assertFalse(departureTower.getAircraft().contains(departing));
+        assertTrue(arrivalTower.getAircraft().contains(departing));
+        assertEquals(4, arrivalTower.getTicksElapsed());
+        assertEquals(4, departureTower.getTicksElapsed());
+
+        // every tick waited for both shards before the next was released
+        assertEquals(4, reports.size());
+        for (int i = 0; i < reports.size(); i++) {
+            TickReport report = reports.get(i);
+            assertEquals(i + 1, report.getTick());
+            assertEquals(Set.of(1, 2), report.getShardNanos().keySet());
+            assertTrue(report.getShardNanos().containsKey(report.getSlowestShard()));
+            assertEquals(i == 0 ? 1 : 0, report.getHandoffs());
+            assertEquals(0, report.getDroppedHandoffs());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void handoffToUnknownShard() throws Exception {
+        List<TickReport> reports = Collections.synchronizedList(new ArrayList<>());
+        ClusterCoordinator coordinator = new ClusterCoordinator(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1, reports::add);
+        InetSocketAddress address = coordinator.getLocalAddress();
+        Aircraft aircraft = new PassengerAircraft("QFA481", AircraftCharacteristics.AIRBUS_A320,
+                new TaskList(List.of(new Task(TaskType.AWAY), new Task(TaskType.LAND),
+                        new Task(TaskType.LOAD, 0), new Task(TaskType.TAKEOFF))),
+                AircraftCharacteristics.AIRBUS_A320.fuelCapacity, 0);
+
+        // a node running shard 1 that hands an aircraft to shard 99, which no node runs
+        Thread node = new Thread(() -> {
+            try (SocketChannel channel = SocketChannel.open(address)) {
+                write(channel, ClusterMessage.shardList(ClusterMessage.HELLO, new int[] {1}));
+                assertEquals(ClusterMessage.SHARDS, readFrameType(channel));
+                assertEquals(ClusterMessage.TICK, readFrameType(channel));
+                ByteBuffer handoff = ClusterMessage.allocate(ClusterMessage.HANDOFF,
+                        4 + AircraftCodec.encodedSize(aircraft));
+                handoff.putInt(99);
+                AircraftCodec.encode(aircraft, handoff);
+                write(channel, handoff.flip());
+                ByteBuffer done = ClusterMessage.allocate(ClusterMessage.TICK_DONE, 8 + 2 + 12);
+                write(channel, done.putLong(1).putShort((short) 1).putInt(1).putLong(100).flip());
+                assertEquals(ClusterMessage.SHUTDOWN, readFrameType(channel));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, "cluster-node-test");
+        node.setDaemon(true);
+        node.start();
+
+        coordinator.run(1, 1);
+        node.join();
+
+        assertEquals(1, reports.size());
+        assertEquals(0, reports.get(0).getHandoffs());
+        assertEquals(1, reports.get(0).getDroppedHandoffs());
+        assertTrue(reports.get(0).toString().endsWith(", 1 dropped"));
+    }
+
+    @Test
+    public void slowestShard() {
+        TickReport report = new TickReport(7, Map.of(1, 500L, 2, 9000L, 3, 40L), 0, 0, 9500);
+        assertEquals(2, report.getSlowestShard());
+        assertEquals(-1, new TickReport(7, Map.of(), 0, 0, 0).getSlowestShard());
+    }
+}
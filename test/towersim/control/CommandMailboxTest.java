@@ -0,0 +1,129 @@
+package towersim.control;
+
+import org.junit.Before;
+import org.junit.Test;
+import towersim.ground.AirplaneTerminal;
+import towersim.util.NoSuitableGateException;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+public class CommandMailboxTest {
+
+    private ControlTower tower;
+
+    @Before
+    public void setup() {
+        this.tower = new ControlTower(0, new ArrayList<>(), new LandingQueue(),
+                new TakeoffQueue(), new HashMap<>());
+    }
+
+    @Test
+    public void commandsRunInSubmissionOrderTest() {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int n = i;
+            tower.getMailbox().submit(t -> order.add(n));
+        }
+        assertTrue(order.isEmpty());
+        assertEquals(5, tower.getMailbox().drain(tower));
+        assertEquals(List.of(0, 1, 2, 3, 4), order);
+        assertTrue(tower.getMailbox().isEmpty());
+    }
+
+    @Test
+    public void tickDrainsMailboxTest() throws Exception {
+        CompletableFuture<Void> added = tower.getMailbox().submit(t -> {
+            t.addTerminal(new AirplaneTerminal(1));
+            return null;
+        });
+        assertTrue(tower.getTerminals().isEmpty());
+        tower.tick();
+        assertTrue(added.isDone());
+        assertEquals(1, tower.getTerminals().size());
+    }
+
+    @Test
+    public void failureCompletesFutureExceptionallyTest() {
+        CompletableFuture<Object> failed = tower.getMailbox().submit(t -> {
+            throw new NoSuitableGateException("no gate");
+        });
+        CompletableFuture<String> next = tower.getMailbox().submit(t -> "next");
+        tower.getMailbox().drain(tower);
+        try {
+            failed.get();
+            fail("Expected the command's exception");
+        } catch (ExecutionException | InterruptedException e) {
+            assertTrue(e.getCause() instanceof NoSuitableGateException);
+        }
+        assertEquals("next", next.join());
+    }
+
+    @Test
+    public void commandsSubmittedWhileDrainingWaitTest() {
+        List<String> order = new ArrayList<>();
+        tower.getMailbox().submit(t -> {
+            order.add("first");
+            return t.getMailbox().submit(later -> order.add("second"));
+        });
+        assertEquals(1, tower.getMailbox().drain(tower));
+        assertEquals(List.of("first"), order);
+        assertEquals(1, tower.getMailbox().drain(tower));
+        assertEquals(List.of("first", "second"), order);
+    }
+
+    @Test
+    public void concurrentProducersTest() throws Exception {
+        int producers = 4;
+        int perProducer = 10000;
+        int[] counter = new int[1];
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    tower.getMailbox().submit(t -> counter[0]++);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        int executed = 0;
+        while (threads.stream().anyMatch(Thread::isAlive)) {
+            executed += tower.getMailbox().drain(tower);
+        }
+        executed += tower.getMailbox().drain(tower);
+        assertEquals(producers * perProducer, executed);
+        assertEquals(producers * perProducer, counter[0]);
+    }
+
+    @Test
+    public void nestedDrainRejectedTest() throws Exception {
+        CompletableFuture<Integer> nested = tower.getMailbox().submit(t -> t.processCommands());
+        CompletableFuture<Void> ticked = tower.getMailbox().submit(t -> {
+            t.tick();
+            return null;
+        });
+        CompletableFuture<String> after = tower.getMailbox().submit(t -> "after");
+        assertEquals(3, tower.getMailbox().drain(tower));
+        for (CompletableFuture<?> future : List.of(nested, ticked)) {
+            try {
+                future.get();
+                fail("Expected the nested drain to be rejected");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+        assertEquals("after", after.get());
+        assertEquals(0, tower.getTicksElapsed());
+        assertTrue(tower.getMailbox().isEmpty());
+
+        // the mailbox drains normally afterwards
+        CompletableFuture<String> next = tower.getMailbox().submit(t -> "next");
+        tower.tick();
+        assertEquals("next", next.get());
+    }
+}
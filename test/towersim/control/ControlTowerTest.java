@@ -0,0 +1,380 @@
+package towersim.control;
+
+import org.junit.Before;
+import org.junit.Test;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.FreightAircraft;
+import towersim.aircraft.PassengerAircraft;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.HelicopterTerminal;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+public class ControlTowerTest {
+
+    private ControlTower tower;
+
+    @Before
+    public void setup() throws Exception {
+        this.tower = new ControlTower(10, new ArrayList<>(), new LandingQueue(),
+                new TakeoffQueue(), new TreeMap<>(Comparator.comparing(Aircraft::getCallsign)));
+        Terminal airplaneTerminal = new AirplaneTerminal(1);
+        airplaneTerminal.addGate(new Gate(1));
+        airplaneTerminal.addGate(new Gate(2));
+        Terminal helicopterTerminal = new HelicopterTerminal(2);
+        helicopterTerminal.addGate(new Gate(3));
+        this.tower.addTerminal(airplaneTerminal);
+        this.tower.addTerminal(helicopterTerminal);
+
+        List<Task> tasks = List.of(
+                new Task(TaskType.AWAY),
+                new Task(TaskType.LAND),
+                new Task(TaskType.WAIT),
+                new Task(TaskType.LOAD, 60),
+                new Task(TaskType.TAKEOFF));
+        for (int i = 0; i < 6; i++) {
+            TaskList taskList = new TaskList(tasks);
+            for (int j = 0; j < i % tasks.size(); j++) {
+                taskList.moveToNextTask();
+            }
+            try {
+                this.tower.addAircraft(new PassengerAircraft("PAX00" + i,
+                        AircraftCharacteristics.AIRBUS_A320, taskList,
+                        AircraftCharacteristics.AIRBUS_A320.fuelCapacity * (i + 1) / 10, 20));
+            } catch (Exception ignored) {
+                // aircraft that do not fit at a gate are still managed by the tower
+            }
+        }
+        this.tower.addAircraft(new FreightAircraft("FRT001",
+                AircraftCharacteristics.SIKORSKY_SKYCRANE, new TaskList(tasks),
+                AircraftCharacteristics.SIKORSKY_SKYCRANE.fuelCapacity / 2, 1000));
+        this.tower.getAircraft().get(1).declareEmergency();
+        this.tower.tick();
+    }
+
+    private static String state(ControlTower tower) {
+        StringJoiner joiner = new StringJoiner(System.lineSeparator());
+        joiner.add(String.valueOf(tower.getTicksElapsed()));
+        for (Aircraft aircraft : tower.getAircraft()) {
+            joiner.add(aircraft.encode());
+        }
+        joiner.add(tower.getTakeoffQueue().encode());
+        joiner.add(tower.getLandingQueue().encode());
+        for (Map.Entry<Aircraft, Integer> entry : tower.getLoadingAircraft().entrySet()) {
+            joiner.add(entry.getKey().getCallsign() + ":" + entry.getValue());
+        }
+        for (Terminal terminal : tower.getTerminals()) {
+            joiner.add(terminal.encode());
+        }
+        return joiner.toString();
+    }
+
+    @Test
+    public void forkHasSameStateTest() {
+        ControlTower copy = tower.fork();
+        assertEquals(state(tower), state(copy));
+        assertEquals(tower.toString(), copy.toString());
+    }
+
+    @Test
+    public void forkSharesNoMutableStateTest() {
+        ControlTower copy = tower.fork();
+        for (int i = 0; i < tower.getAircraft().size(); i++) {
+            Aircraft original = tower.getAircraft().get(i);
+            Aircraft copied = copy.getAircraft().get(i);
+            assertNotSame(original, copied);
+            assertNotSame(original.getTaskList(), copied.getTaskList());
+            assertEquals(original, copied);
+        }
+        for (int i = 0; i < tower.getTerminals().size(); i++) {
+            assertNotSame(tower.getTerminals().get(i), copy.getTerminals().get(i));
+        }
+        assertNotSame(tower.getLandingQueue(), copy.getLandingQueue());
+        assertNotSame(tower.getTakeoffQueue(), copy.getTakeoffQueue());
+        assertNotSame(tower.getLoadingAircraft(), copy.getLoadingAircraft());
+    }
+
+    @Test
+    public void forkRefersToCopiedAircraftTest() {
+        ControlTower copy = tower.fork();
+        for (Aircraft aircraft : copy.getLandingQueue().getAircraftInOrder()) {
+            assertTrue(copy.getAircraft().stream().anyMatch(a -> a == aircraft));
+        }
+        for (Aircraft aircraft : copy.getLoadingAircraft().keySet()) {
+            assertTrue(copy.getAircraft().stream().anyMatch(a -> a == aircraft));
+        }
+        for (Terminal terminal : copy.getTerminals()) {
+            for (Gate gate : terminal.getGates()) {
+                Aircraft parked = gate.getAircraftAtGate();
+                if (parked != null) {
+                    assertTrue(copy.getAircraft().stream().anyMatch(a -> a == parked));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void forkTicksIndependentlyTest() {
+        String before = state(tower);
+        ControlTower copy = tower.fork();
+        copy.getTerminals().get(0).declareEmergency();
+        copy.getAircraft().get(0).declareEmergency();
+        for (int i = 0; i < 15; i++) {
+            copy.tick();
+        }
+        assertEquals(before, state(tower));
+        assertFalse(tower.getTerminals().get(0).hasEmergency());
+    }
+
+    @Test
+    public void forkTicksSameAsOriginalTest() {
+        ControlTower copy = tower.fork();
+        for (int i = 0; i < 25; i++) {
+            tower.tick();
+            copy.tick();
+            assertEquals(state(tower), state(copy));
+        }
+    }
+
+    @Test
+    public void offeredArrivalsAdmittedAtNextTickTest() {
+        List<Task> tasks = List.of(new Task(TaskType.AWAY), new Task(TaskType.AWAY),
+                new Task(TaskType.LAND), new Task(TaskType.LOAD, 50), new Task(TaskType.TAKEOFF));
+        Aircraft arrival = new PassengerAircraft("NEW001", AircraftCharacteristics.BOEING_787,
+                new TaskList(tasks), AircraftCharacteristics.BOEING_787.fuelCapacity, 0);
+        int before = tower.getAircraft().size();
+        assertTrue(tower.offerArrival(arrival));
+        assertEquals(before, tower.getAircraft().size());
+        tower.tick();
+        assertEquals(before + 1, tower.getAircraft().size());
+        assertTrue(tower.getAircraft().stream().anyMatch(a -> a == arrival));
+    }
+
+    @Test
+    public void offeredArrivalReplacesAwayAircraftTest() {
+        List<Task> tasks = List.of(new Task(TaskType.AWAY), new Task(TaskType.AWAY),
+                new Task(TaskType.AWAY), new Task(TaskType.LAND), new Task(TaskType.LOAD, 50),
+                new Task(TaskType.TAKEOFF));
+        Aircraft original = new PassengerAircraft("UPD001", AircraftCharacteristics.BOEING_787,
+                new TaskList(tasks), AircraftCharacteristics.BOEING_787.fuelCapacity, 0);
+        tower.offerArrival(original);
+        tower.tick();
+        int before = tower.getAircraft().size();
+
+        Aircraft update = original.copy();
+        update.declareEmergency();
+        tower.offerArrival(update);
+        tower.tick();
+        assertEquals(before, tower.getAircraft().size());
+        assertTrue(tower.getAircraft().stream().anyMatch(a -> a == update));
+        assertFalse(tower.getAircraft().stream().anyMatch(a -> a == original));
+    }
+
+    private static List<Aircraft> fleet(String prefix) {
+        List<Task> waiting = List.of(new Task(TaskType.WAIT), new Task(TaskType.LOAD, 40),
+                new Task(TaskType.TAKEOFF), new Task(TaskType.AWAY), new Task(TaskType.LAND));
+        List<Task> landing = List.of(new Task(TaskType.LAND), new Task(TaskType.LOAD, 40),
+                new Task(TaskType.TAKEOFF), new Task(TaskType.AWAY));
+        List<Aircraft> fleet = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            fleet.add(new PassengerAircraft(prefix + "P" + i, AircraftCharacteristics.FOKKER_100,
+                    new TaskList(i % 2 == 0 ? waiting : landing),
+                    AircraftCharacteristics.FOKKER_100.fuelCapacity / 2, 0));
+            fleet.add(new FreightAircraft(prefix + "H" + i,
+                    AircraftCharacteristics.SIKORSKY_SKYCRANE, new TaskList(waiting),
+                    AircraftCharacteristics.SIKORSKY_SKYCRANE.fuelCapacity / 2, 0));
+        }
+        return fleet;
+    }
+
+    @Test
+    public void addAllAircraftMatchesAddAircraftTest() {
+        ControlTower bulk = tower.fork();
+        ControlTower single = tower.fork();
+        List<Aircraft> fleet = fleet("B");
+        AdmissionResult result = bulk.addAllAircraft(fleet);
+        for (Aircraft aircraft : fleet("B")) {
+            if (result.getAdmitted().contains(aircraft)) {
+                try {
+                    single.addAircraft(aircraft);
+                } catch (Exception e) {
+                    fail("Admitted aircraft should fit at a gate: " + e);
+                }
+            }
+        }
+        assertEquals(state(single), state(bulk));
+        assertEquals(result.getAdmitted().size() + result.getNumRejected(), fleet.size());
+    }
+
+    @Test
+    public void addAllAircraftRejectsTest() {
+        List<Aircraft> fleet = fleet("R");
+        fleet.add(fleet.get(0));
+        fleet.add(tower.getAircraft().get(0));
+        int before = tower.getAircraft().size();
+        long freeHelicopterGates = tower.getTerminals().get(1).getGates().stream()
+                .filter(gate -> !gate.isOccupied()).count();
+        AdmissionResult result = tower.addAllAircraft(fleet);
+        assertFalse(result.isComplete());
+        assertEquals(2, result.getRejected(AdmissionResult.Rejection.DUPLICATE).size());
+        // all four helicopters are waiting, but there are fewer helicopter gates
+        assertEquals(4 - freeHelicopterGates, result.getRejected(
+                AdmissionResult.Rejection.NO_SUITABLE_GATE).stream()
+                .filter(a -> a instanceof FreightAircraft).count());
+        for (Aircraft rejected : result.getRejected(AdmissionResult.Rejection.NO_SUITABLE_GATE)) {
+            assertFalse(tower.getAircraft().stream().anyMatch(a -> a == rejected));
+        }
+        assertEquals(before + result.getAdmitted().size(), tower.getAircraft().size());
+    }
+
+    /* Returns the tower's aircraft matching the given condition, found without its indexes */
+    private static List<Aircraft> filter(ControlTower tower, Predicate<Aircraft> condition) {
+        List<Aircraft> result = new ArrayList<>();
+        for (Aircraft aircraft : tower.getAircraft()) {
+            if (condition.test(aircraft)) {
+                result.add(aircraft);
+            }
+        }
+        return result;
+    }
+
+    private static void assertIndexesMatch(ControlTower tower) {
+        for (TaskType taskType : TaskType.values()) {
+            assertEquals(taskType.name(), filter(tower,
+                    a -> a.getTaskList().getCurrentTask().getType() == taskType),
+                    tower.getAircraftWithTask(taskType));
+        }
+        assertEquals(filter(tower, Aircraft::hasEmergency), tower.getAircraftWithEmergency());
+        for (AircraftCharacteristics characteristics : AircraftCharacteristics.values()) {
+            assertEquals(characteristics.name(),
+                    filter(tower, a -> a.getCharacteristics() == characteristics),
+                    tower.getAircraftWithCharacteristics(characteristics));
+        }
+    }
+
+    @Test
+    public void indexesFollowTasksAndEmergenciesTest() {
+        assertIndexesMatch(tower);
+        for (int i = 0; i < 40; i++) {
+            tower.tick();
+            if (i % 5 == 2) {
+                tower.getAircraft().get(i % 7).declareEmergency();
+            } else if (i % 5 == 4) {
+                tower.getAircraft().get(1).clearEmergency();
+            }
+            if (i % 9 == 0) {
+                for (Aircraft away : tower.getAircraftWithTask(TaskType.AWAY)) {
+                    assertTrue(tower.removeAircraft(away));
+                    tower.offerArrival(away);
+                    break;
+                }
+            }
+            assertIndexesMatch(tower);
+        }
+        assertIndexesMatch(tower.fork());
+    }
+
+    @Test
+    public void loadingCountsDownAndFinishesTest() {
+        Map<Aircraft, Integer> loading = new TreeMap<>(Comparator.comparing(Aircraft::getCallsign));
+        Aircraft stale = tower.getAircraft().get(0);
+        Aircraft quick = tower.getAircraft().get(2);
+        Aircraft slow = tower.getAircraft().get(3);
+        loading.put(slow, 70);
+        loading.put(quick, 2);
+        loading.put(stale, 0);
+        ControlTower loaded = new ControlTower(5, tower.getAircraft(), new LandingQueue(),
+                new TakeoffQueue(), loading);
+        assertEquals(loading, loaded.getLoadingAircraft());
+        assertEquals(List.copyOf(loading.keySet()),
+                List.copyOf(loaded.getLoadingAircraft().keySet()));
+
+        loaded.loadAircraft();
+        assertEquals(Map.of(quick, 1, slow, 69), loaded.getLoadingAircraft());
+        loaded.loadAircraft();
+        assertEquals(Map.of(slow, 68), loaded.getLoadingAircraft());
+        assertEquals(TaskType.TAKEOFF, quick.getTaskList().getCurrentTask().getType());
+        // more ticks than the wheel has slots
+        for (int i = 0; i < 67; i++) {
+            loaded.loadAircraft();
+        }
+        assertEquals(Map.of(slow, 1), loaded.getLoadingAircraft());
+        loaded.loadAircraft();
+        assertTrue(loaded.getLoadingAircraft().isEmpty());
+    }
+
+    @Test
+    public void loadingAircraftInStartOrderTest() {
+        Map<Aircraft, Integer> loading = new LinkedHashMap<>();
+        List<Aircraft> order = List.of(tower.getAircraft().get(3), tower.getAircraft().get(0),
+                tower.getAircraft().get(2));
+        for (Aircraft aircraft : order) {
+            loading.put(aircraft, 30);
+        }
+        ControlTower loaded = new ControlTower(5, tower.getAircraft(), new LandingQueue(),
+                new TakeoffQueue(), loading);
+        assertEquals(order, List.copyOf(loaded.getLoadingAircraft().keySet()));
+        loaded.loadAircraft();
+        assertEquals(order, List.copyOf(loaded.getLoadingAircraft().keySet()));
+    }
+
+    /* Returns a copy of the given aircraft with a new task list, starting at the given task */
+    private static Aircraft copyAt(Aircraft aircraft, TaskType first) {
+        TaskList tasks = new TaskList(List.of(new Task(TaskType.AWAY), new Task(TaskType.LAND),
+                new Task(TaskType.LOAD, 0), new Task(TaskType.TAKEOFF)));
+        while (tasks.getCurrentTask().getType() != first) {
+            tasks.moveToNextTask();
+        }
+        return new PassengerAircraft(aircraft.getCallsign(), aircraft.getCharacteristics(),
+                tasks, aircraft.getFuelAmount(), 0);
+    }
+
+    @Test
+    public void replaceAircraftKeepsOrderTest() {
+        List<Aircraft> before = tower.getAircraft();
+        int index = -1;
+        for (int i = 0; i < before.size(); i++) {
+            if (before.get(i).getTaskList().getCurrentTask().getType() == TaskType.AWAY) {
+                index = i;
+                break;
+            }
+        }
+        assertTrue(index >= 0);
+        Aircraft replacement = copyAt(before.get(index), TaskType.AWAY);
+        assertTrue(tower.replaceAircraft(replacement));
+
+        List<Aircraft> after = tower.getAircraft();
+        assertEquals(before, after);
+        assertSame(replacement, after.get(index));
+        assertTrue(tower.getAircraftWithTask(TaskType.AWAY).stream()
+                .anyMatch(aircraft -> aircraft == replacement));
+
+        // an aircraft that is not AWAY is never replaced, nor replaces one
+        assertFalse(tower.replaceAircraft(copyAt(before.get(index), TaskType.LAND)));
+        for (Aircraft aircraft : before) {
+            if (aircraft.getTaskList().getCurrentTask().getType() != TaskType.AWAY) {
+                assertFalse(tower.replaceAircraft(copyAt(aircraft, TaskType.AWAY)));
+                assertSame(aircraft, tower.getAircraft().get(before.indexOf(aircraft)));
+            }
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void loadingAircraftUnmodifiableTest() {
+        tower.getLoadingAircraft().clear();
+    }
+}
@@ -0,0 +1,262 @@
+package towersim.control;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.FreightAircraft;
+import towersim.aircraft.PassengerAircraft;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.HelicopterTerminal;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import towersim.util.MalformedSaveException;
+import static org.junit.Assert.*;
+
+import java.io.FileReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class MappedSaveLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ControlTower tower;
+
+    private Path[] files;
+
+    @Before
+    public void setup() throws Exception {
+        this.tower = new ControlTower(0, new ArrayList<>(), new LandingQueue(),
+                new TakeoffQueue(), new HashMap<>());
+        int gateNumber = 1;
+        for (int i = 1; i <= 3; i++) {
+            Terminal terminal = i == 3 ? new HelicopterTerminal(i) : new AirplaneTerminal(i);
+            for (int j = 0; j < 6; j++) {
+                terminal.addGate(new Gate(gateNumber++));
+            }
+            tower.addTerminal(terminal);
+        }
+        List<Task> tasks = List.of(new Task(TaskType.AWAY), new Task(TaskType.LAND),
+                new Task(TaskType.WAIT), new Task(TaskType.LOAD, 60),
+                new Task(TaskType.TAKEOFF), new Task(TaskType.AWAY));
+        for (int i = 0; i < 30; i++) {
+            TaskList taskList = new TaskList(tasks);
+            for (int j = 0; j < i % 3; j++) {
+                taskList.moveToNextTask();
+            }
+            Aircraft aircraft;
+            if (i % 5 == 4) {
+                aircraft = new FreightAircraft("FRT" + i, AircraftCharacteristics.BOEING_747_8F,
+                        taskList, AircraftCharacteristics.BOEING_747_8F.fuelCapacity * 0.75, 0);
+            } else {
+                aircraft = new PassengerAircraft("PAX" + i, AircraftCharacteristics.AIRBUS_A320,
+                        taskList, 1000 + i * 123.25, 0);
+            }
+            tower.addAircraft(aircraft);
+        }
+        tower.getAircraft().get(7).declareEmergency();
+        tower.getTerminals().get(1).declareEmergency();
+        for (int i = 0; i < 6; i++) {
+            tower.tick();
+        }
+        this.files = new Path[] {folder.getRoot().toPath().resolve("tick.txt"),
+            folder.getRoot().toPath().resolve("aircraft.txt"),
+            folder.getRoot().toPath().resolve("queues.txt"),
+            folder.getRoot().toPath().resolve("terminals.txt")};
+        write(encode(tower), System.lineSeparator());
+    }
+
+    /* Returns the lines of the four save files of the given tower */
+    private static List<List<String>> encode(ControlTower tower) {
+        List<String> aircraft = new ArrayList<>();
+        aircraft.add(String.valueOf(tower.getAircraft().size()));
+        tower.getAircraft().forEach(a -> aircraft.add(a.encode()));
+        List<String> queues = new ArrayList<>();
+        queues.addAll(List.of(tower.getTakeoffQueue().encode().split("\\R")));
+        queues.addAll(List.of(tower.getLandingQueue().encode().split("\\R")));
+        queues.add("LoadingAircraft:" + tower.getLoadingAircraft().size());
+        StringJoiner loading = new StringJoiner(",");
+        for (Map.Entry<Aircraft, Integer> entry : tower.getLoadingAircraft().entrySet()) {
+            loading.add(entry.getKey().getCallsign() + ":" + entry.getValue());
+        }
+        queues.add(loading.toString());
+        List<String> terminals = new ArrayList<>();
+        terminals.add(String.valueOf(tower.getTerminals().size()));
+        tower.getTerminals().forEach(t -> terminals.addAll(List.of(t.encode().split("\\R"))));
+        return List.of(List.of(String.valueOf(tower.getTicksElapsed())), aircraft, queues,
+                terminals);
+    }
+
+    private void write(List<List<String>> contents, String lineSeparator) throws Exception {
+        for (int i = 0; i < 4; i++) {
+            Files.writeString(files[i], String.join(lineSeparator, contents.get(i)));
+        }
+    }
+
+    private ControlTower loadWithReaders() throws Exception {
+        return ControlTowerInitialiser.createControlTower(new FileReader(files[0].toFile()),
+                new FileReader(files[1].toFile()), new FileReader(files[2].toFile()),
+                new FileReader(files[3].toFile()));
+    }
+
+    private ControlTower loadMapped() throws Exception {
+        return MappedSaveLoader.createControlTower(files[0], files[1], files[2], files[3]);
+    }
+
+    private ControlTower loadPipelined() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            return MappedSaveLoader.createControlTower(files[0], files[1], files[2], files[3],
+                    executor, LoadProgressListener.NONE);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void loadsSameTowerTest() throws Exception {
+        ControlTower loaded = loadMapped();
+        assertEquals(encode(tower), encode(loaded));
+        assertEquals(encode(loadWithReaders()), encode(loaded));
+        assertEquals(encode(tower), encode(loadPipelined()));
+        assertEquals(tower.getAircraft(), loaded.getAircraft());
+        assertEquals(tower.getLoadingAircraft(), loaded.getLoadingAircraft());
+    }
+
+    private ControlTower loadLazily() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            return MappedSaveLoader.createControlTowerLazily(files[0], files[1], files[2],
+                    files[3], executor, LoadProgressListener.NONE);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void lazyTowerRunsLikeEagerTest() throws Exception {
+        ControlTower eager = loadMapped();
+        ControlTower lazy = loadLazily();
+        assertEquals(encode(eager), encode(lazy));
+        long undecoded = lazy.getAircraft().stream()
+                .filter(aircraft -> !aircraft.getTaskList().isDecoded()).count();
+        assertTrue(undecoded > 0);
+
+        for (int i = 0; i < 40; i++) {
+            eager.tick();
+            lazy.tick();
+            assertEquals("tick " + i, encode(eager), encode(lazy));
+        }
+        for (int i = 0; i < eager.getAircraft().size(); i++) {
+            assertEquals(eager.getAircraft().get(i).getTaskList().toString(),
+                    lazy.getAircraft().get(i).getTaskList().toString());
+        }
+    }
+
+    @Test
+    public void reportsProgressTest() throws Exception {
+        List<Integer> terminals = new CopyOnWriteArrayList<>();
+        int[] aircraft = new int[2];
+        LoadProgressListener listener = new LoadProgressListener() {
+            @Override
+            public void aircraftLoaded(int loaded, int total) {
+                aircraft[0] = loaded;
+                aircraft[1] = total;
+            }
+
+            @Override
+            public void terminalLoaded(Terminal terminal, int loaded, int total) {
+                assertEquals(3, total);
+                terminals.add(terminal.getTerminalNumber());
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            MappedSaveLoader.createControlTower(files[0], files[1], files[2], files[3],
+                    executor, listener);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(List.of(1, 2, 3), terminals);
+        assertArrayEquals(new int[] {30, 30}, aircraft);
+    }
+
+    @Test
+    public void windowsLineEndingsTest() throws Exception {
+        write(encode(tower), "\r\n");
+        assertEquals(encode(tower), encode(loadMapped()));
+    }
+
+    @Test
+    public void nonCanonicalAcceptedLikeReadersTest() throws Exception {
+        List<List<String>> contents = new ArrayList<>(encode(tower));
+        // signs, exponents and extra lines are never written by a save, but are accepted
+        contents.set(0, List.of("+6", "ignored"));
+        List<String> aircraft = new ArrayList<>(contents.get(1));
+        aircraft.set(1, aircraft.get(1).replaceFirst(":(\\d+)\\.(\\d+):", ":+$1.$2e0:"));
+        contents.set(1, aircraft);
+        write(contents, "\n");
+        assertEquals(encode(loadWithReaders()), encode(loadMapped()));
+    }
+
+    @Test
+    public void malformedRejectedLikeReadersTest() throws Exception {
+        List<List<String>> valid = encode(tower);
+        List<List<String>> tooFewAircraft = new ArrayList<>(valid);
+        tooFewAircraft.set(1, valid.get(1).subList(0, valid.get(1).size() - 1));
+        List<List<String>> unknownCallsign = new ArrayList<>(valid);
+        List<String> terminals = new ArrayList<>(valid.get(3));
+        terminals.set(2, "1:NOPE1");
+        unknownCallsign.set(3, terminals);
+        List<List<String>> overfuelled = new ArrayList<>(valid);
+        List<String> aircraft = new ArrayList<>(valid.get(1));
+        aircraft.set(3, aircraft.get(3).replaceFirst(":[\\d.]+:", ":99999999.5:"));
+        overfuelled.set(1, aircraft);
+        // the aircraft file is reported first, although it takes longest to load
+        List<List<String>> bothInvalid = new ArrayList<>(unknownCallsign);
+        bothInvalid.set(1, overfuelled.get(1));
+
+        for (List<List<String>> contents : List.of(tooFewAircraft, unknownCallsign,
+                overfuelled, bothInvalid)) {
+            write(contents, "\n");
+            try {
+                loadWithReaders();
+                fail("Expected the reader-based loader to reject the save");
+            } catch (MalformedSaveException expected) {
+                try {
+                    loadMapped();
+                    fail("Expected the mapped loader to reject the save");
+                } catch (MalformedSaveException actual) {
+                    assertEquals(expected.getMessage(), actual.getMessage());
+                }
+                try {
+                    loadPipelined();
+                    fail("Expected the pipelined loader to reject the save");
+                } catch (MalformedSaveException actual) {
+                    assertEquals(expected.getMessage(), actual.getMessage());
+                }
+                try {
+                    loadLazily();
+                    fail("Expected the lazy loader to reject the save");
+                } catch (MalformedSaveException actual) {
+                    assertEquals(expected.getMessage(), actual.getMessage());
+                }
+            }
+        }
+    }
+}
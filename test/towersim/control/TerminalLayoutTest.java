@@ -0,0 +1,171 @@
+package towersim.control;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.PassengerAircraft;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.HelicopterTerminal;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import towersim.util.MalformedSaveException;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+public class TerminalLayoutTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ControlTower tower;
+
+    private Aircraft parkedAtOne;
+
+    private Aircraft parkedAtFour;
+
+    @Before
+    public void setup() throws Exception {
+        this.tower = new ControlTower(0, new ArrayList<>(), new LandingQueue(),
+                new TakeoffQueue(), new HashMap<>());
+        this.parkedAtOne = aircraft("ABC001");
+        this.parkedAtFour = aircraft("ABC002");
+        tower.addAircraft(parkedAtOne);
+        tower.addAircraft(parkedAtFour);
+
+        Terminal one = new AirplaneTerminal(1);
+        Gate gateOne = new Gate(1);
+        gateOne.parkAircraft(parkedAtOne);
+        one.addGate(gateOne);
+        one.addGate(new Gate(2));
+        Terminal two = new HelicopterTerminal(2);
+        two.addGate(new Gate(3));
+        Terminal three = new AirplaneTerminal(3);
+        Gate gateFour = new Gate(4);
+        gateFour.parkAircraft(parkedAtFour);
+        three.addGate(gateFour);
+        tower.addTerminal(one);
+        tower.addTerminal(two);
+        tower.addTerminal(three);
+    }
+
+    private static Aircraft aircraft(String callsign) {
+        return new PassengerAircraft(callsign, AircraftCharacteristics.AIRBUS_A320,
+                new TaskList(List.of(new Task(TaskType.AWAY), new Task(TaskType.LAND),
+                        new Task(TaskType.LOAD, 3), new Task(TaskType.TAKEOFF))),
+                AircraftCharacteristics.AIRBUS_A320.fuelCapacity, 0);
+    }
+
+    /* Terminal 1 with gates 2 and 5 in emergency, and new terminal 4 with gate 6 */
+    private static final String LAYOUT = String.join(System.lineSeparator(),
+            "2",
+            "AirplaneTerminal:1:true:2",
+            "2:empty",
+            "5:empty",
+            "AirplaneTerminal:4:false:1",
+            "6:empty");
+
+    @Test
+    public void appliesLayoutAroundParkedAircraftTest() throws Exception {
+        LayoutResult result = new TerminalLayout(LAYOUT).execute(tower);
+        assertFalse(result.isComplete());
+        assertEquals(List.of("Gate 1 has aircraft parked",
+                "AirplaneTerminal 3 has aircraft parked"), result.getDeferred());
+        assertEquals(1, result.getCount(LayoutResult.Change.TERMINAL_REMOVED));
+        assertEquals(1, result.getCount(LayoutResult.Change.TERMINAL_ADDED));
+        assertEquals(1, result.getCount(LayoutResult.Change.GATE_ADDED));
+        assertEquals(0, result.getCount(LayoutResult.Change.GATE_REMOVED));
+        assertEquals(1, result.getCount(LayoutResult.Change.EMERGENCY_CHANGED));
+
+        List<Terminal> terminals = tower.getTerminals();
+        assertEquals("[AirplaneTerminal 1, 3 gates (EMERGENCY), AirplaneTerminal 3, 1 gates, "
+                + "AirplaneTerminal 4, 1 gates]", terminals.toString());
+        assertEquals("[Gate 1 [ABC001], Gate 2 [empty], Gate 5 [empty]]",
+                terminals.get(0).getGates().toString());
+        assertSame(parkedAtFour, tower.findGateOfAircraft(parkedAtFour).getAircraftAtGate());
+        assertEquals(2, tower.getAircraft().size());
+
+        // once the aircraft leave, applying the layout again completes it
+        tower.findGateOfAircraft(parkedAtOne).aircraftLeaves();
+        tower.findGateOfAircraft(parkedAtFour).aircraftLeaves();
+        result = new TerminalLayout(LAYOUT).execute(tower);
+        assertTrue(result.isComplete());
+        assertEquals("TERMINAL_REMOVED=1, GATE_REMOVED=1", result.toString());
+        assertEquals("[AirplaneTerminal 1, 2 gates (EMERGENCY), AirplaneTerminal 4, 1 gates]",
+                tower.getTerminals().toString());
+        assertFalse(new TerminalLayout(LAYOUT).execute(tower).hasChanges());
+    }
+
+    @Test
+    public void malformedLayoutLeavesTowerUnchangedTest() {
+        String before = tower.getTerminals().toString();
+        try {
+            new TerminalLayout("1\nAirplaneTerminal:1:maybe:0").execute(tower);
+            fail("Expected MalformedSaveException");
+        } catch (Exception e) {
+            assertTrue(e instanceof MalformedSaveException);
+        }
+        assertEquals(before, tower.getTerminals().toString());
+    }
+
+    @Test
+    public void watcherAppliesChangedFileTest() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("terminals.txt");
+        Files.writeString(file, "0");
+        CompletableFuture<LayoutResult> applied = new CompletableFuture<>();
+        TerminalFileWatcher watcher = new TerminalFileWatcher(file, tower, applied::complete,
+                applied::completeExceptionally);
+        try {
+            Files.writeString(file, LAYOUT);
+            // the layout is applied by the thread that ticks the tower, as it drains its mailbox
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (!applied.isDone() && System.currentTimeMillis() < deadline) {
+                tower.getMailbox().drain(tower);
+                Thread.sleep(10);
+            }
+        } finally {
+            watcher.close();
+        }
+        assertTrue("layout was not applied in time", applied.isDone());
+        assertEquals(1, applied.get().getCount(LayoutResult.Change.TERMINAL_ADDED));
+        assertEquals(3, tower.getTerminals().size());
+    }
+
+    @Test
+    public void watcherReportsMalformedFileTest() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("terminals.txt");
+        Files.writeString(file, "0");
+        String before = tower.getTerminals().toString();
+        CompletableFuture<LayoutResult> applied = new CompletableFuture<>();
+        CompletableFuture<IOException> failed = new CompletableFuture<>();
+        TerminalFileWatcher watcher = new TerminalFileWatcher(file, tower, applied::complete,
+                failed::complete);
+        try {
+            Files.writeString(file, "1\nAirplaneTerminal:1:maybe:0");
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (!failed.isDone() && System.currentTimeMillis() < deadline) {
+                tower.getMailbox().drain(tower);
+                Thread.sleep(10);
+            }
+        } finally {
+            watcher.close();
+        }
+        assertTrue("failure was not reported in time", failed.isDone());
+        assertTrue(failed.get().getCause() instanceof MalformedSaveException);
+        assertFalse(applied.isDone());
+        assertEquals(before, tower.getTerminals().toString());
+    }
+}
@@ -0,0 +1,147 @@
+package towersim.display;
+
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.stage.Stage;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.FreightAircraft;
+import towersim.aircraft.PassengerAircraft;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how long {@link AirportCanvas} takes to draw {@value #AIRCRAFT} aircraft, with
+ * aircraft drawn afresh with vector commands and with aircraft copied from a
+ * {@link SpriteCache}.
+ * <p>
+ * Usage: {@code tick_file aircraft_file queues_file terminalsWithGates_file}
+ * <p>
+ * The save files are only loaded to give the canvas a view model; the aircraft drawn are made
+ * up, of every model and with a mix of tasks and emergencies. Each round draws every aircraft
+ * in a grid over the canvas and then takes a snapshot of the canvas, so the time includes
+ * rendering as well as issuing the drawing commands. The average time per round of each mode
+ * is printed once {@value #WARMUP_ROUNDS} rounds have warmed it up.
+ * <p>
+ * The benchmark needs a display for JavaFX to run on. It only compares the two ways of drawing
+ * an aircraft; the culling done through {@link Viewport} and the lookups in {@link HitGrid} are
+ * not timed. No results have been recorded for either change, so any speed-up from them is
+ * unverified until the benchmark is run.
+ */
+public class CanvasBenchmark extends Application {
+
+    /** Number of aircraft drawn in each round */
+    static final int AIRCRAFT = 5000;
+
+    /** Rounds drawn before timing, to let the JIT compiler and the sprite cache warm up */
+    private static final int WARMUP_ROUNDS = 20;
+
+    /** Rounds timed */
+    private static final int TIMED_ROUNDS = 50;
+
+    /** Width of the canvas drawn on, as in the simulation */
+    private static final double WIDTH = 1100;
+
+    /** Height of the canvas drawn on, as in the simulation */
+    private static final double HEIGHT = 500;
+
+    /**
+     * Creates a new benchmark; launched by {@link #main(String[])}.
+     */
+    public CanvasBenchmark() {}
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length != 4) {
+            System.err.println("Usage: tick_file aircraft_file queues_file"
+                    + " terminalsWithGates_file");
+            System.exit(1);
+        }
+        Application.launch(CanvasBenchmark.class, args);
+    }
+
+    /**
+     * Draws the aircraft in each mode, prints the times, and exits.
+     *
+     * @param stage unused
+     * @throws Exception if the save files cannot be loaded
+     */
+    @Override
+    public void start(Stage stage) throws Exception {
+        ViewModel viewModel = new ViewModel(getParameters().getRaw());
+        List<Aircraft> aircraft = makeAircraft();
+        AirportCanvas canvas = new AirportCanvas(viewModel, WIDTH, HEIGHT);
+        WritableImage snapshot = new WritableImage((int) WIDTH, (int) HEIGHT);
+
+        canvas.setCachingSprites(false);
+        double vector = timeRounds(canvas, aircraft, snapshot);
+        canvas.setCachingSprites(true);
+        double cached = timeRounds(canvas, aircraft, snapshot);
+
+        System.out.printf("%d aircraft per redraw%n", aircraft.size());
+        System.out.printf("vector commands: %8.2f ms per redraw%n", vector);
+        System.out.printf("cached sprites:  %8.2f ms per redraw%n", cached);
+        Platform.exit();
+    }
+
+    /* Returns the average milliseconds taken to draw and render every aircraft */
+    private static double timeRounds(AirportCanvas canvas, List<Aircraft> aircraft,
+            WritableImage snapshot) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            drawRound(canvas, aircraft, snapshot);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < TIMED_ROUNDS; i++) {
+            drawRound(canvas, aircraft, snapshot);
+        }
+        return (System.nanoTime() - start) / 1e6 / TIMED_ROUNDS;
+    }
+
+    /* Draws every aircraft in a grid over the canvas, wrapping round, then renders it */
+    private static void drawRound(AirportCanvas canvas, List<Aircraft> aircraft,
+            WritableImage snapshot) {
+        canvas.getGraphicsContext2D().setFill(Color.DARKGREEN);
+        canvas.getGraphicsContext2D().fillRect(0, 0, WIDTH, HEIGHT);
+        int columns = (int) (WIDTH / 75);
+        int rows = (int) (HEIGHT / 75);
+        for (int i = 0; i < aircraft.size(); i++) {
+            int cell = i % (columns * rows);
+            canvas.drawAircraft(aircraft.get(i), 75 * (cell % columns), 75 * (cell / columns),
+                    Color.BLACK);
+        }
+        canvas.snapshot(null, snapshot);
+    }
+
+    /* Returns made-up aircraft of every model, some loading and some in emergency */
+    private static List<Aircraft> makeAircraft() {
+        AircraftCharacteristics[] models = AircraftCharacteristics.values();
+        List<Aircraft> aircraft = new ArrayList<>(AIRCRAFT);
+        for (int i = 0; i < AIRCRAFT; i++) {
+            AircraftCharacteristics model = models[i % models.length];
+            TaskList tasks = new TaskList(List.of(new Task(TaskType.LOAD, i % 101),
+                    new Task(TaskType.TAKEOFF), new Task(TaskType.AWAY), new Task(TaskType.LAND),
+                    new Task(TaskType.WAIT)));
+            String callsign = String.format("BEN%04d", i);
+            Aircraft made = model.passengerCapacity > 0
+                    ? new PassengerAircraft(callsign, model, tasks, model.fuelCapacity,
+                            i % (model.passengerCapacity + 1))
+                    : new FreightAircraft(callsign, model, tasks, model.fuelCapacity,
+                            i % (model.freightCapacity + 1));
+            if (i % 50 == 0) {
+                made.declareEmergency();
+            }
+            aircraft.add(made);
+        }
+        return aircraft;
+    }
+}
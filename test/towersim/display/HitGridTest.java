@@ -0,0 +1,47 @@
+package towersim.display;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+public class HitGridTest {
+
+    @Test
+    public void topmostItemWinsTest() {
+        HitGrid<String> grid = new HitGrid<>(75);
+        grid.add(0, 0, 75, 75, "first");
+        grid.add(50, 50, 75, 75, "second");
+        grid.add(-200, -200, 75, 75, "negative");
+
+        assertEquals("first", grid.itemAt(10, 10));
+        // where the rectangles overlap, the one added last is on top
+        assertEquals("second", grid.itemAt(60, 60));
+        assertEquals("second", grid.itemAt(120, 120));
+        assertEquals("negative", grid.itemAt(-190, -130));
+        assertNull(grid.itemAt(200, 10));
+        assertNull(grid.itemAt(-10, -10));
+
+        grid.clear();
+        assertEquals(0, grid.size());
+        assertNull(grid.itemAt(10, 10));
+        grid.add(0, 0, 10, 10, "again");
+        assertEquals("again", grid.itemAt(5, 5));
+        assertEquals(1, grid.size());
+    }
+
+    @Test
+    public void itemsWithinAreaOnceInOrderTest() {
+        HitGrid<String> grid = new HitGrid<>(50);
+        grid.add(200, 0, 120, 120, "big");
+        grid.add(0, 0, 30, 30, "small");
+        grid.add(100, 100, 10, 10, "middle");
+        grid.add(1000, 1000, 10, 10, "far");
+
+        // the big rectangle spans several cells of the area, but is found once
+        assertEquals(List.of("big", "small", "middle"), grid.itemsWithin(0, 0, 300, 300));
+        assertEquals(List.of("big", "middle"), grid.itemsWithin(105, 60, 150, 100));
+        assertEquals(List.of("far"), grid.itemsWithin(900, 900, 200, 200));
+        assertTrue(grid.itemsWithin(400, 0, 50, 50).isEmpty());
+    }
+}
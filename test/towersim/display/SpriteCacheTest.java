@@ -0,0 +1,83 @@
+package towersim.display;
+
+import javafx.scene.paint.Color;
+import javafx.scene.text.FontWeight;
+import org.junit.Test;
+import towersim.aircraft.AircraftType;
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Map;
+
+public class SpriteCacheTest {
+
+    @Test
+    public void leastRecentlyUsedLabelDroppedTest() {
+        Map<SpriteCache.SpriteKey, Integer> labels = SpriteCache.leastRecentlyUsed(3);
+        SpriteCache.SpriteKey first = SpriteCache.labelKey("ABC001", Color.BLACK,
+                FontWeight.NORMAL, 1);
+        SpriteCache.SpriteKey second = SpriteCache.labelKey("ABC002", Color.BLACK,
+                FontWeight.NORMAL, 1);
+        SpriteCache.SpriteKey third = SpriteCache.labelKey("ABC003", Color.BLACK,
+                FontWeight.NORMAL, 1);
+        labels.put(first, 1);
+        labels.put(second, 2);
+        labels.put(third, 3);
+
+        // drawing the first label again makes the second the least recently used
+        assertEquals(Integer.valueOf(1), labels.get(first));
+        labels.put(SpriteCache.labelKey("ABC004", Color.BLACK, FontWeight.NORMAL, 1), 4);
+        assertEquals(3, labels.size());
+        assertFalse(labels.containsKey(second));
+        assertTrue(labels.containsKey(first));
+        assertTrue(labels.containsKey(third));
+    }
+
+    @Test
+    public void labelsBoundedTest() {
+        Map<SpriteCache.SpriteKey, Integer> labels =
+                SpriteCache.leastRecentlyUsed(SpriteCache.MAX_LABELS);
+        for (int i = 0; i < SpriteCache.MAX_LABELS * 2; i++) {
+            labels.put(SpriteCache.labelKey("QFA" + i, Color.BLACK, FontWeight.NORMAL, 1), i);
+        }
+        assertEquals(SpriteCache.MAX_LABELS, labels.size());
+        assertFalse(labels.containsKey(
+                SpriteCache.labelKey("QFA0", Color.BLACK, FontWeight.NORMAL, 1)));
+        assertTrue(labels.containsKey(SpriteCache.labelKey("QFA" + SpriteCache.MAX_LABELS,
+                Color.BLACK, FontWeight.NORMAL, 1)));
+    }
+
+    @Test
+    public void labelKeyTest() {
+        SpriteCache.SpriteKey key = SpriteCache.labelKey("ABC001", Color.BLACK,
+                FontWeight.NORMAL, 1);
+        SpriteCache.SpriteKey same = SpriteCache.labelKey(new String("ABC001"),
+                Color.rgb(0, 0, 0), FontWeight.NORMAL, 0.5);
+        assertEquals(key, same);
+        assertEquals(key.hashCode(), same.hashCode());
+
+        List<SpriteCache.SpriteKey> different = List.of(
+                SpriteCache.labelKey("ABC002", Color.BLACK, FontWeight.NORMAL, 1),
+                SpriteCache.labelKey("ABC001", Color.RED, FontWeight.NORMAL, 1),
+                SpriteCache.labelKey("ABC001", Color.BLACK, FontWeight.BOLD, 1),
+                SpriteCache.labelKey("ABC001", Color.BLACK, FontWeight.NORMAL, 2));
+        for (SpriteCache.SpriteKey other : different) {
+            assertNotEquals(key, other);
+        }
+    }
+
+    @Test
+    public void aircraftKeyTest() {
+        SpriteCache.SpriteKey key = SpriteCache.aircraftKey(AircraftType.AIRPLANE, Color.BLUE, 1);
+        assertEquals(key, SpriteCache.aircraftKey(AircraftType.AIRPLANE, Color.BLUE, 0.25));
+        assertEquals(SpriteCache.aircraftKey(AircraftType.AIRPLANE, Color.BLUE, 1.5),
+                SpriteCache.aircraftKey(AircraftType.AIRPLANE, Color.BLUE, 4));
+
+        assertNotEquals(key, SpriteCache.aircraftKey(AircraftType.HELICOPTER, Color.BLUE, 1));
+        assertNotEquals(key, SpriteCache.aircraftKey(AircraftType.AIRPLANE, Color.RED, 1));
+        assertNotEquals(key, SpriteCache.aircraftKey(AircraftType.AIRPLANE, Color.BLUE, 2));
+        // a label reading the same as a type is never mistaken for the aircraft
+        assertNotEquals(key, SpriteCache.labelKey(AircraftType.AIRPLANE.toString(), Color.BLUE,
+                FontWeight.NORMAL, 1));
+    }
+}
@@ -0,0 +1,51 @@
+package towersim.display;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ViewportTest {
+
+    @Test
+    public void zoomKeepsPointUnderCursorTest() {
+        Viewport viewport = new Viewport(1000, 500);
+        viewport.panBy(-200, -100);
+        assertEquals(200, viewport.getLeft(), 1e-9);
+        assertEquals(100, viewport.getTop(), 1e-9);
+
+        double worldX = viewport.toWorldX(300);
+        double worldY = viewport.toWorldY(250);
+        viewport.zoomAt(2, 300, 250);
+        assertEquals(2, viewport.getZoom(), 1e-9);
+        assertEquals(worldX, viewport.toWorldX(300), 1e-9);
+        assertEquals(worldY, viewport.toWorldY(250), 1e-9);
+        assertEquals(viewport.getLeft() + 500, viewport.getRight(), 1e-9);
+
+        viewport.zoomAt(1e-6, 0, 0);
+        assertEquals(Viewport.MIN_ZOOM, viewport.getZoom(), 1e-9);
+        viewport.zoomAt(1e6, 0, 0);
+        assertEquals(Viewport.MAX_ZOOM, viewport.getZoom(), 1e-9);
+
+        viewport.reset();
+        assertEquals(0, viewport.getLeft(), 0);
+        assertEquals(1, viewport.getZoom(), 0);
+    }
+
+    @Test
+    public void cullsToVisibleSlotsTest() {
+        Viewport viewport = new Viewport(300, 200);
+        viewport.panBy(-1000, 0);
+        // visible world x from 1000 to 1300
+        assertFalse(viewport.isVisible(0, 0, 1000, 10));
+        assertTrue(viewport.isVisible(0, 0, 1001, 10));
+        assertFalse(viewport.isVisible(1300, 0, 10, 10));
+        assertFalse(viewport.isVisible(1100, 200, 10, 10));
+
+        // slots of 75 starting at 65: slot 12 covers 965 to 1040, slot 16 covers 1265 to 1340
+        assertEquals(12, Viewport.firstVisibleSlot(65, 75, viewport.getLeft()));
+        assertEquals(17, Viewport.visibleSlotsEnd(65, 75, 10_000, viewport.getRight()));
+        assertEquals(15, Viewport.visibleSlotsEnd(65, 75, 15, viewport.getRight()));
+        // a run entirely out of view has no visible slots
+        assertEquals(0, Viewport.visibleSlotsEnd(2000, 75, 10, viewport.getRight()));
+        assertEquals(0, Viewport.firstVisibleSlot(2000, 75, viewport.getLeft()));
+    }
+}
@@ -0,0 +1,218 @@
+package towersim.history;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.PassengerAircraft;
+import towersim.control.ControlTower;
+import towersim.control.LandingQueue;
+import towersim.control.TakeoffQueue;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.Terminal;
+import towersim.status.TowerDelta;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Predicate;
+
+public class HistoryStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ControlTower tower;
+
+    private Path file;
+
+    @Before
+    public void setup() throws Exception {
+        this.tower = new ControlTower(0, new ArrayList<>(), new LandingQueue(),
+                new TakeoffQueue(), new HashMap<>());
+        Terminal terminal = new AirplaneTerminal(1);
+        terminal.addGate(new Gate(7));
+        this.tower.addTerminal(terminal);
+        this.tower.addAircraft(new PassengerAircraft("ABC001",
+                AircraftCharacteristics.AIRBUS_A320,
+                new TaskList(List.of(new Task(TaskType.LAND), new Task(TaskType.LOAD, 3),
+                        new Task(TaskType.TAKEOFF), new Task(TaskType.AWAY))),
+                AircraftCharacteristics.AIRBUS_A320.fuelCapacity, 0));
+        this.tower.addAircraft(new PassengerAircraft("XYZ002",
+                AircraftCharacteristics.AIRBUS_A320,
+                new TaskList(List.of(new Task(TaskType.AWAY), new Task(TaskType.LAND),
+                        new Task(TaskType.LOAD, 3), new Task(TaskType.TAKEOFF))),
+                AircraftCharacteristics.AIRBUS_A320.fuelCapacity / 4, 0));
+        this.file = folder.getRoot().toPath().resolve("history.bin");
+    }
+
+    /* Records the given number of ticks of the tower */
+    private void record(int ticks) throws Exception {
+        try (HistoryStore store = new HistoryStore(file)) {
+            HistoryRecorder recorder = HistoryRecorder.start(tower, store);
+            for (int i = 0; i < ticks; i++) {
+                tower.tick();
+            }
+            recorder.close();
+        }
+    }
+
+    /* Returns a record of an aircraft at the given tick, with the given callsign and task */
+    private static HistoryRecord recordOf(long tick, String callsign, TaskType task) {
+        return new HistoryRecord(tick, callsign, AircraftCharacteristics.AIRBUS_A320, task, 100,
+                false, TowerDelta.Queue.NONE, -1, -1);
+    }
+
+    /* Returns the string form of the given records, to compare them */
+    private static List<String> strings(List<HistoryRecord> records) {
+        List<String> strings = new ArrayList<>();
+        for (HistoryRecord record : records) {
+            strings.add(record.toString());
+        }
+        return strings;
+    }
+
+    /* Returns those of the given records matching the given filter */
+    private static List<String> filter(List<HistoryRecord> records,
+            Predicate<HistoryRecord> filter) {
+        List<HistoryRecord> selected = new ArrayList<>();
+        for (HistoryRecord record : records) {
+            if (filter.test(record)) {
+                selected.add(record);
+            }
+        }
+        return strings(selected);
+    }
+
+    @Test
+    public void reopenedStoreAnswersQueriesTest() throws Exception {
+        record(250);
+        try (HistoryStore store = new HistoryStore(file)) {
+            assertEquals(1, store.getFirstTick());
+            assertEquals(250, store.getLastTick());
+            List<HistoryRecord> all = store.query(HistoryQuery.between(0, Long.MAX_VALUE));
+            assertEquals(500, all.size());
+            assertEquals("ABC001", all.get(0).getCallsign());
+            assertEquals(1, all.get(0).getTick());
+            assertEquals(250, all.get(499).getTick());
+
+            assertEquals(filter(all, r -> r.getTick() >= 99 && r.getTick() <= 101),
+                    strings(store.query(HistoryQuery.between(99, 101))));
+            assertEquals(filter(all, r -> r.getCallsign().equals("XYZ002")),
+                    strings(store.query(HistoryQuery.between(0, 250)
+                            .withCallsign("XYZ002"))));
+            assertTrue(store.query(HistoryQuery.between(0, 250).withCallsign("ABC999"))
+                    .isEmpty());
+            assertEquals(filter(all, r -> r.getTask() == TaskType.LOAD && r.getGate() == 7),
+                    strings(store.query(HistoryQuery.between(0, 250)
+                            .withTask(TaskType.LOAD))));
+            assertEquals(filter(all, r -> r.getQueue() == TowerDelta.Queue.TAKEOFF),
+                    strings(store.query(HistoryQuery.between(0, 250)
+                            .inQueue(TowerDelta.Queue.TAKEOFF))));
+            List<HistoryRecord> lowFuel = store.query(HistoryQuery.between(0, 250)
+                    .withFuelAtMost(25));
+            assertFalse(lowFuel.isEmpty());
+            assertEquals(filter(all, r -> r.getFuelPercent() <= 25), strings(lowFuel));
+        }
+    }
+
+    @Test
+    public void incompleteBlockIsDroppedTest() throws Exception {
+        record(150);
+        long complete = Files.size(file);
+        Files.write(file, new byte[] {0x54, 0x48, 0x42, 0x32, 0, 0},
+                StandardOpenOption.APPEND);
+        try (HistoryStore store = new HistoryStore(file)) {
+            assertEquals(150, store.getLastTick());
+        }
+        assertEquals(complete, Files.size(file));
+
+        // recording resumes after the last complete block
+        record(10);
+        try (HistoryStore store = new HistoryStore(file)) {
+            assertEquals(160, store.getLastTick());
+            assertEquals(20, store.query(HistoryQuery.between(151, 160)).size());
+        }
+    }
+
+    @Test
+    public void callsignQuerySkipsBlocksTest() throws Exception {
+        TaskType[] tasks = TaskType.values();
+        try (HistoryStore store = new HistoryStore(file)) {
+            // every block holds every task type, but each block its own callsigns
+            for (int block = 0; block < 100; block++) {
+                List<HistoryRecord> records = new ArrayList<>();
+                for (int i = 0; i < 500; i++) {
+                    records.add(recordOf(block + 1, String.format("B%02dA%03d", block, i),
+                            tasks[i % tasks.length]));
+                }
+                store.append(records);
+            }
+            HistoryQuery all = HistoryQuery.between(0, Long.MAX_VALUE);
+            assertEquals(100, store.countBlocksToRead(all));
+            assertEquals(100, store.countBlocksToRead(all.withTask(TaskType.LOAD)));
+
+            HistoryQuery callsign = all.withCallsign("B37A005");
+            assertTrue(store.countBlocksToRead(callsign) <= 3);
+            List<HistoryRecord> selected = store.query(callsign);
+            assertEquals(1, selected.size());
+            assertEquals(38, selected.get(0).getTick());
+
+            // the aircraft was not on the selected task
+            HistoryQuery otherTask = callsign.withTask(tasks[6 % tasks.length]);
+            assertTrue(store.countBlocksToRead(otherTask) <= 3);
+            assertTrue(store.query(otherTask).isEmpty());
+        }
+    }
+
+    @Test
+    public void appendRejectsEarlierTicksTest() throws Exception {
+        try (HistoryStore store = new HistoryStore(file)) {
+            store.append(List.of(recordOf(5, "ABC001", TaskType.AWAY)));
+            for (List<HistoryRecord> records : List.of(
+                    List.of(recordOf(5, "ABC001", TaskType.AWAY)),
+                    List.of(recordOf(3, "ABC001", TaskType.AWAY)),
+                    List.of(recordOf(7, "ABC001", TaskType.AWAY),
+                            recordOf(6, "ABC001", TaskType.AWAY)),
+                    List.<HistoryRecord>of())) {
+                try {
+                    store.append(records);
+                    fail("Expected IllegalArgumentException for " + records);
+                } catch (IllegalArgumentException expected) {
+                    assertEquals(5, store.getLastTick());
+                }
+            }
+        }
+        try (HistoryStore store = new HistoryStore(file)) {
+            assertEquals(1, store.query(HistoryQuery.between(0, 10)).size());
+        }
+    }
+
+    @Test
+    public void recorderRejectsStoreAheadOfTowerTest() throws Exception {
+        record(20);
+        // a relaunch from an earlier save must not record ticks already in the store
+        ControlTower reloaded = new ControlTower(10, new ArrayList<>(), new LandingQueue(),
+                new TakeoffQueue(), new HashMap<>());
+        try (HistoryStore store = new HistoryStore(file)) {
+            try {
+                HistoryRecorder.start(reloaded, store);
+                fail("Expected IllegalArgumentException");
+            } catch (IllegalArgumentException expected) {
+                assertEquals(20, store.getLastTick());
+            }
+            ControlTower resumed = new ControlTower(20, new ArrayList<>(), new LandingQueue(),
+                    new TakeoffQueue(), new HashMap<>());
+            HistoryRecorder.start(resumed, store).close();
+        }
+    }
+}
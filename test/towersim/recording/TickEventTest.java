@@ -0,0 +1,79 @@
+package towersim.recording;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.PassengerAircraft;
+import towersim.control.ControlTower;
+import towersim.control.LandingQueue;
+import towersim.control.TakeoffQueue;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class TickEventTest {
+
+    @Test
+    public void recordsEnabledEventsTest() throws Exception {
+        ControlTower tower = new ControlTower(0, new ArrayList<>(), new LandingQueue(),
+                new TakeoffQueue(), new HashMap<>());
+        AirplaneTerminal terminal = new AirplaneTerminal(1);
+        terminal.addGate(new Gate(7));
+        tower.addTerminal(terminal);
+        tower.addAircraft(new PassengerAircraft("JFR001", AircraftCharacteristics.AIRBUS_A320,
+                new TaskList(List.of(new Task(TaskType.LAND), new Task(TaskType.LOAD, 0),
+                        new Task(TaskType.TAKEOFF), new Task(TaskType.AWAY))),
+                AircraftCharacteristics.AIRBUS_A320.fuelCapacity, 50));
+
+        Path file = Files.createTempFile("towersim", ".jfr");
+        try (Recording recording = new Recording()) {
+            // not recorded unless enabled
+            tower.tick();
+            recording.enable("towersim.Tick");
+            recording.enable("towersim.TickPhase");
+            recording.enable("towersim.Landing");
+            recording.enable("towersim.Takeoff");
+            recording.start();
+            for (int i = 0; i < 5; i++) {
+                tower.tick();
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+
+        List<RecordedEvent> ticks = named(events, "towersim.Tick");
+        assertEquals(5, ticks.size());
+        assertEquals(2, ticks.get(0).getLong("ticksElapsed"));
+        assertEquals(35, named(events, "towersim.TickPhase").size());
+        assertEquals(0, named(events, "towersim.LoadComplete").size());
+
+        RecordedEvent landing = named(events, "towersim.Landing").get(0);
+        assertEquals("JFR001", landing.getString("callsign"));
+        assertEquals(LandingQueue.Tier.PASSENGERS.name(), landing.getString("tier"));
+        assertTrue(landing.getBoolean("landed"));
+        assertEquals(7, landing.getInt("gate"));
+        assertFalse(named(events, "towersim.Takeoff").isEmpty());
+    }
+
+    /* Returns the events with the given name, in the order they ended */
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .sorted((a, b) -> a.getEndTime().compareTo(b.getEndTime()))
+                .collect(Collectors.toList());
+    }
+}
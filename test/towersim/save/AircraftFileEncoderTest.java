@@ -0,0 +1,59 @@
+package towersim.save;
+
+import org.junit.Test;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.FreightAircraft;
+import towersim.aircraft.PassengerAircraft;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+public class AircraftFileEncoderTest {
+
+    @Test
+    public void matchesSerialEncodingTest() throws Exception {
+        List<Task> tasks = List.of(new Task(TaskType.AWAY), new Task(TaskType.LAND),
+                new Task(TaskType.LOAD, 40), new Task(TaskType.TAKEOFF));
+        // every size from empty to just past a whole number of chunks
+        for (int size : new int[] {0, 1, AircraftFileEncoder.CHUNK_SIZE,
+            AircraftFileEncoder.CHUNK_SIZE * 3 + 1}) {
+            List<Aircraft> fleet = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                fleet.add(i % 3 == 0
+                        ? new FreightAircraft("FRT" + i, AircraftCharacteristics.BOEING_747_8F,
+                                new TaskList(tasks), i % 1000, i % 5000)
+                        : new PassengerAircraft("PAX" + i, AircraftCharacteristics.AIRBUS_A320,
+                                new TaskList(tasks), i % 1000, i % 150));
+            }
+            StringJoiner serial = new StringJoiner(System.lineSeparator());
+            serial.add(String.valueOf(fleet.size()));
+            for (Aircraft aircraft : fleet) {
+                serial.add(aircraft.encode());
+            }
+
+            StringWriter writer = new StringWriter();
+            AircraftFileEncoder.write(fleet, writer);
+            assertEquals(serial.toString(), writer.toString());
+
+            Path file = Files.createTempFile("aircraft", ".txt");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                AircraftFileEncoder.write(fleet, StandardCharsets.UTF_8, channel);
+            }
+            assertArrayEquals(serial.toString().getBytes(StandardCharsets.UTF_8),
+                    Files.readAllBytes(file));
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package towersim.save;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.FreightAircraft;
+import towersim.aircraft.PassengerAircraft;
+import towersim.control.ControlTower;
+import towersim.control.LandingQueue;
+import towersim.control.TakeoffQueue;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.HelicopterTerminal;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+public class DeltaSaveTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private List<String> filenames;
+
+    private static final List<Task> TASKS = List.of(
+            new Task(TaskType.AWAY),
+            new Task(TaskType.AWAY),
+            new Task(TaskType.LAND),
+            new Task(TaskType.WAIT),
+            new Task(TaskType.LOAD, 40),
+            new Task(TaskType.TAKEOFF));
+
+    @Before
+    public void setup() throws Exception {
+        ControlTower tower = new ControlTower(3, new ArrayList<>(), new LandingQueue(),
+                new TakeoffQueue(), new HashMap<>());
+        int gateNumber = 1;
+        for (int i = 1; i <= 3; i++) {
+            Terminal terminal = i == 3 ? new HelicopterTerminal(i) : new AirplaneTerminal(i);
+            for (int j = 0; j < 4; j++) {
+                terminal.addGate(new Gate(gateNumber++));
+            }
+            tower.addTerminal(terminal);
+        }
+        for (int i = 0; i < 20; i++) {
+            tower.addAircraft(aircraft("DLT" + i, i));
+        }
+        this.filenames = new ArrayList<>();
+        String[] contents = encode(tower);
+        for (String name : List.of("tick", "aircraft", "queues", "terminals")) {
+            File file = folder.newFile(name + ".txt");
+            Files.writeString(file.toPath(), contents[filenames.size()]);
+            filenames.add(file.getPath());
+        }
+    }
+
+    private static Aircraft aircraft(String callsign, int seed) {
+        TaskList taskList = new TaskList(TASKS);
+        for (int i = 0; i < seed % 3; i++) {
+            taskList.moveToNextTask();
+        }
+        if (seed % 4 == 3) {
+            return new FreightAircraft(callsign, AircraftCharacteristics.SIKORSKY_SKYCRANE,
+                    taskList, AircraftCharacteristics.SIKORSKY_SKYCRANE.fuelCapacity / 2, 0);
+        }
+        return new PassengerAircraft(callsign, AircraftCharacteristics.AIRBUS_A320, taskList,
+                AircraftCharacteristics.AIRBUS_A320.fuelCapacity * (seed % 10 + 1) / 10, 0);
+    }
+
+    /* Returns the contents of the four files a full save of the tower writes */
+    private static String[] encode(ControlTower tower) {
+        String separator = System.lineSeparator();
+        StringJoiner aircraft = new StringJoiner(separator);
+        aircraft.add(String.valueOf(tower.getAircraft().size()));
+        tower.getAircraft().forEach(a -> aircraft.add(a.encode()));
+        StringJoiner loading = new StringJoiner(",");
+        for (Map.Entry<Aircraft, Integer> entry : tower.getLoadingAircraft().entrySet()) {
+            loading.add(entry.getKey().getCallsign() + ":" + entry.getValue());
+        }
+        StringJoiner terminals = new StringJoiner(separator);
+        terminals.add(String.valueOf(tower.getTerminals().size()));
+        tower.getTerminals().forEach(t -> terminals.add(t.encode()));
+        return new String[] {
+            String.valueOf(tower.getTicksElapsed()),
+            aircraft.toString(),
+            tower.getTakeoffQueue().encode() + separator + tower.getLandingQueue().encode()
+                    + separator + "LoadingAircraft:" + tower.getLoadingAircraft().size()
+                    + separator + loading,
+            terminals.toString()
+        };
+    }
+
+    /* Runs the tower with some additions, removals and emergencies, quick saving each tick */
+    private static void run(DeltaSave deltaSave, int ticks) throws Exception {
+        ControlTower tower = deltaSave.getControlTower();
+        for (int i = 0; i < ticks; i++) {
+            tower.tick();
+            if (i % 7 == 0) {
+                tower.addAircraft(aircraft("NEW" + i, i + 1));
+            }
+            if (i % 11 == 0) {
+                for (Aircraft away : tower.getAircraft()) {
+                    if (tower.removeAircraft(away)) {
+                        break;
+                    }
+                }
+            }
+            if (i % 13 == 5) {
+                tower.getTerminals().get(i % 2).declareEmergency();
+            } else if (i % 13 == 9) {
+                tower.getTerminals().get(i % 2).clearEmergency();
+                tower.getAircraft().get(i % tower.getAircraft().size()).declareEmergency();
+            }
+            deltaSave.save();
+        }
+    }
+
+    @Test
+    public void reopenAppliesDeltasTest() throws Exception {
+        DeltaSave deltaSave = DeltaSave.open(filenames);
+        run(deltaSave, 60);
+        assertTrue(Files.exists(DeltaSave.deltaFileOf(filenames.get(0))));
+
+        ControlTower reopened = DeltaSave.open(filenames).getControlTower();
+        String[] expected = encode(deltaSave.getControlTower());
+        String[] actual = encode(reopened);
+        assertEquals(expected[0], actual[0]);
+        assertEquals(expected[1], actual[1]);
+        assertEquals(expected[3], actual[3]);
+        assertEquals(deltaSave.getControlTower().getTakeoffQueue().encode(),
+                reopened.getTakeoffQueue().encode());
+        assertEquals(deltaSave.getControlTower().getLandingQueue().encode(),
+                reopened.getLandingQueue().encode());
+        assertEquals(deltaSave.getControlTower().getLoadingAircraft(),
+                reopened.getLoadingAircraft());
+        assertEquals(deltaSave.getControlTower().getWaitTimes().encode(),
+                reopened.getWaitTimes().encode());
+    }
+
+    @Test
+    public void compactWritesFullSaveTest() throws Exception {
+        DeltaSave deltaSave = DeltaSave.open(filenames);
+        run(deltaSave, 45);
+        deltaSave.compact();
+
+        assertFalse(Files.exists(DeltaSave.deltaFileOf(filenames.get(0))));
+        String[] expected = encode(deltaSave.getControlTower());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(expected[i], Files.readString(Path.of(filenames.get(i))));
+        }
+    }
+
+    @Test
+    public void unchangedSaveIsSmallTest() throws Exception {
+        DeltaSave deltaSave = DeltaSave.open(filenames);
+        deltaSave.save();
+        long before = deltaSave.getDeltaLength();
+        deltaSave.save();
+        // only the ticks elapsed and loading aircraft are written
+        assertTrue(deltaSave.getDeltaLength() - before < 100);
+        assertFalse(deltaSave.getTracker().hasChanges());
+    }
+
+    @Test
+    public void incompleteFrameIgnoredTest() throws Exception {
+        DeltaSave deltaSave = DeltaSave.open(filenames);
+        run(deltaSave, 10);
+        String[] expected = encode(deltaSave.getControlTower());
+        Path deltaFile = DeltaSave.deltaFileOf(filenames.get(0));
+        byte[] torn = "Delta:99\nAircraft:1\nDLT0:AIR".getBytes();
+        Files.write(deltaFile, torn, java.nio.file.StandardOpenOption.APPEND);
+
+        DeltaSave reopened = DeltaSave.open(filenames);
+        assertEquals(Arrays.asList(expected[0], expected[1], expected[3]),
+                Arrays.asList(encode(reopened.getControlTower())[0],
+                        encode(reopened.getControlTower())[1],
+                        encode(reopened.getControlTower())[3]));
+        reopened.save();
+        assertEquals(reopened.getDeltaLength(), Files.size(deltaFile));
+    }
+
+    /* Writes the given contents to the staged files of a full save */
+    private static void stage(DeltaSave deltaSave, String[] contents) throws Exception {
+        List<String> staged = deltaSave.getFullSaveFilenames();
+        for (int i = 0; i < 4; i++) {
+            Files.writeString(Path.of(staged.get(i)), contents[i]);
+        }
+    }
+
+    @Test
+    public void fullSaveReplacesDeltasTest() throws Exception {
+        DeltaSave deltaSave = DeltaSave.open(filenames);
+        run(deltaSave, 20);
+        deltaSave.getControlTower().tick();
+        String[] expected = encode(deltaSave.getControlTower());
+        stage(deltaSave, expected);
+        deltaSave.commitFullSave();
+
+        assertFalse(Files.exists(DeltaSave.deltaFileOf(filenames.get(0))));
+        assertFalse(Files.exists(DeltaSave.commitMarkerOf(filenames.get(0))));
+        assertFalse(deltaSave.getTracker().hasChanges());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(expected[i], Files.readString(Path.of(filenames.get(i))));
+            assertFalse(Files.exists(Path.of(deltaSave.getFullSaveFilenames().get(i))));
+        }
+    }
+
+    @Test
+    public void fullSaveNotWrittenKeepsDeltasTest() throws Exception {
+        DeltaSave deltaSave = DeltaSave.open(filenames);
+        run(deltaSave, 20);
+        String[] expected = encode(deltaSave.getControlTower());
+        // the save failed after writing only some of the files
+        Files.writeString(Path.of(deltaSave.getFullSaveFilenames().get(0)), "999");
+        try {
+            deltaSave.commitFullSave();
+            fail("Expected IOException");
+        } catch (java.io.IOException expectedFailure) {
+            assertTrue(Files.exists(DeltaSave.deltaFileOf(filenames.get(0))));
+        }
+
+        ControlTower reopened = DeltaSave.open(filenames).getControlTower();
+        assertEquals(expected[0], encode(reopened)[0]);
+        assertEquals(expected[1], encode(reopened)[1]);
+        assertFalse(Files.exists(Path.of(deltaSave.getFullSaveFilenames().get(0))));
+    }
+
+    @Test
+    public void interruptedCommitFinishedOnOpenTest() throws Exception {
+        DeltaSave deltaSave = DeltaSave.open(filenames);
+        run(deltaSave, 30);
+        String[] expected = encode(deltaSave.getControlTower());
+        // committed, but stopped after replacing only the tick and aircraft files
+        stage(deltaSave, expected);
+        Files.createFile(DeltaSave.commitMarkerOf(filenames.get(0)));
+        for (int i = 0; i < 2; i++) {
+            Files.move(Path.of(deltaSave.getFullSaveFilenames().get(i)),
+                    Path.of(filenames.get(i)), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        DeltaSave reopened = DeltaSave.open(filenames);
+        assertFalse(Files.exists(DeltaSave.deltaFileOf(filenames.get(0))));
+        assertFalse(Files.exists(DeltaSave.commitMarkerOf(filenames.get(0))));
+        String[] actual = encode(reopened.getControlTower());
+        assertEquals(expected[0], actual[0]);
+        assertEquals(expected[1], actual[1]);
+        assertEquals(expected[3], actual[3]);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(expected[i], Files.readString(Path.of(filenames.get(i))));
+        }
+    }
+
+    @Test
+    public void interruptedCommitFinishedBeforeSaveTest() throws Exception {
+        DeltaSave deltaSave = DeltaSave.open(filenames);
+        run(deltaSave, 30);
+        stage(deltaSave, encode(deltaSave.getControlTower()));
+        Files.createFile(DeltaSave.commitMarkerOf(filenames.get(0)));
+
+        ControlTower tower = deltaSave.getControlTower();
+        tower.tick();
+        tower.addAircraft(aircraft("LATE1", 5));
+        deltaSave.save();
+        assertFalse(Files.exists(DeltaSave.commitMarkerOf(filenames.get(0))));
+        assertEquals(deltaSave.getDeltaLength(),
+                Files.size(DeltaSave.deltaFileOf(filenames.get(0))));
+
+        String[] expected = encode(tower);
+        String[] actual = encode(DeltaSave.open(filenames).getControlTower());
+        assertEquals(expected[0], actual[0]);
+        assertEquals(expected[1], actual[1]);
+        assertEquals(expected[3], actual[3]);
+    }
+}
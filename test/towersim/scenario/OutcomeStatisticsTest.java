@@ -0,0 +1,92 @@
+package towersim.scenario;
+
+import org.junit.Test;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.PassengerAircraft;
+import towersim.control.ControlTower;
+import towersim.control.LandingQueue;
+import towersim.control.TakeoffQueue;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+public class OutcomeStatisticsTest {
+
+    /* Returns the outcome of a variant that sampled a landing queue of the given length once */
+    private static VariantOutcome landingQueueOf(int length) throws Exception {
+        ControlTower tower = new ControlTower(0, new ArrayList<>(), new LandingQueue(),
+                new TakeoffQueue(), new HashMap<>());
+        for (int i = 0; i < length; i++) {
+            tower.addAircraft(new PassengerAircraft(String.format("ABC%03d", i),
+                    AircraftCharacteristics.AIRBUS_A320,
+                    new TaskList(List.of(new Task(TaskType.LAND), new Task(TaskType.LOAD, 0),
+                            new Task(TaskType.TAKEOFF), new Task(TaskType.AWAY))),
+                    AircraftCharacteristics.AIRBUS_A320.fuelCapacity, 0));
+        }
+        VariantOutcome outcome = new VariantOutcome();
+        outcome.sample(tower);
+        return outcome;
+    }
+
+    @Test
+    public void summaryMatchesTwoPass() throws Exception {
+        int[] lengths = {2, 4, 4, 4, 5, 5, 7, 9};
+        OutcomeStatistics statistics = new OutcomeStatistics("test");
+        for (int length : lengths) {
+            statistics.add(landingQueueOf(length));
+        }
+        OutcomeStatistics.Summary summary =
+                statistics.getSummary(OutcomeStatistics.Metric.MEAN_LANDING_QUEUE);
+        assertEquals(8, statistics.getVariants());
+        assertEquals(5, summary.getMean(), 1e-12);
+        // sum of squared differences from the mean is 32, over 7 degrees of freedom
+        assertEquals(Math.sqrt(32.0 / 7), summary.getStandardDeviation(), 1e-12);
+        assertEquals(2, summary.getMin(), 0);
+        assertEquals(9, summary.getMax(), 0);
+    }
+
+    @Test
+    public void summaryIndependentOfOrder() throws Exception {
+        int[] lengths = {9, 2, 7, 4, 5, 4, 5, 4};
+        OutcomeStatistics forwards = new OutcomeStatistics("test");
+        OutcomeStatistics backwards = new OutcomeStatistics("test");
+        for (int i = 0; i < lengths.length; i++) {
+            forwards.add(landingQueueOf(lengths[i]));
+            backwards.add(landingQueueOf(lengths[lengths.length - 1 - i]));
+        }
+        for (OutcomeStatistics.Metric metric : OutcomeStatistics.Metric.values()) {
+            OutcomeStatistics.Summary first = forwards.getSummary(metric);
+            OutcomeStatistics.Summary second = backwards.getSummary(metric);
+            assertEquals(first.getMean(), second.getMean(), 1e-12);
+            assertEquals(first.getStandardDeviation(), second.getStandardDeviation(), 1e-12);
+        }
+    }
+
+    @Test
+    public void emptySummary() {
+        OutcomeStatistics.Summary summary = new OutcomeStatistics("test")
+                .getSummary(OutcomeStatistics.Metric.LANDED);
+        assertEquals(0, summary.getMean(), 0);
+        assertEquals(0, summary.getStandardDeviation(), 0);
+        assertEquals(0, summary.getMin(), 0);
+        assertEquals(0, summary.getMax(), 0);
+    }
+
+    @Test
+    public void copyIsIndependent() throws Exception {
+        OutcomeStatistics statistics = new OutcomeStatistics("test");
+        statistics.add(landingQueueOf(3));
+        OutcomeStatistics copy = statistics.copy();
+        statistics.add(landingQueueOf(5));
+        assertEquals(1, copy.getVariants());
+        assertEquals(3, copy.getSummary(OutcomeStatistics.Metric.MEAN_LANDING_QUEUE).getMean(),
+                0);
+        assertEquals(4,
+                statistics.getSummary(OutcomeStatistics.Metric.MEAN_LANDING_QUEUE).getMean(), 0);
+    }
+}
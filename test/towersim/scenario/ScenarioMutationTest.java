@@ -0,0 +1,148 @@
+package towersim.scenario;
+
+import org.junit.Before;
+import org.junit.Test;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.PassengerAircraft;
+import towersim.control.ControlTower;
+import towersim.control.LandingQueue;
+import towersim.control.TakeoffQueue;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+public class ScenarioMutationTest {
+
+    private static final List<Task> ARRIVING = List.of(new Task(TaskType.AWAY),
+            new Task(TaskType.LAND), new Task(TaskType.LOAD, 30), new Task(TaskType.TAKEOFF));
+
+    private ControlTower tower;
+
+    @Before
+    public void setup() throws Exception {
+        this.tower = new ControlTower(0, new ArrayList<>(), new LandingQueue(),
+                new TakeoffQueue(), new HashMap<>());
+        for (int i = 1; i <= 5; i++) {
+            this.tower.addTerminal(new AirplaneTerminal(i));
+        }
+        this.tower.addAircraft(new PassengerAircraft("QFA001",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(ARRIVING),
+                AircraftCharacteristics.AIRBUS_A320.fuelCapacity, 0));
+    }
+
+    /* Returns the encoded form of every aircraft of the tower, in order */
+    private static List<String> encoded(ControlTower tower) {
+        List<String> encoded = new ArrayList<>();
+        for (Aircraft aircraft : tower.getAircraft()) {
+            encoded.add(aircraft.encode());
+        }
+        return encoded;
+    }
+
+    /* Returns the numbers of the terminals of the tower in a state of emergency */
+    private static List<Integer> closedTerminals(ControlTower tower) {
+        List<Integer> closed = new ArrayList<>();
+        for (Terminal terminal : tower.getTerminals()) {
+            if (terminal.hasEmergency()) {
+                closed.add(terminal.getTerminalNumber());
+            }
+        }
+        return closed;
+    }
+
+    @Test
+    public void extraAircraftSameSeed() {
+        ScenarioMutation mutation = ScenarioMutation.extraAircraft(20,
+                AircraftCharacteristics.AIRBUS_A320, ARRIVING);
+        ControlTower first = tower.fork();
+        ControlTower second = tower.fork();
+        mutation.apply(first, new Random(42));
+        mutation.apply(second, new Random(42));
+        assertEquals(21, first.getAircraft().size());
+        assertEquals(encoded(first), encoded(second));
+
+        ControlTower other = tower.fork();
+        mutation.apply(other, new Random(43));
+        assertNotEquals(encoded(first), encoded(other));
+    }
+
+    @Test
+    public void extraAircraftSkipsCallsignsInUse() {
+        ControlTower fork = tower.fork();
+        ScenarioMutation.extraAircraft(ScenarioMutation.EXTRA_CALLSIGNS,
+                AircraftCharacteristics.AIRBUS_A320, ARRIVING).apply(fork, new Random(1));
+        assertEquals(ScenarioMutation.EXTRA_CALLSIGNS + 1, fork.getAircraft().size());
+
+        // every callsign is now taken; the mutation must fail rather than search forever
+        try {
+            ScenarioMutation.extraAircraft(1, AircraftCharacteristics.AIRBUS_A320, ARRIVING)
+                    .apply(fork, new Random(1));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            assertEquals(ScenarioMutation.EXTRA_CALLSIGNS + 1, fork.getAircraft().size());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void extraAircraftTooMany() {
+        ScenarioMutation.extraAircraft(ScenarioMutation.EXTRA_CALLSIGNS + 1,
+                AircraftCharacteristics.AIRBUS_A320, ARRIVING);
+    }
+
+    @Test
+    public void closeTerminalsSameSeed() {
+        ControlTower first = tower.fork();
+        ControlTower second = tower.fork();
+        ScenarioMutation.closeTerminals(2).apply(first, new Random(7));
+        ScenarioMutation.closeTerminals(2).apply(second, new Random(7));
+        assertEquals(2, closedTerminals(first).size());
+        assertEquals(closedTerminals(first), closedTerminals(second));
+        assertTrue(closedTerminals(tower).isEmpty());
+    }
+
+    @Test
+    public void loadPercent() {
+        ControlTower fork = tower.fork();
+        ScenarioMutation.loadPercent(80).apply(fork, new Random(0));
+        Aircraft aircraft = fork.getAircraft().get(0);
+        assertEquals("QFA001", aircraft.getCallsign());
+        assertEquals(TaskType.AWAY, aircraft.getTaskList().getCurrentTask().getType());
+        assertEquals("AWAY,LAND,LOAD@80,TAKEOFF", aircraft.getTaskList().encode());
+        assertEquals("AWAY,LAND,LOAD@30,TAKEOFF",
+                tower.getAircraft().get(0).getTaskList().encode());
+    }
+
+    @Test
+    public void loadPercentKeepsOrder() throws Exception {
+        List<Task> landing = List.of(new Task(TaskType.LAND), new Task(TaskType.LOAD, 30),
+                new Task(TaskType.TAKEOFF), new Task(TaskType.AWAY));
+        tower.addAircraft(new PassengerAircraft("QFA002", AircraftCharacteristics.AIRBUS_A320,
+                new TaskList(landing), AircraftCharacteristics.AIRBUS_A320.fuelCapacity, 0));
+        tower.addAircraft(new PassengerAircraft("QFA003", AircraftCharacteristics.AIRBUS_A320,
+                new TaskList(ARRIVING), AircraftCharacteristics.AIRBUS_A320.fuelCapacity, 0));
+        ControlTower fork = tower.fork();
+        ScenarioMutation.loadPercent(80).apply(fork, new Random(0));
+
+        List<String> callsigns = new ArrayList<>();
+        for (Aircraft aircraft : fork.getAircraft()) {
+            callsigns.add(aircraft.getCallsign());
+        }
+        assertEquals(List.of("QFA001", "QFA002", "QFA003"), callsigns);
+        assertEquals("AWAY,LAND,LOAD@80,TAKEOFF",
+                fork.getAircraft().get(2).getTaskList().encode());
+        // only AWAY aircraft are changed
+        assertEquals("LAND,LOAD@30,TAKEOFF,AWAY",
+                fork.getAircraft().get(1).getTaskList().encode());
+        assertEquals(fork.getLandingQueue().getAircraftInOrder(),
+                tower.getLandingQueue().getAircraftInOrder());
+    }
+}
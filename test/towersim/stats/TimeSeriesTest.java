@@ -0,0 +1,86 @@
+package towersim.stats;
+
+import org.junit.Test;
+import towersim.control.ControlTower;
+import towersim.control.LandingQueue;
+import towersim.control.TakeoffQueue;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+public class TimeSeriesTest {
+
+    @Test
+    public void downsamplesAndWrapsTest() {
+        TimeSeries series = new TimeSeries("test", 5, 4);
+        for (int i = 0; i < 1234; i++) {
+            series.add(i);
+        }
+        assertEquals(1239, series.getEndTick());
+
+        assertArrayEquals(new double[] {1230, 1231, 1232, 1233},
+                series.getPoints(TimeSeries.Resolution.RAW), 0);
+        assertEquals(1235, series.getStartTick(TimeSeries.Resolution.RAW));
+
+        // 123 complete groups of ten; the last four are kept
+        assertArrayEquals(new double[] {1194.5, 1204.5, 1214.5, 1224.5},
+                series.getPoints(TimeSeries.Resolution.TEN_TICKS), 0);
+        assertEquals(5 + 1190, series.getStartTick(TimeSeries.Resolution.TEN_TICKS));
+
+        // 12 complete groups of a hundred
+        assertArrayEquals(new double[] {849.5, 949.5, 1049.5, 1149.5},
+                series.getPoints(TimeSeries.Resolution.HUNDRED_TICKS), 1e-9);
+        assertEquals(5 + 800, series.getStartTick(TimeSeries.Resolution.HUNDRED_TICKS));
+    }
+
+    @Test
+    public void recorderWritesCsvTest() throws Exception {
+        ControlTower tower = new ControlTower(0, new ArrayList<>(), new LandingQueue(),
+                new TakeoffQueue(), new HashMap<>());
+        TimeSeriesRecorder recorder = new TimeSeriesRecorder(8);
+        tower.addTickListener(recorder);
+        tower.tick();
+        AirplaneTerminal terminal = new AirplaneTerminal(1);
+        terminal.addGate(new Gate(1));
+        tower.addTerminal(terminal);
+        tower.tick();
+
+        StringWriter csv = new StringWriter();
+        recorder.writeCsv(csv, TimeSeries.Resolution.RAW);
+        String[] lines = csv.toString().split("\\R");
+        assertEquals(3, lines.length);
+        assertEquals("tick,Landing queue,Takeoff queue,Loading,Emergencies,Low fuel landing,"
+                + "AirplaneTerminal 1 occupancy (%)", lines[0]);
+        assertEquals("1,0.0,0.0,0.0,0.0,0.0,", lines[1]);
+        assertEquals("2,0.0,0.0,0.0,0.0,0.0,0.0", lines[2]);
+    }
+
+    @Test
+    public void recorderDropsRemovedTerminalsTest() {
+        ControlTower tower = new ControlTower(0, new ArrayList<>(), new LandingQueue(),
+                new TakeoffQueue(), new HashMap<>());
+        TimeSeriesRecorder recorder = new TimeSeriesRecorder(8);
+        tower.addTickListener(recorder);
+        AirplaneTerminal terminal = new AirplaneTerminal(1);
+        tower.addTerminal(terminal);
+        tower.tick();
+        assertEquals(6, recorder.getSeries().size());
+
+        // every renamed or removed terminal would otherwise leave a series behind
+        for (int number = 2; number < 50; number++) {
+            tower.removeTerminal(terminal);
+            terminal = new AirplaneTerminal(number);
+            tower.addTerminal(terminal);
+            tower.tick();
+        }
+        List<TimeSeries> series = recorder.getSeries();
+        assertEquals(6, series.size());
+        assertEquals("AirplaneTerminal 49 occupancy (%)", series.get(5).getName());
+        assertEquals(tower.getTicksElapsed() + 1, series.get(5).getEndTick());
+    }
+}
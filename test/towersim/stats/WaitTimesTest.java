@@ -0,0 +1,79 @@
+package towersim.stats;
+
+import org.junit.Test;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.PassengerAircraft;
+import towersim.control.ControlTower;
+import towersim.control.LandingQueue;
+import towersim.control.TakeoffQueue;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+public class WaitTimesTest {
+
+    @Test
+    public void sketchEstimatesQuantilesTest() throws Exception {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 1; i <= 100_000; i++) {
+            sketch.add(i);
+        }
+        long[] quantiles = sketch.getQuantiles(0.5, 0.95, 0.99);
+        assertEquals(50_000, quantiles[0], 50_000 * 0.016);
+        assertEquals(95_000, quantiles[1], 95_000 * 0.016);
+        assertEquals(99_000, quantiles[2], 99_000 * 0.016);
+        assertEquals(100_000, sketch.getMax());
+        assertEquals(100_000, sketch.getQuantile(1));
+
+        QuantileSketch decoded = QuantileSketch.decode(sketch.encode());
+        assertEquals(sketch.encode(), decoded.encode());
+        assertArrayEquals(quantiles, decoded.getQuantiles(0.5, 0.95, 0.99));
+    }
+
+    @Test
+    public void towerRecordsWaitsTest() throws Exception {
+        ControlTower tower = new ControlTower(0, new ArrayList<>(), new LandingQueue(),
+                new TakeoffQueue(), new HashMap<>());
+        AirplaneTerminal terminal = new AirplaneTerminal(1);
+        terminal.addGate(new Gate(1));
+        tower.addTerminal(terminal);
+        Aircraft aircraft = new PassengerAircraft("WAIT01", AircraftCharacteristics.AIRBUS_A320,
+                new TaskList(List.of(new Task(TaskType.LAND), new Task(TaskType.LOAD, 0),
+                        new Task(TaskType.TAKEOFF), new Task(TaskType.AWAY))),
+                AircraftCharacteristics.AIRBUS_A320.fuelCapacity, 0);
+        tower.addAircraft(aircraft);
+        for (int i = 0; i < 10; i++) {
+            tower.tick();
+        }
+
+        // the task list repeats, so the aircraft lands three times and takes off twice
+        WaitTimes waitTimes = tower.getWaitTimes();
+        assertEquals(String.join(System.lineSeparator(),
+                "Waits:3",
+                "LANDING:AIRBUS_A320:PASSENGER:3:2:1=2,2=1",
+                "TAKEOFF:AIRBUS_A320:PASSENGER:2:1:1=2",
+                "GATE_DWELL:AIRBUS_A320:PASSENGER:2:1:1=2",
+                "Started:1",
+                "GATE_DWELL:WAIT01:AIRBUS_A320:10"), waitTimes.encode());
+        assertEquals(1, waitTimes.getWaits(WaitTimes.Phase.LANDING).getQuantile(0.5));
+        assertEquals(2, waitTimes.getWaits(WaitTimes.Phase.LANDING).getQuantile(0.99));
+        assertEquals(3, waitTimes.getWaits(WaitTimes.Phase.LANDING,
+                WaitTimes.Cargo.PASSENGER).getCount());
+        assertEquals(0, waitTimes.getWaits(WaitTimes.Phase.LANDING,
+                WaitTimes.Cargo.FREIGHT).getCount());
+        assertEquals(List.of(AircraftCharacteristics.AIRBUS_A320),
+                waitTimes.getCharacteristicsWithWaits(WaitTimes.Phase.TAKEOFF));
+
+        WaitTimes loaded = new WaitTimes();
+        loaded.load(waitTimes.encode(), List.of(aircraft));
+        assertEquals(waitTimes.encode(), loaded.encode());
+    }
+}
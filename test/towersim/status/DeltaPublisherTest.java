@@ -0,0 +1,127 @@
+package towersim.status;
+
+import org.junit.Before;
+import org.junit.Test;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.PassengerAircraft;
+import towersim.control.ControlTower;
+import towersim.control.LandingQueue;
+import towersim.control.TakeoffQueue;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+public class DeltaPublisherTest {
+
+    private ControlTower tower;
+
+    private DeltaPublisher publisher;
+
+    /* Subscriber recording every delta it receives, requesting only when asked to */
+    private static class Recorder implements Flow.Subscriber<TowerDelta> {
+
+        private final List<TowerDelta> received = new ArrayList<>();
+
+        private Flow.Subscription subscription;
+
+        private boolean completed = false;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(TowerDelta item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            fail(throwable.toString());
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    @Before
+    public void setup() throws Exception {
+        this.tower = new ControlTower(0, new ArrayList<>(), new LandingQueue(),
+                new TakeoffQueue(), new HashMap<>());
+        Terminal terminal = new AirplaneTerminal(1);
+        terminal.addGate(new Gate(7));
+        this.tower.addTerminal(terminal);
+        this.tower.addAircraft(new PassengerAircraft("ABC001",
+                AircraftCharacteristics.AIRBUS_A320,
+                new TaskList(List.of(new Task(TaskType.LAND), new Task(TaskType.LOAD, 3),
+                        new Task(TaskType.TAKEOFF), new Task(TaskType.AWAY))),
+                AircraftCharacteristics.AIRBUS_A320.fuelCapacity, 0));
+        this.tower.addAircraft(new PassengerAircraft("ABC002",
+                AircraftCharacteristics.AIRBUS_A320,
+                new TaskList(List.of(new Task(TaskType.AWAY), new Task(TaskType.LAND),
+                        new Task(TaskType.LOAD, 3), new Task(TaskType.TAKEOFF))),
+                AircraftCharacteristics.AIRBUS_A320.fuelCapacity, 0));
+        // delivers on the ticking thread so the test sees every delta as soon as it is offered
+        this.publisher = DeltaPublisher.start(tower, Runnable::run, 3);
+    }
+
+    @Test
+    public void publishesChangesTest() {
+        Recorder recorder = new Recorder();
+        publisher.subscribe(recorder);
+        recorder.subscription.request(Long.MAX_VALUE);
+        tower.tick();
+        tower.tick();
+
+        TowerDelta first = recorder.received.get(0);
+        assertTrue(first.isFull());
+        assertEquals(2, first.getChanged().size());
+
+        // on the second tick ABC001 lands at gate 7, and ABC002, which burnt fuel while away,
+        // moves up the landing queue
+        TowerDelta second = recorder.received.get(1);
+        assertFalse(second.isFull());
+        assertEquals(2, second.getTicksElapsed());
+        assertEquals(List.of(
+                new TowerDelta.AircraftState("ABC001", TaskType.LOAD, 100, 0, 7,
+                        TowerDelta.Queue.NONE, -1),
+                new TowerDelta.AircraftState("ABC002", TaskType.LAND, 99, 0, -1,
+                        TowerDelta.Queue.LANDING, 0)), second.getChanged());
+        assertEquals(List.of(), second.getRemoved());
+
+        publisher.close();
+        assertTrue(recorder.completed);
+    }
+
+    @Test
+    public void slowSubscriberSkipsToFullStateTest() {
+        Recorder recorder = new Recorder();
+        publisher.subscribe(recorder);
+        recorder.subscription.request(1);
+        for (int i = 0; i < 10; i++) {
+            tower.tick();
+        }
+        assertEquals(1, recorder.received.size());
+
+        // the backlog of three filled up twice, each time replaced by the latest full state
+        recorder.subscription.request(Long.MAX_VALUE);
+        assertEquals(4, recorder.received.size());
+        assertTrue(recorder.received.get(1).isFull());
+        assertEquals(8, recorder.received.get(1).getTicksElapsed());
+        assertFalse(recorder.received.get(2).isFull());
+        assertFalse(recorder.received.get(3).isFull());
+        assertEquals(10, recorder.received.get(3).getTicksElapsed());
+    }
+}
@@ -0,0 +1,53 @@
+package towersim.status;
+
+import org.junit.Test;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.PassengerAircraft;
+import towersim.control.ControlTower;
+import towersim.control.LandingQueue;
+import towersim.control.TakeoffQueue;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+public class QueuePositionsTest {
+
+    /* Returns a new aircraft whose current task is the given one */
+    private static Aircraft aircraft(String callsign, TaskType current) {
+        TaskList tasks = new TaskList(List.of(new Task(TaskType.AWAY), new Task(TaskType.LAND),
+                new Task(TaskType.LOAD, 0), new Task(TaskType.TAKEOFF)));
+        while (tasks.getCurrentTask().getType() != current) {
+            tasks.moveToNextTask();
+        }
+        return new PassengerAircraft(callsign, AircraftCharacteristics.AIRBUS_A320, tasks,
+                AircraftCharacteristics.AIRBUS_A320.fuelCapacity, 0);
+    }
+
+    @Test
+    public void queueAndPositionTest() throws Exception {
+        ControlTower tower = new ControlTower(0, new ArrayList<>(), new LandingQueue(),
+                new TakeoffQueue(), new HashMap<>());
+        Aircraft away = aircraft("AWY001", TaskType.AWAY);
+        Aircraft firstLanding = aircraft("LND001", TaskType.LAND);
+        Aircraft secondLanding = aircraft("LND002", TaskType.LAND);
+        Aircraft takingOff = aircraft("TKO001", TaskType.TAKEOFF);
+        for (Aircraft aircraft : List.of(away, firstLanding, secondLanding, takingOff)) {
+            tower.addAircraft(aircraft);
+        }
+
+        QueuePositions queues = QueuePositions.of(tower);
+        assertEquals(TowerDelta.Queue.NONE, queues.queueOf(away));
+        assertEquals(-1, queues.positionOf(away));
+        assertEquals(TowerDelta.Queue.LANDING, queues.queueOf(secondLanding));
+        assertEquals(tower.getLandingQueue().getAircraftInOrder().indexOf(secondLanding),
+                queues.positionOf(secondLanding));
+        assertEquals(TowerDelta.Queue.TAKEOFF, queues.queueOf(takingOff));
+        assertEquals(0, queues.positionOf(takingOff));
+    }
+}
@@ -0,0 +1,107 @@
+package towersim.status;
+
+import org.junit.Before;
+import org.junit.Test;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.PassengerAircraft;
+import towersim.control.ControlTower;
+import towersim.control.LandingQueue;
+import towersim.control.TakeoffQueue;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+public class TowerSnapshotTest {
+
+    private ControlTower tower;
+
+    @Before
+    public void setup() throws Exception {
+        this.tower = new ControlTower(0, new ArrayList<>(), new LandingQueue(),
+                new TakeoffQueue(), new HashMap<>());
+        Terminal terminal = new AirplaneTerminal(1);
+        terminal.addGate(new Gate(7));
+        this.tower.addTerminal(terminal);
+        this.tower.addAircraft(new PassengerAircraft("ABC001",
+                AircraftCharacteristics.AIRBUS_A320,
+                new TaskList(List.of(new Task(TaskType.WAIT), new Task(TaskType.LOAD, 50),
+                        new Task(TaskType.TAKEOFF), new Task(TaskType.AWAY),
+                        new Task(TaskType.LAND))),
+                1000, 0));
+        this.tower.addAircraft(new PassengerAircraft("ABC\"002",
+                AircraftCharacteristics.AIRBUS_A320,
+                new TaskList(List.of(new Task(TaskType.LAND), new Task(TaskType.LOAD, 50),
+                        new Task(TaskType.TAKEOFF), new Task(TaskType.AWAY))),
+                1000, 10));
+    }
+
+    private static String text(byte[] json) {
+        return new String(json, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void statusJsonTest() {
+        TowerSnapshot snapshot = TowerSnapshot.capture(tower);
+        assertEquals("{\"tick\":0,\"aircraft\":2,\"landing\":1,\"takeoff\":0,\"loading\":0,"
+                + "\"terminals\":1,\"gates\":1,\"occupiedGates\":1}",
+                text(snapshot.statusJson()));
+    }
+
+    @Test
+    public void aircraftJsonTest() {
+        TowerSnapshot snapshot = TowerSnapshot.capture(tower);
+        String json = text(snapshot.aircraftJson("ABC001"));
+        assertTrue(json.contains("\"callsign\":\"ABC001\""));
+        assertTrue(json.contains("\"currentTask\":\"WAIT\""));
+        assertTrue(json.contains("\"gate\":7"));
+        assertNull(snapshot.aircraftJson("XYZ999"));
+        assertTrue(text(snapshot.queuesJson()).contains("\"landing\":[\"ABC\\\"002\"]"));
+    }
+
+    @Test
+    public void snapshotIsUnaffectedByLaterTicksTest() {
+        TowerSnapshot snapshot = TowerSnapshot.capture(tower);
+        Aircraft waiting = tower.getAircraft().get(0);
+        tower.tick();
+        tower.tick();
+        assertEquals(TaskType.LOAD, waiting.getTaskList().getCurrentTask().getType());
+        assertEquals("WAIT", snapshot.getAircraft("ABC001").getCurrentTask());
+        assertEquals(0, snapshot.getTick());
+        assertSame(snapshot.terminalsJson(), snapshot.terminalsJson());
+    }
+
+    @Test
+    public void publisherPublishesEachTickTest() {
+        SnapshotPublisher publisher = SnapshotPublisher.start(tower);
+        assertEquals(0, publisher.getLatest().getTick());
+        tower.tick();
+        assertEquals(1, publisher.getLatest().getTick());
+    }
+
+    @Test
+    public void publisherPublishesCommandsBetweenTicksTest() {
+        SnapshotPublisher publisher = SnapshotPublisher.start(tower);
+        tower.getMailbox().submit(commandTower -> {
+            commandTower.addAircraft(new PassengerAircraft("XYZ003",
+                    AircraftCharacteristics.AIRBUS_A320,
+                    new TaskList(List.of(new Task(TaskType.AWAY), new Task(TaskType.LAND),
+                            new Task(TaskType.LOAD, 50), new Task(TaskType.TAKEOFF))),
+                    1000, 0));
+            return null;
+        });
+        assertNull(publisher.getLatest().getAircraft("XYZ003"));
+        assertEquals(1, tower.processCommands());
+        assertEquals(0, publisher.getLatest().getTick());
+        assertEquals("AWAY", publisher.getLatest().getAircraft("XYZ003").getCurrentTask());
+    }
+}
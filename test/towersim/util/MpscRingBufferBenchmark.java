@@ -0,0 +1,106 @@
+package towersim.util;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Measures throughput and latency of {@link MpscRingBuffer} under many concurrent producers,
+ * compared with a {@link ConcurrentLinkedQueue}.
+ * <p>
+ * Usage: {@code [producers] [elementsPerProducer]}; defaults to 8 producers of 1,000,000
+ * elements each. Latency is the time from an element being offered to it being drained.
+ */
+public class MpscRingBufferBenchmark {
+
+    /** Number of latency samples kept per run */
+    private static final int SAMPLES = 1 << 16;
+
+    private MpscRingBufferBenchmark() {}
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args command line arguments
+     * @throws InterruptedException if interrupted while waiting for producers
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int producers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int perProducer = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        for (int round = 0; round < 3; round++) {
+            MpscRingBuffer<long[]> ring = new MpscRingBuffer<>(1 << 14);
+            run("MpscRingBuffer", producers, perProducer, ring::offer, ring::drain);
+            Queue<long[]> queue = new ConcurrentLinkedQueue<>();
+            run("ConcurrentLinkedQueue", producers, perProducer, queue::offer, action -> {
+                int drained = 0;
+                for (long[] element = queue.poll(); element != null; element = queue.poll()) {
+                    action.accept(element);
+                    drained++;
+                }
+                return drained;
+            });
+        }
+    }
+
+    /** Drains elements into an action, returning how many were drained */
+    private interface Drain {
+        int drain(Consumer<long[]> action);
+    }
+
+    /* Runs one measurement and prints throughput and latency percentiles */
+    private static void run(String name, int producers, int perProducer,
+                            Predicate<long[]> offer, Drain drain) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            threads[p] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    long[] element = {System.nanoTime()};
+                    while (!offer.test(element)) {
+                        // full; let the consumer catch up
+                        Thread.yield();
+                        element[0] = System.nanoTime();
+                    }
+                }
+            });
+            threads[p].start();
+        }
+
+        long total = (long) producers * perProducer;
+        long[] latencies = new long[SAMPLES];
+        long sampleEvery = Math.max(1, total / SAMPLES);
+        long[] received = {0};
+        long begin = System.nanoTime();
+        start.countDown();
+        while (received[0] < total) {
+            int drained = drain.drain(element -> {
+                long count = received[0]++;
+                if (count % sampleEvery == 0 && count / sampleEvery < SAMPLES) {
+                    latencies[(int) (count / sampleEvery)] = System.nanoTime() - element[0];
+                }
+            });
+            if (drained == 0) {
+                Thread.yield();
+            }
+        }
+        long elapsed = System.nanoTime() - begin;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Arrays.sort(latencies);
+        System.out.printf("%-22s %d producers: %6.1f M/s, latency p50 %6d ns, p99 %8d ns,"
+                        + " p99.9 %9d ns%n",
+                name, producers, total * 1e3 / elapsed,
+                latencies[SAMPLES / 2], latencies[SAMPLES * 99 / 100],
+                latencies[SAMPLES * 999 / 1000]);
+    }
+}
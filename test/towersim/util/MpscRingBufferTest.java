@@ -0,0 +1,100 @@
+package towersim.util;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+public class MpscRingBufferTest {
+
+    @Test
+    public void capacityRoundedToPowerOfTwoTest() {
+        assertEquals(1, new MpscRingBuffer<String>(1).capacity());
+        assertEquals(8, new MpscRingBuffer<String>(8).capacity());
+        assertEquals(16, new MpscRingBuffer<String>(9).capacity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidCapacityTest() {
+        new MpscRingBuffer<String>(0);
+    }
+
+    @Test
+    public void offerAndPollInOrderTest() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        assertNull(buffer.poll());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(Integer.valueOf(i), buffer.poll());
+        }
+        assertNull(buffer.poll());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void drainWrapsAroundTest() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+        for (int lap = 0; lap < 10; lap++) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(buffer.offer(lap * 3 + i));
+            }
+            assertEquals(2, buffer.drain(drained::add, 2));
+            assertEquals(1, buffer.drain(drained::add));
+        }
+        assertEquals(30, drained.size());
+        for (int i = 0; i < 30; i++) {
+            assertEquals(Integer.valueOf(i), drained.get(i));
+        }
+    }
+
+    @Test
+    public void concurrentProducersLoseNothingTest() throws Exception {
+        int producers = 8;
+        int perProducer = 20000;
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(256);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    long[] element = {producer, i};
+                    while (!buffer.offer(element)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+
+        int[] nextExpected = new int[producers];
+        int received = 0;
+        while (received < producers * perProducer) {
+            received += buffer.drain(element -> {
+                // each producer's elements arrive in the order it offered them
+                assertEquals(nextExpected[(int) element[0]]++, element[1]);
+            });
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(buffer.poll());
+        for (int count : nextExpected) {
+            assertEquals(perProducer, count);
+        }
+    }
+}